@@ -0,0 +1,129 @@
+package app.paralelafinal.escenario1.simulation;
+
+import app.paralelafinal.comun.SpawnRequest;
+import app.paralelafinal.escenario1.controladores.TrafficController;
+import app.paralelafinal.escenario1.entidades.Intersection;
+import app.paralelafinal.escenario1.entidades.Vehicle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caminos calientes del Escenario 1: el movimiento de todos los vehículos en un tick y la
+ * autorización que el controlador da a cada uno. {@code vehicles} vehículos se reparten entre
+ * los cuatro accesos (North, South, East, West) con todas las direcciones.
+ *
+ * El movimiento vive en {@link SimulationKernel} (el motor de JavaFX solo lo conduce) y es
+ * package-private, por eso el benchmark está en el mismo paquete. Antes de medir, el controlador
+ * avanza hasta su primer ciclo para que haya un semáforo en verde y los vehículos se muevan.
+ * Los vehículos que cruzan salen de la simulación, así que el tick no se mide en bucle: cada
+ * iteración arma un mundo nuevo ({@link Tick}) y mide una sola invocación con {@value #TICKS}
+ * ticks seguidos, reportando el tiempo por tick, igual que el paso del Escenario 2.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimulationKernelBenchmark {
+
+    private static final String[] APPROACHES = {"North", "South", "East", "West"};
+    private static final String[] DIRECTIONS = {"straight", "right", "left", "u-turn"};
+    // Retardo inicial del ciclo de control (3 s en startControl)
+    private static final long FIRST_CYCLE_MS = 3000;
+
+    // Ticks por invocación: a 1 px por tick ningún vehículo alcanza a salir de la escena
+    static final int TICKS = 50;
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int vehicles;
+
+    private SimulationKernel kernel;
+    private TrafficController controller;
+    private Vehicle[] queued;
+    private int next;
+
+    /**
+     * Mundo que se vuelve a armar antes de cada iteración, para que todas partan de la misma población.
+     */
+    @State(Scope.Thread)
+    public static class Tick {
+        private SimulationKernel kernel;
+
+        @Setup(Level.Iteration)
+        public void setUp(SimulationKernelBenchmark benchmark) {
+            kernel = newWorld(benchmark.vehicles);
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() {
+            kernel.releaseVehicles();
+        }
+    }
+
+    // Arma el mundo y avanza el controlador hasta su primer ciclo, que pone un semáforo en verde
+    private static SimulationKernel newWorld(int vehicles) {
+        SimulationKernel kernel = new SimulationKernel();
+        List<SpawnRequest> batch = new ArrayList<>(vehicles);
+        for (int i = 0; i < vehicles; i++) {
+            batch.add(new SpawnRequest(i % 100 == 0 ? "emergency" : "normal",
+                    DIRECTIONS[(i / APPROACHES.length) % DIRECTIONS.length], APPROACHES[i % APPROACHES.length]));
+        }
+        kernel.addVehicles(batch);
+        kernel.getTrafficController().advance(FIRST_CYCLE_MS);
+        return kernel;
+    }
+
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        kernel = newWorld(vehicles);
+        controller = kernel.getTrafficController();
+
+        List<Vehicle> all = new ArrayList<>(vehicles);
+        for (Intersection intersection : kernel.getIntersections()) {
+            all.addAll(intersection.getVehicleQueue());
+        }
+        queued = all.toArray(new Vehicle[0]);
+        next = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        kernel.releaseVehicles();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 20)
+    @OperationsPerInvocation(TICKS)
+    public long updateVehiclePositions(Tick tick) {
+        SimulationKernel kernel = tick.kernel;
+        for (int i = 0; i < TICKS; i++) {
+            kernel.updateVehiclePositions();
+        }
+        return kernel.getTickCount();
+    }
+
+    @Benchmark
+    public boolean isVehicleAuthorizedToMove() {
+        return controller.isVehicleAuthorizedToMove(queued[next++ % queued.length]);
+    }
+}
@@ -0,0 +1,162 @@
+package app.paralelafinal.escenario2.controladores;
+
+import app.paralelafinal.comun.SpawnRequest;
+import app.paralelafinal.escenario2.entidades.Intersection;
+import app.paralelafinal.escenario2.entidades.Maneuver;
+import app.paralelafinal.escenario2.entidades.Vehicle;
+import app.paralelafinal.escenario2.simulation.SimulationEngine2;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caminos calientes del controlador del Escenario 2: un paso completo de la simulación y las dos
+ * comprobaciones que se hacen por vehículo dentro de él. La red es la de siempre (East1-3/West1-3)
+ * con {@code vehicles} vehículos generados en East1 y West1, repartidos entre todas las maniobras.
+ *
+ * El paso mueve vehículos y los saca de la red, así que no tiene un estado estable que medir en
+ * bucle: cada iteración arma un mundo nuevo ({@link Step}) y mide una sola invocación con
+ * {@value #STEPS} pasos seguidos, reportando el tiempo por paso. Rearmar el mundo en cada
+ * invocación ({@code Level.Invocation}) metía el costo de setup y del timer en pasos de
+ * microsegundos y distorsionaba los conteos chicos. Las comprobaciones por vehículo no cambian el
+ * mundo, así que para ellas basta uno por iteración y se miden en bucle.
+ * Los métodos medidos son package-private, por eso el benchmark vive en el mismo paquete que el
+ * controlador.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TrafficControllerBenchmark {
+
+    private static final String[] DIRECTIONS = {
+            "straight", "right", "left", "u-turn", "u-turn-second",
+            "left-north-first", "left-south-second", "right-north-second", "right-south-first"
+    };
+
+    // Pasos por invocación: a 8 px por paso ningún vehículo alcanza a salir de la red
+    static final int STEPS = 50;
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int vehicles;
+
+    private TrafficController controller;
+    private Vehicle[] queued;
+    private Vehicle[] specialTurns;
+    private final List<Vehicle> nearby = new ArrayList<>();
+    private int nextQueued;
+    private int nextSpecial;
+
+    /**
+     * Mundo que se vuelve a armar antes de cada iteración, para que todas partan de la misma población.
+     */
+    @State(Scope.Thread)
+    public static class Step {
+        private TrafficController controller;
+
+        @Setup(Level.Iteration)
+        public void setUp(TrafficControllerBenchmark benchmark) {
+            controller = newWorld(benchmark.vehicles);
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() {
+            controller.stopControl(); // Libera también los vehículos que quedan
+        }
+    }
+
+    private static TrafficController newWorld(int vehicles) {
+        SimulationEngine2 engine = new SimulationEngine2(SimulationClock.manual());
+        TrafficController controller = engine.getTrafficController();
+        List<SpawnRequest> batch = new ArrayList<>(vehicles);
+        for (int i = 0; i < vehicles; i++) {
+            batch.add(new SpawnRequest(i % 100 == 0 ? "emergency" : "normal",
+                    DIRECTIONS[i % DIRECTIONS.length], i % 2 == 0 ? "East1" : "West1"));
+        }
+        engine.addVehicles(batch);
+        // Con el reloj manual solo inicializa los semáforos y programa las tareas; el tiempo no avanza
+        controller.startControl();
+        return controller;
+    }
+
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        controller = newWorld(vehicles);
+
+        List<Vehicle> all = new ArrayList<>();
+        List<Vehicle> special = new ArrayList<>();
+        for (Intersection intersection : controller.getIntersections()) {
+            collect(intersection, all);
+        }
+        for (Vehicle v : all) {
+            if (v.getManeuver().isSpecialTurn()) {
+                special.add(v);
+            }
+        }
+        queued = all.toArray(new Vehicle[0]);
+        specialTurns = special.toArray(new Vehicle[0]);
+        nextQueued = 0;
+        nextSpecial = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        controller.stopControl(); // Libera también los vehículos que quedan
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 20)
+    @OperationsPerInvocation(STEPS)
+    public int stepVehicles(Step step) {
+        TrafficController controller = step.controller;
+        for (int i = 0; i < STEPS; i++) {
+            controller.stepVehicles();
+        }
+        return controller.getSpatialGrid().size();
+    }
+
+    @Benchmark
+    public boolean canMoveWithoutCollision() {
+        Vehicle v = queued[nextQueued++ % queued.length];
+        Intersection intersection = v.getQueuedIntersection();
+        if (intersection == null) {
+            return false; // Ya salió de la red
+        }
+        boolean westbound = controller.getTopology().isWestbound(intersection.getNodeId());
+        return controller.canMoveWithoutCollision(v, intersection, westbound, nearby);
+    }
+
+    @Benchmark
+    public boolean checkNorthSouthPriority() {
+        Vehicle v = specialTurns[nextSpecial++ % specialTurns.length];
+        Maneuver maneuver = v.getManeuver();
+        return controller.checkNorthSouthPriority(v, v.getQueuedIntersection(), maneuver);
+    }
+
+    private static void collect(Intersection intersection, List<Vehicle> out) {
+        out.addAll(intersection.getRightVQueue());
+        out.addAll(intersection.getMidVQueue());
+        out.addAll(intersection.getLeftVQueue());
+        out.addAll(intersection.getUTurnVQueue());
+    }
+}
@@ -1,8 +1,12 @@
 package app.paralelafinal;
 
 import app.paralelafinal.config.SimulationConfig;
+import app.paralelafinal.escenario1.simulation.RenderMode;
 import app.paralelafinal.escenario1.simulation.SimulationEngine;
 import app.paralelafinal.escenario1.simulation.SimulationPane;
+import app.paralelafinal.escenario2.controladores.ExecutionMode;
+import app.paralelafinal.escenario2.entidades.RoadNetwork;
+import app.paralelafinal.escenario2.entidades.RoadNetworkLoader;
 import app.paralelafinal.escenario2.simulation.SimulationPane2;
 import javafx.application.Application;
 import javafx.geometry.Insets;
@@ -15,6 +19,9 @@ import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.stage.Stage;
 
+import java.io.IOException;
+import java.nio.file.Path;
+
 /**
  * The main entry point for the traffic simulation application.
  * This class initializes the simulation engine and the user interface,
@@ -23,13 +30,56 @@ import javafx.stage.Stage;
 public class CrossroadsApp extends Application {
 
     private Stage primaryStage;
+    private RenderMode renderMode = RenderMode.NODES;
+    private ExecutionMode executionMode = ExecutionMode.FORK_JOIN;
+    private Path networkFile;
 
     @Override
     public void start(Stage primaryStage) {
         this.primaryStage = primaryStage;
+        this.renderMode = resolveRenderMode();
+        this.executionMode = resolveExecutionMode();
+        this.networkFile = resolveNetworkFile();
         showMainMenu();
     }
 
+    /**
+     * Reads the Scenario 1 renderer from --renderer=nodes|canvas, falling back to -Drenderer=...
+     */
+    private RenderMode resolveRenderMode() {
+        String value = getParameters() != null ? getParameters().getNamed().get(RenderMode.PARAMETER) : null;
+        if (value == null) {
+            value = System.getProperty(RenderMode.PARAMETER);
+        }
+        return RenderMode.fromString(value);
+    }
+
+    /**
+     * Reads the Scenario 2 execution mode from --execution=fork_join|actors, falling back to -Dexecution=...
+     */
+    private ExecutionMode resolveExecutionMode() {
+        String value = getParameters() != null ? getParameters().getNamed().get(ExecutionMode.PARAMETER) : null;
+        if (value == null) {
+            value = System.getProperty(ExecutionMode.PARAMETER);
+        }
+        return ExecutionMode.fromString(value);
+    }
+
+    /**
+     * Reads the Scenario 2 network definition file from --network=path, falling back to -Dnetwork=...
+     */
+    private Path resolveNetworkFile() {
+        String value = getParameters() != null ? getParameters().getNamed().get(RoadNetworkLoader.PARAMETER) : null;
+        if (value == null) {
+            value = System.getProperty(RoadNetworkLoader.PARAMETER);
+        }
+        return value == null || value.isBlank() ? null : Path.of(value);
+    }
+
+    private RoadNetwork loadNetwork() throws IOException {
+        return networkFile == null ? RoadNetwork.defaultNetwork() : RoadNetworkLoader.load(networkFile);
+    }
+
     /**
      * Shows the main menu with options to choose between scenarios
      */
@@ -164,7 +214,7 @@ public class CrossroadsApp extends Application {
             // Create a new stage for scenario 1
             Stage scenario1Stage = new Stage();
             SimulationEngine simulationEngine = new SimulationEngine();
-            SimulationPane simulationPane = new SimulationPane(simulationEngine);
+            SimulationPane simulationPane = new SimulationPane(simulationEngine, renderMode);
             Scene scene = new Scene(simulationPane.getRoot(), SimulationConfig.SCENE_WIDTH, SimulationConfig.SCENE_HEIGHT);
 
             scenario1Stage.setTitle("Crossroads Traffic Simulation");
@@ -197,7 +247,7 @@ public class CrossroadsApp extends Application {
 
             // Create a new stage for scenario 2
             Stage scenario2Stage = new Stage();
-            SimulationPane2 roadGridApp = new SimulationPane2();
+            SimulationPane2 roadGridApp = new SimulationPane2(executionMode, loadNetwork());
             roadGridApp.start(scenario2Stage);
 
             // Handle closing
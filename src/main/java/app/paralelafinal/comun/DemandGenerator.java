@@ -0,0 +1,169 @@
+package app.paralelafinal.comun;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+/**
+ * Generador de demanda reproducible: cada flujo (un acceso y un movimiento, por ejemplo
+ * "North"/"left" o "East1"/"u-turn") tiene su propio proceso de llegadas y su propio
+ * {@link SplittableRandom}, derivado de la semilla raíz en el orden en que se declaró.
+ * Con la misma semilla y los mismos flujos, la secuencia de llegadas es siempre la misma,
+ * y agregar un flujo al final no cambia las llegadas de los anteriores.
+ *
+ * Los tiempos son de simulación, en milisegundos. {@link #drainUntil} entrega de una vez todas
+ * las llegadas vencidas en orden de tiempo, así que el llamador puede generarlas en lote
+ * aunque la tasa sea de miles de vehículos por segundo simulado. No es seguro entre hilos:
+ * debe usarlo solo el hilo que avanza la simulación.
+ */
+public final class DemandGenerator {
+
+    /**
+     * Tiempo entre llegadas consecutivas de un flujo, en milisegundos de simulación.
+     */
+    @FunctionalInterface
+    public interface ArrivalProcess {
+        double nextGapMillis(SplittableRandom random);
+
+        /** Llegadas de Poisson: tiempos entre llegadas exponenciales con media 1/tasa. */
+        static ArrivalProcess poisson(double perSecond) {
+            if (perSecond <= 0) {
+                throw new IllegalArgumentException("Invalid arrival rate: " + perSecond);
+            }
+            double meanMillis = 1000.0 / perSecond;
+            return random -> -Math.log(1.0 - random.nextDouble()) * meanMillis;
+        }
+
+        /** Llegadas a intervalos fijos. */
+        static ArrivalProcess uniform(double perSecond) {
+            if (perSecond <= 0) {
+                throw new IllegalArgumentException("Invalid arrival rate: " + perSecond);
+            }
+            double gapMillis = 1000.0 / perSecond;
+            return random -> gapMillis;
+        }
+    }
+
+    /**
+     * Un vehículo que debe generarse en {@code atMillis} de tiempo simulado.
+     */
+    public record Arrival(long atMillis, String approach, String movement, boolean emergency) {
+        public String type() {
+            return emergency ? "emergency" : "normal";
+        }
+
+        public SpawnRequest toSpawnRequest() {
+            return new SpawnRequest(type(), movement, approach);
+        }
+    }
+
+    private static final class Flow {
+        final String approach;
+        final String movement;
+        final ArrivalProcess process;
+        final double emergencyShare;
+        final SplittableRandom random;
+        final int order;
+        double nextAtMillis;
+
+        Flow(int order, String approach, String movement, ArrivalProcess process, double emergencyShare, SplittableRandom random) {
+            this.order = order;
+            this.approach = approach;
+            this.movement = movement;
+            this.process = process;
+            this.emergencyShare = emergencyShare;
+            this.random = random;
+            this.nextAtMillis = process.nextGapMillis(random);
+        }
+    }
+
+    // Próxima llegada de cada flujo; a igual tiempo gana el flujo declarado primero
+    private final PriorityQueue<Flow> pending;
+    private final long seed;
+    private long generated = 0;
+
+    private DemandGenerator(long seed, List<Flow> flows) {
+        this.seed = seed;
+        this.pending = new PriorityQueue<>(Math.max(1, flows.size()), (a, b) -> {
+            int byTime = Double.compare(a.nextAtMillis, b.nextAtMillis);
+            return byTime != 0 ? byTime : Integer.compare(a.order, b.order);
+        });
+        pending.addAll(flows);
+    }
+
+    /**
+     * Entrega, en orden de tiempo, todas las llegadas con tiempo menor o igual a {@code simMillis}.
+     *
+     * @return cuántas llegadas se entregaron.
+     */
+    public int drainUntil(long simMillis, Consumer<Arrival> sink) {
+        int count = 0;
+        Flow flow;
+        while ((flow = pending.peek()) != null && flow.nextAtMillis <= simMillis) {
+            pending.poll();
+            boolean emergency = flow.emergencyShare > 0 && flow.random.nextDouble() < flow.emergencyShare;
+            sink.accept(new Arrival((long) flow.nextAtMillis, flow.approach, flow.movement, emergency));
+            flow.nextAtMillis += flow.process.nextGapMillis(flow.random);
+            pending.add(flow);
+            count++;
+        }
+        generated += count;
+        return count;
+    }
+
+    /**
+     * @return las llegadas hasta {@code simMillis}, como lista nueva.
+     */
+    public List<Arrival> arrivalsUntil(long simMillis) {
+        List<Arrival> arrivals = new ArrayList<>();
+        drainUntil(simMillis, arrivals::add);
+        return arrivals;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public long getGenerated() {
+        return generated;
+    }
+
+    public static Builder builder(long seed) {
+        return new Builder(seed);
+    }
+
+    public static final class Builder {
+        private final long seed;
+        private final SplittableRandom root;
+        private final List<Flow> flows = new ArrayList<>();
+
+        private Builder(long seed) {
+            this.seed = seed;
+            this.root = new SplittableRandom(seed);
+        }
+
+        /**
+         * Declara un flujo sin emergencias.
+         */
+        public Builder flow(String approach, String movement, ArrivalProcess process) {
+            return flow(approach, movement, process, 0);
+        }
+
+        /**
+         * @param emergencyShare probabilidad, entre 0 y 1, de que cada llegada sea de emergencia.
+         */
+        public Builder flow(String approach, String movement, ArrivalProcess process, double emergencyShare) {
+            if (emergencyShare < 0 || emergencyShare > 1) {
+                throw new IllegalArgumentException("Invalid emergency share: " + emergencyShare);
+            }
+            flows.add(new Flow(flows.size(), approach, movement, process, emergencyShare, root.split()));
+            return this;
+        }
+
+        public DemandGenerator build() {
+            return new DemandGenerator(seed, new ArrayList<>(flows));
+        }
+    }
+}
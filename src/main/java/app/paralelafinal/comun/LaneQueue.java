@@ -0,0 +1,238 @@
+package app.paralelafinal.comun;
+
+import java.util.AbstractQueue;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cola de un carril, ordenada por llegada: una lista doblemente enlazada con un índice
+ * elemento → nodo.
+ *
+ * Los vehículos llegan casi siempre en orden, así que insertar recorre desde la cola solo
+ * los pocos nodos más nuevos que el recién llegado (O(1) en la práctica). Quitar la cabeza,
+ * quitar un vehículo de en medio (los que giran y salen del carril) y consultar quién va
+ * delante o detrás son O(1). A diferencia de {@code PriorityBlockingQueue}, el iterador
+ * recorre los elementos en orden, de la cabeza a la cola; a igual orden, gana el que entró
+ * antes.
+ *
+ * Las modificaciones están sincronizadas y pensadas para un único escritor (el hilo que
+ * tiene el candado de la intersección). Los lectores no toman ningún candado: el iterador
+ * es débilmente consistente, nunca falla si la cola cambia mientras recorre, y puede
+ * seguir avanzando aunque el vehículo en el que está haya sido retirado. Por eso la
+ * simulación puede quitar vehículos de la cola mientras la itera.
+ *
+ * No admite null ni el mismo elemento dos veces; la igualdad es la de {@code equals}.
+ */
+public final class LaneQueue<E> extends AbstractQueue<E> {
+
+    private static final class Node<E> {
+        final E item;
+        volatile Node<E> next;
+        volatile Node<E> prev;
+        volatile boolean removed;
+
+        Node(E item) {
+            this.item = item;
+        }
+    }
+
+    private final Comparator<? super E> order;
+    private final Map<E, Node<E>> nodes = new ConcurrentHashMap<>();
+    // Centinela: head.next es la cabeza real; un nodo retirado conserva su next para los lectores
+    private final Node<E> head = new Node<>(null);
+    private volatile Node<E> tail = head;
+    private volatile int size;
+
+    public LaneQueue(Comparator<? super E> order) {
+        this.order = order;
+    }
+
+    /**
+     * Inserta el elemento en su posición de llegada.
+     *
+     * @return false si ya estaba en la cola.
+     */
+    @Override
+    public synchronized boolean offer(E e) {
+        if (e == null) {
+            throw new NullPointerException();
+        }
+        if (nodes.containsKey(e)) {
+            return false;
+        }
+        Node<E> p = tail;
+        while (p != head && order.compare(e, p.item) < 0) {
+            p = p.prev;
+        }
+        Node<E> node = new Node<>(e);
+        Node<E> successor = p.next;
+        node.prev = p;
+        node.next = successor;
+        if (successor != null) {
+            successor.prev = node;
+        } else {
+            tail = node;
+        }
+        p.next = node; // publica el nodo ya enlazado
+        nodes.put(e, node);
+        size++;
+        return true;
+    }
+
+    @Override
+    public boolean add(E e) {
+        return offer(e);
+    }
+
+    @Override
+    public synchronized E poll() {
+        Node<E> first = head.next;
+        if (first == null) {
+            return null;
+        }
+        unlink(first);
+        return first.item;
+    }
+
+    @Override
+    public E peek() {
+        Node<E> first = head.next;
+        return first == null ? null : first.item;
+    }
+
+    /**
+     * @return el último en llegar, o null si la cola está vacía.
+     */
+    public E peekLast() {
+        Node<E> last = tail;
+        return last == head ? null : last.item;
+    }
+
+    /**
+     * Quita el elemento esté donde esté en la cola, en O(1).
+     */
+    @Override
+    public synchronized boolean remove(Object o) {
+        Node<E> node = o == null ? null : nodes.get(o);
+        if (node == null) {
+            return false;
+        }
+        unlink(node);
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o != null && nodes.containsKey(o);
+    }
+
+    /**
+     * @return el elemento inmediatamente delante de {@code e}, o null si es la cabeza o no está en la cola.
+     */
+    public E leaderOf(E e) {
+        Node<E> node = nodes.get(e);
+        if (node == null) {
+            return null;
+        }
+        Node<E> previous = node.prev;
+        return previous == null || previous == head ? null : previous.item;
+    }
+
+    /**
+     * @return el elemento inmediatamente detrás de {@code e}, o null si es el último o no está en la cola.
+     */
+    public E followerOf(E e) {
+        Node<E> node = nodes.get(e);
+        if (node == null) {
+            return null;
+        }
+        Node<E> next = node.next;
+        return next == null ? null : next.item;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return head.next == null;
+    }
+
+    @Override
+    public synchronized void clear() {
+        while (head.next != null) {
+            unlink(head.next);
+        }
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<>() {
+            private Node<E> nextNode = advance(head);
+            private Node<E> lastReturned;
+
+            private Node<E> advance(Node<E> from) {
+                Node<E> n = from.next;
+                while (n != null && n.removed) {
+                    n = n.next;
+                }
+                return n;
+            }
+
+            @Override
+            public boolean hasNext() {
+                // El siguiente pudo salir de la cola después de calcularlo
+                while (nextNode != null && nextNode.removed) {
+                    nextNode = nextNode.next;
+                }
+                return nextNode != null;
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                lastReturned = nextNode;
+                nextNode = advance(nextNode);
+                return lastReturned.item;
+            }
+
+            @Override
+            public void remove() {
+                if (lastReturned == null) {
+                    throw new IllegalStateException();
+                }
+                removeNode(lastReturned);
+                lastReturned = null;
+            }
+        };
+    }
+
+    private synchronized void removeNode(Node<E> node) {
+        // Si ya salió (y quizá volvió a entrar con otro nodo), no hay nada que quitar
+        if (!node.removed) {
+            unlink(node);
+        }
+    }
+
+    // Desenlaza el nodo; su next se conserva para que un iterador parado en él pueda seguir
+    private void unlink(Node<E> node) {
+        Node<E> previous = node.prev;
+        Node<E> successor = node.next;
+        node.removed = true;
+        previous.next = successor;
+        if (successor != null) {
+            successor.prev = previous;
+        } else {
+            tail = previous;
+        }
+        nodes.remove(node.item);
+        size--;
+    }
+}
@@ -0,0 +1,88 @@
+package app.paralelafinal.comun;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Interpola entre las dos últimas {@link WorldSnapshot} publicadas por el motor para dibujar
+ * a la cadencia de la pantalla, independiente del paso fijo de la simulación.
+ *
+ * El renderizador va un cuadro de simulación por detrás: cuando llega una fotografía nueva,
+ * la anterior pasa a ser el origen y la interpolación recorre el intervalo entre ambas en el
+ * mismo tiempo simulado que las separa. Los vehículos que no estaban en el origen se dibujan
+ * directamente en su posición nueva.
+ *
+ * Pensado para usarse desde un único hilo (el de JavaFX).
+ */
+public final class SnapshotInterpolator {
+
+    private WorldSnapshot previous = WorldSnapshot.EMPTY;
+    private WorldSnapshot current = WorldSnapshot.EMPTY;
+    private final Map<String, Integer> previousIndex = new HashMap<>();
+    private long currentArrivalNanos;
+    private long intervalNanos;
+
+    private final WorldSnapshot.Builder builder = new WorldSnapshot.Builder();
+    private WorldSnapshot lastFrame = WorldSnapshot.EMPTY;
+    private boolean settled;
+
+    /**
+     * Recibe la última fotografía publicada y devuelve el cuadro a dibujar en {@code nowNanos}.
+     * Devuelve la misma instancia que en la llamada anterior si no hay nada nuevo que dibujar.
+     */
+    public WorldSnapshot frameAt(WorldSnapshot latest, long nowNanos) {
+        if (latest != current) {
+            previous = current;
+            current = latest;
+            currentArrivalNanos = nowNanos;
+            long simMillis = current.getSimulationTimeMillis() - previous.getSimulationTimeMillis();
+            intervalNanos = Math.max(0, simMillis) * 1_000_000L;
+            previousIndex.clear();
+            for (int i = 0; i < previous.size(); i++) {
+                previousIndex.put(previous.getId(i), i);
+            }
+            settled = false;
+        }
+        if (settled) {
+            return lastFrame;
+        }
+
+        double alpha = intervalNanos == 0 ? 1.0 : (double) (nowNanos - currentArrivalNanos) / intervalNanos;
+        if (alpha >= 1.0) {
+            // Llegamos a la última fotografía: se dibuja tal cual hasta que llegue otra
+            settled = true;
+            lastFrame = current;
+            return lastFrame;
+        }
+        alpha = Math.max(0.0, alpha);
+
+        for (int i = 0; i < current.size(); i++) {
+            String id = current.getId(i);
+            double x = current.getX(i);
+            double y = current.getY(i);
+            double heading = current.getHeading(i);
+            Integer p = previousIndex.get(id);
+            if (p != null) {
+                x = lerp(previous.getX(p), x, alpha);
+                y = lerp(previous.getY(p), y, alpha);
+                heading = lerpAngle(previous.getHeading(p), heading, alpha);
+            }
+            builder.addVehicle(id, x, y, heading, current.isEmergency(i));
+        }
+        for (int j = 0; j < current.getLightCount(); j++) {
+            builder.addLight(current.getLightId(j), current.isLightGreen(j));
+        }
+        lastFrame = builder.build(current.getTick(), current.getSimulationTimeMillis());
+        return lastFrame;
+    }
+
+    private static double lerp(double from, double to, double alpha) {
+        return from + (to - from) * alpha;
+    }
+
+    // Gira por el camino más corto (de 170° a -170° pasa por 180°, no por 0°)
+    private static double lerpAngle(double from, double to, double alpha) {
+        double delta = ((to - from) % 360 + 540) % 360 - 180;
+        return from + delta * alpha;
+    }
+}
@@ -0,0 +1,9 @@
+package app.paralelafinal.comun;
+
+/**
+ * Petición de generar un vehículo: tipo ("normal" o "emergency"), dirección de la maniobra
+ * e id de la intersección (o carril de entrada) donde aparece. Es la unidad de los lotes
+ * de {@code addVehicles} en ambos escenarios.
+ */
+public record SpawnRequest(String type, String direction, String intersectionId) {
+}
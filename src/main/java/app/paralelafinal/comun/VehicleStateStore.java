@@ -0,0 +1,161 @@
+package app.paralelafinal.comun;
+
+import java.util.Arrays;
+
+/**
+ * Almacén del estado dinámico de los vehículos en forma de estructura de arreglos
+ * (x, y, velocidad, rumbo, fase y carril en arreglos primitivos separados).
+ *
+ * Cada vehículo ocupa un "slot" denso; el ciclo de simulación actualiza sus columnas en sitio,
+ * sin crear objetos {@code Point2D} por vehículo y por tick. Los slots se agrupan en páginas de
+ * tamaño fijo que nunca se mueven al crecer el almacén, así que un lector en otro hilo (por
+ * ejemplo el renderizador) nunca ve un arreglo a medio copiar.
+ *
+ * Reservar y liberar slots está sincronizado; leer y escribir columnas no, y debe hacerlo
+ * un único hilo escritor por vehículo (el que avanza la simulación).
+ */
+public final class VehicleStateStore {
+
+    private static final int PAGE_SHIFT = 10;
+    public static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private static final class Page {
+        final double[] x = new double[PAGE_SIZE];
+        final double[] y = new double[PAGE_SIZE];
+        final double[] speed = new double[PAGE_SIZE];
+        final double[] heading = new double[PAGE_SIZE];
+        final int[] phase = new int[PAGE_SIZE];
+        final int[] lane = new int[PAGE_SIZE];
+    }
+
+    private volatile Page[] pages = new Page[0];
+    private int[] freeSlots = new int[64];
+    private int freeCount = 0;
+    private int nextSlot = 0;
+    private int live = 0;
+
+    /**
+     * Reserva un slot con todas sus columnas en cero (carril -1).
+     */
+    public synchronized int allocate() {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            slot = nextSlot++;
+            int pageIndex = slot >>> PAGE_SHIFT;
+            if (pageIndex >= pages.length) {
+                Page[] grown = Arrays.copyOf(pages, pageIndex + 1);
+                grown[pageIndex] = new Page();
+                pages = grown;
+            }
+        }
+        Page page = pages[slot >>> PAGE_SHIFT];
+        int i = slot & PAGE_MASK;
+        page.x[i] = 0;
+        page.y[i] = 0;
+        page.speed[i] = 0;
+        page.heading[i] = 0;
+        page.phase[i] = 0;
+        page.lane[i] = -1;
+        live++;
+        return slot;
+    }
+
+    /**
+     * Devuelve el slot al almacén para que lo reutilice otro vehículo.
+     */
+    public synchronized void release(int slot) {
+        if (slot < 0 || slot >= nextSlot) {
+            throw new IllegalArgumentException("Invalid slot: " + slot);
+        }
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+        }
+        freeSlots[freeCount++] = slot;
+        live--;
+    }
+
+    /**
+     * @return el número de slots ocupados.
+     */
+    public synchronized int size() {
+        return live;
+    }
+
+    /**
+     * @return el número de slots reservados en páginas (ocupados o libres).
+     */
+    public int capacity() {
+        return pages.length * PAGE_SIZE;
+    }
+
+    public double getX(int slot) {
+        return page(slot).x[slot & PAGE_MASK];
+    }
+
+    public double getY(int slot) {
+        return page(slot).y[slot & PAGE_MASK];
+    }
+
+    public void setPosition(int slot, double x, double y) {
+        Page page = page(slot);
+        int i = slot & PAGE_MASK;
+        page.x[i] = x;
+        page.y[i] = y;
+    }
+
+    /**
+     * Desplaza el vehículo (dx, dy) y registra la distancia recorrida como su velocidad.
+     */
+    public void translate(int slot, double dx, double dy) {
+        Page page = page(slot);
+        int i = slot & PAGE_MASK;
+        page.x[i] += dx;
+        page.y[i] += dy;
+        page.speed[i] = Math.sqrt(dx * dx + dy * dy);
+    }
+
+    public double getSpeed(int slot) {
+        return page(slot).speed[slot & PAGE_MASK];
+    }
+
+    public void setSpeed(int slot, double speed) {
+        page(slot).speed[slot & PAGE_MASK] = speed;
+    }
+
+    /**
+     * @return el rumbo en grados (0 = este, 90 = sur, 180 = oeste, -90 = norte).
+     */
+    public double getHeading(int slot) {
+        return page(slot).heading[slot & PAGE_MASK];
+    }
+
+    public void setHeading(int slot, double degrees) {
+        page(slot).heading[slot & PAGE_MASK] = degrees;
+    }
+
+    public int getPhase(int slot) {
+        return page(slot).phase[slot & PAGE_MASK];
+    }
+
+    public void setPhase(int slot, int phase) {
+        page(slot).phase[slot & PAGE_MASK] = phase;
+    }
+
+    /**
+     * @return el índice de carril del vehículo, o -1 si no tiene.
+     */
+    public int getLane(int slot) {
+        return page(slot).lane[slot & PAGE_MASK];
+    }
+
+    public void setLane(int slot, int lane) {
+        page(slot).lane[slot & PAGE_MASK] = lane;
+    }
+
+    private Page page(int slot) {
+        return pages[slot >>> PAGE_SHIFT];
+    }
+}
@@ -0,0 +1,144 @@
+package app.paralelafinal.comun;
+
+import java.util.Arrays;
+
+/**
+ * Fotografía inmutable del mundo al final de un tick: pose de cada vehículo (id, x, y, rumbo,
+ * emergencia) y estado de cada semáforo. El motor la publica mediante una única referencia
+ * volátil; el renderizador y cualquier otro lector la recorren sin bloqueos y siempre ven un
+ * cuadro consistente, aunque el motor ya esté calculando el siguiente.
+ */
+public final class WorldSnapshot {
+
+    public static final WorldSnapshot EMPTY = new Builder().build(0, 0);
+
+    private final long tick;
+    private final long simulationTimeMillis;
+    private final int size;
+    private final String[] ids;
+    private final double[] x;
+    private final double[] y;
+    private final double[] heading;
+    private final boolean[] emergency;
+    private final String[] lightIds;
+    private final boolean[] lightGreen;
+
+    private WorldSnapshot(Builder b, long tick, long simulationTimeMillis) {
+        this.tick = tick;
+        this.simulationTimeMillis = simulationTimeMillis;
+        this.size = b.size;
+        this.ids = Arrays.copyOf(b.ids, b.size);
+        this.x = Arrays.copyOf(b.x, b.size);
+        this.y = Arrays.copyOf(b.y, b.size);
+        this.heading = Arrays.copyOf(b.heading, b.size);
+        this.emergency = Arrays.copyOf(b.emergency, b.size);
+        this.lightIds = Arrays.copyOf(b.lightIds, b.lightCount);
+        this.lightGreen = Arrays.copyOf(b.lightGreen, b.lightCount);
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public long getSimulationTimeMillis() {
+        return simulationTimeMillis;
+    }
+
+    /**
+     * @return el número de vehículos en la fotografía.
+     */
+    public int size() {
+        return size;
+    }
+
+    public String getId(int i) {
+        return ids[i];
+    }
+
+    public double getX(int i) {
+        return x[i];
+    }
+
+    public double getY(int i) {
+        return y[i];
+    }
+
+    /**
+     * @return el rumbo en grados, listo para {@code Node.setRotate}.
+     */
+    public double getHeading(int i) {
+        return heading[i];
+    }
+
+    public boolean isEmergency(int i) {
+        return emergency[i];
+    }
+
+    public int getLightCount() {
+        return lightIds.length;
+    }
+
+    public String getLightId(int j) {
+        return lightIds[j];
+    }
+
+    public boolean isLightGreen(int j) {
+        return lightGreen[j];
+    }
+
+    /**
+     * Acumula el estado durante el tick y lo congela con {@link #build(long, long)}.
+     * Se reutiliza entre ticks y no es seguro para uso concurrente.
+     */
+    public static final class Builder {
+        private int size;
+        private String[] ids = new String[64];
+        private double[] x = new double[64];
+        private double[] y = new double[64];
+        private double[] heading = new double[64];
+        private boolean[] emergency = new boolean[64];
+        private int lightCount;
+        private String[] lightIds = new String[8];
+        private boolean[] lightGreen = new boolean[8];
+
+        public Builder addVehicle(String id, double vx, double vy, double headingDegrees, boolean isEmergency) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                x = Arrays.copyOf(x, capacity);
+                y = Arrays.copyOf(y, capacity);
+                heading = Arrays.copyOf(heading, capacity);
+                emergency = Arrays.copyOf(emergency, capacity);
+            }
+            ids[size] = id;
+            x[size] = vx;
+            y[size] = vy;
+            heading[size] = headingDegrees;
+            emergency[size] = isEmergency;
+            size++;
+            return this;
+        }
+
+        public Builder addLight(String id, boolean green) {
+            if (lightCount == lightIds.length) {
+                lightIds = Arrays.copyOf(lightIds, lightCount * 2);
+                lightGreen = Arrays.copyOf(lightGreen, lightCount * 2);
+            }
+            lightIds[lightCount] = id;
+            lightGreen[lightCount] = green;
+            lightCount++;
+            return this;
+        }
+
+        /**
+         * Crea la fotografía con lo acumulado y deja el builder vacío para el siguiente tick.
+         */
+        public WorldSnapshot build(long tick, long simulationTimeMillis) {
+            WorldSnapshot snapshot = new WorldSnapshot(this, tick, simulationTimeMillis);
+            Arrays.fill(ids, 0, size, null);
+            size = 0;
+            lightCount = 0;
+            return snapshot;
+        }
+    }
+}
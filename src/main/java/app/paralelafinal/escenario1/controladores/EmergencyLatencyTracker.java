@@ -0,0 +1,91 @@
+package app.paralelafinal.escenario1.controladores;
+
+import app.paralelafinal.escenario1.entidades.Intersection;
+import app.paralelafinal.escenario1.entidades.IntersectionListener;
+import app.paralelafinal.escenario1.entidades.Vehicle;
+import app.paralelafinal.metricas.LatencyHistogram;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Dispara la preferencia de paso en cuanto un vehículo de emergencia entra a una cola y mide
+ * cuánto tarda su intersección en ponerse en verde (de encolar a verde). La latencia se registra
+ * en tiempo simulado (el reloj virtual del controlador, o el de pared en tiempo real) y además
+ * en tiempo de pared, que solo tiene sentido cuando la simulación corre en tiempo real.
+ *
+ * Las notificaciones llegan desde el hilo de la simulación y desde el del controlador, así que
+ * las emergencias pendientes se guardan en un mapa concurrente; suelen ser muy pocas.
+ */
+class EmergencyLatencyTracker implements IntersectionListener {
+
+    private record Pending(long enqueuedMillis, long enqueuedNanos) {}
+
+    private final Runnable onEmergency;
+    private final LongSupplier simulationMillis;
+    private final LatencyHistogram latency = new LatencyHistogram("emergency enqueue-to-green (sim)");
+    private final LatencyHistogram wallLatency = new LatencyHistogram("emergency enqueue-to-green (wall)");
+    private final Map<Vehicle, Pending> pending = new ConcurrentHashMap<>();
+
+    /**
+     * @param onEmergency acción que solicita la preferencia de paso; se llama en el hilo que encola.
+     * @param simulationMillis tiempo simulado actual, en milisegundos.
+     */
+    EmergencyLatencyTracker(Runnable onEmergency, LongSupplier simulationMillis) {
+        this.onEmergency = onEmergency;
+        this.simulationMillis = simulationMillis;
+    }
+
+    @Override
+    public void onVehicleEnqueued(Intersection intersection, Vehicle vehicle) {
+        if (!vehicle.isEmergency()) {
+            return;
+        }
+        if (intersection.hasGreenLight()) {
+            latency.record(0);
+            wallLatency.record(0);
+            return;
+        }
+        pending.put(vehicle, new Pending(simulationMillis.getAsLong(), System.nanoTime()));
+        onEmergency.run();
+    }
+
+    @Override
+    public void onVehicleDequeued(Intersection intersection, Vehicle vehicle) {
+        if (!vehicle.isEmergency()) {
+            return;
+        }
+        pending.remove(vehicle);
+        if (!pending.isEmpty()) {
+            // La emergencia que tenía el verde ya pasó: atender a la siguiente sin esperar al ciclo
+            onEmergency.run();
+        }
+    }
+
+    @Override
+    public void onLightChanged(Intersection intersection, boolean green) {
+        if (!green || pending.isEmpty()) {
+            return;
+        }
+        long nowMillis = simulationMillis.getAsLong();
+        long nowNanos = System.nanoTime();
+        pending.entrySet().removeIf(entry -> {
+            if (entry.getKey().getOwner() != intersection) {
+                return false;
+            }
+            latency.record(TimeUnit.MILLISECONDS.toNanos(nowMillis - entry.getValue().enqueuedMillis()));
+            wallLatency.record(nowNanos - entry.getValue().enqueuedNanos());
+            return true;
+        });
+    }
+
+    LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    LatencyHistogram getWallLatency() {
+        return wallLatency;
+    }
+}
@@ -2,13 +2,18 @@ package app.paralelafinal.escenario1.controladores;
 
 import app.paralelafinal.escenario1.entidades.Intersection;
 import app.paralelafinal.escenario1.entidades.Vehicle;
+import app.paralelafinal.metricas.EmergencyPreemptionEvent;
+import app.paralelafinal.metricas.LatencyHistogram;
+import app.paralelafinal.metricas.LightChangeEvent;
+import app.paralelafinal.metricas.TrafficMetrics;
 
 import java.util.*;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantLock;
-import java.util.stream.Stream;
 
 /**
  * Gestiona el flujo de tráfico para un conjunto de intersecciones controlando los semáforos.
@@ -23,17 +28,64 @@ public class TrafficController {
     private final List<Intersection> intersections;
     private final ScheduledExecutorService scheduler;
     private final ReentrantLock controlLock = new ReentrantLock(); 
+    private final WaitingVehicleTracker waitingVehicles = new WaitingVehicleTracker();
+    // Preferencia de paso por evento: encolar una emergencia la dispara sin esperar al ciclo
+    private final EmergencyLatencyTracker emergencyLatency = new EmergencyLatencyTracker(this::requestPreemption, this::nowMillis);
+    private final AtomicBoolean preemptionScheduled = new AtomicBoolean(false);
+    // Indicadores por acceso, con el tiempo del reloj virtual (o de pared, en tiempo real)
+    private final TrafficMetricsRecorder metricsRecorder;
+
+    // Reloj virtual para el modo sin pantalla (ver advance)
+    private static final long INITIAL_DELAY_MS = 3000;
+    private static final long CONTROL_PERIOD_MS = 4000;
+    private volatile boolean realTime = false;
+    private long virtualTimeMillis = 0;
+    private long nextCycleAtMillis = INITIAL_DELAY_MS;
+    private long nextSampleAtMillis = TrafficMetrics.SAMPLE_PERIOD_MS;
+    private final long createdAtNanos = System.nanoTime();
 
     public TrafficController(List<Intersection> intersections) {
         this.intersections = intersections;
         this.scheduler = Executors.newScheduledThreadPool(1);
+        this.metricsRecorder = new TrafficMetricsRecorder(intersections, this::nowMillis);
+        for (Intersection intersection : intersections) {
+            intersection.getVehicleQueue().forEach(v -> waitingVehicles.onVehicleEnqueued(intersection, v));
+            intersection.addListener(waitingVehicles);
+            intersection.addListener(emergencyLatency);
+            intersection.addListener(metricsRecorder);
+        }
     }
 
     /**
      * Inicia la lógica de control de tráfico, programándola para que se ejecute a intervalos fijos.
      */
     public void startControl() {
+        realTime = true;
         scheduler.scheduleAtFixedRate(this::manageTrafficFlow, 3, 4, TimeUnit.SECONDS);
+        scheduler.scheduleAtFixedRate(metricsRecorder::sample, TrafficMetrics.SAMPLE_PERIOD_MS,
+                TrafficMetrics.SAMPLE_PERIOD_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Avanza el reloj virtual del controlador y ejecuta los ciclos de control que venzan,
+     * con el mismo retardo inicial y periodo que {@link #startControl()}, pero en tiempo simulado.
+     * No hace nada si el controlador ya corre en tiempo real con su planificador.
+     *
+     * @param dtMillis milisegundos de tiempo simulado a avanzar.
+     */
+    public void advance(long dtMillis) {
+        if (realTime) {
+            return;
+        }
+        virtualTimeMillis += dtMillis;
+        while (virtualTimeMillis >= nextCycleAtMillis) {
+            manageTrafficFlow();
+            nextCycleAtMillis += CONTROL_PERIOD_MS;
+        }
+        while (virtualTimeMillis >= nextSampleAtMillis) {
+            metricsRecorder.sample();
+            nextSampleAtMillis += TrafficMetrics.SAMPLE_PERIOD_MS;
+        }
     }
 
     /**
@@ -62,7 +114,8 @@ public class TrafficController {
                 Optional<Intersection> emergencyLane = prioritizeEmergencyLane();
 
                 if (emergencyLane.isPresent()) {
-                    emergencyLane.get().setGreenLight(true);
+                    setGreen(emergencyLane.get(), true, "preemption");
+                    emitPreemption(emergencyLane.get());
                 } else {
                     handleNormalTrafficFlow();
                 }
@@ -72,12 +125,79 @@ public class TrafficController {
         }
     }
 
+    /**
+     * Solicita la preferencia de paso para la emergencia más antigua. En tiempo real se ejecuta en el
+     * hilo del controlador (sin bloquear a quien encola); en modo virtual, en el hilo que llama.
+     */
+    private void requestPreemption() {
+        if (!realTime) {
+            preemptForEmergency();
+            return;
+        }
+        if (preemptionScheduled.compareAndSet(false, true)) {
+            try {
+                scheduler.execute(() -> {
+                    preemptionScheduled.set(false);
+                    preemptForEmergency();
+                });
+            } catch (RejectedExecutionException e) {
+                // El controlador ya se detuvo
+                preemptionScheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * Da verde solo al carril de la emergencia más antigua, tocando únicamente los semáforos que cambian.
+     */
+    private void preemptForEmergency() {
+        controlLock.lock();
+        try {
+            prioritizeEmergencyLane().ifPresent(lane -> {
+                for (Intersection intersection : intersections) {
+                    setGreen(intersection, intersection == lane, "preemption");
+                }
+                emitPreemption(lane);
+            });
+        } finally {
+            controlLock.unlock();
+        }
+    }
+
+    /**
+     * @return el histograma de latencia de la preferencia de paso (de encolar la emergencia a verde),
+     * en tiempo simulado.
+     */
+    public LatencyHistogram getPreemptionLatency() {
+        return emergencyLatency.getLatency();
+    }
+
+    /**
+     * @return la misma latencia medida en tiempo de pared.
+     */
+    public LatencyHistogram getPreemptionWallLatency() {
+        return emergencyLatency.getWallLatency();
+    }
+
+    /**
+     * @return los indicadores de tráfico de cada acceso, muestreados cada
+     * {@link TrafficMetrics#SAMPLE_PERIOD_MS} ms.
+     */
+    public TrafficMetrics getTrafficMetrics() {
+        return metricsRecorder.getMetrics();
+    }
+
+    // Tiempo de la simulación: el reloj virtual, o el transcurrido desde la creación en tiempo real
+    private long nowMillis() {
+        return realTime ? TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - createdAtNanos) : virtualTimeMillis;
+    }
+
     /**
      * Gestiona el flujo de tráfico en condiciones normales (sin vehículos de emergencia).
      * Da luz verde al vehículo que ha estado esperando más tiempo en todas las intersecciones.
      */
     private void handleNormalTrafficFlow() {
-        findOldestVehicleInSystem().flatMap(this::findIntersectionForVehicle).ifPresent(intersection -> intersection.setGreenLight(true));
+        findOldestVehicleInSystem().flatMap(this::findIntersectionForVehicle).ifPresent(intersection -> setGreen(intersection, true, "cycle"));
     }
 
     /**
@@ -87,43 +207,29 @@ public class TrafficController {
      * @return Un Optional que contiene la intersección del vehículo de emergencia con mayor prioridad.
      */
     private Optional<Intersection> prioritizeEmergencyLane() {
-        // Encuentra el vehículo de emergencia más antiguo en todo el sistema.
-        Optional<Vehicle> oldestEmergencyVehicle = getAllWaitingVehicles()
-                .filter(Vehicle::isEmergency) // Asume que Vehicle tiene el método isEmergency()
-                .min(Comparator.comparingLong(Vehicle::getArrivalTime));
+        // El índice incremental mantiene las emergencias ordenadas por tiempo de llegada.
+        Optional<Vehicle> oldestEmergencyVehicle = Optional.ofNullable(waitingVehicles.oldestEmergency());
 
         // Si se encontró, busca la intersección a la que pertenece.
         return oldestEmergencyVehicle.flatMap(this::findIntersectionForVehicle);
     }
 
-    /**
-     * Obtiene todos los vehículos que esperan en todas las intersecciones.
-     * @return Un Stream con todos los vehículos.
-     */
-    private Stream<Vehicle> getAllWaitingVehicles() {
-        return intersections.stream()
-                .flatMap(intersection -> intersection.getVehicleQueue().stream()); // Asume que Intersection tiene getVehicleQueue()
-    }
-
     /**
      * Encuentra el vehículo que llegó primero entre todos los vehículos del sistema.
      * @return Un Optional que contiene el vehículo con el menor tiempo de llegada.
      */
     private Optional<Vehicle> findOldestVehicleInSystem() {
-        return getAllWaitingVehicles()
-                .filter(v -> !v.isEmergency())
-                .min(Comparator.comparingLong(Vehicle::getArrivalTime));
+        return Optional.ofNullable(waitingVehicles.oldestNormal());
     }
 
     /**
      * Encuentra la intersección que contiene un vehículo específico en su cola.
+     * Usa el índice de propiedad que mantiene {@link Intersection} al encolar y desencolar, en tiempo constante.
      * @param vehicle El vehículo a buscar.
      * @return Un Optional que contiene la Intersección, o vacío si no se encuentra.
      */
     private Optional<Intersection> findIntersectionForVehicle(Vehicle vehicle) {
-        return intersections.stream()
-                .filter(i -> i.getVehicleQueue().contains(vehicle)) // Asume que la cola se puede consultar
-                .findFirst();
+        return Optional.ofNullable(vehicle.getOwner());
     }
 
     /**
@@ -131,20 +237,29 @@ public class TrafficController {
      * @param isGreen True para poner todos los semáforos en verde, false para ponerlos en rojo.
      */
     private void setAllLights(boolean isGreen) {
-        intersections.forEach(i -> i.setGreenLight(isGreen));
+        intersections.forEach(i -> setGreen(i, isGreen, "cycle"));
+    }
+
+    // Cambia el semáforo solo si cambia de estado y lo registra como evento JFR
+    private void setGreen(Intersection intersection, boolean green, String reason) {
+        if (intersection.hasGreenLight() != green) {
+            intersection.setGreenLight(green);
+            LightChangeEvent.emit(1, intersection.getId(), green, reason);
+        }
+    }
+
+    private void emitPreemption(Intersection intersection) {
+        Vehicle emergency = waitingVehicles.oldestEmergency();
+        EmergencyPreemptionEvent.emit(1, intersection.getId(), TrafficMetricsRecorder.LANE, emergency == null ? null : emergency.getId());
     }
 
     public boolean isVehicleAuthorizedToMove(Vehicle vehicle) {
         // Emergencia: si el semáforo está en verde y hay emergencia en la cola, todos pueden avanzar
-        Optional<Intersection> intersectionOpt = findIntersectionForVehicle(vehicle);
-        if (intersectionOpt.isPresent()) {
-            Intersection intersection = intersectionOpt.get();
-            if (intersection.hasGreenLight() && intersection.getVehicleQueue().stream().anyMatch(Vehicle::isEmergency)) {
-                return true;
-            }
+        Intersection intersection = vehicle.getOwner();
+        if (intersection != null && intersection.hasGreenLight() && intersection.hasEmergencyVehicleInQueue()) {
+            return true;
         }
-        
-        Optional<Vehicle> oldest = findOldestVehicleInSystem();
-        return oldest.isPresent() && oldest.get().equals(vehicle);
+
+        return waitingVehicles.oldestNormal() == vehicle;
     }
 }
\ No newline at end of file
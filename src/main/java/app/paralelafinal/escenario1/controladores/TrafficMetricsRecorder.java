@@ -0,0 +1,66 @@
+package app.paralelafinal.escenario1.controladores;
+
+import app.paralelafinal.escenario1.entidades.Intersection;
+import app.paralelafinal.escenario1.entidades.IntersectionListener;
+import app.paralelafinal.escenario1.entidades.Vehicle;
+import app.paralelafinal.metricas.LaneMetrics;
+import app.paralelafinal.metricas.TrafficMetrics;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Alimenta {@link TrafficMetrics} con los eventos de la cola de cada acceso. En este escenario
+ * cada intersección tiene una sola cola (el carril {@value #LANE}) y un vehículo que sale de
+ * ella cruza y deja la red, así que cada descarga también registra el tiempo de viaje.
+ */
+class TrafficMetricsRecorder implements IntersectionListener {
+
+    static final String LANE = "queue";
+
+    private final TrafficMetrics metrics = new TrafficMetrics();
+    private final LongSupplier nowMillis;
+    // Se llena en el constructor y después solo se lee
+    private final Map<Intersection, LaneMetrics> lanes = new IdentityHashMap<>();
+
+    /**
+     * @param nowMillis tiempo simulado actual, en milisegundos.
+     */
+    TrafficMetricsRecorder(List<Intersection> intersections, LongSupplier nowMillis) {
+        this.nowMillis = nowMillis;
+        for (Intersection intersection : intersections) {
+            lanes.put(intersection, metrics.register(intersection.getId(), LANE));
+        }
+    }
+
+    @Override
+    public void onVehicleEnqueued(Intersection intersection, Vehicle vehicle) {
+        long now = nowMillis.getAsLong();
+        if (vehicle.getSpawnedAtMillis() < 0) {
+            vehicle.setSpawnedAtMillis(now);
+        }
+        vehicle.setQueuedSinceMillis(now);
+        lanes.get(intersection).recordArrival();
+    }
+
+    @Override
+    public void onVehicleDequeued(Intersection intersection, Vehicle vehicle) {
+        long now = nowMillis.getAsLong();
+        LaneMetrics lane = lanes.get(intersection);
+        if (vehicle.getSpawnedAtMillis() < 0) {
+            return; // Encolado antes de que existiera el registrador
+        }
+        lane.recordDischarge(now - vehicle.getQueuedSinceMillis());
+        metrics.recordExit(lane, now - vehicle.getSpawnedAtMillis());
+    }
+
+    void sample() {
+        metrics.sample(nowMillis.getAsLong());
+    }
+
+    TrafficMetrics getMetrics() {
+        return metrics;
+    }
+}
@@ -0,0 +1,58 @@
+package app.paralelafinal.escenario1.controladores;
+
+import app.paralelafinal.escenario1.entidades.Intersection;
+import app.paralelafinal.escenario1.entidades.IntersectionListener;
+import app.paralelafinal.escenario1.entidades.Vehicle;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Índice de todo el sistema con los vehículos en espera, ordenados por tiempo de llegada.
+ * Se actualiza de forma incremental al encolar y desencolar en cada {@link Intersection},
+ * por lo que responde "vehículo normal más antiguo" y "emergencia más antigua" sin recorrer las colas.
+ */
+class WaitingVehicleTracker implements IntersectionListener {
+
+    private static final Comparator<Vehicle> BY_ARRIVAL =
+            Comparator.comparingLong(Vehicle::getArrivalTime).thenComparingLong(Vehicle::getSequence);
+
+    private final NavigableSet<Vehicle> normalVehicles = new ConcurrentSkipListSet<>(BY_ARRIVAL);
+    private final NavigableSet<Vehicle> emergencyVehicles = new ConcurrentSkipListSet<>(BY_ARRIVAL);
+
+    @Override
+    public void onVehicleEnqueued(Intersection intersection, Vehicle vehicle) {
+        setFor(vehicle).add(vehicle);
+    }
+
+    @Override
+    public void onVehicleDequeued(Intersection intersection, Vehicle vehicle) {
+        setFor(vehicle).remove(vehicle);
+    }
+
+    /**
+     * @return el vehículo normal que más tiempo lleva esperando, o null si no hay ninguno.
+     */
+    Vehicle oldestNormal() {
+        return firstOrNull(normalVehicles);
+    }
+
+    /**
+     * @return el vehículo de emergencia que más tiempo lleva esperando, o null si no hay ninguno.
+     */
+    Vehicle oldestEmergency() {
+        return firstOrNull(emergencyVehicles);
+    }
+
+    private NavigableSet<Vehicle> setFor(Vehicle vehicle) {
+        return vehicle.isEmergency() ? emergencyVehicles : normalVehicles;
+    }
+
+    private static Vehicle firstOrNull(NavigableSet<Vehicle> set) {
+        // first() lanza si otro hilo vacía el conjunto entre la comprobación y la lectura
+        Iterator<Vehicle> it = set.iterator();
+        return it.hasNext() ? it.next() : null;
+    }
+}
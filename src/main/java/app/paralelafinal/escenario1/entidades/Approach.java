@@ -0,0 +1,24 @@
+package app.paralelafinal.escenario1.entidades;
+
+/**
+ * Acceso al cruce desde el que llegan los vehículos de una intersección (North, South, East, West).
+ */
+public enum Approach {
+    NORTH, SOUTH, EAST, WEST;
+
+    /**
+     * @return el acceso correspondiente al id de la intersección, o null si no es uno de los cuatro.
+     */
+    public static Approach fromId(String intersectionId) {
+        if (intersectionId == null) {
+            return null;
+        }
+        return switch (intersectionId.toLowerCase()) {
+            case "north" -> NORTH;
+            case "south" -> SOUTH;
+            case "east" -> EAST;
+            case "west" -> WEST;
+            default -> null;
+        };
+    }
+}
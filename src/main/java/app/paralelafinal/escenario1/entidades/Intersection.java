@@ -1,35 +1,57 @@
 package app.paralelafinal.escenario1.entidades;
+import app.paralelafinal.comun.LaneQueue;
+
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
-import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class Intersection {
     private String id;
+    private Approach approach; // Resuelto una vez a partir del id
     private boolean rightTurnAllowed;
-    private PriorityBlockingQueue<Vehicle> vehicleQueue;
-    private boolean greenLight;  
+    private final LaneQueue<Vehicle> vehicleQueue; // En orden de llegada; se itera de la cabeza a la cola
+    private final Collection<Vehicle> vehicleQueueView; // Lo que se entrega afuera: solo lectura
+    private volatile boolean greenLight;  
+    private final AtomicInteger emergencyCount = new AtomicInteger();
+    private final List<IntersectionListener> listeners = new CopyOnWriteArrayList<>();
 
     public Intersection(String id) {
         this.id = id;
+        this.approach = Approach.fromId(id);
         this.rightTurnAllowed = true;
-        this.vehicleQueue = new PriorityBlockingQueue<>(10,
-            Comparator.comparingLong(Vehicle::getArrivalTime)
+        this.vehicleQueue = new LaneQueue<>(
+            Comparator.comparingLong(Vehicle::getArrivalTime).thenComparingLong(Vehicle::getSequence)
         );
+        this.vehicleQueueView = Collections.unmodifiableCollection(vehicleQueue);
 
     }
     public String getId() { return id; }
-    public void setId(String id) { this.id = id; }
+    public void setId(String id) {
+        this.id = id;
+        this.approach = Approach.fromId(id);
+    }
+    public Approach getApproach() { return approach; }
 
     public boolean isRightTurnAllowed() { return rightTurnAllowed; }
     public void setRightTurnAllowed(boolean allowed) { this.rightTurnAllowed = allowed; }
 
-    public PriorityBlockingQueue<Vehicle> getVehicleQueue() { return vehicleQueue; }
-    public void setVehicleQueue(PriorityBlockingQueue<Vehicle> q) { this.vehicleQueue = q; }
+    // Cola en orden de llegada, de solo lectura: se encola con addVehicle y se saca con removeNextVehicle
+    public Collection<Vehicle> getVehicleQueue() { return vehicleQueueView; }
 
-    // Encola un vehículo (se añade según prioridad) 
+    // Encola un vehículo (se añade según prioridad) y lo registra como propiedad de esta intersección
     public void addVehicle(Vehicle v) {
+        v.setOwner(this);
         vehicleQueue.add(v);
+        if (v.isEmergency()) {
+            emergencyCount.incrementAndGet();
+        }
+        for (IntersectionListener listener : listeners) {
+            listener.onVehicleEnqueued(this, v);
+        }
     }
 
     // Devuelve sin quitar el vehículo que está al frente de la cola 
@@ -39,7 +61,16 @@ public class Intersection {
 
     // Quita de la cola al vehículo que acaba de cruzar 
     public void removeNextVehicle() {
-        vehicleQueue.poll();
+        Vehicle v = vehicleQueue.poll();
+        if (v != null) {
+            v.setOwner(null);
+            if (v.isEmergency()) {
+                emergencyCount.decrementAndGet();
+            }
+            for (IntersectionListener listener : listeners) {
+                listener.onVehicleDequeued(this, v);
+            }
+        }
     }
 
     
@@ -56,14 +87,27 @@ public class Intersection {
         removeNextVehicle();
     }
       public void setGreenLight(boolean on) {
+        boolean changed = this.greenLight != on;
         this.greenLight = on;
+        if (changed) {
+            for (IntersectionListener listener : listeners) {
+                listener.onLightChanged(this, on);
+            }
+        }
     }
     public boolean hasGreenLight() {
         return greenLight;
     }
 
     public boolean hasEmergencyVehicleInQueue() {
-        return vehicleQueue.stream()
-                .anyMatch(vehicle -> "emergency".equals(vehicle.getType()));
+        return emergencyCount.get() > 0;
+    }
+
+    public void addListener(IntersectionListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(IntersectionListener listener) {
+        listeners.remove(listener);
     }
 }
\ No newline at end of file
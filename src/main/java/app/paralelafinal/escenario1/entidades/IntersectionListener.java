@@ -0,0 +1,18 @@
+package app.paralelafinal.escenario1.entidades;
+
+/**
+ * Recibe notificaciones cuando un vehículo entra o sale de la cola de una {@link Intersection}.
+ * Permite mantener índices incrementales sin recorrer las colas en cada ciclo.
+ */
+public interface IntersectionListener {
+
+    void onVehicleEnqueued(Intersection intersection, Vehicle vehicle);
+
+    void onVehicleDequeued(Intersection intersection, Vehicle vehicle);
+
+    /**
+     * Se llama cuando el semáforo de la intersección cambia de estado.
+     */
+    default void onLightChanged(Intersection intersection, boolean green) {
+    }
+}
@@ -0,0 +1,38 @@
+package app.paralelafinal.escenario1.entidades;
+
+/**
+ * Maniobra precompilada de un vehículo en el cruce. Se resuelve una sola vez a partir del
+ * texto de dirección para que el ciclo de movimiento despache sobre constantes.
+ */
+public enum Maneuver {
+    RIGHT("right"),
+    STRAIGHT("straight"),
+    LEFT("left"),
+    U_TURN("u-turn");
+
+    private static final Maneuver[] VALUES = values();
+
+    private final String direction;
+
+    Maneuver(String direction) {
+        this.direction = direction;
+    }
+
+    /**
+     * Traduce el texto de dirección (sin distinguir mayúsculas) a su maniobra.
+     *
+     * @throws IllegalArgumentException si la dirección no existe.
+     */
+    public static Maneuver fromDirection(String direction) {
+        for (Maneuver m : VALUES) {
+            if (m.direction.equalsIgnoreCase(direction)) {
+                return m;
+            }
+        }
+        throw new IllegalArgumentException("Invalid direction: " + direction);
+    }
+
+    public String getDirection() {
+        return direction;
+    }
+}
@@ -0,0 +1,147 @@
+package app.paralelafinal.escenario1.simulation;
+
+import app.paralelafinal.comun.WorldSnapshot;
+import app.paralelafinal.config.SimulationConfig;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+
+/**
+ * Dibuja los vehículos de una {@link WorldSnapshot} directamente sobre un {@link Canvas},
+ * sin crear nodos en el grafo de escena.
+ *
+ * Cada cuadro se pinta en pasadas por color (ruedas, carrocerías, luces, ventanas) para
+ * cambiar el relleno del {@code GraphicsContext} lo menos posible; la transformación de cada
+ * vehículo se fija con {@code setTransform} en lugar de save/restore. El aspecto reproduce
+ * el sprite de {@code SimulationPane.createVehicleShape}.
+ */
+public class CanvasVehicleRenderer {
+
+    private static final double LENGTH = SimulationConfig.VEHICLE_LENGTH;
+    private static final double WIDTH = SimulationConfig.VEHICLE_WIDTH;
+    private static final Color[] CAR_COLORS = {Color.BLUE, Color.GREEN, Color.PURPLE, Color.ORANGE, Color.BROWN, Color.NAVY};
+    private static final Color WINDOW_COLOR = Color.LIGHTBLUE.deriveColor(0, 1, 1, 0.7);
+
+    private final Canvas canvas;
+    private final GraphicsContext gc;
+    private WorldSnapshot lastDrawnFrame;
+
+    // Transformación por vehículo del cuadro actual, reutilizada entre cuadros
+    private double[] cos = new double[256];
+    private double[] sin = new double[256];
+    private double[] pivotX = new double[256];
+    private double[] pivotY = new double[256];
+    private int[] colorIndex = new int[256];
+
+    public CanvasVehicleRenderer(double width, double height) {
+        this.canvas = new Canvas(width, height);
+        this.canvas.setMouseTransparent(true);
+        this.gc = canvas.getGraphicsContext2D();
+    }
+
+    public Canvas getCanvas() {
+        return canvas;
+    }
+
+    /**
+     * Borra el lienzo y pinta todos los vehículos del cuadro. Debe llamarse en el hilo de JavaFX.
+     */
+    public void draw(WorldSnapshot frame) {
+        if (frame == lastDrawnFrame) {
+            return; // Ya está en pantalla
+        }
+        lastDrawnFrame = frame;
+
+        int n = frame.size();
+        ensureCapacity(n);
+        for (int i = 0; i < n; i++) {
+            // Igual que Node.setRotate: gira alrededor del centro del sprite
+            double radians = Math.toRadians(frame.getHeading(i));
+            cos[i] = Math.cos(radians);
+            sin[i] = Math.sin(radians);
+            pivotX[i] = frame.getX(i) + LENGTH / 2;
+            pivotY[i] = frame.getY(i) + WIDTH / 2;
+            colorIndex[i] = frame.isEmergency(i) ? -1 : Math.abs(frame.getId(i).hashCode()) % CAR_COLORS.length;
+        }
+
+        gc.setTransform(1, 0, 0, 1, 0, 0);
+        gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+
+        // Ruedas
+        gc.setFill(Color.BLACK);
+        for (int i = 0; i < n; i++) {
+            place(i);
+            gc.fillOval(LENGTH * 0.2 - 3, WIDTH - 1, 6, 6);
+            gc.fillOval(LENGTH * 0.8 - 3, WIDTH - 1, 6, 6);
+            gc.fillOval(LENGTH * 0.2 - 3, -5, 6, 6);
+            gc.fillOval(LENGTH * 0.8 - 3, -5, 6, 6);
+        }
+
+        // Carrocerías, agrupadas por color
+        for (int c = -1; c < CAR_COLORS.length; c++) {
+            boolean emergency = c < 0;
+            boolean any = false;
+            for (int i = 0; i < n; i++) {
+                if (colorIndex[i] != c) {
+                    continue;
+                }
+                if (!any) {
+                    gc.setFill(emergency ? Color.RED : CAR_COLORS[c]);
+                    gc.setStroke(emergency ? Color.YELLOW : Color.BLACK);
+                    gc.setLineWidth(emergency ? 2 : 1);
+                    any = true;
+                }
+                place(i);
+                gc.fillRoundRect(0, 0, LENGTH, WIDTH, 5, 5);
+                gc.strokeRoundRect(0, 0, LENGTH, WIDTH, 5, 5);
+            }
+        }
+
+        // Luces de emergencia
+        gc.setFill(Color.YELLOW);
+        for (int i = 0; i < n; i++) {
+            if (colorIndex[i] < 0) {
+                place(i);
+                gc.fillRect(LENGTH * 0.1, -2, LENGTH * 0.3, 3);
+            }
+        }
+        gc.setFill(Color.BLUE);
+        for (int i = 0; i < n; i++) {
+            if (colorIndex[i] < 0) {
+                place(i);
+                gc.fillRect(LENGTH * 0.6, -2, LENGTH * 0.3, 3);
+            }
+        }
+
+        // Ventanas delantera y trasera
+        gc.setFill(WINDOW_COLOR);
+        for (int i = 0; i < n; i++) {
+            place(i);
+            gc.fillRect(LENGTH * 0.75, WIDTH * 0.2, LENGTH * 0.15, WIDTH * 0.6);
+            gc.fillRect(LENGTH * 0.1, WIDTH * 0.2, LENGTH * 0.15, WIDTH * 0.6);
+        }
+
+        gc.setTransform(1, 0, 0, 1, 0, 0);
+    }
+
+    // Deja el origen en la esquina del sprite i, ya rotado alrededor de su centro
+    private void place(int i) {
+        double c = cos[i];
+        double s = sin[i];
+        double ox = -LENGTH / 2;
+        double oy = -WIDTH / 2;
+        gc.setTransform(c, s, -s, c, pivotX[i] + c * ox - s * oy, pivotY[i] + s * ox + c * oy);
+    }
+
+    private void ensureCapacity(int n) {
+        if (n <= cos.length) {
+            return;
+        }
+        int capacity = Math.max(n, cos.length * 2);
+        cos = new double[capacity];
+        sin = new double[capacity];
+        pivotX = new double[capacity];
+        pivotY = new double[capacity];
+        colorIndex = new int[capacity];
+    }
+}
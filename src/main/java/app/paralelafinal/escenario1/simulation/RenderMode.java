@@ -0,0 +1,31 @@
+package app.paralelafinal.escenario1.simulation;
+
+import java.util.Locale;
+
+/**
+ * Backend de dibujo de los vehículos del Escenario 1.
+ *
+ * NODES crea un {@code Group} por vehículo en el grafo de escena (modo original);
+ * CANVAS dibuja todos los vehículos en un único {@code Canvas} en una pasada por cuadro.
+ * Se elige al lanzar con {@code --renderer=canvas} o {@code -Drenderer=canvas}.
+ */
+public enum RenderMode {
+    NODES,
+    CANVAS;
+
+    public static final String PARAMETER = "renderer";
+
+    /**
+     * @return el modo con ese nombre (sin distinguir mayúsculas), o NODES si es null o vacío.
+     */
+    public static RenderMode fromString(String value) {
+        if (value == null || value.isBlank()) {
+            return NODES;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown renderer: " + value);
+        }
+    }
+}
@@ -1,384 +1,179 @@
 package app.paralelafinal.escenario1.simulation;
 
-import app.paralelafinal.config.SimulationConfig;
+import app.paralelafinal.comun.SnapshotInterpolator;
+import app.paralelafinal.comun.SpawnRequest;
+import app.paralelafinal.comun.WorldSnapshot;
 import app.paralelafinal.escenario1.controladores.TrafficController;
 import app.paralelafinal.escenario1.entidades.Intersection;
 import app.paralelafinal.escenario1.entidades.Vehicle;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
-import javafx.application.Platform;
+import javafx.animation.AnimationTimer;
 import javafx.geometry.Point2D;
-import javafx.util.Duration;
 
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Consumer;
 
-import static app.paralelafinal.config.SimulationConfig.*;
-import static app.paralelafinal.escenario1.simulation.SimulationPane.getVehiclePosition;
-
+/**
+ * Adaptador JavaFX del {@link SimulationKernel}. El núcleo avanza con paso fijo en su propio
+ * hilo, sin depender de la cadencia de la pantalla; un {@link AnimationTimer} (uno por pulso,
+ * sincronizado con el refresco) interpola entre las dos últimas fotografías y notifica a la
+ * interfaz solo cuando hay algo nuevo que dibujar.
+ */
 public class SimulationEngine {
 
     // --- Simulation State ---
-    private final List<Intersection> intersections;
+    private final SimulationKernel kernel;
     private final TrafficController trafficController;
 
+    // Límite de tiempo simulado por iteración, para no entrar en espiral si el hilo se retrasa
+    private static final double MAX_CATCH_UP_MS = 250;
+
     // --- Animation & Timing ---
-    private Timeline animationLoop;
+    private Thread simulationThread;
+    private volatile boolean running;
+    private AnimationTimer renderLoop;
+    private final SnapshotInterpolator interpolator = new SnapshotInterpolator();
+    private WorldSnapshot renderFrame = WorldSnapshot.EMPTY;
     private Consumer<Void> uiUpdateCallback;
 
-    // --- Vehicle Movement Constants ---
-
     public SimulationEngine() {
-        this.intersections = new ArrayList<>();
-        setupIntersections();
-        this.trafficController = new TrafficController(intersections);
+        this(new SimulationKernel());
     }
 
-    /**
-     * Initializes the four intersections (North, South, East, West).
-     */
-    private void setupIntersections() {
-        intersections.add(new Intersection("North"));
-        intersections.add(new Intersection("South"));
-        intersections.add(new Intersection("East"));
-        intersections.add(new Intersection("West"));
+    public SimulationEngine(SimulationKernel kernel) {
+        this.kernel = kernel;
+        this.trafficController = kernel.getTrafficController();
     }
+
     public void startSimulation() {
         trafficController.startControl();
 
-        animationLoop = new Timeline(new KeyFrame(
-                Duration.millis(SimulationConfig.VEHICLE_UPDATE_INTERVAL_MS),
-                event -> {
-                    updateVehiclePositions();
-                    if (uiUpdateCallback != null) {
-                        uiUpdateCallback.accept(null);
-                    }
+        running = true;
+        simulationThread = new Thread(this::simulationLoop, "simulation-kernel");
+        simulationThread.setDaemon(true);
+        simulationThread.start();
+
+        renderLoop = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                WorldSnapshot frame = interpolator.frameAt(kernel.getSnapshot(), now);
+                kernel.requestSnapshot(); // El siguiente tick publica el cuadro del próximo pulso
+                if (frame == renderFrame) {
+                    return; // Nada nuevo desde el pulso anterior
                 }
-        ));
-        animationLoop.setCycleCount(Timeline.INDEFINITE);
-        animationLoop.play();
+                renderFrame = frame;
+                if (uiUpdateCallback != null) {
+                    uiUpdateCallback.accept(null);
+                }
+            }
+        };
+        renderLoop.start();
+    }
+
+    /**
+     * Bucle de paso fijo: entrega al núcleo el tiempo de pared transcurrido (el núcleo lo
+     * convierte en ticks enteros y guarda el resto) y duerme hasta el siguiente tick.
+     */
+    private void simulationLoop() {
+        long tickNanos = TimeUnit.MILLISECONDS.toNanos(SimulationKernel.TICK_MS);
+        long last = System.nanoTime();
+        while (running) {
+            long now = System.nanoTime();
+            double elapsedMillis = Math.min((now - last) / 1_000_000.0, MAX_CATCH_UP_MS);
+            last = now;
+            try {
+                kernel.step(elapsedMillis);
+            } catch (RuntimeException e) {
+                // Keep the simulation thread alive, like the scheduled controllers do, and hand
+                // the failure to the thread's uncaught exception handler
+                Thread current = Thread.currentThread();
+                current.getUncaughtExceptionHandler().uncaughtException(current, e);
+            }
+            long sleepNanos = tickNanos - (System.nanoTime() - now);
+            if (sleepNanos > 0) {
+                LockSupport.parkNanos(sleepNanos);
+            }
+        }
     }
 
     /**
      * Stops the simulation, halting the traffic controller and the animation loop.
      */
     public void stopSimulation() {
-        if (animationLoop != null) {
-            animationLoop.stop();
+        if (renderLoop != null) {
+            renderLoop.stop();
+        }
+        running = false;
+        if (simulationThread != null) {
+            try {
+                simulationThread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            simulationThread = null;
         }
         if (trafficController != null) {
             trafficController.stopControl();
         }
+        kernel.releaseVehicles();
     }
 
     /**
      * Añade un nuevo vehiculo a una intersección específica.
      * Calcula el posicionamiento inicial del vehículo y lo añade a la cola correspondiente.
-     * This method is designed to be called from the UI thread to ensure thread safety.
-     * 
-     * 
+     * La petición se encola y el hilo de simulación la aplica al inicio del siguiente tick,
+     * así que puede llamarse desde el hilo de JavaFX sin tocar las colas del núcleo.
+     *
+     *
      * @param tipo de vehiculo
      * @param para una direccion específica a llegar
      * @param el id de la intersección donde el vehículo debe comenzar.
      *
      */
     public void addVehicle(String type, String direction, String intersectionId) {
-        Platform.runLater(() -> {
-            findIntersectionById(intersectionId).ifPresent(intersection -> {
-                String vehicleId = "V" + System.currentTimeMillis();
-                Vehicle newVehicle = new Vehicle(vehicleId, type, direction, false);
-
-                double centerX = SimulationConfig.SCENE_WIDTH / 2.0;
-                double centerY = SimulationConfig.SCENE_HEIGHT / 2.0;
-                double laneWidth = SimulationConfig.ROAD_WIDTH / 2.0;
-                int queueIndex = intersection.getVehicleQueue().size();
-
-                double[] pos = getVehiclePosition(intersection.getId(), centerX, centerY, laneWidth, queueIndex);
-                newVehicle.setPosition(new Point2D(pos[0], pos[1]));
-
-                intersection.addVehicle(newVehicle);
-            });
-
-            if (uiUpdateCallback != null) {
-                uiUpdateCallback.accept(null);
-            }
-        });
+        kernel.submitVehicle(type, direction, intersectionId);
     }
 
     /**
-     * logica para actualizar la posicion del vehiculo en la simulación.
+     * Añade un lote de vehículos con un solo traspaso al hilo de simulación, que los crea
+     * todos al inicio del siguiente tick.
      */
-    private void updateVehiclePositions() {
-        final Point2D center = new Point2D(SimulationConfig.SCENE_WIDTH / 2.0, SimulationConfig.SCENE_HEIGHT / 2.0);
-        final double stopLineDistance = (SimulationConfig.ROAD_WIDTH / 2.0) + (SimulationConfig.VEHICLE_LENGTH / 2.0);
-        final double removalThreshold = SCENE_WIDTH / 2 ;
-
-        for (Intersection intersection : intersections) {
-            processVehiclesForIntersection(intersection, center, stopLineDistance, removalThreshold);
-        }
-
-
+    public void addVehicles(Collection<SpawnRequest> batch) {
+        kernel.submitVehicles(batch);
     }
 
     /**
-     * procesa el movimiento de cada vehiculon por posicion.
-     */
-    private void processVehiclesForIntersection(Intersection intersection, Point2D center, double stopLineDist, double removeDist) {
-        boolean isGreenLight = intersection.hasGreenLight();
-
-        List<Vehicle> orderedVehicles = new ArrayList<>(intersection.getVehicleQueue());
-
-        for (int i = 0; i < orderedVehicles.size(); i++) {
-            Vehicle currentVehicle = orderedVehicles.get(i);
-            if (i == 0) {
-                handleLeadVehicle(currentVehicle, intersection, isGreenLight, center, stopLineDist, removeDist);
-            } else {
-                Vehicle precedingVehicle = orderedVehicles.get(i - 1);
-                handleFollowingVehicle(currentVehicle, precedingVehicle, intersection, center);
-            }
-        }
-    }
-
-
-    /**
-     * maneja el movimiento del primer vehiculo en la cola.
-     */
-    private void handleLeadVehicle(Vehicle vehicle, Intersection intersection, boolean isGreen, Point2D center, double stopLineDist, double removeDist) {
-        if (isGreen && trafficController.isVehicleAuthorizedToMove(vehicle)) {
-            double distanceToCenter = vehicle.getPosition().distance(center);
-
-            if (distanceToCenter > removeDist) {
-                intersection.removeNextVehicle();
-                return;
-            }
-
-            Point2D movementVector = calculateMovementVector(intersection, vehicle, center);
-            vehicle.move(movementVector);
-
-        } else {
-            double[] exactStopPosition = getVehiclePosition(
-                    intersection.getId(),
-                    center.getX(),
-                    center.getY(),
-                    SimulationConfig.LANE_WIDTH,
-                    0
-            );
-
-            vehicle.setPosition(new Point2D(exactStopPosition[0], exactStopPosition[1]));
-        }
-    }
-
-    /**
-     * maneja el movimmiento logico para un vehiculo que sigue a otro vehiculo.
-     */
-    private void handleFollowingVehicle(Vehicle current, Vehicle preceding, Intersection intersection, Point2D center) {
-        
-        if (!trafficController.isVehicleAuthorizedToMove(current)) {
-            // Mantener posición actual
-            return;
-        }
-
-        Point2D movementVector = calculateMovementVector(intersection, current, center);
-        Point2D nextPosition = current.getPosition().add(movementVector);
-
-        double distanceToPreceding = nextPosition.distance(preceding.getPosition());
-        if (distanceToPreceding < SimulationConfig.VEHICLE_LENGTH + SAFE_FOLLOWING_GAP) {
-            return;
-        }
-
-        current.move(movementVector);
-    }
-
-
-    /**
-     * 
-     * 
-     * calcula el movimiento del vector (deltaX, deltaY) para un vehiculo basado en su origen,
-     * maniobra prevista y posición relativa al centro de la intersección.
-     * .
+     * calcula el movimiento del vector (deltaX, deltaY) para un vehiculo, delegando en el núcleo.
      */
     Point2D calculateMovementVector(Intersection intersection, Vehicle vehicle, Point2D center) {
-        if ("u-turn".equalsIgnoreCase(vehicle.getDirection())) {
-            return handleUTurnMovement(intersection, vehicle, center);
-        }
-
-
-        String origin = intersection.getId().toLowerCase();
-        String maneuver = vehicle.getDirection().toLowerCase();
-        Point2D position = vehicle.getPosition();
-        boolean hasPassedCenter = hasVehiclePassedCenter(origin, position, center, maneuver);
-
-        // If the vehicle has passed the center, it may need to turn.
-        if (hasPassedCenter) {
-            return getPostCenterMovement(origin, maneuver);
-        } else {
-            // Otherwise, it moves straight towards the center.
-            return getPreCenterMovement(origin);
-        }
-    }
-
-// In SimulationEngine.java
-
-
-    private Point2D handleUTurnMovement(Intersection intersection, Vehicle vehicle, Point2D center) {
-        String origin = intersection.getId().toLowerCase();
-        Point2D position = vehicle.getPosition();
-        String manuver = vehicle.getDirection().toLowerCase();
-
-        switch (vehicle.getUTurnPhase()) {
-         
-            //fase 0: El vehiculo se acerca al centro de la intersección.
-            case 0:
-                Point2D approachVector = getPreCenterMovement(origin);
-
-                if (hasVehiclePassedCenter(origin, position, center, manuver)) {
-                    vehicle.setUTurnPhase(1);
-                }
-                return approachVector;
-
-            //fase 1: El vehiculo realiza el giro lateral.
-             
-            case 1:
-                double turnFactor = 0.5;
-
-                double laneWidth = SimulationConfig.ROAD_WIDTH / 2.0;
-                double turnDistance = laneWidth * turnFactor;
-                Point2D turnVector = Point2D.ZERO;
-
-                switch (origin) {
-                    case "north":
-                        turnVector = new Point2D(VEHICLE_SPEED, 0);
-                        if (position.getX() >= center.getX() + turnDistance) {
-                            vehicle.setUTurnPhase(2);
-                        }
-                        break;
-                    case "south":
-                        turnVector = new Point2D(-VEHICLE_SPEED, 0);
-                        if (position.getX() <= center.getX() - turnDistance) {
-                            vehicle.setUTurnPhase(2);
-                        }
-                        break;
-                    case "east":
-                        turnVector = new Point2D(0, VEHICLE_SPEED);
-                        if (position.getY() >= center.getY() + turnDistance) {
-                            vehicle.setUTurnPhase(2);
-                        }
-                        break;
-                    case "west":
-                        turnVector = new Point2D(0, -VEHICLE_SPEED);
-                        if (position.getY() <= center.getY() - turnDistance) {
-                            vehicle.setUTurnPhase(2);
-                        }
-                        break;
-                }
-                return turnVector;
-
-            //fase 2: El vehiculo sale de la intersección.
-            case 2:
-                return getPreCenterMovement(origin).multiply(-1);
-
-            default:
-                return Point2D.ZERO;
-        }
+        return kernel.calculateMovementVector(intersection, vehicle, center);
     }
-    /**
-     
-     * Determina si el vehiculo ha cruzado el punto central de la intersección.
-     */
-    private boolean hasVehiclePassedCenter(String origin, Point2D position, Point2D center, String maneuver) {
-        if("left".equalsIgnoreCase(maneuver)){
-            return switch (origin) {
-                case "north" -> position.getY() >= center.getY() + 30;
-                case "south" -> position.getY() <= center.getY() - 50;
-                case "east" -> position.getX() <= center.getX() - 60;
-                case "west" -> position.getX() >= center.getX() + 30;
-                default -> false;
-            };
-
-        } else if ("right".equalsIgnoreCase(maneuver)) {
-            return switch (origin) {
-                case "north" -> position.getY() >= center.getY() - 50;
-                case "south" -> position.getY() <= center.getY() + 35;
-                case "east" -> position.getX() <= center.getX() + 30;
-                case "west" -> position.getX() >= center.getX() - 65;
-                default -> false;
-            };
-        } else{
-            return switch (origin) {
-                case "north" -> position.getY() >= center.getY() ;
-                case "south" -> position.getY() <= center.getY() ;
-                case "east" -> position.getX() <= center.getX();
-                case "west" -> position.getX() >= center.getX();
-                default -> false;
-            };
-
-        }
 
+    public List<Intersection> getIntersections() {
+        return kernel.getIntersections();
     }
 
-
     /**
-     
-     * tome el movimiento del vector para  un vehiculo que se acerca al centro de la intersección.
+     * @return la última fotografía del mundo publicada por el núcleo.
      */
-    private Point2D getPreCenterMovement(String origin) {
-        return switch (origin) {
-            case "north" -> new Point2D(0, VEHICLE_SPEED);  // Move South
-            case "south" -> new Point2D(0, -VEHICLE_SPEED); // Move North
-            case "east" -> new Point2D(-VEHICLE_SPEED, 0); // Move West
-            case "west" -> new Point2D(VEHICLE_SPEED, 0);  // Move East
-            default -> Point2D.ZERO;
-        };
+    public WorldSnapshot getSnapshot() {
+        return kernel.getSnapshot();
     }
 
     /**
-     * Gets the movement vector for a vehicle that has passed the center, handling turns.
+     * @return el cuadro interpolado del último pulso de animación, el que debe dibujarse.
      */
-    private Point2D getPostCenterMovement(String origin, String maneuver) {
-        if ("straight".equals(maneuver)) {
-            return getPreCenterMovement(origin);
-        }
-
-
-        return switch (origin) {
-            case "north" -> switch (maneuver) {
-                case "left" -> new Point2D(VEHICLE_SPEED, 0);
-                case "right" -> new Point2D(-VEHICLE_SPEED, 0);
-                default -> getPreCenterMovement(origin);
-            };
-            case "south" -> switch (maneuver) {
-                case "left" -> new Point2D(-VEHICLE_SPEED, 0);
-                case "right" -> new Point2D(VEHICLE_SPEED, 0);
-                default -> getPreCenterMovement(origin);
-            };
-            case "east" -> switch (maneuver) {
-                case "left" -> new Point2D(0, VEHICLE_SPEED);
-                case "right" -> new Point2D(0, -VEHICLE_SPEED);
-                default -> getPreCenterMovement(origin);
-            };
-            case "west" -> switch (maneuver) {
-                case "left" -> new Point2D(0, -VEHICLE_SPEED);
-                case "right" -> new Point2D(0, VEHICLE_SPEED);
-                default -> getPreCenterMovement(origin);
-            };
-            default -> Point2D.ZERO;
-        };
+    public WorldSnapshot getRenderSnapshot() {
+        return renderFrame;
     }
 
-
-
-    public List<Intersection> getIntersections() {
-        return intersections;
+    public SimulationKernel getKernel() {
+        return kernel;
     }
 
-    private java.util.Optional<Intersection> findIntersectionById(String id) {
-        return intersections.stream()
-                .filter(i -> i.getId().equalsIgnoreCase(id))
-                .findFirst();
-    }
 
-    
     public void setUiUpdateCallback(Consumer<Void> uiUpdateCallback) {
         this.uiUpdateCallback = uiUpdateCallback;
     }
@@ -0,0 +1,570 @@
+package app.paralelafinal.escenario1.simulation;
+
+import app.paralelafinal.comun.DemandGenerator;
+import app.paralelafinal.comun.SpawnRequest;
+import app.paralelafinal.comun.WorldSnapshot;
+import app.paralelafinal.config.SimulationConfig;
+import app.paralelafinal.escenario1.controladores.TrafficController;
+import app.paralelafinal.escenario1.entidades.Approach;
+import app.paralelafinal.escenario1.entidades.Intersection;
+import app.paralelafinal.escenario1.entidades.Maneuver;
+import app.paralelafinal.escenario1.entidades.Vehicle;
+import app.paralelafinal.metricas.IntersectionStepEvent;
+import app.paralelafinal.metricas.SimulationTickEvent;
+import app.paralelafinal.metricas.SpawnRejectedEvent;
+import javafx.geometry.Point2D;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static app.paralelafinal.config.SimulationConfig.*;
+
+/**
+ * Núcleo de la simulación del escenario 1, sin dependencias de JavaFX Application/Timeline.
+ * Avanza el mundo en ticks fijos de {@link SimulationConfig#VEHICLE_UPDATE_INTERVAL_MS} milisegundos
+ * de tiempo simulado, por lo que puede ejecutarse tan rápido como lo permita la CPU
+ * (por ejemplo en un servidor sin pantalla) o ser consumido por {@link SimulationEngine}.
+ */
+public class SimulationKernel {
+
+    public static final long TICK_MS = SimulationConfig.VEHICLE_UPDATE_INTERVAL_MS;
+
+    private static final Point2D CENTER = new Point2D(SimulationConfig.SCENE_WIDTH / 2.0, SimulationConfig.SCENE_HEIGHT / 2.0);
+
+    // --- Simulation State ---
+    private final List<Intersection> intersections;
+    private final TrafficController trafficController;
+
+    // --- Virtual time ---
+    private long tickCount = 0;
+    private double pendingMillis = 0;
+    private long vehicleCounter = 0;
+
+    // --- Spawn requests from other threads, applied at the start of the next tick ---
+    // Cada elemento es un lote completo: un lote de mil vehículos cuesta una sola inserción
+    private final Queue<List<SpawnRequest>> inbox = new ConcurrentLinkedQueue<>();
+
+    // --- Demanda estocástica opcional, consumida en el hilo de la simulación ---
+    private volatile DemandGenerator demand;
+
+    // --- Published state ---
+    private final WorldSnapshot.Builder snapshotBuilder = new WorldSnapshot.Builder();
+    private volatile WorldSnapshot snapshot = WorldSnapshot.EMPTY;
+    // Un lector pidió un cuadro nuevo; sin pedidos (por ejemplo, en run() sin pantalla) no se publica nada
+    private volatile boolean snapshotRequested = false;
+
+    public SimulationKernel() {
+        this.intersections = new ArrayList<>();
+        setupIntersections();
+        this.trafficController = new TrafficController(intersections);
+    }
+
+    /**
+     * Initializes the four intersections (North, South, East, West).
+     */
+    private void setupIntersections() {
+        intersections.add(new Intersection("North"));
+        intersections.add(new Intersection("South"));
+        intersections.add(new Intersection("East"));
+        intersections.add(new Intersection("West"));
+    }
+
+    /**
+     * Avanza la simulación {@code dtMillis} milisegundos de tiempo simulado.
+     * El tiempo sobrante que no completa un tick se acumula para la siguiente llamada.
+     *
+     * @return el número de ticks ejecutados.
+     */
+    public long step(double dtMillis) {
+        pendingMillis += dtMillis;
+        long ticks = (long) (pendingMillis / TICK_MS);
+        pendingMillis -= ticks * TICK_MS;
+        run(ticks);
+        return ticks;
+    }
+
+    /**
+     * Ejecuta exactamente {@code ticks} ticks de simulación en el hilo que llama.
+     */
+    public void run(long ticks) {
+        for (long i = 0; i < ticks; i++) {
+            tick();
+        }
+    }
+
+    private void tick() {
+        tickCount++;
+        drainInbox();
+        drainDemand();
+        trafficController.advance(TICK_MS);
+        updateVehiclePositions();
+        if (snapshotRequested) {
+            snapshotRequested = false;
+            publishSnapshot();
+        }
+    }
+
+    /**
+     * Libera el slot de estado de todos los vehículos que siguen en las colas. Se llama al
+     * terminar la simulación, con el hilo que la avanza ya detenido; después no se avanza más.
+     */
+    public void releaseVehicles() {
+        for (Intersection intersection : intersections) {
+            intersection.getVehicleQueue().forEach(Vehicle::release);
+        }
+    }
+
+    /**
+     * Pide que el próximo tick publique una fotografía nueva. El renderizador la pide una vez
+     * por pulso, así que se construyen tantas como cuadros se dibujan y no una por tick.
+     * Puede llamarse desde cualquier hilo.
+     */
+    public void requestSnapshot() {
+        snapshotRequested = true;
+    }
+
+    /**
+     * Congela las poses de los vehículos y el estado de los semáforos en una {@link WorldSnapshot}
+     * nueva y la publica para los lectores de otros hilos.
+     */
+    private void publishSnapshot() {
+        for (Intersection intersection : intersections) {
+            for (Vehicle v : intersection.getVehicleQueue()) {
+                snapshotBuilder.addVehicle(v.getId(), v.getX(), v.getY(), v.getHeading(), v.isEmergency());
+            }
+            snapshotBuilder.addLight(intersection.getId(), intersection.hasGreenLight());
+        }
+        snapshot = snapshotBuilder.build(tickCount, getSimulationTimeMillis());
+    }
+
+    /**
+     * @return la última fotografía publicada; nunca es null. Solo se renueva después de
+     * {@link #requestSnapshot()} o de añadir vehículos de forma síncrona.
+     */
+    public WorldSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Encola la creación de un vehículo; se aplica al inicio del siguiente tick en el hilo
+     * de la simulación. Puede llamarse desde cualquier hilo (por ejemplo, el de JavaFX).
+     */
+    public void submitVehicle(String type, String direction, String intersectionId) {
+        inbox.add(List.of(new SpawnRequest(type, direction, intersectionId)));
+    }
+
+    /**
+     * Encola un lote de vehículos de una sola vez; el hilo de la simulación los crea todos al
+     * inicio del siguiente tick. Puede llamarse desde cualquier hilo.
+     */
+    public void submitVehicles(Collection<SpawnRequest> batch) {
+        if (!batch.isEmpty()) {
+            inbox.add(List.copyOf(batch));
+        }
+    }
+
+    // El tick publica la fotografía al terminar, así que aquí no se publica por vehículo
+    private void drainInbox() {
+        List<SpawnRequest> batch;
+        while ((batch = inbox.poll()) != null) {
+            for (SpawnRequest request : batch) {
+                spawn(request.type(), request.direction(), request.intersectionId());
+            }
+        }
+    }
+
+    /**
+     * Instala un generador de demanda: en cada tick se crean todas sus llegadas con tiempo
+     * menor o igual al tiempo simulado, con los accesos como ids de intersección (North, South,
+     * East, West) y los movimientos como direcciones. {@code null} lo desinstala.
+     */
+    public void setDemand(DemandGenerator demand) {
+        this.demand = demand;
+    }
+
+    public DemandGenerator getDemand() {
+        return demand;
+    }
+
+    private void drainDemand() {
+        DemandGenerator generator = demand;
+        if (generator != null) {
+            generator.drainUntil(getSimulationTimeMillis(),
+                    arrival -> spawn(arrival.type(), arrival.movement(), arrival.approach()));
+        }
+    }
+
+    /**
+     * Añade un vehículo en la cola de la intersección indicada, de forma síncrona.
+     * Debe llamarse desde el hilo que avanza la simulación.
+     *
+     * @return el vehículo creado, o vacío si la intersección no existe.
+     */
+    public Optional<Vehicle> addVehicle(String type, String direction, String intersectionId) {
+        Optional<Vehicle> vehicle = spawn(type, direction, intersectionId);
+        vehicle.ifPresent(v -> publishSnapshot());
+        return vehicle;
+    }
+
+    /**
+     * Añade un lote de vehículos de forma síncrona y publica una sola fotografía al final.
+     * Debe llamarse desde el hilo que avanza la simulación.
+     *
+     * @return cuántos vehículos se crearon; se omiten los de intersecciones inexistentes.
+     */
+    public int addVehicles(Collection<SpawnRequest> batch) {
+        int added = 0;
+        for (SpawnRequest request : batch) {
+            if (spawn(request.type(), request.direction(), request.intersectionId()).isPresent()) {
+                added++;
+            }
+        }
+        if (added > 0) {
+            publishSnapshot();
+        }
+        return added;
+    }
+
+    // Crea y encola el vehículo sin publicar la fotografía; el tick la publica al terminar
+    private Optional<Vehicle> spawn(String type, String direction, String intersectionId) {
+        Optional<Intersection> target = findIntersectionById(intersectionId);
+        if (target.isEmpty()) {
+            SpawnRejectedEvent.emit(1, intersectionId, null, direction, "unknown intersection");
+        }
+        return target.map(intersection -> {
+            String vehicleId = "V" + System.currentTimeMillis() + "-" + (vehicleCounter++);
+            Vehicle newVehicle = new Vehicle(vehicleId, type, direction, false);
+
+            double centerX = SimulationConfig.SCENE_WIDTH / 2.0;
+            double centerY = SimulationConfig.SCENE_HEIGHT / 2.0;
+            double laneWidth = SimulationConfig.ROAD_WIDTH / 2.0;
+            int queueIndex = intersection.getVehicleQueue().size();
+
+            double[] pos = getVehiclePosition(intersection.getId(), centerX, centerY, laneWidth, queueIndex);
+            newVehicle.setPosition(pos[0], pos[1]);
+            Approach approach = intersection.getApproach();
+            if (approach != null) {
+                face(newVehicle, PRE_CENTER[approach.ordinal()]);
+            }
+
+            intersection.addVehicle(newVehicle);
+            return newVehicle;
+        });
+    }
+
+    /**
+     * logica para actualizar la posicion del vehiculo en la simulación.
+     */
+    void updateVehiclePositions() {
+        final Point2D center = CENTER;
+        final double stopLineDistance = (SimulationConfig.ROAD_WIDTH / 2.0) + (SimulationConfig.VEHICLE_LENGTH / 2.0);
+        final double removalThreshold = SCENE_WIDTH / 2 ;
+
+        SimulationTickEvent tickEvent = new SimulationTickEvent();
+        tickEvent.begin();
+        int queued = 0;
+        for (Intersection intersection : intersections) {
+            IntersectionStepEvent stepEvent = new IntersectionStepEvent();
+            stepEvent.begin();
+            processVehiclesForIntersection(intersection, center, stopLineDistance, removalThreshold);
+            int size = intersection.getVehicleQueue().size();
+            stepEvent.end(1, intersection.getId(), size);
+            queued += size;
+        }
+        tickEvent.end(1, "updateVehiclePositions", tickCount, queued);
+    }
+
+    /**
+     * procesa el movimiento de cada vehiculon por posicion.
+     */
+    private void processVehiclesForIntersection(Intersection intersection, Point2D center, double stopLineDist, double removeDist) {
+        boolean isGreenLight = intersection.hasGreenLight();
+
+        // La cola se itera en orden de llegada y tolera que el líder salga de ella a mitad del recorrido
+        Vehicle precedingVehicle = null;
+        for (Vehicle currentVehicle : intersection.getVehicleQueue()) {
+            if (precedingVehicle == null) {
+                handleLeadVehicle(currentVehicle, intersection, isGreenLight, center, stopLineDist, removeDist);
+            } else {
+                handleFollowingVehicle(currentVehicle, precedingVehicle, intersection, center);
+            }
+            precedingVehicle = currentVehicle;
+        }
+    }
+
+
+    /**
+     * maneja el movimiento del primer vehiculo en la cola.
+     */
+    private void handleLeadVehicle(Vehicle vehicle, Intersection intersection, boolean isGreen, Point2D center, double stopLineDist, double removeDist) {
+        if (isGreen && trafficController.isVehicleAuthorizedToMove(vehicle)) {
+            double dx = vehicle.getX() - center.getX();
+            double dy = vehicle.getY() - center.getY();
+            double distanceToCenter = Math.sqrt(dx * dx + dy * dy);
+
+            if (distanceToCenter > removeDist) {
+                intersection.removeNextVehicle();
+                vehicle.release();
+                return;
+            }
+
+            Point2D movementVector = calculateMovementVector(intersection, vehicle, center);
+            face(vehicle, movementVector);
+            vehicle.translate(movementVector.getX(), movementVector.getY());
+
+        } else {
+            double[] exactStopPosition = stopPositionFor(intersection, center);
+            vehicle.setPosition(exactStopPosition[0], exactStopPosition[1]);
+        }
+    }
+
+    /**
+     * maneja el movimmiento logico para un vehiculo que sigue a otro vehiculo.
+     */
+    private void handleFollowingVehicle(Vehicle current, Vehicle preceding, Intersection intersection, Point2D center) {
+
+        if (!trafficController.isVehicleAuthorizedToMove(current)) {
+            // Mantener posición actual
+            return;
+        }
+
+        Point2D movementVector = calculateMovementVector(intersection, current, center);
+        face(current, movementVector);
+        double gapX = current.getX() + movementVector.getX() - preceding.getX();
+        double gapY = current.getY() + movementVector.getY() - preceding.getY();
+
+        double distanceToPreceding = Math.sqrt(gapX * gapX + gapY * gapY);
+        if (distanceToPreceding < SimulationConfig.VEHICLE_LENGTH + SAFE_FOLLOWING_GAP) {
+            return;
+        }
+
+        current.translate(movementVector.getX(), movementVector.getY());
+    }
+
+
+    // Vectores de movimiento precalculados, indexados por Approach.ordinal() (y Maneuver.ordinal())
+    private static final Point2D[] PRE_CENTER = {
+            new Point2D(0, VEHICLE_SPEED),  // North: Move South
+            new Point2D(0, -VEHICLE_SPEED), // South: Move North
+            new Point2D(-VEHICLE_SPEED, 0), // East: Move West
+            new Point2D(VEHICLE_SPEED, 0)   // West: Move East
+    };
+    private static final Point2D[] EXIT = {
+            PRE_CENTER[0].multiply(-1),
+            PRE_CENTER[1].multiply(-1),
+            PRE_CENTER[2].multiply(-1),
+            PRE_CENTER[3].multiply(-1)
+    };
+    // Giro lateral de la fase 1 del retorno (u-turn)
+    private static final Point2D[] U_TURN_SIDESTEP = {
+            new Point2D(VEHICLE_SPEED, 0),
+            new Point2D(-VEHICLE_SPEED, 0),
+            new Point2D(0, VEHICLE_SPEED),
+            new Point2D(0, -VEHICLE_SPEED)
+    };
+    // Columnas: RIGHT, STRAIGHT, LEFT, U_TURN
+    private static final Point2D[][] POST_CENTER = {
+            {new Point2D(-VEHICLE_SPEED, 0), PRE_CENTER[0], new Point2D(VEHICLE_SPEED, 0), PRE_CENTER[0]},
+            {new Point2D(VEHICLE_SPEED, 0), PRE_CENTER[1], new Point2D(-VEHICLE_SPEED, 0), PRE_CENTER[1]},
+            {new Point2D(0, -VEHICLE_SPEED), PRE_CENTER[2], new Point2D(0, VEHICLE_SPEED), PRE_CENTER[2]},
+            {new Point2D(0, VEHICLE_SPEED), PRE_CENTER[3], new Point2D(0, -VEHICLE_SPEED), PRE_CENTER[3]}
+    };
+
+    // Posición de espera del primer vehículo de cada acceso, indexada por Approach.ordinal()
+    private static final double[][] STOP_POSITIONS = {
+            getVehiclePosition("North", CENTER.getX(), CENTER.getY(), SimulationConfig.LANE_WIDTH, 0),
+            getVehiclePosition("South", CENTER.getX(), CENTER.getY(), SimulationConfig.LANE_WIDTH, 0),
+            getVehiclePosition("East", CENTER.getX(), CENTER.getY(), SimulationConfig.LANE_WIDTH, 0),
+            getVehiclePosition("West", CENTER.getX(), CENTER.getY(), SimulationConfig.LANE_WIDTH, 0)
+    };
+
+    private static double[] stopPositionFor(Intersection intersection, Point2D center) {
+        Approach approach = intersection.getApproach();
+        if (approach != null && center.equals(CENTER)) {
+            return STOP_POSITIONS[approach.ordinal()];
+        }
+        return getVehiclePosition(intersection.getId(), center.getX(), center.getY(), SimulationConfig.LANE_WIDTH, 0);
+    }
+
+    /**
+     *
+     *
+     * calcula el movimiento del vector (deltaX, deltaY) para un vehiculo basado en su origen,
+     * maniobra prevista y posición relativa al centro de la intersección.
+     * .
+     */
+    Point2D calculateMovementVector(Intersection intersection, Vehicle vehicle, Point2D center) {
+        Approach origin = intersection.getApproach();
+        if (origin == null) {
+            return Point2D.ZERO;
+        }
+        Maneuver maneuver = vehicle.getManeuver();
+        if (maneuver == Maneuver.U_TURN) {
+            return handleUTurnMovement(origin, vehicle, center);
+        }
+
+        boolean hasPassedCenter = hasVehiclePassedCenter(origin, vehicle.getX(), vehicle.getY(), center, maneuver);
+
+        // If the vehicle has passed the center, it may need to turn.
+        if (hasPassedCenter) {
+            return POST_CENTER[origin.ordinal()][maneuver.ordinal()];
+        } else {
+            // Otherwise, it moves straight towards the center.
+            return PRE_CENTER[origin.ordinal()];
+        }
+    }
+
+    private Point2D handleUTurnMovement(Approach origin, Vehicle vehicle, Point2D center) {
+        double x = vehicle.getX();
+        double y = vehicle.getY();
+
+        switch (vehicle.getUTurnPhase()) {
+
+            //fase 0: El vehiculo se acerca al centro de la intersección.
+            case 0:
+                if (hasVehiclePassedCenter(origin, x, y, center, Maneuver.U_TURN)) {
+                    vehicle.setUTurnPhase(1);
+                }
+                return PRE_CENTER[origin.ordinal()];
+
+            //fase 1: El vehiculo realiza el giro lateral.
+
+            case 1:
+                double turnFactor = 0.5;
+
+                double laneWidth = SimulationConfig.ROAD_WIDTH / 2.0;
+                double turnDistance = laneWidth * turnFactor;
+
+                boolean turned = switch (origin) {
+                    case NORTH -> x >= center.getX() + turnDistance;
+                    case SOUTH -> x <= center.getX() - turnDistance;
+                    case EAST -> y >= center.getY() + turnDistance;
+                    case WEST -> y <= center.getY() - turnDistance;
+                };
+                if (turned) {
+                    vehicle.setUTurnPhase(2);
+                }
+                return U_TURN_SIDESTEP[origin.ordinal()];
+
+            //fase 2: El vehiculo sale de la intersección.
+            case 2:
+                return EXIT[origin.ordinal()];
+
+            default:
+                return Point2D.ZERO;
+        }
+    }
+    /**
+     * Orienta el vehículo según su vector de movimiento, en grados [0, 360).
+     * Los vectores son siempre paralelos a los ejes, así que no hace falta trigonometría.
+     */
+    private static void face(Vehicle vehicle, Point2D movementVector) {
+        double dx = movementVector.getX();
+        double dy = movementVector.getY();
+        if (dx > 0) {
+            vehicle.setHeading(0);
+        } else if (dy > 0) {
+            vehicle.setHeading(90);
+        } else if (dx < 0) {
+            vehicle.setHeading(180);
+        } else if (dy < 0) {
+            vehicle.setHeading(270);
+        }
+    }
+
+    /**
+
+     * Determina si el vehiculo ha cruzado el punto central de la intersección.
+     */
+    private boolean hasVehiclePassedCenter(Approach origin, double x, double y, Point2D center, Maneuver maneuver) {
+        if (maneuver == Maneuver.LEFT) {
+            return switch (origin) {
+                case NORTH -> y >= center.getY() + 30;
+                case SOUTH -> y <= center.getY() - 50;
+                case EAST -> x <= center.getX() - 60;
+                case WEST -> x >= center.getX() + 30;
+            };
+
+        } else if (maneuver == Maneuver.RIGHT) {
+            return switch (origin) {
+                case NORTH -> y >= center.getY() - 50;
+                case SOUTH -> y <= center.getY() + 35;
+                case EAST -> x <= center.getX() + 30;
+                case WEST -> x >= center.getX() - 65;
+            };
+        } else{
+            return switch (origin) {
+                case NORTH -> y >= center.getY() ;
+                case SOUTH -> y <= center.getY() ;
+                case EAST -> x <= center.getX();
+                case WEST -> x >= center.getX();
+            };
+
+        }
+
+    }
+
+    /**
+     * Calcula la posición de espera de un vehículo en la cola de una intersección.
+     *
+     * @param index posición del vehículo dentro de la cola (0 = primero).
+     * @return las coordenadas {x, y} del vehículo.
+     */
+    public static double[] getVehiclePosition(String intersectionId, double centerX, double centerY, double laneWidth, int index) {
+        double x = 0, y = 0;
+        double spacing = SimulationConfig.VEHICLE_SPACING; // Use spacing from config
+
+        switch (intersectionId) {
+            case "North":
+                x = centerX - laneWidth / 2 - SimulationConfig.VEHICLE_LENGTH / 2;
+                y = centerY - SimulationConfig.ROAD_WIDTH  / 2 - spacing * (index + 1);
+                break;
+            case "South":
+                x = centerX + laneWidth / 2 - SimulationConfig.VEHICLE_LENGTH / 2;
+                y = centerY + SimulationConfig.ROAD_WIDTH / 2 + spacing * (index + 1);
+                break;
+            case "East":
+                x = centerX + SimulationConfig.ROAD_WIDTH / 2 + spacing * (index + 1);
+                y = centerY - laneWidth / 2 - SimulationConfig.VEHICLE_LENGTH / 2;
+                break;
+            case "West":
+                x = centerX - SimulationConfig.ROAD_WIDTH / 2 - spacing * (index + 1);
+                y = centerY + laneWidth / 2 - SimulationConfig.VEHICLE_LENGTH / 2;
+                break;
+        }
+
+        return new double[]{x, y};
+    }
+
+    public List<Intersection> getIntersections() {
+        return intersections;
+    }
+
+    public TrafficController getTrafficController() {
+        return trafficController;
+    }
+
+    /**
+     * @return el número de ticks ejecutados desde la creación del núcleo.
+     */
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * @return el tiempo simulado transcurrido, en milisegundos.
+     */
+    public long getSimulationTimeMillis() {
+        return tickCount * TICK_MS;
+    }
+
+    private Optional<Intersection> findIntersectionById(String id) {
+        return intersections.stream()
+                .filter(i -> i.getId().equalsIgnoreCase(id))
+                .findFirst();
+    }
+}
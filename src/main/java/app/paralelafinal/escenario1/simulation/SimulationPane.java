@@ -1,11 +1,10 @@
 // app.paralelafinal.ui.SimulationPane
 package app.paralelafinal.escenario1.simulation;
 
+import app.paralelafinal.comun.WorldSnapshot;
 import app.paralelafinal.config.SimulationConfig;
-import app.paralelafinal.escenario1.entidades.Intersection;
 import app.paralelafinal.escenario1.entidades.Vehicle;
 import javafx.geometry.Insets;
-import javafx.geometry.Point2D;
 import javafx.geometry.Pos;
 import javafx.scene.Group;
 import javafx.scene.layout.BorderPane;
@@ -28,11 +27,21 @@ public class SimulationPane {
     private static Pane simulationCanvas;
     private static SimulationEngine simulationEngine;
     private static SimulationPane simulationPane;
+    private static RenderMode renderMode = RenderMode.NODES;
+    private static CanvasVehicleRenderer canvasRenderer;
     private Map<Vehicle, Circle> vehicleNodes = new HashMap<>();
     private Map<String, TrafficLightVisuals> trafficLightVisualsMap;
 
     public SimulationPane(SimulationEngine engine) throws InterruptedException {
+        this(engine, RenderMode.NODES);
+    }
+
+    public SimulationPane(SimulationEngine engine, RenderMode mode) throws InterruptedException {
         simulationEngine = engine;
+        renderMode = mode;
+        canvasRenderer = mode == RenderMode.CANVAS
+                ? new CanvasVehicleRenderer(SimulationConfig.SCENE_WIDTH, SimulationConfig.SCENE_HEIGHT)
+                : null;
         root = new BorderPane();
         simulationCanvas = new Pane();
         this.trafficLightVisualsMap = new HashMap<>();
@@ -76,6 +85,10 @@ public class SimulationPane {
         drawRoads(simulationCanvas);
         drawRoadMarkings(simulationCanvas);
         addPareSigns(simulationCanvas);
+        if (canvasRenderer != null) {
+            // Capa única para todos los vehículos, encima de la carretera
+            simulationCanvas.getChildren().add(canvasRenderer.getCanvas());
+        }
         //setupTrafficLightsAndLabels(simulationCanvas);
 
         root.setCenter(simulationCanvas);
@@ -257,53 +270,49 @@ public class SimulationPane {
     }
 
     private static void drawVehicles() {
+        if (renderMode == RenderMode.CANVAS) {
+            // Una sola pasada sobre el Canvas, sin crear nodos por vehículo
+            canvasRenderer.draw(simulationEngine.getRenderSnapshot());
+            return;
+        }
+
         // Brra todos los sprites de vehículos anteriores
         simulationCanvas.getChildren().removeIf(node ->
             "vehicle".equals(node.getUserData())
         );
 
-        //  Calcula una vez el centro de la intersección
-        Point2D center = new Point2D(
-            SimulationConfig.SCENE_WIDTH  / 2.0,
-            SimulationConfig.SCENE_HEIGHT / 2.0
-        );
-
-        //  Por cada intersección y cada vehículo en su cola...
-        for (Intersection intersection : simulationEngine.getIntersections()) {
-            for (Vehicle v : intersection.getVehicleQueue()) {
-                // Crea el sprite y márcalo
-                Group sprite = createVehicleShape(v);
-                sprite.setUserData("vehicle");
-
-                //  Obtiene el vector unitario de movimiento
-                Point2D heading = simulationEngine.calculateMovementVector(intersection, v, center);
+        //  Lee el cuadro interpolado del pulso actual: una fotografía consistente,
+        //  sin tocar las colas que el hilo de simulación está modificando
+        WorldSnapshot frame = simulationEngine.getRenderSnapshot();
+        for (int i = 0; i < frame.size(); i++) {
+            // Crea el sprite y márcalo
+            Group sprite = createVehicleShape(frame.getId(i), frame.isEmergency(i));
+            sprite.setUserData("vehicle");
 
-                //  Convierte ese vector a un ángulo en grados [0,360)
-                double rawAngle = Math.toDegrees(Math.atan2(heading.getY(), heading.getX()));
-                double angle    = (rawAngle + 360) % 360;
+            //  El núcleo ya calculó el rumbo en grados [0,360)
+            sprite.setRotate(frame.getHeading(i));
 
-                //  Aplica la rotación al sprite
-                sprite.setRotate(angle);
+            //  Y lo posiciona según la coordenada lógica del vehículo
+            sprite.setLayoutX(frame.getX(i));
+            sprite.setLayoutY(frame.getY(i));
 
-                //  Y lo posiciona según la coordenada lógica del vehículo
-                Point2D pos = v.getPosition();
-                sprite.setLayoutX(pos.getX());
-                sprite.setLayoutY(pos.getY());
-
-                //  Finalmente, se añade al canvas de simulación
-                simulationCanvas.getChildren().add(sprite);
-            }
+            //  Finalmente, se añade al canvas de simulación
+            simulationCanvas.getChildren().add(sprite);
         }
     }
 
     private static Group createVehicleShape(Vehicle v) {
+        return createVehicleShape(v.getId(), v.isEmergency());
+    }
+
+    private static Group createVehicleShape(String id, boolean emergency) {
         Group vehicleGroup = new Group();
 
         Rectangle body = new Rectangle(SimulationConfig.VEHICLE_LENGTH, SimulationConfig.VEHICLE_WIDTH);
         body.setArcWidth(5);
         body.setArcHeight(5);
 
-        if ("emergency".equalsIgnoreCase(v.getType())) {
+        if (emergency) {
             body.setFill(Color.RED);
             body.setStroke(Color.YELLOW);
             body.setStrokeWidth(2);
@@ -321,7 +330,7 @@ public class SimulationPane {
             vehicleGroup.getChildren().addAll(body, light1, light2);
         } else {
             Color[] carColors = {Color.BLUE, Color.GREEN, Color.PURPLE, Color.ORANGE, Color.BROWN, Color.NAVY};
-            body.setFill(carColors[Math.abs(v.getId().hashCode()) % carColors.length]);
+            body.setFill(carColors[Math.abs(id.hashCode()) % carColors.length]);
             body.setStroke(Color.BLACK);
             body.setStrokeWidth(1);
             vehicleGroup.getChildren().add(body);
@@ -353,29 +362,7 @@ public class SimulationPane {
     }
 
     public static double[] getVehiclePosition(String intersectionId, double centerX, double centerY, double laneWidth, int index) {
-        double x = 0, y = 0;
-        double spacing = SimulationConfig.VEHICLE_SPACING; // Use spacing from config
-
-        switch (intersectionId) {
-            case "North":
-                x = centerX - laneWidth / 2 - SimulationConfig.VEHICLE_LENGTH / 2;
-                y = centerY - SimulationConfig.ROAD_WIDTH  / 2 - spacing * (index + 1);
-                break;
-            case "South":
-                x = centerX + laneWidth / 2 - SimulationConfig.VEHICLE_LENGTH / 2;
-                y = centerY + SimulationConfig.ROAD_WIDTH / 2 + spacing * (index + 1);
-                break;
-            case "East":
-                x = centerX + SimulationConfig.ROAD_WIDTH / 2 + spacing * (index + 1);
-                y = centerY - laneWidth / 2 - SimulationConfig.VEHICLE_LENGTH / 2;
-                break;
-            case "West":
-                x = centerX - SimulationConfig.ROAD_WIDTH / 2 - spacing * (index + 1);
-                y = centerY + laneWidth / 2 - SimulationConfig.VEHICLE_LENGTH / 2;
-                break;
-        }
-
-        return new double[]{x, y};
+        return SimulationKernel.getVehiclePosition(intersectionId, centerX, centerY, laneWidth, index);
     }
 
    private static double getVehicleRotation(String intersectionId) {
@@ -0,0 +1,94 @@
+package app.paralelafinal.escenario2.controladores;
+
+import app.paralelafinal.escenario2.entidades.Intersection;
+import app.paralelafinal.escenario2.entidades.IntersectionListener;
+import app.paralelafinal.escenario2.entidades.Lane;
+import app.paralelafinal.escenario2.entidades.Vehicle;
+import app.paralelafinal.metricas.LatencyHistogram;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Dispara la preferencia de paso en cuanto un vehículo de emergencia entra a una cola y mide
+ * cuánto tarda el semáforo de esa intersección en ponerse en verde (de encolar a verde). Cada
+ * vez que la emergencia pasa a otra intersección se mide de nuevo.
+ *
+ * La latencia se registra en tiempo simulado, el del {@link SimulationClock} que dispara la
+ * preferencia, y además en tiempo de pared; solo la primera tiene sentido con el reloj manual
+ * o acelerado.
+ */
+class EmergencyLatencyTracker implements IntersectionListener {
+
+    private record Pending(Intersection intersection, long enqueuedMillis, long enqueuedNanos) {}
+
+    private final Runnable onEmergency;
+    private final LongSupplier simulationMillis;
+    private final LatencyHistogram latency = new LatencyHistogram("emergency enqueue-to-green (sim)");
+    private final LatencyHistogram wallLatency = new LatencyHistogram("emergency enqueue-to-green (wall)");
+    private final Map<Vehicle, Pending> pending = new ConcurrentHashMap<>();
+
+    /**
+     * @param onEmergency acción que solicita la preferencia de paso; se llama en el hilo que encola.
+     * @param simulationMillis tiempo simulado actual, en milisegundos.
+     */
+    EmergencyLatencyTracker(Runnable onEmergency, LongSupplier simulationMillis) {
+        this.onEmergency = onEmergency;
+        this.simulationMillis = simulationMillis;
+    }
+
+    @Override
+    public void onVehicleEnqueued(Intersection intersection, Vehicle vehicle, Lane lane) {
+        if (!vehicle.isEmergency()) {
+            return;
+        }
+        if (intersection.getTrafficLight().isGreen()) {
+            latency.record(0);
+            wallLatency.record(0);
+            return;
+        }
+        pending.put(vehicle, new Pending(intersection, simulationMillis.getAsLong(), System.nanoTime()));
+        onEmergency.run();
+    }
+
+    @Override
+    public void onVehicleDequeued(Intersection intersection, Vehicle vehicle, Lane lane) {
+        if (!vehicle.isEmergency()) {
+            return;
+        }
+        pending.computeIfPresent(vehicle, (v, p) -> p.intersection() == intersection ? null : p);
+        if (!pending.isEmpty()) {
+            // Una emergencia dejó su cola: revisar si otra necesita el verde sin esperar al ciclo
+            onEmergency.run();
+        }
+    }
+
+    /**
+     * Debe llamarse después de cambiar semáforos: registra las emergencias que ya tienen verde.
+     */
+    void onLightsChanged() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        long nowMillis = simulationMillis.getAsLong();
+        long nowNanos = System.nanoTime();
+        pending.values().removeIf(p -> {
+            if (!p.intersection().getTrafficLight().isGreen()) {
+                return false;
+            }
+            latency.record(TimeUnit.MILLISECONDS.toNanos(nowMillis - p.enqueuedMillis()));
+            wallLatency.record(nowNanos - p.enqueuedNanos());
+            return true;
+        });
+    }
+
+    LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    LatencyHistogram getWallLatency() {
+        return wallLatency;
+    }
+}
@@ -0,0 +1,62 @@
+package app.paralelafinal.escenario2.controladores;
+
+import app.paralelafinal.escenario2.entidades.Intersection;
+import app.paralelafinal.escenario2.entidades.IntersectionListener;
+import app.paralelafinal.escenario2.entidades.Lane;
+import app.paralelafinal.escenario2.entidades.Vehicle;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Índice de todas las emergencias encoladas en la red, ordenadas por {@link Intersection#BY_ARRIVAL}.
+ * Se actualiza al encolar y desencolar, así que la emergencia más antigua se obtiene sin
+ * recorrer las intersecciones.
+ *
+ * Un traspaso siempre desencola en el origen antes de encolar en el destino, por lo que un
+ * vehículo aparece a lo sumo una vez.
+ */
+class EmergencyQueueIndex implements IntersectionListener {
+
+    private final ConcurrentSkipListSet<Vehicle> waiting = new ConcurrentSkipListSet<>(Intersection.BY_ARRIVAL);
+
+    /**
+     * Se registra como listener de la intersección e indexa las emergencias que ya estaban encoladas.
+     */
+    void track(Intersection intersection) {
+        intersection.addListener(this);
+        for (Collection<Vehicle> queue : List.of(intersection.getRightVQueue(), intersection.getMidVQueue(),
+                intersection.getLeftVQueue(), intersection.getUTurnVQueue())) {
+            queue.forEach(vehicle -> onVehicleEnqueued(intersection, vehicle, vehicle.getQueuedLane()));
+        }
+    }
+
+    @Override
+    public void onVehicleEnqueued(Intersection intersection, Vehicle vehicle, Lane lane) {
+        if (vehicle.isEmergency()) {
+            waiting.add(vehicle);
+        }
+    }
+
+    @Override
+    public void onVehicleDequeued(Intersection intersection, Vehicle vehicle, Lane lane) {
+        if (vehicle.isEmergency()) {
+            waiting.remove(vehicle);
+        }
+    }
+
+    /**
+     * @return la emergencia que llegó primero a cualquier cola, o null si no hay ninguna.
+     */
+    Vehicle oldest() {
+        // first() lanza si otro hilo vacía el conjunto entre la consulta y la lectura
+        Iterator<Vehicle> it = waiting.iterator();
+        return it.hasNext() ? it.next() : null;
+    }
+
+    int size() {
+        return waiting.size();
+    }
+}
@@ -0,0 +1,32 @@
+package app.paralelafinal.escenario2.controladores;
+
+import java.util.Locale;
+
+/**
+ * Cómo avanza el {@link TrafficController} las intersecciones del Escenario 2 en cada paso.
+ *
+ * FORK_JOIN recorre todas las intersecciones desde el hilo del reloj y las reparte en un
+ * {@code ForkJoinPool} (modo original); ACTORS convierte cada intersección en un actor con su
+ * propio buzón y su propio hilo virtual, y los traspasos de vehículos y los cambios de semáforo
+ * viajan como mensajes. Se elige al lanzar con {@code --execution=actors} o {@code -Dexecution=actors}.
+ */
+public enum ExecutionMode {
+    FORK_JOIN,
+    ACTORS;
+
+    public static final String PARAMETER = "execution";
+
+    /**
+     * @return el modo con ese nombre (sin distinguir mayúsculas), o FORK_JOIN si es null o vacío.
+     */
+    public static ExecutionMode fromString(String value) {
+        if (value == null || value.isBlank()) {
+            return FORK_JOIN;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown execution mode: " + value);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package app.paralelafinal.escenario2.controladores;
+
+import app.paralelafinal.escenario2.entidades.Intersection;
+import app.paralelafinal.escenario2.entidades.Lane;
+import app.paralelafinal.escenario2.entidades.TrafficLight;
+import app.paralelafinal.escenario2.entidades.Vehicle;
+import app.paralelafinal.metricas.InstrumentedLock;
+import app.paralelafinal.metricas.LightChangeEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Una intersección como actor: un buzón FIFO y un hilo virtual que procesa sus mensajes de uno
+ * en uno, así que nunca hay dos hilos trabajando sobre las mismas colas.
+ *
+ * Cada paso del reloj llega como {@link Step}. El actor avanza sus colas y manda a las
+ * intersecciones vecinas un {@link Arrival} por cada vehículo que les entrega; quien envía
+ * suma un pendiente a la {@link StepCountdown} del paso y quien recibe lo descuenta al encolar,
+ * de modo que el paso solo termina cuando todos avanzaron y todos los traspasos llegaron.
+ * Un traspaso que llega antes que el {@code Step} del mismo paso se guarda hasta después de
+ * avanzar, igual que la bandeja de salida del modo {@link ExecutionMode#FORK_JOIN}.
+ */
+final class IntersectionActor implements Runnable {
+
+    sealed interface Message permits Step, Arrival, LightCommand, Stop {}
+
+    /** Avanzar un paso; al terminar, el actor descuenta su pendiente de {@code countdown}. */
+    record Step(long tick, StepCountdown countdown) implements Message {}
+
+    /** Un vehículo que otra intersección entrega en el paso {@code tick}. */
+    record Arrival(long tick, Vehicle vehicle, Lane lane, StepCountdown countdown) implements Message {}
+
+    /** Poner el semáforo en verde o rojo; {@code green == null} lo alterna. {@code reason} va al evento JFR. */
+    record LightCommand(Boolean green, String reason) implements Message {}
+
+    record Stop() implements Message {}
+
+    /**
+     * Pendientes de un paso: uno por actor y uno por traspaso en vuelo. Un actor suma sus
+     * traspasos antes de descontar su propio paso, así que la cuenta solo llega a cero cuando
+     * todos avanzaron y todo traspaso se encoló. A diferencia de un {@code Phaser}, no tiene
+     * límite de partes (65535), que miles de intersecciones con varios traspasos cada una superan.
+     */
+    static final class StepCountdown {
+        private final AtomicInteger pending;
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        StepCountdown(int actors) {
+            this.pending = new AtomicInteger(actors);
+            if (actors == 0) {
+                done.countDown();
+            }
+        }
+
+        /** Un traspaso más en vuelo; debe llamarse antes de mandar el {@link Arrival}. */
+        void register() {
+            pending.incrementAndGet();
+        }
+
+        void arrive() {
+            if (pending.decrementAndGet() == 0) {
+                done.countDown();
+            }
+        }
+
+        /** Espera a que la cuenta llegue a cero; como {@code Phaser.arriveAndAwaitAdvance}, no se interrumpe. */
+        void await() {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    done.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Lógica de un paso sobre una intersección; entrega los traspasos con {@link #tell}.
+     */
+    interface StepHandler {
+        void step(IntersectionActor actor, Step step);
+    }
+
+    private final Intersection intersection;
+    private final StepHandler stepHandler;
+    private final Runnable onLightChanged;
+    private final LinkedBlockingQueue<Message> mailbox = new LinkedBlockingQueue<>();
+    // Traspasos del paso en curso recibidos antes de su Step; solo los toca el hilo del actor
+    private final List<Arrival> early = new ArrayList<>();
+    private long lastStep = -1;
+    private Thread thread;
+
+    IntersectionActor(Intersection intersection, StepHandler stepHandler, Runnable onLightChanged) {
+        this.intersection = intersection;
+        this.stepHandler = stepHandler;
+        this.onLightChanged = onLightChanged;
+    }
+
+    Intersection getIntersection() {
+        return intersection;
+    }
+
+    void start() {
+        thread = Thread.ofVirtual().name("intersection-" + intersection.getId()).start(this);
+    }
+
+    void tell(Message message) {
+        mailbox.add(message);
+    }
+
+    /**
+     * Pide al actor que termine después de los mensajes ya encolados y espera a que lo haga.
+     */
+    void stop() {
+        Thread current = thread;
+        if (current == null) {
+            return;
+        }
+        tell(new Stop());
+        try {
+            current.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (true) {
+                Message message = mailbox.take();
+                try {
+                    if (message instanceof Stop) {
+                        return;
+                    }
+                    handle(message);
+                } catch (RuntimeException e) {
+                    // Same as the clock: report the failure but keep the actor alive
+                    SimulationClock.reportFailure(e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void handle(Message message) {
+        switch (message) {
+            case Step step -> {
+                try {
+                    stepHandler.step(this, step);
+                } finally {
+                    lastStep = step.tick();
+                    for (Arrival arrival : early) {
+                        accept(arrival);
+                    }
+                    early.clear();
+                    step.countdown().arrive();
+                }
+            }
+            case Arrival arrival -> {
+                if (arrival.tick() > lastStep) {
+                    early.add(arrival);
+                } else {
+                    accept(arrival);
+                }
+            }
+            case LightCommand command -> {
+                TrafficLight light = intersection.getTrafficLight();
+                boolean before = light.isGreen();
+                if (command.green() == null) {
+                    light.changeLight();
+                } else {
+                    light.getGreen().set(command.green());
+                }
+                if (light.isGreen() != before) {
+                    LightChangeEvent.emit(2, intersection.getId(), light.isGreen(), command.reason());
+                }
+                onLightChanged.run();
+            }
+            case Stop stop -> { }
+        }
+    }
+
+    private void accept(Arrival arrival) {
+        InstrumentedLock lock = intersection.getLock();
+        lock.lock();
+        try {
+            intersection.addVehicleToQueue(arrival.vehicle(), arrival.lane());
+        } finally {
+            lock.unlock();
+            arrival.countdown().arrive();
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package app.paralelafinal.escenario2.controladores;
+
+import app.paralelafinal.escenario2.entidades.Maneuver;
+import app.paralelafinal.escenario2.entidades.RoadGridTopology;
+import app.paralelafinal.escenario2.entidades.Route;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Calcula rutas entre intersecciones de una {@link RoadGridTopology}. Desde cada nodo se puede
+ * seguir a la siguiente intersección de la cadena, dar un U-turn hacia la opuesta o girar a la
+ * calle vertical hacia la fila de arriba o de abajo; el costo es la distancia recorrida más
+ * {@link #U_TURN_PENALTY} por cada U-turn y {@link #TURN_PENALTY} por cada giro vertical.
+ *
+ * En redes de hasta {@link #ALL_PAIRS_LIMIT} nodos precalcula al construirse una tabla de primer
+ * salto para todos los pares (un Dijkstra por origen), así que una consulta solo recorre la tabla.
+ * En redes mayores la tabla no cabe y cada par se resuelve con A* la primera vez que se pide.
+ * En ambos casos la ruta armada queda en caché y las consultas repetidas no la recalculan; con
+ * la tabla tampoco reservan memoria, mientras que el caché de A* encajona la clave en un Long.
+ * Es segura para llamarse desde varios hilos.
+ */
+public class RoutePlanner {
+
+    public static final int ALL_PAIRS_LIMIT = 1024;
+    public static final double U_TURN_PENALTY = 200;
+    public static final double TURN_PENALTY = 100;
+    // Al superar este tamaño el caché de A* se vacía y vuelve a llenarse con los pares en uso
+    private static final int CACHE_LIMIT = 1 << 16;
+    // Marca en el caché de A* de los pares sin camino, para no repetir búsquedas que fallan
+    private static final Route UNREACHABLE = new Route(new int[0], new Route.Turn[0], Double.POSITIVE_INFINITY);
+
+    private final RoadGridTopology topology;
+    private final int n;
+    // firstHop[origin * n + goal]: siguiente nodo desde origin hacia goal, NONE si no hay camino
+    private final int[] firstHop;
+    private final Route[] routeTable;
+    private final Map<Long, Route> routeCache = new ConcurrentHashMap<>();
+    // maneuverRoutes[origin * MANEUVERS + maneuver]: ruta implícita de una maniobra elegida a mano
+    private static final int MANEUVERS = Maneuver.values().length;
+    private final Route[] maneuverRoutes;
+
+    public RoutePlanner(RoadGridTopology topology) {
+        this(topology, topology.size() <= ALL_PAIRS_LIMIT);
+    }
+
+    // allPairs elige la estrategia sin mirar el tamaño, para comparar ambas sobre la misma red
+    RoutePlanner(RoadGridTopology topology, boolean allPairs) {
+        this.topology = topology;
+        this.n = topology.size();
+        this.maneuverRoutes = new Route[n * MANEUVERS];
+        if (allPairs) {
+            this.firstHop = new int[n * n];
+            this.routeTable = new Route[n * n];
+            double[] dist = new double[n];
+            int[] parent = new int[n];
+            for (int origin = 0; origin < n; origin++) {
+                search(origin, RoadGridTopology.NONE, dist, parent);
+                for (int goal = 0; goal < n; goal++) {
+                    firstHop[origin * n + goal] = firstHopOf(origin, goal, parent);
+                }
+            }
+        } else {
+            this.firstHop = null;
+            this.routeTable = null;
+        }
+    }
+
+    public boolean usesAllPairsTable() {
+        return firstHop != null;
+    }
+
+    /**
+     * @return la ruta de menor costo entre dos nodos, o null si la meta no es alcanzable.
+     */
+    public Route route(int origin, int goal) {
+        if (firstHop != null) {
+            int key = origin * n + goal;
+            Route route = routeTable[key];
+            if (route == null && (origin == goal || firstHop[key] != RoadGridTopology.NONE)) {
+                route = buildFromTable(origin, goal);
+                routeTable[key] = route; // Carrera benigna: dos hilos arman la misma ruta inmutable
+            }
+            return route;
+        }
+        long key = (long) origin * n + goal;
+        Route route = routeCache.get(key);
+        if (route == null) {
+            route = aStar(origin, goal);
+            if (route == null) {
+                route = UNREACHABLE;
+            }
+            if (routeCache.size() >= CACHE_LIMIT) {
+                routeCache.clear();
+            }
+            routeCache.put(key, route);
+        }
+        return route == UNREACHABLE ? null : route;
+    }
+
+    /**
+     * Igual que {@link #route(int, int)}, con nombres de intersección.
+     *
+     * @throws IllegalArgumentException si alguno de los nombres no existe en la topología.
+     */
+    public Route route(String origin, String goal) {
+        return route(requireId(origin), requireId(goal));
+    }
+
+    /**
+     * Ruta que recorre un vehículo que sale de {@code origin} con una maniobra fija: la meta es la
+     * intersección donde termina la maniobra (la opuesta tras un U-turn, la siguiente para las
+     * variantes "second", la de la fila vecina para los giros verticales "first", el final de la
+     * cadena para los que siguen derecho).
+     */
+    public Route routeFor(int origin, Maneuver maneuver) {
+        int key = origin * MANEUVERS + maneuver.ordinal();
+        Route route = maneuverRoutes[key];
+        if (route == null) {
+            route = toRoute(walk(origin, maneuver));
+            maneuverRoutes[key] = route;
+        }
+        return route;
+    }
+
+    private int[] walk(int origin, Maneuver maneuver) {
+        int second = topology.next(origin);
+        if (maneuver == Maneuver.U_TURN) {
+            return path(origin, topology.opposite(origin));
+        }
+        if (maneuver == Maneuver.U_TURN_SECOND) {
+            return second == RoadGridTopology.NONE ? path(origin) : path(origin, second, topology.opposite(second));
+        }
+        if (maneuver.isSpecialTurn()) {
+            if (maneuver.isSecondVariant()) {
+                return path(origin, second);
+            }
+            // Gira ahí mismo; si hay fila en esa dirección, la ruta sigue en ella
+            return path(origin, maneuver.goesNorth() ? topology.north(origin) : topology.south(origin));
+        }
+        // Derecho (straight, left y right sin giro norte-sur): hasta el final de la cadena
+        int length = 1;
+        for (int v = topology.next(origin); v != RoadGridTopology.NONE; v = topology.next(v)) {
+            length++;
+        }
+        int[] nodes = new int[length];
+        nodes[0] = origin;
+        for (int i = 1; i < length; i++) {
+            nodes[i] = topology.next(nodes[i - 1]);
+        }
+        return nodes;
+    }
+
+    // Los nodos en orden, cortando en el primero que no existe
+    private static int[] path(int... nodes) {
+        int length = 0;
+        while (length < nodes.length && nodes[length] != RoadGridTopology.NONE) {
+            length++;
+        }
+        return Arrays.copyOf(nodes, length);
+    }
+
+    private int requireId(String name) {
+        int id = topology.idOf(name);
+        if (id == RoadGridTopology.NONE) {
+            throw new IllegalArgumentException("Unknown intersection: " + name);
+        }
+        return id;
+    }
+
+    private Route buildFromTable(int origin, int goal) {
+        int length = 1;
+        for (int v = origin; v != goal; v = firstHop[v * n + goal]) {
+            length++;
+        }
+        int[] nodes = new int[length];
+        nodes[0] = origin;
+        for (int i = 1; i < length; i++) {
+            nodes[i] = firstHop[nodes[i - 1] * n + goal];
+        }
+        return toRoute(nodes);
+    }
+
+    private Route aStar(int origin, int goal) {
+        double[] dist = new double[n];
+        int[] parent = new int[n];
+        if (!search(origin, goal, dist, parent)) {
+            return null;
+        }
+        int length = 1;
+        for (int v = goal; v != origin; v = parent[v]) {
+            length++;
+        }
+        int[] nodes = new int[length];
+        for (int v = goal, i = length - 1; i >= 0; v = parent[v], i--) {
+            nodes[i] = v;
+        }
+        return toRoute(nodes);
+    }
+
+    /**
+     * Dijkstra desde {@code origin}; con una meta se detiene al alcanzarla y usa la distancia en
+     * línea recta como heurística (A*), que nunca sobrestima porque cada arista cuesta al menos eso.
+     *
+     * @return true si se alcanzó la meta (siempre true sin meta).
+     */
+    private boolean search(int origin, int goal, double[] dist, int[] parent) {
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        Arrays.fill(parent, RoadGridTopology.NONE);
+        dist[origin] = 0;
+        PriorityQueue<double[]> open = new PriorityQueue<>((a, b) -> Double.compare(a[0], b[0]));
+        open.add(new double[]{heuristic(origin, goal), origin});
+        while (!open.isEmpty()) {
+            double[] entry = open.poll();
+            int v = (int) entry[1];
+            if (entry[0] > dist[v] + heuristic(v, goal)) {
+                continue; // Entrada vieja: ya se encontró un camino mejor
+            }
+            if (v == goal) {
+                return true;
+            }
+            relax(v, topology.next(v), 0, goal, dist, parent, open);
+            relax(v, topology.opposite(v), U_TURN_PENALTY, goal, dist, parent, open);
+            relax(v, topology.north(v), TURN_PENALTY, goal, dist, parent, open);
+            relax(v, topology.south(v), TURN_PENALTY, goal, dist, parent, open);
+        }
+        return goal == RoadGridTopology.NONE;
+    }
+
+    private void relax(int from, int to, double penalty, int goal, double[] dist, int[] parent, PriorityQueue<double[]> open) {
+        if (to == RoadGridTopology.NONE) {
+            return;
+        }
+        double candidate = dist[from] + distance(from, to) + penalty;
+        if (candidate < dist[to]) {
+            dist[to] = candidate;
+            parent[to] = from;
+            open.add(new double[]{candidate + heuristic(to, goal), to});
+        }
+    }
+
+    private double heuristic(int v, int goal) {
+        return goal == RoadGridTopology.NONE ? 0 : distance(v, goal);
+    }
+
+    private double distance(int a, int b) {
+        return Math.hypot(topology.x(a) - topology.x(b), topology.y(a) - topology.y(b));
+    }
+
+    private static int firstHopOf(int origin, int goal, int[] parent) {
+        if (goal == origin || parent[goal] == RoadGridTopology.NONE) {
+            return RoadGridTopology.NONE;
+        }
+        int v = goal;
+        while (parent[v] != origin) {
+            v = parent[v];
+        }
+        return v;
+    }
+
+    private Route toRoute(int[] nodes) {
+        Route.Turn[] turns = new Route.Turn[nodes.length];
+        double cost = 0;
+        for (int i = 0; i + 1 < nodes.length; i++) {
+            int from = nodes[i];
+            int to = nodes[i + 1];
+            double penalty;
+            if (topology.next(from) == to) {
+                turns[i] = Route.Turn.THROUGH;
+                penalty = 0;
+            } else if (topology.opposite(from) == to) {
+                turns[i] = Route.Turn.U_TURN;
+                penalty = U_TURN_PENALTY;
+            } else {
+                turns[i] = topology.north(from) == to ? Route.Turn.NORTH : Route.Turn.SOUTH;
+                penalty = TURN_PENALTY;
+            }
+            cost += distance(from, to) + penalty;
+        }
+        turns[nodes.length - 1] = Route.Turn.ARRIVE;
+        return new Route(nodes, turns, cost);
+    }
+}
@@ -0,0 +1,244 @@
+package app.paralelafinal.escenario2.controladores;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reloj de simulación que ejecuta tareas periódicas sobre una única línea de tiempo virtual.
+ * Todas las tareas (cambio de semáforos, revisión de emergencias, avance de vehículos)
+ * corren en el mismo hilo y en orden de tiempo virtual, por lo que el resultado no depende
+ * de la velocidad a la que se ejecute el reloj.
+ *
+ * Modos disponibles:
+ * - {@link #realTime()}: 1 ms virtual = 1 ms de reloj de pared.
+ * - {@link #scaled(double)}: el tiempo virtual avanza {@code factor} veces más rápido (x10, x100...).
+ * - {@link #asFastAsPossible()}: no espera entre tareas; avanza tan rápido como permita la CPU.
+ * - {@link #manual()}: no tiene hilo propio; el tiempo solo avanza con {@link #advance(long)}.
+ */
+public class SimulationClock {
+
+    public enum Mode { REAL_TIME, SCALED, AS_FAST_AS_POSSIBLE, MANUAL }
+
+    private static final class ScheduledTask implements Comparable<ScheduledTask> {
+        private final Runnable task;
+        private final long periodMillis;
+        private final long order;
+        private long dueAtMillis;
+
+        private ScheduledTask(Runnable task, long dueAtMillis, long periodMillis, long order) {
+            this.task = task;
+            this.dueAtMillis = dueAtMillis;
+            this.periodMillis = periodMillis;
+            this.order = order;
+        }
+
+        @Override
+        public int compareTo(ScheduledTask other) {
+            int byTime = Long.compare(dueAtMillis, other.dueAtMillis);
+            return byTime != 0 ? byTime : Long.compare(order, other.order);
+        }
+    }
+
+    private final Mode mode;
+    private final double speedFactor;
+    private final PriorityQueue<ScheduledTask> tasks = new PriorityQueue<>();
+    private final Object lock = new Object();
+
+    private volatile long nowMillis = 0;
+    private volatile boolean running = false;
+    private long taskCounter = 0;
+    private Thread driver;
+
+    private SimulationClock(Mode mode, double speedFactor) {
+        this.mode = mode;
+        this.speedFactor = speedFactor;
+    }
+
+    public static SimulationClock realTime() {
+        return new SimulationClock(Mode.REAL_TIME, 1.0);
+    }
+
+    public static SimulationClock scaled(double factor) {
+        if (factor <= 0) {
+            throw new IllegalArgumentException("Invalid speed factor: " + factor);
+        }
+        return new SimulationClock(Mode.SCALED, factor);
+    }
+
+    public static SimulationClock asFastAsPossible() {
+        return new SimulationClock(Mode.AS_FAST_AS_POSSIBLE, Double.POSITIVE_INFINITY);
+    }
+
+    public static SimulationClock manual() {
+        return new SimulationClock(Mode.MANUAL, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Programa una tarea periódica en tiempo virtual, con la misma semántica que
+     * {@code ScheduledExecutorService.scheduleAtFixedRate}.
+     */
+    public void scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("Invalid period: " + period);
+        }
+        synchronized (lock) {
+            tasks.add(new ScheduledTask(task, nowMillis + unit.toMillis(initialDelay), unit.toMillis(period), taskCounter++));
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Programa una tarea que se ejecuta una sola vez en tiempo virtual, después de {@code delay}.
+     * Con retardo cero corre en cuanto el hilo del reloj (o el siguiente {@link #advance(long)}) la alcance.
+     */
+    public void schedule(Runnable task, long delay, TimeUnit unit) {
+        synchronized (lock) {
+            tasks.add(new ScheduledTask(task, nowMillis + unit.toMillis(delay), 0, taskCounter++));
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Arranca el hilo que conduce el reloj. En modo manual no hace nada.
+     */
+    public void start() {
+        if (mode == Mode.MANUAL || running) {
+            return;
+        }
+        running = true;
+        driver = new Thread(this::driveLoop, "simulation-clock");
+        driver.setDaemon(true);
+        driver.start();
+    }
+
+    /**
+     * Detiene el reloj y espera a que termine la tarea en curso.
+     */
+    public void stop() {
+        running = false;
+        Thread current = driver;
+        if (current == null) {
+            return;
+        }
+        synchronized (lock) {
+            lock.notifyAll();
+        }
+        try {
+            current.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        driver = null;
+    }
+
+    /**
+     * Avanza el tiempo virtual {@code millis} milisegundos en el hilo que llama, ejecutando
+     * en orden todas las tareas que venzan. Solo vale en modo manual: en los demás modos el hilo
+     * del reloj ya ejecuta las tareas, y avanzar desde otro hilo las correría en dos hilos a la vez.
+     *
+     * @throws IllegalStateException si el reloj no es manual.
+     */
+    public void advance(long millis) {
+        if (mode != Mode.MANUAL) {
+            throw new IllegalStateException("advance() requires a manual clock, this one is " + mode);
+        }
+        long target = nowMillis + millis;
+        ScheduledTask next;
+        while ((next = pollDueBefore(target)) != null) {
+            runTask(next);
+        }
+        nowMillis = target;
+    }
+
+    /**
+     * @return el tiempo virtual actual, en milisegundos desde el arranque.
+     */
+    public long now() {
+        return nowMillis;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public double getSpeedFactor() {
+        return speedFactor;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void driveLoop() {
+        long wallStart = System.nanoTime();
+        long virtualStart = nowMillis;
+
+        while (running) {
+            ScheduledTask next;
+            synchronized (lock) {
+                next = tasks.peek();
+                if (next == null) {
+                    waitQuietly(100);
+                    continue;
+                }
+                if (mode != Mode.AS_FAST_AS_POSSIBLE) {
+                    // Esperar hasta que el reloj de pared alcance el tiempo virtual de la tarea
+                    long dueWallNanos = wallStart + (long) ((next.dueAtMillis - virtualStart) * 1_000_000 / speedFactor);
+                    long waitNanos = dueWallNanos - System.nanoTime();
+                    if (waitNanos > 0) {
+                        waitQuietly(Math.max(1, TimeUnit.NANOSECONDS.toMillis(waitNanos)));
+                        continue;
+                    }
+                }
+                tasks.poll();
+            }
+            runTask(next);
+        }
+    }
+
+    private ScheduledTask pollDueBefore(long targetMillis) {
+        synchronized (lock) {
+            ScheduledTask next = tasks.peek();
+            if (next == null || next.dueAtMillis > targetMillis) {
+                return null;
+            }
+            return tasks.poll();
+        }
+    }
+
+    private void runTask(ScheduledTask scheduled) {
+        nowMillis = Math.max(nowMillis, scheduled.dueAtMillis);
+        try {
+            scheduled.task.run();
+        } catch (RuntimeException e) {
+            // Unlike a scheduled executor, which would suppress the task's later runs, keep
+            // rescheduling it; the failure goes to the thread's uncaught exception handler
+            reportFailure(e);
+        }
+        if (scheduled.periodMillis <= 0) {
+            return; // Tarea de una sola vez
+        }
+        synchronized (lock) {
+            scheduled.dueAtMillis += scheduled.periodMillis;
+            tasks.add(scheduled);
+        }
+    }
+
+    /**
+     * Entrega una falla de una tarea al {@link Thread.UncaughtExceptionHandler} del hilo actual
+     * sin terminarlo; por defecto se imprime igual que una excepción no capturada.
+     */
+    static void reportFailure(Throwable failure) {
+        Thread current = Thread.currentThread();
+        current.getUncaughtExceptionHandler().uncaughtException(current, failure);
+    }
+
+    private void waitQuietly(long millis) {
+        try {
+            lock.wait(millis);
+        } catch (InterruptedException e) {
+            running = false;
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package app.paralelafinal.escenario2.controladores;
+
+import app.paralelafinal.escenario2.entidades.Vehicle;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rejilla espacial uniforme (spatial hash) para la fase amplia de detección de colisiones.
+ * Cada vehículo se registra en la celda que contiene su posición y se mueve de celda a medida
+ * que avanza, de modo que las consultas solo revisan las celdas vecinas y su costo no crece
+ * con el número total de vehículos en la red.
+ *
+ * Es segura para uso concurrente: el controlador la actualiza desde el hilo del reloj y
+ * el motor inserta vehículos nuevos desde el hilo de JavaFX.
+ */
+public class SpatialHashGrid {
+
+    private final double cellSize;
+    private final Map<Long, Set<Vehicle>> cells = new ConcurrentHashMap<>();
+    private final Map<Vehicle, Long> cellOfVehicle = new ConcurrentHashMap<>();
+
+    /**
+     * @param cellSize lado de cada celda; debe ser mayor o igual que la mayor distancia de consulta.
+     */
+    public SpatialHashGrid(double cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    public double getCellSize() {
+        return cellSize;
+    }
+
+    /**
+     * Registra el vehículo o lo mueve a la celda de su posición actual.
+     */
+    public void update(Vehicle v) {
+        if (v == null || v.isReleased()) {
+            return;
+        }
+        long key = keyFor(v.getX(), v.getY());
+        Long previous = cellOfVehicle.get(v);
+        if (previous != null && previous == key) {
+            return; // Sigue en la misma celda: el caso común, sin escrituras
+        }
+        cellOfVehicle.put(v, key);
+        if (previous != null) {
+            removeFromCell(previous, v);
+        }
+        cells.compute(key, (k, set) -> {
+            if (set == null) {
+                set = ConcurrentHashMap.newKeySet();
+            }
+            set.add(v);
+            return set;
+        });
+    }
+
+    /**
+     * Elimina el vehículo de la rejilla (por ejemplo, cuando sale de la simulación).
+     */
+    public void remove(Vehicle v) {
+        Long previous = cellOfVehicle.remove(v);
+        if (previous != null) {
+            removeFromCell(previous, v);
+        }
+    }
+
+    /**
+     * Añade a {@code out} los vehículos de la celda que contiene (x, y) y de sus 8 celdas vecinas.
+     * Garantiza incluir a todo vehículo a menos de {@link #getCellSize()} en ambos ejes.
+     */
+    public void collectNear(double x, double y, Collection<Vehicle> out) {
+        int cx = cellIndex(x);
+        int cy = cellIndex(y);
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                Set<Vehicle> cell = cells.get(pack(cx + dx, cy + dy));
+                if (cell != null) {
+                    out.addAll(cell);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true si algún vehículo está a menos de {@code minDistance} de (x, y); sin copiar
+     *         celdas. {@code minDistance} no debe superar {@link #getCellSize()}.
+     */
+    public boolean isOccupied(double x, double y, double minDistance) {
+        int cx = cellIndex(x);
+        int cy = cellIndex(y);
+        double minDistanceSq = minDistance * minDistance;
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                Set<Vehicle> cell = cells.get(pack(cx + dx, cy + dy));
+                if (cell == null) {
+                    continue;
+                }
+                for (Vehicle v : cell) {
+                    double ox = v.getX() - x;
+                    double oy = v.getY() - y;
+                    if (ox * ox + oy * oy < minDistanceSq) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        return cellOfVehicle.size();
+    }
+
+    public void clear() {
+        cells.clear();
+        cellOfVehicle.clear();
+    }
+
+    private void removeFromCell(long key, Vehicle v) {
+        cells.computeIfPresent(key, (k, set) -> {
+            set.remove(v);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private int cellIndex(double coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private long keyFor(double x, double y) {
+        return pack(cellIndex(x), cellIndex(y));
+    }
+
+    private static long pack(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+}
@@ -1,20 +1,38 @@
 package app.paralelafinal.escenario2.controladores;
 
+import app.paralelafinal.comun.WorldSnapshot;
 import app.paralelafinal.escenario2.entidades.Intersection;
+import app.paralelafinal.escenario2.entidades.Lane;
+import app.paralelafinal.escenario2.entidades.LaneOffsets;
+import app.paralelafinal.escenario2.entidades.Maneuver;
+import app.paralelafinal.escenario2.entidades.RoadGridTopology;
+import app.paralelafinal.escenario2.entidades.RoadNetwork;
+import app.paralelafinal.escenario2.entidades.Route;
+import app.paralelafinal.escenario2.entidades.SignalPlan;
 import app.paralelafinal.escenario2.entidades.TrafficLight;
 import app.paralelafinal.escenario2.entidades.Vehicle;
 import app.paralelafinal.config.SimulationConfig;
-import javafx.geometry.Point2D;
+import app.paralelafinal.metricas.EmergencyPreemptionEvent;
+import app.paralelafinal.metricas.InstrumentedLock;
+import app.paralelafinal.metricas.IntersectionStepEvent;
+import app.paralelafinal.metricas.LatencyHistogram;
+import app.paralelafinal.metricas.LightChangeEvent;
+import app.paralelafinal.metricas.SimulationTickEvent;
+import app.paralelafinal.metricas.TrafficMetrics;
+import app.paralelafinal.metricas.VehicleTransferEvent;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.Executors;
-import java.util.concurrent.PriorityBlockingQueue;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Stream;
 
 /**
@@ -26,37 +44,207 @@ public class TrafficController {
     private final List<Intersection> RightIntersections; 
     private final List<Intersection> LeftIntersections;  
     private final List<Intersection> Intersections;
-    private final ScheduledExecutorService scheduler;
-    private final ReentrantLock controlLock = new ReentrantLock();
-    
-    // Performance monitoring
-    private long lastStepTime = 0;
-    private static final boolean DEBUG_PERFORMANCE = true;
+    // Red de calles: vecinos y coordenadas por id de nodo; nodes[id] es su intersección
+    private final RoadGridTopology topology;
+    private final Intersection[] nodes;
+    private final LaneOffsets laneOffsets;
+    private final SignalPlan signalPlan;
+    private final RoutePlanner routePlanner;
+    private final SimulationClock clock;
+    // Broad-phase index for collision and spawn checks; cells are larger than minSafeDistance
+    private final SpatialHashGrid spatialGrid = new SpatialHashGrid(SimulationConfig.VEHICLE_LENGTH * 2);
+    // Última fotografía publicada al final de cada paso, para el renderizador y otros lectores
+    private final WorldSnapshot.Builder snapshotBuilder = new WorldSnapshot.Builder();
+    private volatile WorldSnapshot snapshot = WorldSnapshot.EMPTY;
+    // Un lector pidió un cuadro nuevo; sin pedidos (por ejemplo, con el reloj manual) no se publica nada
+    private volatile boolean snapshotRequested = false;
+    // Se corre al inicio de cada paso en el hilo del reloj: el motor aplica ahí los lotes encolados y la demanda
+    private volatile Runnable beforeStep = () -> {};
+    private long stepCount = 0;
+    // Pool para avanzar las intersecciones en paralelo; se crea al primer paso
+    private final int stepParallelism;
+    private ForkJoinPool stepPool;
+    // Emergencias encoladas en toda la red, la más antigua primero
+    private final EmergencyQueueIndex emergencyIndex = new EmergencyQueueIndex();
+    // Preferencia de paso por evento: encolar una emergencia la dispara sin esperar a EmergencyCheck
+    private final EmergencyLatencyTracker emergencyLatency;
+    private final AtomicBoolean preemptionScheduled = new AtomicBoolean(false);
+    // Indicadores por intersección y carril (descargas, colas, esperas y tiempos de viaje)
+    private final TrafficMetricsRecorder metricsRecorder;
+    // Modo ACTORS: un actor por intersección, con la misma partición que el modo FORK_JOIN
+    private final ExecutionMode executionMode;
+    private final Map<Intersection, IntersectionActor> actors = new HashMap<>();
+    private final Map<Intersection, StepPartition> actorPartitions = new HashMap<>();
+    // Una partición por intersección, armadas una sola vez: primero la cadena East, luego la West
+    private final List<StepPartition> partitions;
+
+    /**
+     * Transferencia de un vehículo a la cola de otra intersección, aplicada al final del paso.
+     */
+    private record Transfer(Vehicle vehicle, Intersection target, Lane lane) {}
+
+    /**
+     * Estado propio de cada intersección durante un paso: solo modifica sus propias colas, y lo
+     * que debe pasar a otra intersección queda en su bandeja de salida hasta el final del paso.
+     * Los movimientos y las salidas de la red también esperan al final del paso, así que todas
+     * las particiones leen las posiciones y la rejilla espacial tal como estaban al empezar, sin
+     * importar qué hilo avanza primero.
+     */
+    private static final class StepPartition {
+        final Intersection current;
+        final Intersection next;
+        final boolean westbound;
+        final List<Vehicle> nearby = new ArrayList<>();
+        final List<Transfer> outbox = new ArrayList<>();
+        final List<Vehicle> retired = new ArrayList<>();
+        final List<Vehicle> uTurns = new ArrayList<>();
+        // Nuevas posiciones del paso en arreglos paralelos que se reutilizan de un paso a otro,
+        // para no crear un objeto por vehículo movido en cada tick
+        Vehicle[] movedVehicles = new Vehicle[16];
+        double[] movedX = new double[16];
+        double[] movedY = new double[16];
+        int moveCount;
+
+        StepPartition(Intersection current, Intersection next, boolean westbound) {
+            this.current = current;
+            this.next = next;
+            this.westbound = westbound;
+        }
+
+        void stageMove(Vehicle v, double x, double y) {
+            if (moveCount == movedVehicles.length) {
+                int capacity = moveCount * 2;
+                movedVehicles = Arrays.copyOf(movedVehicles, capacity);
+                movedX = Arrays.copyOf(movedX, capacity);
+                movedY = Arrays.copyOf(movedY, capacity);
+            }
+            movedVehicles[moveCount] = v;
+            movedX[moveCount] = x;
+            movedY[moveCount] = y;
+            moveCount++;
+        }
+
+        // Suelta las referencias para no retener vehículos que ya salieron de la red
+        void clearMoves() {
+            Arrays.fill(movedVehicles, 0, moveCount, null);
+            moveCount = 0;
+        }
+    }
+
+    // Periodo del paso de vehículos, en tiempo simulado; los de semáforos y emergencias vienen del SignalPlan
+    public static final long STEP_PERIOD_MS = 50;
 
     public TrafficController(List<Intersection> RightIntersections, List<Intersection> LeftIntersections) {
+        this(RightIntersections, LeftIntersections, SimulationClock.realTime());
+    }
+
+    public TrafficController(List<Intersection> RightIntersections, List<Intersection> LeftIntersections, SimulationClock clock) {
+        this(RightIntersections, LeftIntersections, clock, ExecutionMode.FORK_JOIN);
+    }
+
+    /**
+     * @param executionMode FORK_JOIN avanza las intersecciones desde el hilo del reloj; ACTORS
+     *                      les da a cada una su buzón y su hilo virtual.
+     */
+    public TrafficController(List<Intersection> RightIntersections, List<Intersection> LeftIntersections,
+                             SimulationClock clock, ExecutionMode executionMode) {
+        this(RoadNetwork.defaultNetwork(), RightIntersections, LeftIntersections, clock, executionMode,
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param stepParallelism número de hilos para avanzar las intersecciones; 1 lo hace en el hilo del reloj.
+     */
+    public TrafficController(List<Intersection> RightIntersections, List<Intersection> LeftIntersections,
+                             SimulationClock clock, int stepParallelism) {
+        this(RoadNetwork.defaultNetwork(), RightIntersections, LeftIntersections, clock, ExecutionMode.FORK_JOIN,
+                stepParallelism);
+    }
+
+    /**
+     * Crea una intersección por nodo de la topología; East (hacia el oeste) queda en
+     * LeftIntersections y West en RightIntersections, en orden de id.
+     */
+    public TrafficController(RoadGridTopology topology, SimulationClock clock, ExecutionMode executionMode) {
+        this(RoadNetwork.of(topology), clock, executionMode);
+    }
+
+    /**
+     * Igual que el constructor por topología, pero con los desplazamientos de carril y el plan
+     * de semáforos de la red (por ejemplo, cargada con {@code RoadNetworkLoader}).
+     */
+    public TrafficController(RoadNetwork network, SimulationClock clock, ExecutionMode executionMode) {
+        this(network, network.topology().createIntersections(), clock, executionMode);
+    }
+
+    private TrafficController(RoadNetwork network, Intersection[] nodes, SimulationClock clock, ExecutionMode executionMode) {
+        this(network, chain(network.topology(), nodes, false), chain(network.topology(), nodes, true), clock, executionMode,
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    private TrafficController(RoadNetwork network, List<Intersection> RightIntersections, List<Intersection> LeftIntersections,
+                              SimulationClock clock, ExecutionMode executionMode, int stepParallelism) {
+        if (stepParallelism < 1) {
+            throw new IllegalArgumentException("Invalid step parallelism: " + stepParallelism);
+        }
         this.RightIntersections = RightIntersections;
         this.LeftIntersections = LeftIntersections;
         this.Intersections = new ArrayList<>();
         this.Intersections.addAll(RightIntersections);
         this.Intersections.addAll(LeftIntersections);
-        // Use multiple threads for better parallelism
-        this.scheduler = Executors.newScheduledThreadPool(3);
+        this.topology = network.topology();
+        this.nodes = topology.bind(Intersections);
+        this.laneOffsets = network.laneOffsets();
+        this.signalPlan = network.signalPlan();
+        this.routePlanner = new RoutePlanner(topology);
+        this.clock = clock;
+        this.stepParallelism = stepParallelism;
+        this.executionMode = executionMode;
+        // El índice va primero: la preferencia que dispara emergencyLatency ya lo encuentra al día
+        this.Intersections.forEach(emergencyIndex::track);
+        this.emergencyLatency = new EmergencyLatencyTracker(this::requestPreemption, clock::now);
+        this.Intersections.forEach(intersection -> intersection.addListener(emergencyLatency));
+        this.metricsRecorder = new TrafficMetricsRecorder(Intersections, topology.size(), clock::now);
+        this.Intersections.forEach(intersection -> intersection.addListener(metricsRecorder));
+        // LeftIntersections are East intersections, moving westbound (left); RightIntersections move eastbound
+        this.partitions = new ArrayList<>(Intersections.size());
+        LeftIntersections.forEach(current -> partitions.add(partitionOf(current)));
+        RightIntersections.forEach(current -> partitions.add(partitionOf(current)));
     }
 
 
+    private static List<Intersection> chain(RoadGridTopology topology, Intersection[] nodes, boolean westbound) {
+        List<Intersection> chain = new ArrayList<>();
+        for (int id = 0; id < nodes.length; id++) {
+            if (topology.isWestbound(id) == westbound) {
+                chain.add(nodes[id]);
+            }
+        }
+        return chain;
+    }
+
     /**
      * Inicia la lógica de control de tráfico, programándola para que se ejecute a intervalos fijos.
      */
     public void startControl() {
+        if (executionMode == ExecutionMode.ACTORS) {
+            startActors();
+        }
         InitializeTrafficLights();
-        // Changed to 15 seconds for traffic light duration
-        scheduler.scheduleAtFixedRate(this::autoLights, 0, 15, TimeUnit.SECONDS);
-        scheduler.scheduleAtFixedRate(this::EmergencyCheck, 3, 4, TimeUnit.SECONDS);
-        scheduler.scheduleAtFixedRate(this::stepVehicles, 0, 50, TimeUnit.MILLISECONDS);
+        // All jobs share the clock's virtual timeline, so light cycles, emergency checks
+        // and vehicle steps keep their relative cadence at any speed
+        clock.scheduleAtFixedRate(this::autoLights, 0, signalPlan.cycleMillis(), TimeUnit.MILLISECONDS);
+        clock.scheduleAtFixedRate(this::EmergencyCheck, signalPlan.emergencyCheckDelayMillis(),
+                signalPlan.emergencyCheckPeriodMillis(), TimeUnit.MILLISECONDS);
+        clock.scheduleAtFixedRate(this::stepVehicles, 0, STEP_PERIOD_MS, TimeUnit.MILLISECONDS);
+        clock.scheduleAtFixedRate(metricsRecorder::sample, TrafficMetrics.SAMPLE_PERIOD_MS,
+                TrafficMetrics.SAMPLE_PERIOD_MS, TimeUnit.MILLISECONDS);
+        clock.start();
     }
 
+    // Las tareas de semáforos corren en el hilo del reloj y cambian cada luz de forma atómica,
+    // así que no necesitan un candado global ni compiten con el avance de las intersecciones
     private void autoLights() {
-        controlLock.lock();
         try {
             // Do not toggle lights while an emergency vehicle is present
             if (HasEmergencyVehicle() != null) {
@@ -68,58 +256,90 @@ public class TrafficController {
             boolean currentGreenForEastWest = RightIntersections.get(0).getTrafficLight().isGreen();
             
             // Toggle all lights together
-            RightIntersections.forEach(intersection -> {
-                TrafficLight light = intersection.getTrafficLight();
-                light.changeLight();
-            });
-
-            LeftIntersections.forEach(intersection -> {
-                TrafficLight light = intersection.getTrafficLight();
-                light.changeLight();
-            });
+            RightIntersections.forEach(intersection -> toggleLight(intersection, "cycle"));
+
+            LeftIntersections.forEach(intersection -> toggleLight(intersection, "cycle"));
             
             // Removed traffic light change logs for cleaner output
         } finally {
-            controlLock.unlock();
+            emergencyLatency.onLightsChanged();
         }
     }
 
     private void InitializeTrafficLights() {
-        RightIntersections.forEach(intersection -> intersection.getTrafficLight().changeLight());
-        LeftIntersections.forEach(intersection -> intersection.getTrafficLight().changeLight());
+        RightIntersections.forEach(intersection -> toggleLight(intersection, "init"));
+        LeftIntersections.forEach(intersection -> toggleLight(intersection, "init"));
+        emergencyLatency.onLightsChanged();
+    }
+
+    // Light commands: applied here in FORK_JOIN mode, sent to the intersection's mailbox in ACTORS
+    // mode (FIFO, so they land before the next step the clock sends)
+    // (the actor records the LightChangeEvent when it applies the command)
+    private void toggleLight(Intersection intersection, String reason) {
+        IntersectionActor actor = actors.get(intersection);
+        if (actor != null) {
+            actor.tell(new IntersectionActor.LightCommand(null, reason));
+        } else {
+            TrafficLight light = intersection.getTrafficLight();
+            light.changeLight();
+            LightChangeEvent.emit(2, intersection.getId(), light.isGreen(), reason);
+        }
+    }
+
+    private void setLight(Intersection intersection, boolean green, String reason) {
+        IntersectionActor actor = actors.get(intersection);
+        if (actor != null) {
+            actor.tell(new IntersectionActor.LightCommand(green, reason));
+        } else if (intersection.getTrafficLight().getGreen().getAndSet(green) != green) {
+            LightChangeEvent.emit(2, intersection.getId(), green, reason);
+        }
+    }
+
+    /**
+     * Programa una revisión de emergencias inmediata en el hilo del reloj; varias llegadas
+     * seguidas se atienden con una sola revisión.
+     */
+    private void requestPreemption() {
+        if (preemptionScheduled.compareAndSet(false, true)) {
+            clock.schedule(() -> {
+                preemptionScheduled.set(false);
+                EmergencyCheck();
+            }, 0, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * @return el histograma de latencia de la preferencia de paso (de encolar la emergencia a verde),
+     * en tiempo del reloj de simulación.
+     */
+    public LatencyHistogram getPreemptionLatency() {
+        return emergencyLatency.getLatency();
+    }
+
+    /**
+     * @return la misma latencia medida en tiempo de pared.
+     */
+    public LatencyHistogram getPreemptionWallLatency() {
+        return emergencyLatency.getWallLatency();
+    }
+
+    /**
+     * @return los indicadores de tráfico por intersección y carril, muestreados cada
+     * {@link TrafficMetrics#SAMPLE_PERIOD_MS} ms de tiempo virtual.
+     */
+    public TrafficMetrics getTrafficMetrics() {
+        return metricsRecorder.getMetrics();
     }
 
     private void EmergencyCheck() {
-        controlLock.lock();
         try {
             Vehicle emergency = HasEmergencyVehicle();
             if (emergency == null) {
                 return;
             }
             
-            // Find which intersection and lane has the emergency vehicle
-            Intersection targetIntersection = null;
-            String emergencyLane = null;
-            
-            for (Intersection intersection : Intersections) {
-                if (intersection.getRightVQueue().contains(emergency)) {
-                    targetIntersection = intersection;
-                    emergencyLane = "right";
-                    break;
-                } else if (intersection.getMidVQueue().contains(emergency)) {
-                    targetIntersection = intersection;
-                    emergencyLane = "straight";
-                    break;
-                } else if (intersection.getLeftVQueue().contains(emergency)) {
-                    targetIntersection = intersection;
-                    emergencyLane = "left";
-                    break;
-                } else if (intersection.getUTurnVQueue().contains(emergency)) {
-                    targetIntersection = intersection;
-                    emergencyLane = "uturn";
-                    break;
-                }
-            }
+            // El índice de la cola ya sabe en qué intersección y carril está la emergencia
+            Intersection targetIntersection = emergency.getQueuedIntersection();
             
             if (targetIntersection == null) {
                 return;
@@ -129,62 +349,58 @@ public class TrafficController {
             // NOT all intersections - this was causing the freeze
             TrafficLight targetLight = targetIntersection.getTrafficLight();
             if (targetLight != null && !targetLight.isGreen()) {
-                targetLight.getGreen().set(true);
+                setLight(targetIntersection, true, "preemption");
+                Lane emergencyLane = emergency.getQueuedLane();
+                EmergencyPreemptionEvent.emit(2, targetIntersection.getId(),
+                        emergencyLane == null ? null : emergencyLane.name(), emergency.getId());
                 
                 // If East has emergency, turn off West lights and vice versa
                 for (Intersection other : Intersections) {
                     if (other != targetIntersection) {
                         // Only turn off if it's a conflicting direction
-                        boolean isConflicting = (targetIntersection.getId().startsWith("East") && other.getId().startsWith("West")) ||
-                                              (targetIntersection.getId().startsWith("West") && other.getId().startsWith("East"));
+                        boolean isConflicting = topology.isWestbound(targetIntersection.getNodeId()) != topology.isWestbound(other.getNodeId());
                         if (isConflicting) {
                             TrafficLight otherLight = other.getTrafficLight();
                             if (otherLight != null) {
-                                otherLight.getGreen().set(false);
+                                setLight(other, false, "preemption");
                             }
                         }
                     }
                 }
             }
         } finally {
-            controlLock.unlock();
+            emergencyLatency.onLightsChanged();
         }
     }
 
-    // Updated emergency vehicle detection
+    // Emergencia más antigua de toda la red: lectura del índice, sin recorrer intersecciones ni colas
     private Vehicle HasEmergencyVehicle() {
-        Vehicle candidate = null;
-        for (Intersection intersection : Intersections) {
-            List<PriorityBlockingQueue<Vehicle>> allQueues = List.of(
-                intersection.getRightVQueue(),
-                intersection.getMidVQueue(),
-                intersection.getLeftVQueue(),
-                intersection.getUTurnVQueue()
-            );
-            
-            for (PriorityBlockingQueue<Vehicle> queue : allQueues) {
-                for (Vehicle v : queue) {
-                    if (v.isEmergency() && (candidate == null || v.getArrivalTime() < candidate.getArrivalTime())) {
-                        candidate = v;
-                    }
-                }
-            }
-        }
-        return candidate;
+        return emergencyIndex.oldest();
     }
 
     /**
-     * Detiene el planificador de control de trafico
+     * Detiene el planificador de control de trafico y libera el slot de estado de todos los
+     * vehículos que siguen en la red; después de detenerlo no se vuelve a arrancar.
      */
     public void stopControl() {
-        scheduler.shutdown();
-        try {
-            if (!scheduler.awaitTermination(50, TimeUnit.SECONDS)) {
-                scheduler.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            scheduler.shutdownNow();
-            Thread.currentThread().interrupt();
+        clock.stop();
+        actors.values().forEach(IntersectionActor::stop);
+        if (stepPool != null) {
+            stepPool.shutdown();
+            stepPool = null;
+        }
+        for (Intersection intersection : Intersections) {
+            releaseAll(intersection.getRightVQueue());
+            releaseAll(intersection.getMidVQueue());
+            releaseAll(intersection.getLeftVQueue());
+            releaseAll(intersection.getUTurnVQueue());
+        }
+        spatialGrid.clear();
+    }
+
+    private static void releaseAll(Collection<Vehicle> queue) {
+        for (Vehicle v : queue) {
+            v.release();
         }
     }
 
@@ -192,64 +408,288 @@ public class TrafficController {
         return Intersections;
     }
 
+    public RoadGridTopology getTopology() {
+        return topology;
+    }
+
+    public RoutePlanner getRoutePlanner() {
+        return routePlanner;
+    }
+
+    public LaneOffsets getLaneOffsets() {
+        return laneOffsets;
+    }
+
+    public SimulationClock getClock() {
+        return clock;
+    }
+
+    public SpatialHashGrid getSpatialGrid() {
+        return spatialGrid;
+    }
+
+    /**
+     * @return una línea por intersección con las adquisiciones de su candado, cuántas esperaron y cuánto.
+     */
+    public String getContentionReport() {
+        StringBuilder report = new StringBuilder();
+        for (Intersection intersection : Intersections) {
+            report.append(intersection.getLock()).append(System.lineSeparator());
+        }
+        return report.toString();
+    }
+
+    // Stage a move; it lands in applyStaged, after every partition finished the step
+    private static void moveTo(StepPartition part, Vehicle v, double x, double y) {
+        part.stageMove(v, x, y);
+    }
+
+    // Remove a vehicle that left the screen from its queue; it leaves the spatial grid and
+    // frees its slot in applyStaged, so other partitions still see it during this step
+    private void retire(Vehicle v, Intersection intersection, StepPartition part) {
+        Lane lane = v.getQueuedLane();
+        if (intersection.removeVehicle(v)) {
+            metricsRecorder.onVehicleExited(intersection, v, lane);
+        }
+        part.retired.add(v);
+    }
+
+    // Apply a partition's moves in the order it made them (the last one wins), then its exits,
+    // keeping the spatial grid in sync; runs on the clock thread once the step has joined
+    private void applyStaged(StepPartition part) {
+        for (int i = 0; i < part.moveCount; i++) {
+            Vehicle v = part.movedVehicles[i];
+            v.setPosition(part.movedX[i], part.movedY[i]);
+            spatialGrid.update(v);
+        }
+        part.clearMoves();
+        for (Vehicle v : part.retired) {
+            spatialGrid.remove(v);
+            v.release();
+        }
+        part.retired.clear();
+    }
+
     // Core stepping logic: move the head vehicle of a green-light intersection toward the next intersection
-    private void stepVehicles() {
-        // Debug: Track processing time
-        long startTime = System.currentTimeMillis();
-        
-        // Create local copies to minimize lock time
-        List<Intersection> leftCopy;
-        List<Intersection> rightCopy;
+    // (package-private, like the two checks below, so the JMH benchmarks in src/jmh can call it)
+    void stepVehicles() {
+        long startNanos = System.nanoTime();
+        SimulationTickEvent tickEvent = new SimulationTickEvent();
+        tickEvent.begin();
+        beforeStep.run();
         
-        controlLock.lock();
-        try {
-            leftCopy = new ArrayList<>(LeftIntersections);
-            rightCopy = new ArrayList<>(RightIntersections);
-        } finally {
-            controlLock.unlock();
+        if (!actors.isEmpty()) {
+            stepWithActors();
+        } else {
+            stepPartitions();
         }
         
-        // Process without holding the lock
-        // LeftIntersections are East intersections, moving westbound (left)
-        for (int idx = 0; idx < leftCopy.size(); idx++) {
-            Intersection current = leftCopy.get(idx);
-            Intersection next = (idx + 1 < leftCopy.size()) ? leftCopy.get(idx + 1) : null;
-            boolean isWestbound = current.getId().startsWith("East"); // East vehicles move west
-            processLane(current, next, isWestbound);
+        stepCount++;
+        if (snapshotRequested) {
+            snapshotRequested = false;
+            publishSnapshot();
         }
-        
-        // RightIntersections are West intersections, moving eastbound (right)
-        for (int idx = 0; idx < rightCopy.size(); idx++) {
-            Intersection current = rightCopy.get(idx);
-            Intersection next = (idx + 1 < rightCopy.size()) ? rightCopy.get(idx + 1) : null;
-            boolean isWestbound = current.getId().startsWith("East"); // East vehicles move west
-            processLane(current, next, isWestbound);
+        tickEvent.end(2, "stepVehicles", stepCount, spatialGrid.size());
+        // Los pasos lentos se ven en el percentil alto del reporte de métricas
+        metricsRecorder.getMetrics().recordStep(System.nanoTime() - startNanos);
+    }
+
+    // FORK_JOIN mode: step every partition from the clock thread, then apply the hand-offs in order
+    private void stepPartitions() {
+        // The partitions never change after construction, so no copy (and no lock) is needed
+        // Each partition holds only its own intersection's lock
+        if (stepParallelism > 1 && partitions.size() > 1) {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(partitions.size());
+            for (StepPartition partition : partitions) {
+                tasks.add(ForkJoinTask.adapt(() -> processLane(partition)));
+            }
+            stepPool().invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+        } else {
+            partitions.forEach(this::processLane);
         }
         
-        // Debug: Log if processing takes too long
-        long processingTime = System.currentTimeMillis() - startTime;
-        if (processingTime > 100) {
-            System.out.println("[DEBUG] Step vehicles took " + processingTime + "ms - SLOW!");
+        // Aplicar movimientos, salidas y transferencias en el orden de las particiones, para que
+        // el resultado no dependa de qué hilo terminó primero
+        for (StepPartition partition : partitions) {
+            applyStaged(partition);
+            for (Transfer t : partition.outbox) {
+                InstrumentedLock targetLock = t.target().getLock();
+                targetLock.lock();
+                try {
+                    t.target().addVehicleToQueue(t.vehicle(), t.lane());
+                } finally {
+                    targetLock.unlock();
+                }
+                VehicleTransferEvent.emit(partition.current.getId(), t.target().getId(), t.lane().name(), t.vehicle().getId());
+            }
+            partition.outbox.clear();
+        }
+    }
+
+    /**
+     * Crea un actor por intersección, con la misma partición (siguiente intersección y sentido)
+     * que usa el modo FORK_JOIN, y arranca sus hilos virtuales.
+     */
+    private void startActors() {
+        if (!actors.isEmpty()) {
+            return;
+        }
+        for (StepPartition partition : partitions) {
+            actorPartitions.put(partition.current, partition);
+            actors.put(partition.current, new IntersectionActor(partition.current, this::stepActor,
+                    emergencyLatency::onLightsChanged));
         }
+        actors.values().forEach(IntersectionActor::start);
     }
 
-    private void processLane(Intersection current, Intersection next, boolean westbound) {
+    // Siguiente intersección y sentido salen de la topología: East vehicles move west
+    private StepPartition partitionOf(Intersection current) {
+        boolean isWestbound = topology.isWestbound(current.getNodeId());
+        return new StepPartition(current, findNextIntersection(current, isWestbound), isWestbound);
+    }
+
+    // ACTORS mode: broadcast the step and wait until every actor stepped and every hand-off landed
+    private void stepWithActors() {
+        // Una cuenta nueva por paso: un pendiente por actor, más uno por traspaso mientras viaja
+        IntersectionActor.StepCountdown countdown = new IntersectionActor.StepCountdown(actors.size());
+        IntersectionActor.Step step = new IntersectionActor.Step(stepCount, countdown);
+        for (IntersectionActor actor : actors.values()) {
+            actor.tell(step);
+        }
+        countdown.await();
+        // Every actor stepped against start-of-tick positions; now move them, in partition order
+        for (StepPartition partition : partitions) {
+            applyStaged(partition);
+        }
+    }
+
+    // Runs on the actor's virtual thread: step its own queues, then mail each hand-off to its target
+    private void stepActor(IntersectionActor actor, IntersectionActor.Step step) {
+        StepPartition part = actorPartitions.get(actor.getIntersection());
+        processLane(part);
+        for (Transfer t : part.outbox) {
+            // Counted before this actor's own step is, so the countdown cannot reach zero early;
+            // the receiver counts it down once the vehicle is queued
+            step.countdown().register();
+            actors.get(t.target()).tell(new IntersectionActor.Arrival(step.tick(), t.vehicle(), t.lane(), step.countdown()));
+            VehicleTransferEvent.emit(part.current.getId(), t.target().getId(), t.lane().name(), t.vehicle().getId());
+        }
+        part.outbox.clear();
+    }
+
+    /**
+     * @return la última fotografía publicada; nunca es null. Solo se renueva después de
+     * {@link #requestSnapshot()}.
+     */
+    public WorldSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Pide que el próximo paso publique una fotografía nueva. El renderizador la pide una vez
+     * por pulso; sin lectores, los pasos no construyen ninguna. Puede llamarse desde cualquier hilo.
+     */
+    public void requestSnapshot() {
+        snapshotRequested = true;
+    }
+
+    /**
+     * Instala la tarea que corre al inicio de cada paso, antes de mover vehículos y en el mismo
+     * hilo; {@link app.paralelafinal.escenario2.simulation.SimulationEngine2} genera ahí los vehículos.
+     */
+    public void setBeforeStep(Runnable beforeStep) {
+        this.beforeStep = beforeStep != null ? beforeStep : () -> {};
+    }
+
+    // Congela poses y semáforos en una fotografía inmutable y la publica con una sola escritura volátil
+    private void publishSnapshot() {
+        for (Intersection intersection : Intersections) {
+            addToSnapshot(intersection, intersection.getMidVQueue());
+            addToSnapshot(intersection, intersection.getRightVQueue());
+            addToSnapshot(intersection, intersection.getLeftVQueue());
+            addToSnapshot(intersection, intersection.getUTurnVQueue());
+            TrafficLight light = intersection.getTrafficLight();
+            snapshotBuilder.addLight(intersection.getId(), light != null && light.isGreen());
+        }
+        snapshot = snapshotBuilder.build(stepCount, clock.now());
+    }
+
+    private void addToSnapshot(Intersection intersection, Collection<Vehicle> queue) {
+        for (Vehicle v : queue) {
+            snapshotBuilder.addVehicle(v.getId(), v.getX(), v.getY(), headingOf(v, intersection), v.isEmergency());
+        }
+    }
+
+    // Rumbo de dibujo según la maniobra y la fase del giro
+    private double headingOf(Vehicle v, Intersection intersection) {
+        // Use the vehicle's actual intersection for angle calculation
+        int actualNode = v.getInIntersection() != null ? topology.idOf(v.getInIntersection()) : RoadGridTopology.NONE;
+        boolean eastSide = actualNode != RoadGridTopology.NONE ? topology.isWestbound(actualNode) : intersection.isEastSide();
+        Maneuver maneuver = v.getManeuver();
+        int phase = v.getUTurnPhase();
+
+        if (maneuver.isUTurn()) {
+            // Approaching: normal direction / Turning: perpendicular / Exiting: opposite direction
+            if (phase == 0) {
+                return eastSide ? 0 : 180;
+            } else if (phase == 1) {
+                return eastSide ? 90 : -90;
+            }
+            return eastSide ? 180 : 0;
+        } else if (maneuver.isSpecialTurn()) {
+            // Phase 0: Approaching or Phase 3: Extended movement - keep horizontal
+            if (phase == 0 || phase == 3) {
+                return eastSide ? 0 : 180;
+            }
+            // Phase 1: Turning / Phase 2: After turn - point north (up) or south (down)
+            return maneuver.goesNorth() ? -90 : 90;
+        } else if (maneuver.isVertical()) {
+            return maneuver.goesNorth() ? -90 : 90;
+        }
+        // Normal vehicles (straight, right, left and those that completed a U-turn)
+        return eastSide ? 0 : 180;
+    }
+
+    private ForkJoinPool stepPool() {
+        if (stepPool == null) {
+            stepPool = new ForkJoinPool(stepParallelism);
+        }
+        return stepPool;
+    }
+
+    private void processLane(StepPartition part) {
+        Intersection current = part.current;
+        Intersection next = part.next;
+        boolean westbound = part.westbound;
         if (current == null) return;
         TrafficLight light = current.getTrafficLight();
+        // Nothing left over from a step that failed halfway
+        part.outbox.clear();
+        part.clearMoves();
+        part.retired.clear();
         
-        
-        
-        // Procesar todos los carriles siempre
-        processAllVehiclesInQueue(current.getMidVQueue(), "straight", current, next, westbound, true);
-        processAllVehiclesInQueue(current.getRightVQueue(), "right", current, next, westbound, true);
-        processAllVehiclesInQueue(current.getLeftVQueue(), "left", current, next, westbound, true);
-        
-        // U-turns también pueden avanzar siempre
-        processUTurnVehicles(current, westbound);
+        IntersectionStepEvent stepEvent = new IntersectionStepEvent();
+        stepEvent.begin();
+        InstrumentedLock lock = current.getLock();
+        lock.lock();
+        try {
+            // Procesar todos los carriles siempre
+            processAllVehiclesInQueue(current.getMidVQueue(), Lane.MID, current, next, westbound, true, part);
+            processAllVehiclesInQueue(current.getRightVQueue(), Lane.RIGHT, current, next, westbound, true, part);
+            processAllVehiclesInQueue(current.getLeftVQueue(), Lane.LEFT, current, next, westbound, true, part);
+            
+            // U-turns también pueden avanzar siempre
+            processUTurnVehicles(current, westbound, part);
+        } finally {
+            lock.unlock();
+        }
+        stepEvent.end(2, current.getId(), current.getRightVQueue().size() + current.getMidVQueue().size()
+                + current.getLeftVQueue().size() + current.getUTurnVQueue().size());
     }
 
-    private void processAllVehiclesInQueue(PriorityBlockingQueue<Vehicle> queue, String sourceLane, 
-                                     Intersection current, Intersection next, boolean westbound, boolean canStartNew) {
+    private void processAllVehiclesInQueue(Collection<Vehicle> queue, Lane sourceLane, 
+                                     Intersection current, Intersection next, boolean westbound, boolean canStartNew,
+                                     StepPartition part) {
         if (queue.isEmpty()) return;
         
         // SIMPLIFICACIÓN: Procesar múltiples vehículos por ciclo
@@ -260,16 +700,15 @@ public class TrafficController {
         for (Vehicle v : queue) {
             if (v == null || processed >= maxVehiclesPerCycle) break;
             
-            String direction = v.getDirection().toLowerCase();
+            Maneuver maneuver = v.getManeuver();
             
             
             boolean canProceed = true;
             
             // Para movimientos norte-sur, verificar prioridad por tiempo de llegada
-            if (direction.startsWith("left-north") || direction.startsWith("right-south") ||
-                direction.startsWith("left-south") || direction.startsWith("right-north")) {
+            if (maneuver.isSpecialTurn()) {
                 // Verificar si hay conflicto con otro vehículo que va al mismo destino
-                canProceed = checkNorthSouthPriority(v, current, direction);
+                canProceed = checkNorthSouthPriority(v, current, maneuver);
             }
             
             // Si no puede proceder por prioridad, esperar
@@ -278,51 +717,44 @@ public class TrafficController {
             }
             
             // Check for collisions with vehicles ahead
-            if (!canMoveWithoutCollision(v, current, westbound)) {
+            if (!canMoveWithoutCollision(v, current, westbound, part.nearby)) {
                 break; // Stop if this vehicle can't move - maintains queue order
             }
             
             // Process the vehicle based on its type
-            if (direction.startsWith("left-north") || direction.startsWith("right-south") ||
-                direction.startsWith("left-south") || direction.startsWith("right-north")) {
-                processSpecialTurnVehicle(v, current, westbound, queue);
+            if (maneuver.isSpecialTurn()) {
+                processSpecialTurnVehicle(v, current, westbound, queue, part);
             } else {
-                // For vehicles that completed U-turn, ensure they stay in left lane
-                String actualLane = sourceLane;
-                if ("left".equalsIgnoreCase(sourceLane) && "left".equalsIgnoreCase(v.getDirection())) {
-                    actualLane = "left"; // Ensure left lane vehicles stay in left lane
-                }
-                
-                processVehicleMovement(v, actualLane, current, next, westbound, queue);
+                processVehicleMovement(v, sourceLane, current, next, westbound, queue, part);
             }
             processed++;
         }
     }
     
     // Nuevo método para verificar prioridad en intersecciones norte-sur
-    private boolean checkNorthSouthPriority(Vehicle vehicle, Intersection current, String direction) {
+    boolean checkNorthSouthPriority(Vehicle vehicle, Intersection current, Maneuver maneuver) {
         // Determinar el destino del vehículo (norte o sur)
-        boolean goingNorth = direction.contains("north");
+        boolean goingNorth = maneuver.goesNorth();
         
         // Buscar en todas las colas de la intersección actual si hay otro vehículo
         // que vaya al mismo destino vertical y haya llegado antes
-        List<PriorityBlockingQueue<Vehicle>> allQueues = List.of(
+        List<Collection<Vehicle>> allQueues = List.of(
             current.getRightVQueue(),
             current.getMidVQueue(),
             current.getLeftVQueue()
         );
         
-        for (PriorityBlockingQueue<Vehicle> queue : allQueues) {
+        for (Collection<Vehicle> queue : allQueues) {
             for (Vehicle other : queue) {
-                if (other != vehicle && other.getDirection() != null) {
-                    String otherDir = other.getDirection().toLowerCase();
+                if (other != vehicle && other.getManeuver() != null) {
+                    Maneuver otherManeuver = other.getManeuver();
                     
                     // Verificar si el otro vehículo va al mismo destino vertical
-                    boolean otherGoingNorth = otherDir.contains("north");
+                    boolean otherGoingNorth = otherManeuver.goesNorth();
                     boolean sameDestination = (goingNorth && otherGoingNorth) || (!goingNorth && !otherGoingNorth);
                     
                     // Si van al mismo destino y el otro llegó primero, este vehículo debe esperar
-                    if (sameDestination && otherDir.startsWith("left-") || otherDir.startsWith("right-")) {
+                    if (sameDestination && otherManeuver.isLeftSpecialTurn() || otherManeuver.isRightSpecialTurn()) {
                         if (other.getArrivalTime() < vehicle.getArrivalTime()) {
                             // El otro vehículo tiene prioridad
                             return false;
@@ -335,33 +767,35 @@ public class TrafficController {
         return true; // Este vehículo tiene prioridad o no hay conflicto
     }
 
-    private void processVehicleMovement(Vehicle v, String sourceLane, Intersection current, 
-                                    Intersection next, boolean westbound, PriorityBlockingQueue<Vehicle> queue) {
+    private void processVehicleMovement(Vehicle v, Lane sourceLane, Intersection current, 
+                                    Intersection next, boolean westbound, Collection<Vehicle> queue,
+                                    StepPartition part) {
     
-        Point2D pos = v.getPosition();
-        String direction = v.getDirection().toLowerCase();
+        double posX = v.getX();
+        double posY = v.getY();
+        Maneuver maneuver = v.getManeuver();
         
         // Check if this is a vehicle that should continue moving vertically
-        if (direction.equals("vertical-north") || direction.equals("vertical-south")) {
+        if (maneuver.isVertical()) {
             // These vehicles should ONLY move vertically, never horizontally 
             double verticalSpeed = 8.0;
             double newY;
             
-            if (direction.equals("vertical-north")) {
-                newY = pos.getY() - verticalSpeed; // Move up
+            if (maneuver.goesNorth()) {
+                newY = posY - verticalSpeed; // Move up
                 if (newY < -20) {
-                    queue.remove(v); // Remove when off screen
+                    retire(v, current, part); // Remove when off screen
                 } else {
                     // Keep same X position, only change Y
-                    v.setPosition(new Point2D(pos.getX(), newY));
+                    moveTo(part, v, posX, newY);
                 }
-            } else if (direction.equals("vertical-south")) {
-                newY = pos.getY() + verticalSpeed; // Move down
-                if (newY > SimulationConfig.SCENE_HEIGHT + 20) {
-                    queue.remove(v); // Remove when off screen
+            } else {
+                newY = posY + verticalSpeed; // Move down
+                if (newY > topology.height() + 20) {
+                    retire(v, current, part); // Remove when off screen
                 } else {
                     // Keep same X position, only change Y
-                    v.setPosition(new Point2D(pos.getX(), newY));
+                    moveTo(part, v, posX, newY);
                 }
             }
             return; // Exit early - no horizontal movement for vertical vehicles
@@ -370,89 +804,93 @@ public class TrafficController {
         // Normal horizontal movement for other vehicles
         double speed = 8.0; 
         double dx = westbound ? -speed : speed;
-        v.setPosition(new Point2D(pos.getX() + dx, pos.getY()));
+        double newX = posX + dx;
+        moveTo(part, v, newX, posY);
 
        
         if (next != null) {
-            double targetX = intersectionX(next.getId());
-            boolean arrived = westbound ? v.getPosition().getX() <= targetX : v.getPosition().getX() >= targetX;
+            double targetX = intersectionX(next);
+            boolean arrived = westbound ? newX <= targetX : newX >= targetX;
             if (arrived) {
-                queue.remove(v); 
-                v.setPosition(new Point2D(targetX, v.getPosition().getY()));
+                current.removeVehicle(v); 
+                moveTo(part, v, targetX, posY);
 
-               
-                next.addVehicleToQueue(v, sourceLane); 
+                // La ruta decide qué hace en la siguiente intersección: seguir, dar ahí la vuelta o girar a la vertical
+                Lane turning = enterTurning(v, v.advanceRoute(), next);
+                if (turning != null) {
+                    v.setInIntersection(next.getId());
+                    part.outbox.add(new Transfer(v, next, turning));
+                } else {
+                    part.outbox.add(new Transfer(v, next, sourceLane));
+                }
             }
         } else {
             
-            if (westbound && v.getPosition().getX() < -20) {
-                queue.remove(v);
-            } else if (!westbound && v.getPosition().getX() > SimulationConfig.SCENE_WIDTH + 20) {
-                queue.remove(v);
+            if (westbound && newX < -20) {
+                retire(v, current, part);
+            } else if (!westbound && newX > topology.width() + 20) {
+                retire(v, current, part);
             }
         }
     }
     
     private void processSpecialTurnVehicle(Vehicle v, Intersection current, boolean westbound, 
-                                          PriorityBlockingQueue<Vehicle> queue) {
-        String direction = v.getDirection().toLowerCase();
-        Point2D pos = v.getPosition();
+                                          Collection<Vehicle> queue, StepPartition part) {
+        Maneuver maneuver = v.getManeuver();
+        double posX = v.getX();
+        double posY = v.getY();
         double speed = 7.0; // INCREASED SPEED for special turns (north/south)
         
         // Get intersection center X position
-        double[] centers = verticalCenters();
         double intersectionCenterX;
         
         // Determine if this is a "second" variant (uses extended position like u-turn-second)
-        boolean isSecondVariant = direction.contains("second");
+        boolean isSecondVariant = maneuver.isSecondVariant();
         
         // Check if vehicle needs to advance to next intersection first (for "second" variants)
-        if (isSecondVariant && v.getUTurnPhase() == 0 && !v.getId().contains("_advancing")) {
+        if (isSecondVariant && v.getUTurnPhase() == 0 && !v.isAdvancing()) {
             // Mark as advancing and move to next intersection
             Intersection nextIntersection = findNextIntersection(current, westbound);
             if (nextIntersection != null) {
-                v.setId(v.getId() + "_advancing");
+                v.markAdvancing();
                 // Use similar logic as u-turn-2nd advance
                 double moveSpeed = 5.0;
                 double dx = westbound ? -moveSpeed : moveSpeed;
-                v.setPosition(new Point2D(pos.getX() + dx, pos.getY()));
+                moveTo(part, v, posX + dx, posY);
                 
-                double targetX = intersectionX(nextIntersection.getId());
-                boolean arrived = westbound ? pos.getX() <= targetX : pos.getX() >= targetX;
+                double targetX = intersectionX(nextIntersection);
+                boolean arrived = westbound ? posX <= targetX : posX >= targetX;
                 
                 if (arrived) {
-                    queue.remove(v);
+                    current.removeVehicle(v);
+                    v.advanceRoute();
                     v.setInIntersection(nextIntersection.getId());
-                    v.setPosition(new Point2D(targetX, pos.getY()));
+                    moveTo(part, v, targetX, posY);
                     // Re-add to the appropriate queue at the new intersection
-                    if (direction.startsWith("left-north") || direction.startsWith("left-south")) {
-                        nextIntersection.getLeftVQueue().add(v);
-                    } else {
-                        nextIntersection.getRightVQueue().add(v);
-                    }
+                    part.outbox.add(new Transfer(v, nextIntersection, maneuver.getLane()));
                 }
                 return;
             }
         }
         
-        // Determine intersection center based on variant
-        if (v.getId().contains("_advancing")) {
-            intersectionCenterX = intersectionX(current.getId());
+        // Determine intersection center based on variant; a route that turns here turns at this intersection
+        if (v.isAdvancing() || verticalTurnAt(v) != null) {
+            intersectionCenterX = intersectionX(current);
         } else {
-            intersectionCenterX = current.getId().startsWith("East") ? centers[1] : centers[0];
+            intersectionCenterX = topology.entryX(current.getNodeId());
         }
         
         switch (v.getUTurnPhase()) {
             case 0: // Approaching intersection center
                 double dx = westbound ? -speed : speed;
-                v.setPosition(new Point2D(pos.getX() + dx, pos.getY()));
+                moveTo(part, v, posX + dx, posY);
                 
                 // Check if reached turning point
-                boolean reachedCenter = Math.abs(pos.getX() - intersectionCenterX) < 15;
+                boolean reachedCenter = Math.abs(posX - intersectionCenterX) < 15;
                 
                 if (reachedCenter) {
                     // For "second" variants that have advanced, need to continue to extended position
-                    if (v.getId().contains("_advancing")) {
+                    if (v.isAdvancing()) {
                         // Mark for extended movement
                         v.setUTurnPhase(3); // New phase for extended movement
                         // Commented out for performance
@@ -462,64 +900,63 @@ public class TrafficController {
                         // Regular variants start turning immediately
                         v.setUTurnPhase(1);
                         // System.out.println("Vehicle " + v.getId() + " (" + direction + ") starting turn at " + 
-                        //                  current.getId() + " at X: " + v.getPosition().getX());
+                        //                  current.getId() + " at X: " + v.getX());
                     }
                 }
                 break;
                 
             case 1: // Making the 90-degree turn
-                double horizRoadY = (SimulationConfig.SCENE_HEIGHT - SimulationConfig.ROAD_WIDTH) / 2;
-                double verticalRoadWidth = SimulationConfig.ROAD_WIDTH;
                 double targetY;
-                String finalDirection;
+                Maneuver finalManeuver;
+                // Si la ruta sigue en la fila vecina, el giro termina en su carril central
+                Intersection row = rowReachedBy(v, current);
                 
                 // Determine target Y position and final direction based on vehicle type
-                if (direction.startsWith("left-north") || direction.startsWith("right-north")) {
-                    // Turn north (upward) - go to top of screen
+                if (row != null) {
+                    targetY = straightLaneY(row.getNodeId());
+                    finalManeuver = null;
+                } else if (maneuver.goesNorth()) {
+                    // Turn north (upward) - go to top of the scene
                     targetY = 50; // Target position at top of vertical road
-                    finalDirection = "north";
-                } else if (direction.startsWith("right-south") || direction.startsWith("left-south")) {
-                    // Turn south (downward) - go to bottom of screen
-                    targetY = SimulationConfig.SCENE_HEIGHT - 50; // Target position at bottom of vertical road
-                    finalDirection = "south";
+                    finalManeuver = Maneuver.VERTICAL_NORTH;
                 } else {
-                    targetY = pos.getY(); // Shouldn't happen
-                    finalDirection = "unknown";
+                    // Turn south (downward) - go to bottom of the scene
+                    targetY = topology.height() - 50; // Target position at bottom of vertical road
+                    finalManeuver = Maneuver.VERTICAL_SOUTH;
                 }
                 
                 // Move toward target Y position
-                double dy = targetY - pos.getY();
+                double dy = targetY - posY;
                 if (Math.abs(dy) > speed) {
                     double moveY = dy > 0 ? speed : -speed;
-                    v.setPosition(new Point2D(pos.getX(), pos.getY() + moveY));
+                    moveTo(part, v, posX, posY + moveY);
+                } else if (row != null) {
+                    enterRow(v, current, row, posX, targetY, part);
                 } else {
                     // Reached target position, complete the turn
                     // Adjust X position for better lane alignment based on specific vehicle type
-                    double adjustedX = pos.getX();
+                    double adjustedX = posX;
                     
                     // West vehicles need specific adjustments
-                    if (current.getId().startsWith("West")) {
-                        if (direction.equals("left-north-first")) {
+                    if (!current.isEastSide()) {
+                        if (maneuver == Maneuver.LEFT_NORTH_FIRST) {
                             adjustedX -= 3; 
-                        } else if (direction.equals("right-south-first")) {
+                        } else if (maneuver == Maneuver.RIGHT_SOUTH_FIRST) {
                             adjustedX -= 3; 
                         }
                     }
                     // East vehicles
-                    else if (current.getId().startsWith("East")) {
-                        if (direction.equals("right-north-second")) {
+                    else {
+                        if (maneuver == Maneuver.RIGHT_NORTH_SECOND) {
                             adjustedX -= 2;
                         }
                     }
                     
-                    v.setPosition(new Point2D(adjustedX, targetY));
+                    moveTo(part, v, adjustedX, targetY);
                     v.setUTurnPhase(2);
                     
                     // Continue moving vertically after turn
-                    v.setDirection("vertical-" + finalDirection);
-                    
-                    System.out.println("Vehicle " + v.getId() + " completed 90-degree turn to " + 
-                                     finalDirection + " at position (" + adjustedX + ", " + targetY + ")");
+                    v.setManeuver(finalManeuver);
                 }
                 break;
                 
@@ -527,21 +964,21 @@ public class TrafficController {
                 // Move north or south - ONLY VERTICAL MOVEMENT
                 double verticalSpeed = 8.0; // Más del doble de velocidad
                 double newY;
-                if (v.getDirection().contains("north")) {
-                    newY = pos.getY() - verticalSpeed; // Move up
+                if (v.getManeuver().goesNorth()) {
+                    newY = posY - verticalSpeed; // Move up
                     if (newY < -20) {
-                        queue.remove(v); // Remove when off screen
+                        retire(v, current, part); // Remove when off screen
                     } else {
                         // Keep same X position, only change Y
-                        v.setPosition(new Point2D(pos.getX(), newY));
+                        moveTo(part, v, posX, newY);
                     }
-                } else if (v.getDirection().contains("south")) {
-                    newY = pos.getY() + verticalSpeed; // Move down
-                    if (newY > SimulationConfig.SCENE_HEIGHT + 20) {
-                        queue.remove(v); // Remove when off screen
+                } else {
+                    newY = posY + verticalSpeed; // Move down
+                    if (newY > topology.height() + 20) {
+                        retire(v, current, part); // Remove when off screen
                     } else {
                         // Keep same X position, only change Y
-                        v.setPosition(new Point2D(pos.getX(), newY));
+                        moveTo(part, v, posX, newY);
                     }
                 }
                 break;
@@ -558,199 +995,152 @@ public class TrafficController {
                 double dxExtended = westbound ? -extendedSpeed : extendedSpeed;
                 
                 // Move gradually toward the extended position
-                v.setPosition(new Point2D(pos.getX() + dxExtended, pos.getY()));
+                moveTo(part, v, posX + dxExtended, posY);
                 
                 // Check if reached extended position
-                double distanceToExtended = Math.abs(pos.getX() - targetExtendedX);
+                double distanceToExtended = Math.abs(posX - targetExtendedX);
                 if (distanceToExtended <= 5) {
                     // Reached extended position, now start turning
-                    v.setPosition(new Point2D(targetExtendedX, pos.getY()));
+                    moveTo(part, v, targetExtendedX, posY);
                     v.setUTurnPhase(1);
-                    System.out.println("Vehicle " + v.getId() + " (" + direction + ") starting turn at extended position " + 
-                                     current.getId() + " at X: " + targetExtendedX);
                 }
                 break;
         }
     }
     
-    private void processUTurnVehicles(Intersection current, boolean westbound) {
+    private void processUTurnVehicles(Intersection current, boolean westbound, StepPartition part) {
         // U-turns now come from the dedicated UTurnVQueue
-        PriorityBlockingQueue<Vehicle> uTurnQueue = current.getUTurnVQueue();
+        Collection<Vehicle> uTurnQueue = current.getUTurnVQueue();
         
         if (uTurnQueue.isEmpty()) return;
         
-        List<Vehicle> uTurnVehicles = new ArrayList<>();
+        List<Vehicle> uTurnVehicles = part.uTurns;
+        uTurnVehicles.clear();
         for (Vehicle v : uTurnQueue) {
-            if ("u-turn".equalsIgnoreCase(v.getDirection()) || "u-turn-second".equalsIgnoreCase(v.getDirection())) {
+            if (v.getManeuver().isUTurn()) {
                 uTurnVehicles.add(v);
             }
         }
         
         for (Vehicle v : uTurnVehicles) {
-            if (!canMoveWithoutCollision(v, current, westbound)) {
+            if (!canMoveWithoutCollision(v, current, westbound, part.nearby)) {
                 continue;
             }
             
-            // For u-turn-second vehicles that haven't been marked as "advancing"
-            if ("u-turn-second".equalsIgnoreCase(v.getDirection()) && v.getUTurnPhase() == 0 && 
-                !v.getId().contains("_advancing")) {
+            // For u-turn-second vehicles that haven't reached the next intersection yet
+            boolean secondVariant = v.getManeuver().isSecondVariant();
+            if (secondVariant && v.getUTurnPhase() == 0 && !v.isAdvancing()) {
                 // Find next intersection in the same direction
                 Intersection nextIntersection = findNextIntersection(current, westbound);
                 if (nextIntersection != null) {
-                    // Mark vehicle as advancing to prevent re-processing
-                    v.setId(v.getId() + "_advancing");
-                    processUTurn2ndAdvance(v, current, nextIntersection, westbound, uTurnQueue);
+                    // Keeps driving until the hand-off, where it is marked as advancing
+                    processUTurn2ndAdvance(v, current, nextIntersection, westbound, uTurnQueue, part);
                 } else {
                     // If no next intersection, treat as regular u-turn
-                    processUTurnMovement(v, current, westbound, uTurnQueue);
+                    processUTurnMovement(v, current, westbound, uTurnQueue, part);
                 }
-            } else if (!"u-turn-second".equalsIgnoreCase(v.getDirection()) || 
-                      v.getId().contains("_advancing")) {
+            } else if (!secondVariant || v.isAdvancing()) {
                 // Process regular u-turn or u-turn-2nd that has arrived at target
-                processUTurnMovement(v, current, westbound, uTurnQueue);
+                processUTurnMovement(v, current, westbound, uTurnQueue, part);
             }
         }
     }
     
     private void processUTurn2ndAdvance(Vehicle v, Intersection current, Intersection next, 
-                                        boolean westbound, PriorityBlockingQueue<Vehicle> queue) {
-        Point2D pos = v.getPosition();
+                                        boolean westbound, Collection<Vehicle> queue,
+                                        StepPartition part) {
+        double posX = v.getX();
+        double posY = v.getY();
         double speed = 8.0; // INCREASED SPEED to reach next intersection faster
         double dx = westbound ? -speed : speed;
         
         // Move toward next intersection
-        v.setPosition(new Point2D(pos.getX() + dx, pos.getY()));
+        double newX = posX + dx;
+        moveTo(part, v, newX, posY);
         
         // Check if reached next intersection
-        double targetX = intersectionX(next.getId());
-        boolean arrived = westbound ? v.getPosition().getX() <= targetX : v.getPosition().getX() >= targetX;
-        
-        System.out.println("Vehicle " + v.getId() + " (u-turn-2nd) moving from " + current.getId() + 
-                         " to " + next.getId() + " at position (" + v.getPosition().getX() + 
-                         ", " + v.getPosition().getY() + ") target X: " + targetX);
+        double targetX = intersectionX(next);
+        boolean arrived = westbound ? newX <= targetX : newX >= targetX;
         
         if (arrived) {
             // Remove from current queue
-            queue.remove(v);
+            current.removeVehicle(v);
             
-            // Update vehicle's intersection
+            // Update vehicle's intersection; the route turns there
+            v.advanceRoute();
+            v.markAdvancing();
             v.setInIntersection(next.getId());
-            v.setPosition(new Point2D(targetX, pos.getY()));
+            moveTo(part, v, targetX, posY);
             
             // Add to next intersection's U-turn queue to perform the turn there
-            next.getUTurnVQueue().add(v);
-            
-            System.out.println("Vehicle " + v.getId() + " (u-turn-2nd) arrived at " + 
-                             next.getId() + " for U-turn execution at position (" + 
-                             targetX + ", " + pos.getY() + ")");
+            part.outbox.add(new Transfer(v, next, Lane.U_TURN));
         }
     }
     
+    // Downstream neighbour in the same direction; null at the end of the chain (e.g. East3, West3)
     private Intersection findNextIntersection(Intersection current, boolean westbound) {
-        String currentId = current.getId();
-        
-        if (westbound) {
-            // East vehicles moving west
-            if (currentId.equals("East1")) return findIntersectionById("East2");
-            if (currentId.equals("East2")) return findIntersectionById("East3");
-            // East3 has no next intersection westbound
-        } else {
-            // West vehicles moving east  
-            if (currentId.equals("West1")) return findIntersectionById("West2");
-            if (currentId.equals("West2")) return findIntersectionById("West3");
-            // West3 has no next intersection eastbound
-        }
-        
-        return null;
-    }
-    
-    private Intersection findIntersectionById(String id) {
-        for (Intersection i : Intersections) {
-            if (i.getId().equals(id)) {
-                return i;
-            }
+        int id = current.getNodeId();
+        if (topology.isWestbound(id) != westbound) {
+            return null;
         }
-        return null;
+        int next = topology.next(id);
+        return next == RoadGridTopology.NONE ? null : nodes[next];
     }
     
-    private void processUTurnMovement(Vehicle v, Intersection current, boolean westbound, PriorityBlockingQueue<Vehicle> queue) {
-        Point2D pos = v.getPosition();
+    private void processUTurnMovement(Vehicle v, Intersection current, boolean westbound, Collection<Vehicle> queue,
+                                      StepPartition part) {
+        double posX = v.getX();
+        double posY = v.getY();
         double speed = 7.0; 
         
         // Get intersection center X position
-        double[] centers = verticalCenters();
         double intersectionCenterX;
         
         // For u-turn-2nd vehicles, use the actual intersection position
-        if (v.getId().contains("_advancing")) {
+        if (v.isAdvancing()) {
             // This is a u-turn-2nd that should turn at its current intersection
-            intersectionCenterX = intersectionX(current.getId());
+            intersectionCenterX = intersectionX(current);
             // Debug removed - was printing too often
         } else {
             // Regular u-turn uses the vertical center
-            intersectionCenterX = current.getId().startsWith("East") ? centers[1] : centers[0];
+            intersectionCenterX = topology.entryX(current.getNodeId());
         }
         
         switch (v.getUTurnPhase()) {
             case 0: // Approaching intersection center
                 double dx = westbound ? -speed : speed;
                 
-                // For u-turn-2nd vehicles, check if we need to continue to extended position
-                if (v.getId().contains("_advancing")) {
-                    double extraDistance = 400; // Distance needed for proper u-turn-2nd positioning
-                    double targetX = westbound ? intersectionCenterX - extraDistance : intersectionCenterX + extraDistance;
-                    
-                    // Move gradually toward the extended position
-                    double distanceToTarget = Math.abs(pos.getX() - targetX);
-                    if (distanceToTarget > 5) {
-                        // Continue moving toward the extended position
-                        v.setPosition(new Point2D(pos.getX() + dx, pos.getY()));
-                    } else {
-                        // Reached extended position, start turning
-                        v.setPosition(new Point2D(targetX, pos.getY()));
-                        v.setUTurnPhase(1);
-                        System.out.println("Vehicle " + v.getId() + " starting U-turn at extended position " + 
-                                         current.getId() + " at X: " + targetX);
-                    }
-                } else {
-                    // Regular u-turn - move to intersection center
-                    v.setPosition(new Point2D(pos.getX() + dx, pos.getY()));
-                    
-                    // Check if reached intersection center for turning
-                    boolean reachedCenter = Math.abs(pos.getX() - intersectionCenterX) < 15;
-                    
-                    if (reachedCenter) {
-                        v.setUTurnPhase(1);
-                        System.out.println("Vehicle " + v.getId() + " starting U-turn at intersection " + 
-                                         current.getId() + " at X: " + v.getPosition().getX());
-                    }
+                // u-turn-2nd vehicles were handed over at the next intersection and turn right there
+                moveTo(part, v, posX + dx, posY);
+                
+                // Check if reached intersection center for turning
+                boolean reachedCenter = Math.abs(posX - intersectionCenterX) < 15;
+                
+                if (reachedCenter) {
+                    v.setUTurnPhase(1);
                 }
                 break;
                 
             case 1: // Making the U-turn (turning around)
                 // Calculate target lane Y position - LEFT LANE of opposite direction
-                double horizRoadY = (SimulationConfig.SCENE_HEIGHT - SimulationConfig.ROAD_WIDTH) / 2;
+                // Borde superior de la calle horizontal de esta intersección
+                double horizRoadY = topology.y(current.getNodeId()) - SimulationConfig.ROAD_WIDTH / 2;
                 double laneWidth = SimulationConfig.ROAD_WIDTH / 3;
                 double targetY;
                 
-                if (current.getId().startsWith("East")) {
+                if (current.isEastSide()) {
                     // East vehicles turning to West: enter West's LEFT lane (top lane for West)
-                    targetY = horizRoadY + laneWidth * 0.5 + app.paralelafinal.config.LanePositionAdjustment.WEST_LEFT_OFFSET;
+                    targetY = horizRoadY + laneWidth * 0.5 + laneOffsets.get(false, LaneOffsets.Slot.LEFT);
                 } else {
                     // West vehicles turning to East: enter East's LEFT lane (bottom lane for East)
-                    targetY = horizRoadY + laneWidth * 2.5 + app.paralelafinal.config.LanePositionAdjustment.EAST_LEFT_OFFSET;
-                    
-                    // For West1, adjust 2 pixels to the left (which means moving down when horizontal)
-                    if (current.getId().equals("West1") && !v.getId().contains("_advancing")) {
-                        targetY = targetY + 2; // Move 2 pixels down (appears as left when vehicle is horizontal pointing south)
-                    }
+                    targetY = horizRoadY + laneWidth * 2.5 + laneOffsets.get(true, LaneOffsets.Slot.LEFT);
                 }
                 
                 // Move toward target Y position
-                double dy = targetY - pos.getY();
+                double dy = targetY - posY;
                 if (Math.abs(dy) > speed) {
                     double moveY = dy > 0 ? speed : -speed;
-                    v.setPosition(new Point2D(pos.getX(), pos.getY() + moveY));
+                    moveTo(part, v, posX, posY + moveY);
                 } else {
                     // Reached target lane, complete the turn and transfer to opposite intersection
                     v.setUTurnPhase(2);
@@ -759,88 +1149,113 @@ public class TrafficController {
                     Intersection oppositeIntersection = findOppositeIntersection(current);
                     if (oppositeIntersection != null) {
                         // Remove from current U-turn queue
-                        queue.remove(v);
+                        current.removeVehicle(v);
                         
                         // Update vehicle properties for the new direction - keep as same vehicle
-                        v.setDirection("left");
-                        v.setGoal(oppositeIntersection.getId());
+                        Route.Turn turn = v.advanceRoute();
+                        if (turn == null) {
+                            v.setGoal(oppositeIntersection.getId()); // Sin ruta, la meta es donde termina la vuelta
+                        }
                         v.setInIntersection(oppositeIntersection.getId());
                         v.setUTurnPhase(0); // Reset phase
                         
                         // Keep current X position but update Y to the correct left lane
-                        v.setPosition(new Point2D(pos.getX(), targetY));
+                        moveTo(part, v, posX, targetY);
                         
-                        // Add the SAME vehicle to the left queue of the opposite intersection
-                        oppositeIntersection.getLeftVQueue().add(v);
-                        
-                        System.out.println("Vehicle " + v.getId() + " completed U-turn and transferred to " + 
-                                         oppositeIntersection.getId() + " left queue at position (" + 
-                                         pos.getX() + ", " + targetY + ")");
-                        System.out.println("Vehicle direction is now: " + v.getDirection());
-                        System.out.println("Left queue size: " + oppositeIntersection.getLeftVQueue().size());
-                        System.out.println("Mid queue size: " + oppositeIntersection.getMidVQueue().size());
+                        // La ruta puede volver a girar en la opuesta: ahí mismo, de vuelta o a la vertical
+                        Lane turning = enterTurning(v, turn, oppositeIntersection);
+                        if (turning != null) {
+                            part.outbox.add(new Transfer(v, oppositeIntersection, turning));
+                        } else {
+                            // Add the SAME vehicle to the left queue of the opposite intersection
+                            v.setManeuver(Maneuver.LEFT);
+                            part.outbox.add(new Transfer(v, oppositeIntersection, Lane.LEFT));
+                        }
                     }
                 }
                 break;
         }
     }
     
-    private Intersection findOppositeIntersection(Intersection current) {
-        String currentId = current.getId();
-        String targetId = null;
-        
-        if (currentId.startsWith("East")) {
-            // Extract the number and map to corresponding West intersection
-            String number = currentId.substring(4); // Get the number part (1, 2, 3)
-            targetId = "West" + number;
-        } else if (currentId.startsWith("West")) {
-            // Extract the number and map to corresponding East intersection
-            String number = currentId.substring(4); // Get the number part (1, 2, 3)
-            targetId = "East" + number;
+    /**
+     * Prepara a un vehículo que llega a {@code target} para el giro que su ruta pide ahí: un U-turn
+     * (como un u-turn-second que ya avanzó) o un giro a la calle vertical, que empieza ya en la
+     * fase de giro porque el vehículo está en el centro de la intersección.
+     *
+     * @return la cola de {@code target} a la que entra, o null si la ruta sigue derecho.
+     */
+    private Lane enterTurning(Vehicle v, Route.Turn turn, Intersection target) {
+        if (turn == Route.Turn.U_TURN) {
+            v.setManeuver(Maneuver.U_TURN_SECOND);
+            v.markAdvancing();
+            return Lane.U_TURN;
         }
-        
-        if (targetId != null) {
-            for (Intersection i : Intersections) {
-                if (i.getId().equals(targetId)) {
-                    return i;
-                }
-            }
+        if (turn == Route.Turn.NORTH || turn == Route.Turn.SOUTH) {
+            Maneuver maneuver = Maneuver.verticalTurn(turn == Route.Turn.NORTH, topology.isWestbound(target.getNodeId()));
+            v.setManeuver(maneuver);
+            v.setUTurnPhase(1);
+            return maneuver.getLane();
         }
-        
         return null;
     }
 
-    // Compute x centers of the two vertical roads used as intersection reference lines
-    private double[] verticalCenters() {
-        double canvasW = SimulationConfig.SCENE_WIDTH;
-        double verticalRoadW = SimulationConfig.ROAD_WIDTH; // 2 lanes total
-        double horizontalBlockSize = (canvasW - 2 * verticalRoadW) / 3.0;
-        double x1 = horizontalBlockSize + verticalRoadW / 2.0; // center of first vertical road
-        double x2 = horizontalBlockSize + verticalRoadW + horizontalBlockSize + verticalRoadW / 2.0; // center of second vertical road
-        return new double[]{x1, x2};
+    // Giro vertical que la ruta del vehículo pide en la intersección donde está, o null
+    private static Route.Turn verticalTurnAt(Vehicle v) {
+        Route route = v.getRoute();
+        if (route == null) {
+            return null;
+        }
+        Route.Turn turn = route.turns()[v.getRouteIndex()];
+        return turn == Route.Turn.NORTH || turn == Route.Turn.SOUTH ? turn : null;
+    }
+
+    // Intersección de la fila vecina a la que lleva el giro vertical de la ruta; null si sale de la escena
+    private Intersection rowReachedBy(Vehicle v, Intersection current) {
+        Route.Turn turn = verticalTurnAt(v);
+        if (turn == null) {
+            return null;
+        }
+        int node = current.getNodeId();
+        int row = turn == Route.Turn.NORTH ? topology.north(node) : topology.south(node);
+        return row == RoadGridTopology.NONE ? null : nodes[row];
     }
 
-    // Map logical intersection IDs to the corresponding vertical road center x
-    private double intersectionX(String intersectionId) {
-        double[] centers = verticalCenters();
-        double x1 = centers[0]; // First vertical road center
-        double x2 = centers[1]; // Second vertical road center
-        
-        // Map each intersection to its corresponding vertical road
-        if (intersectionId.equalsIgnoreCase("East1")) return x2; // East1 at second vertical road
-        if (intersectionId.equalsIgnoreCase("East2")) return x1; // East2 at first vertical road
-        if (intersectionId.equalsIgnoreCase("East3")) return x1 - 200; // East3 further west
-        
-        if (intersectionId.equalsIgnoreCase("West1")) return x1; // West1 at first vertical road
-        if (intersectionId.equalsIgnoreCase("West2")) return x2; // West2 at second vertical road
-        if (intersectionId.equalsIgnoreCase("West3")) return x2 + 200; // West3 further east
-        
-        return (x1 + x2) / 2.0; // Default fallback
+    // Y del carril central de la calle horizontal de un nodo, la misma que usa la generación de vehículos
+    private double straightLaneY(int node) {
+        double horizRoadY = topology.y(node) - SimulationConfig.ROAD_WIDTH / 2;
+        return horizRoadY + SimulationConfig.ROAD_WIDTH / 3 * 1.5
+                + laneOffsets.get(topology.isWestbound(node), LaneOffsets.Slot.STRAIGHT);
+    }
+
+    // Termina un giro vertical en la fila vecina: pasa a su cola y sigue la ruta desde ahí
+    private void enterRow(Vehicle v, Intersection current, Intersection row, double x, double y, StepPartition part) {
+        current.removeVehicle(v);
+        moveTo(part, v, x, y);
+        v.setInIntersection(row.getId());
+        v.setUTurnPhase(0);
+        Lane turning = enterTurning(v, v.advanceRoute(), row);
+        if (turning == null) {
+            v.setManeuver(Maneuver.STRAIGHT);
+            turning = Lane.MID;
+        }
+        part.outbox.add(new Transfer(v, row, turning));
+    }
+
+    // Same-position intersection in the other direction (EastN <-> WestN in the default layout)
+    private Intersection findOppositeIntersection(Intersection current) {
+        int opposite = topology.opposite(current.getNodeId());
+        return opposite == RoadGridTopology.NONE ? null : nodes[opposite];
+    }
+
+    // Vertical road center x of an intersection, precomputed by the topology
+    private double intersectionX(Intersection intersection) {
+        return topology.x(intersection.getNodeId());
     }
 
     // Check if vehicle can move without colliding with vehicles ahead
-    private boolean canMoveWithoutCollision(Vehicle movingVehicle, Intersection intersection, boolean westbound) {
-        if (movingVehicle == null || movingVehicle.getPosition() == null) return false;
+    boolean canMoveWithoutCollision(Vehicle movingVehicle, Intersection intersection, boolean westbound,
+                                    List<Vehicle> nearby) {
+        if (movingVehicle == null || movingVehicle.isReleased()) return false;
         
         // IMPORTANTE: Las emergencias NO pueden pasar por encima de otros vehículos
         // Deben esperar si hay un vehículo adelante, pero los vehículos normales
@@ -850,100 +1265,80 @@ public class TrafficController {
         boolean inEmergencyLane = isInSameLaneAsEmergency(movingVehicle, intersection);
         
         if (movingVehicle.isEmergency()) {
-            // Poner semáforo en verde para el carril de emergencias
+            // Poner semáforo en verde para el carril de emergencias; pasa por setLight para que
+            // se registre el evento y, en modo ACTORS, lo aplique el buzón de la intersección
             TrafficLight light = intersection.getTrafficLight();
             if (light != null && !light.isGreen()) {
-                light.getGreen().set(true);
+                setLight(intersection, true, "preemption");
+                emergencyLatency.onLightsChanged();
             }
             // PERO la emergencia debe verificar colisiones también
         }
         
         double minSafeDistance = SimulationConfig.VEHICLE_LENGTH + 25; // Aumentado para más seguridad
-        Point2D movingPos = movingVehicle.getPosition();
-        String movingDirection = movingVehicle.getDirection().toLowerCase();
+        double movingX = movingVehicle.getX();
+        double movingY = movingVehicle.getY();
+        Maneuver movingManeuver = movingVehicle.getManeuver();
         
         // Determine if this vehicle is moving vertically
-        boolean isMovingVertically = movingDirection.equals("vertical-north") || 
-                                    movingDirection.equals("vertical-south");
+        boolean isMovingVertically = movingManeuver.isVertical();
         
-        // Verificar colisiones con TODAS las intersecciones para mayor seguridad
-        for (Intersection checkIntersection : Intersections) {
-            List<PriorityBlockingQueue<Vehicle>> allQueues = List.of(
-                checkIntersection.getMidVQueue(),
-                checkIntersection.getRightVQueue(), 
-                checkIntersection.getLeftVQueue(),
-                checkIntersection.getUTurnVQueue()
-            );
-            
-            for (PriorityBlockingQueue<Vehicle> queue : allQueues) {
-                for (Vehicle other : queue) {
-                    if (other != movingVehicle && other.getPosition() != null) {
-                        boolean potentialCollision = false;
-                        
-                        if (isMovingVertically) {
-                            // For vertically moving vehicles, check vertical collisions
-                            potentialCollision = isTooCloseVertically(movingPos, other.getPosition(), 
-                                                                     minSafeDistance, 
-                                                                     movingDirection.contains("north"));
-                        } else {
-                            // For horizontally moving vehicles, check horizontal collisions
-                            potentialCollision = isTooClose(movingPos, other.getPosition(), 
-                                                           minSafeDistance, westbound);
+        // Only vehicles in the neighbouring grid cells can be within minSafeDistance
+        nearby.clear();
+        spatialGrid.collectNear(movingX, movingY, nearby);
+
+        for (int n = 0; n < nearby.size(); n++) {
+            Vehicle other = nearby.get(n);
+            if (other != movingVehicle && !other.isReleased()) {
+                boolean potentialCollision = false;
+                
+                if (isMovingVertically) {
+                    // For vertically moving vehicles, check vertical collisions
+                    potentialCollision = isTooCloseVertically(movingX, movingY, other.getX(), other.getY(), 
+                                                             minSafeDistance, 
+                                                             movingManeuver.goesNorth());
+                } else {
+                    // For horizontally moving vehicles, check horizontal collisions
+                    potentialCollision = isTooClose(movingX, movingY, other.getX(), other.getY(), 
+                                                   minSafeDistance, westbound);
+                }
+                
+                // Si hay potencial colisión, verificar quién tiene prioridad
+                if (potentialCollision) {
+                    // IMPORTANTE: Solo detener si realmente el otro tiene prioridad
+                    // Para evitar deadlocks, ser más específico sobre quién debe detenerse
+                    
+                    // Entre emergencias, prioridad a la más antigua
+                    if (movingVehicle.isEmergency() && other.isEmergency()) {
+                        // Ambas son emergencias, prioridad a la que llegó primero
+                        if (other.getArrivalTime() < movingVehicle.getArrivalTime()) {
+                            return false; // La otra emergencia tiene prioridad
                         }
-                        
-                        // Si hay potencial colisión, verificar quién tiene prioridad
-                        if (potentialCollision) {
-                            // IMPORTANTE: Solo detener si realmente el otro tiene prioridad
-                            // Para evitar deadlocks, ser más específico sobre quién debe detenerse
-                            
-                            // Entre emergencias, prioridad a la más antigua
-                            if (movingVehicle.isEmergency() && other.isEmergency()) {
-                                // Ambas son emergencias, prioridad a la que llegó primero
-                                if (other.getArrivalTime() < movingVehicle.getArrivalTime()) {
-                                    System.out.println("[EMERGENCY PRIORITY] Emergency " + movingVehicle.getId() + 
-                                                     " waiting for older emergency " + other.getId());
-                                    return false; // La otra emergencia tiene prioridad
-                                }
-                                // Si esta emergencia es más antigua o igual, puede continuar
-                                System.out.println("[EMERGENCY PRIORITY] Emergency " + movingVehicle.getId() + 
-                                                 " has priority over " + other.getId());
-                            }
-                            // Si el otro es emergencia y este no, el otro tiene prioridad
-                            else if (other.isEmergency() && !movingVehicle.isEmergency()) {
-                                System.out.println("[YIELD TO EMERGENCY] Vehicle " + movingVehicle.getId() + 
-                                                 " yielding to emergency " + other.getId());
-                                return false; // Ceder paso a la emergencia
-                            }
-                            // Si este es emergencia y el otro no, este tiene prioridad absoluta
-                            else if (movingVehicle.isEmergency() && !other.isEmergency()) {
-                                // Esta emergencia tiene prioridad absoluta
-                                System.out.println("[EMERGENCY OVERRIDE] Emergency " + movingVehicle.getId() + 
-                                                 " has priority over normal vehicle " + other.getId());
-                                // La emergencia puede continuar, el otro vehículo debe ceder
-                                continue; // Verificar siguiente vehículo
-                            }
-                            // Si ninguno es emergencia, prioridad al más antiguo
-                            else if (other.getArrivalTime() < movingVehicle.getArrivalTime()) {
-                                // El otro vehículo llegó primero, tiene prioridad
-                                System.out.println("[COLLISION AVOIDED] Vehicle " + movingVehicle.getId() + 
-                                                 " (arrival: " + movingVehicle.getArrivalTime() + 
-                                                 ") waiting for older vehicle " + other.getId() + 
-                                                 " (arrival: " + other.getArrivalTime() + ")");
-                                return false;
-                            }
-                            else if (other.getArrivalTime() == movingVehicle.getArrivalTime()) {
-                                // Si llegaron al mismo tiempo, usar ID como desempate
-                                if (other.getId().compareTo(movingVehicle.getId()) < 0) {
-                                    System.out.println("[TIE BREAKER] Vehicle " + movingVehicle.getId() + 
-                                                     " waiting for " + other.getId() + " (same arrival time)");
-                                    return false;
-                                }
-                            }
-                            // Si este vehículo es más antiguo, puede continuar
-                            System.out.println("[PRIORITY] Vehicle " + movingVehicle.getId() + 
-                                             " has priority over " + other.getId());
+                        // Si esta emergencia es más antigua o igual, puede continuar
+                    }
+                    // Si el otro es emergencia y este no, el otro tiene prioridad
+                    else if (other.isEmergency() && !movingVehicle.isEmergency()) {
+                        return false; // Ceder paso a la emergencia
+                    }
+                    // Si este es emergencia y el otro no, este tiene prioridad absoluta
+                    else if (movingVehicle.isEmergency() && !other.isEmergency()) {
+                        // Esta emergencia tiene prioridad absoluta
+                        // La emergencia puede continuar, el otro vehículo debe ceder
+                        continue; // Verificar siguiente vehículo
+                    }
+                    // Si ninguno es emergencia, prioridad al más antiguo
+                    else if (other.getArrivalTime() < movingVehicle.getArrivalTime()) {
+                        // El otro vehículo llegó primero, tiene prioridad
+                        return false;
+                    }
+                    else if (other.getArrivalTime() == movingVehicle.getArrivalTime()) {
+                        // Si llegaron al mismo tiempo, desempata el orden de creación (el id
+                        // cambia a mitad de paso cuando otra partición marca un avance)
+                        if (other.getSequence() < movingVehicle.getSequence()) {
+                            return false;
                         }
                     }
+                    // Si este vehículo es más antiguo, puede continuar
                 }
             }
         }
@@ -959,49 +1354,29 @@ public class TrafficController {
             return false;
         }
         
-        // Buscar si hay una emergencia en la misma cola que este vehículo
-        PriorityBlockingQueue<Vehicle> vehicleQueue = null;
-        
-        if (intersection.getMidVQueue().contains(vehicle)) {
-            vehicleQueue = intersection.getMidVQueue();
-        } else if (intersection.getRightVQueue().contains(vehicle)) {
-            vehicleQueue = intersection.getRightVQueue();
-        } else if (intersection.getLeftVQueue().contains(vehicle)) {
-            vehicleQueue = intersection.getLeftVQueue();
-        } else if (intersection.getUTurnVQueue().contains(vehicle)) {
-            vehicleQueue = intersection.getUTurnVQueue();
-        }
-        
-        // Si encontramos la cola del vehículo, verificar si hay emergencias
-        if (vehicleQueue != null) {
-            for (Vehicle v : vehicleQueue) {
-                // No comparar consigo mismo y solo buscar emergencias
-                if (v != vehicle && v.isEmergency()) {
-                    return true; // Hay una emergencia en el mismo carril
-                }
-            }
-        }
-        
-        return false;
+        // Hay una emergencia en la misma cola que este vehículo (el índice por carril lo dice sin recorrerla)
+        Lane lane = vehicle.getQueuedLane();
+        return lane != null && vehicle.getQueuedIntersection() == intersection
+                && intersection.getEmergencyCount(lane) > 0;
     }
     
     // Check if another vehicle is too close ahead in the direction of travel (horizontal)
-    private boolean isTooClose(Point2D movingPos, Point2D otherPos, double minDistance, boolean westbound) {
+    private boolean isTooClose(double movingX, double movingY, double otherX, double otherY, double minDistance, boolean westbound) {
         // Verificación más estricta de proximidad
-        double xDist = Math.abs(movingPos.getX() - otherPos.getX());
-        double yDist = Math.abs(movingPos.getY() - otherPos.getY());
+        double xDist = Math.abs(movingX - otherX);
+        double yDist = Math.abs(movingY - otherY);
         
         // Si están muy cerca en ambas dimensiones, hay riesgo de colisión
         if (xDist < minDistance && yDist < SimulationConfig.VEHICLE_WIDTH * 2.5) {
             // Verificar si el otro vehículo está en la trayectoria
             if (westbound) {
                 // Si vamos hacia el oeste y el otro está a la izquierda
-                if (otherPos.getX() < movingPos.getX()) {
+                if (otherX < movingX) {
                     return true; // Colisión potencial
                 }
             } else {
                 // Si vamos hacia el este y el otro está a la derecha
-                if (otherPos.getX() > movingPos.getX()) {
+                if (otherX > movingX) {
                     return true; // Colisión potencial
                 }
             }
@@ -1013,39 +1388,39 @@ public class TrafficController {
         }
         
         // Verificación original para vehículos en el mismo carril
-        if (Math.abs(movingPos.getY() - otherPos.getY()) > SimulationConfig.VEHICLE_WIDTH * 2) {
+        if (Math.abs(movingY - otherY) > SimulationConfig.VEHICLE_WIDTH * 2) {
             return false; // Different lanes, no collision risk
         }
         
         // Check distance in direction of travel
         if (westbound) {
             // Moving left (westbound): other vehicle should be to the left
-            double distance = movingPos.getX() - otherPos.getX();
+            double distance = movingX - otherX;
             return distance > 0 && distance < minDistance;
         } else {
             // Moving right (eastbound): other vehicle should be to the right
-            double distance = otherPos.getX() - movingPos.getX();
+            double distance = otherX - movingX;
             return distance > 0 && distance < minDistance;
         }
     }
     
     // Check if another vehicle is too close ahead in the direction of travel (vertical)
-    private boolean isTooCloseVertically(Point2D movingPos, Point2D otherPos, double minDistance, boolean movingNorth) {
+    private boolean isTooCloseVertically(double movingX, double movingY, double otherX, double otherY, double minDistance, boolean movingNorth) {
         // Verificación más estricta de proximidad vertical
-        double xDist = Math.abs(movingPos.getX() - otherPos.getX());
-        double yDist = Math.abs(movingPos.getY() - otherPos.getY());
+        double xDist = Math.abs(movingX - otherX);
+        double yDist = Math.abs(movingY - otherY);
         
         // Si están muy cerca en ambas dimensiones, hay riesgo de colisión
         if (yDist < minDistance && xDist < SimulationConfig.VEHICLE_WIDTH * 2.5) {
             // Verificar si el otro vehículo está en la trayectoria
             if (movingNorth) {
                 // Si vamos hacia el norte y el otro está arriba
-                if (otherPos.getY() < movingPos.getY()) {
+                if (otherY < movingY) {
                     return true; // Colisión potencial
                 }
             } else {
                 // Si vamos hacia el sur y el otro está abajo
-                if (otherPos.getY() > movingPos.getY()) {
+                if (otherY > movingY) {
                     return true; // Colisión potencial
                 }
             }
@@ -1057,18 +1432,18 @@ public class TrafficController {
         }
         
         // Verificación original
-        if (Math.abs(movingPos.getX() - otherPos.getX()) > SimulationConfig.VEHICLE_WIDTH * 2) {
+        if (Math.abs(movingX - otherX) > SimulationConfig.VEHICLE_WIDTH * 2) {
             return false; // Different vertical lanes, no collision risk
         }
         
         // Check distance in direction of travel
         if (movingNorth) {
             // Moving north (upward): other vehicle should be above
-            double distance = movingPos.getY() - otherPos.getY();
+            double distance = movingY - otherY;
             return distance > 0 && distance < minDistance;
         } else {
             // Moving south (downward): other vehicle should be below
-            double distance = otherPos.getY() - movingPos.getY();
+            double distance = otherY - movingY;
             return distance > 0 && distance < minDistance;
         }
     }
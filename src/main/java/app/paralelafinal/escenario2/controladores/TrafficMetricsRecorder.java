@@ -0,0 +1,79 @@
+package app.paralelafinal.escenario2.controladores;
+
+import app.paralelafinal.escenario2.entidades.Intersection;
+import app.paralelafinal.escenario2.entidades.IntersectionListener;
+import app.paralelafinal.escenario2.entidades.Lane;
+import app.paralelafinal.escenario2.entidades.Vehicle;
+import app.paralelafinal.metricas.LaneMetrics;
+import app.paralelafinal.metricas.TrafficMetrics;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Alimenta {@link TrafficMetrics} con los eventos de las colas: cada encolar es una llegada
+ * al carril y cada desencolar una descarga, con la espera medida en tiempo del reloj de la
+ * simulación. Los indicadores de cada carril se resuelven al crear el registrador y se
+ * buscan por id de nodo y carril, sin mapas en el camino caliente.
+ */
+class TrafficMetricsRecorder implements IntersectionListener {
+
+    private final TrafficMetrics metrics = new TrafficMetrics();
+    private final LongSupplier nowMillis;
+    private final LaneMetrics[][] lanesByNode;
+
+    /**
+     * @param intersections intersecciones ya asociadas a su nodo de la topología.
+     * @param nowMillis     tiempo simulado actual, en milisegundos.
+     */
+    TrafficMetricsRecorder(List<Intersection> intersections, int nodeCount, LongSupplier nowMillis) {
+        this.nowMillis = nowMillis;
+        this.lanesByNode = new LaneMetrics[nodeCount][];
+        for (Intersection intersection : intersections) {
+            LaneMetrics[] lanes = new LaneMetrics[Lane.values().length];
+            for (Lane lane : Lane.values()) {
+                lanes[lane.ordinal()] = metrics.register(intersection.getId(), lane.name());
+            }
+            lanesByNode[intersection.getNodeId()] = lanes;
+        }
+    }
+
+    @Override
+    public void onVehicleEnqueued(Intersection intersection, Vehicle vehicle, Lane lane) {
+        long now = nowMillis.getAsLong();
+        if (vehicle.getSpawnedAtMillis() < 0) {
+            vehicle.setSpawnedAtMillis(now);
+        }
+        vehicle.setQueuedSinceMillis(now);
+        laneOf(intersection, lane).recordArrival();
+    }
+
+    @Override
+    public void onVehicleDequeued(Intersection intersection, Vehicle vehicle, Lane lane) {
+        if (vehicle.getSpawnedAtMillis() < 0) {
+            return; // Encolado antes de que existiera el registrador
+        }
+        laneOf(intersection, lane).recordDischarge(nowMillis.getAsLong() - vehicle.getQueuedSinceMillis());
+    }
+
+    /**
+     * El vehículo sale de la red desde {@code lane} de {@code intersection}.
+     */
+    void onVehicleExited(Intersection intersection, Vehicle vehicle, Lane lane) {
+        if (vehicle.getSpawnedAtMillis() >= 0) {
+            metrics.recordExit(laneOf(intersection, lane), nowMillis.getAsLong() - vehicle.getSpawnedAtMillis());
+        }
+    }
+
+    void sample() {
+        metrics.sample(nowMillis.getAsLong());
+    }
+
+    TrafficMetrics getMetrics() {
+        return metrics;
+    }
+
+    private LaneMetrics laneOf(Intersection intersection, Lane lane) {
+        return lanesByNode[intersection.getNodeId()][lane.ordinal()];
+    }
+}
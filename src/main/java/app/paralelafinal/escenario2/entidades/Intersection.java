@@ -1,70 +1,117 @@
 package app.paralelafinal.escenario2.entidades;
+import app.paralelafinal.comun.LaneQueue;
+import app.paralelafinal.metricas.InstrumentedLock;
+
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.PriorityBlockingQueue;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class Intersection {
+    /** Orden de llegada, con desempate por orden de creación. */
+    public static final Comparator<Vehicle> BY_ARRIVAL =
+            Comparator.comparingLong(Vehicle::getArrivalTime).thenComparingLong(Vehicle::getSequence);
+
     private String id;
-    private PriorityBlockingQueue<Vehicle> RightVQueue;
-    private PriorityBlockingQueue<Vehicle> MidVQueue;
-    private PriorityBlockingQueue<Vehicle> LeftVQueue;
-    private PriorityBlockingQueue<Vehicle> UTurnVQueue;
+    private final LaneQueue<Vehicle> RightVQueue;
+    private final LaneQueue<Vehicle> MidVQueue;
+    private final LaneQueue<Vehicle> LeftVQueue;
+    private final LaneQueue<Vehicle> UTurnVQueue;
+    // Vistas de solo lectura que se entregan afuera: las altas y bajas pasan por los métodos de la intersección
+    private final Map<Lane, Collection<Vehicle>> queueViews = new EnumMap<>(Lane.class);
     private AtomicBoolean greenLight;
     private TrafficLight trafficLight;
+    private boolean eastSide; // East intersections carry westbound traffic; lo fija la topología
+    private final List<IntersectionListener> listeners = new CopyOnWriteArrayList<>();
+    // Índice de emergencias por carril, actualizado al encolar y desencolar
+    private final Map<Lane, NavigableSet<Vehicle>> emergenciesByLane = new EnumMap<>(Lane.class);
+    private final Map<Lane, AtomicInteger> emergencyCountByLane = new EnumMap<>(Lane.class);
+    private final AtomicInteger emergencyCount = new AtomicInteger();
+    // Candado propio (una franja por intersección): lo toman quien avanza sus colas y quien
+    // genera vehículos en ella. Nunca se sostienen dos a la vez, así que no hay orden que respetar.
+    private final InstrumentedLock lock;
+    // Id de nodo en la RoadGridTopology; se fija una vez al armar la red, antes de arrancar
+    private int nodeId = RoadGridTopology.NONE;
 
     public Intersection(String id) {
         this.id = id;
         this.greenLight = new AtomicBoolean(false);
-        this.RightVQueue = new PriorityBlockingQueue<>(10,
-                Comparator.comparingLong(Vehicle::getArrivalTime)
-        );
-        this.MidVQueue = new PriorityBlockingQueue<>(10,
-                Comparator.comparingLong(Vehicle::getArrivalTime)
-        );
-        this.LeftVQueue = new PriorityBlockingQueue<>(10,
-                Comparator.comparingLong(Vehicle::getArrivalTime)
-        );
-        this.UTurnVQueue = new PriorityBlockingQueue<>(10,
-                Comparator.comparingLong(Vehicle::getArrivalTime)
-        ); // New queue
+        this.lock = new InstrumentedLock(id);
+        // Colas en orden de llegada: se iteran de la cabeza a la cola y quitar de en medio es O(1)
+        this.RightVQueue = new LaneQueue<>(BY_ARRIVAL);
+        this.MidVQueue = new LaneQueue<>(BY_ARRIVAL);
+        this.LeftVQueue = new LaneQueue<>(BY_ARRIVAL);
+        this.UTurnVQueue = new LaneQueue<>(BY_ARRIVAL); // New queue
+        for (Lane lane : Lane.values()) {
+            queueViews.put(lane, Collections.unmodifiableCollection(queueOf(lane)));
+            emergenciesByLane.put(lane, new ConcurrentSkipListSet<>(BY_ARRIVAL));
+            emergencyCountByLane.put(lane, new AtomicInteger());
+        }
         // Initialize a traffic light bound to this intersection's green flag to avoid NPEs
         this.trafficLight = new TrafficLight(id, greenLight);
     }
     public String getId() { return id; }
-    public void setId(String id) { this.id = id; }
-
-    public PriorityBlockingQueue<Vehicle> getRightVQueue() {
-        return RightVQueue;
+    public void setId(String id) {
+        this.id = id;
     }
 
-    public void setRightVQueue(PriorityBlockingQueue<Vehicle> rightVQueue) {
-        RightVQueue = rightVQueue;
+    public boolean isEastSide() { return eastSide; }
+
+    /**
+     * @return el id de esta intersección en su {@link RoadGridTopology}, o {@link RoadGridTopology#NONE}.
+     */
+    public int getNodeId() { return nodeId; }
+
+    void bindNode(int nodeId, boolean westbound) {
+        this.nodeId = nodeId;
+        this.eastSide = westbound;
     }
 
-    public PriorityBlockingQueue<Vehicle> getMidVQueue() {
-        return MidVQueue;
+    /**
+     * @return el candado que protege las colas de esta intersección, con sus métricas de contención.
+     */
+    public InstrumentedLock getLock() { return lock; }
+
+    /**
+     * @return la cola del carril en orden de llegada, de solo lectura; para encolar y quitar
+     *         vehículos están {@link #addVehicleToQueue} y {@link #removeVehicle}.
+     */
+    public Collection<Vehicle> getQueue(Lane lane) {
+        return queueViews.get(lane);
     }
 
-    public void setMidVQueue(PriorityBlockingQueue<Vehicle> midVQueue) {
-        MidVQueue = midVQueue;
+    private LaneQueue<Vehicle> queueOf(Lane lane) {
+        return switch (lane) {
+            case RIGHT -> RightVQueue;
+            case MID -> MidVQueue;
+            case LEFT -> LeftVQueue;
+            case U_TURN -> UTurnVQueue;
+        };
     }
 
-    public PriorityBlockingQueue<Vehicle> getLeftVQueue() {
-        return LeftVQueue;
+    public Collection<Vehicle> getRightVQueue() {
+        return getQueue(Lane.RIGHT);
     }
 
-    public void setLeftVQueue(PriorityBlockingQueue<Vehicle> leftVQueue) {
-        LeftVQueue = leftVQueue;
+    public Collection<Vehicle> getMidVQueue() {
+        return getQueue(Lane.MID);
     }
 
-    public PriorityBlockingQueue<Vehicle> getUTurnVQueue() {
-        return UTurnVQueue;
+    public Collection<Vehicle> getLeftVQueue() {
+        return getQueue(Lane.LEFT);
     }
 
-    public void setUTurnVQueue(PriorityBlockingQueue<Vehicle> uTurnVQueue) {
-        UTurnVQueue = uTurnVQueue;
+    public Collection<Vehicle> getUTurnVQueue() {
+        return getQueue(Lane.U_TURN);
     }
 
     public boolean isGreenLight() {
@@ -75,23 +122,78 @@ public class Intersection {
     public void addVehicleToQueue(Vehicle v, String queueType) {
         switch(queueType.toLowerCase()) {
             case "right":
-                RightVQueue.add(v);
+                addVehicleToQueue(v, Lane.RIGHT);
                 break;
             case "straight":
             case "mid":
-                MidVQueue.add(v);
+                addVehicleToQueue(v, Lane.MID);
                 break;
             case "left":
-                LeftVQueue.add(v);
+                addVehicleToQueue(v, Lane.LEFT);
                 break;
             case "u-turn":
-                UTurnVQueue.add(v);
+                addVehicleToQueue(v, Lane.U_TURN);
                 break;
             default:
                 throw new IllegalArgumentException("Invalid queue type: " + queueType);
         }
     }
 
+    // Toda alta en las colas pasa por aquí para que los listeners se enteren
+    public void addVehicleToQueue(Vehicle v, Lane lane) {
+        v.setQueued(this, lane);
+        queueOf(lane).add(v);
+        if (v.isEmergency() && emergenciesByLane.get(lane).add(v)) {
+            emergencyCountByLane.get(lane).incrementAndGet();
+            emergencyCount.incrementAndGet();
+        }
+        for (IntersectionListener listener : listeners) {
+            listener.onVehicleEnqueued(this, v, lane);
+        }
+    }
+
+    /**
+     * Quita al vehículo de la cola en la que está encolado en esta intersección.
+     *
+     * @return true si estaba encolado aquí.
+     */
+    public boolean removeVehicle(Vehicle v) {
+        Lane lane = v.getQueuedLane();
+        if (v.getQueuedIntersection() != this || lane == null || !queueOf(lane).remove(v)) {
+            return false;
+        }
+        v.setQueued(null, null);
+        fireDequeued(v, lane);
+        return true;
+    }
+
+    private Vehicle pollQueue(Lane lane) {
+        Vehicle v = queueOf(lane).poll();
+        if (v != null) {
+            v.setQueued(null, null);
+            fireDequeued(v, lane);
+        }
+        return v;
+    }
+
+    private void fireDequeued(Vehicle v, Lane lane) {
+        if (emergenciesByLane.get(lane).remove(v)) {
+            emergencyCountByLane.get(lane).decrementAndGet();
+            emergencyCount.decrementAndGet();
+        }
+        for (IntersectionListener listener : listeners) {
+            listener.onVehicleDequeued(this, v, lane);
+        }
+    }
+
+    public void addListener(IntersectionListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(IntersectionListener listener) {
+        listeners.remove(listener);
+    }
+
     // Devuelve sin quitar el vehículo que está al frente de la cola
     public Vehicle peekRightNextV() {
         return RightVQueue.peek();
@@ -106,13 +208,13 @@ public class Intersection {
 
     // Quita de la cola al vehículo que acaba de cruzar
     public void removeRightNextV() {
-        RightVQueue.poll();
+        pollQueue(Lane.RIGHT);
     }
     public void removeLeftNextV() {
-        LeftVQueue.poll();
+        pollQueue(Lane.LEFT);
     }
     public void removeMidNextV() {
-        MidVQueue.poll();
+        pollQueue(Lane.MID);
     }
 
     public void setGreenLight(boolean on) {
@@ -122,28 +224,39 @@ public class Intersection {
         return greenLight.get();
     }
 
+    /**
+     * @return la emergencia que llegó primero a cualquiera de las colas, o null si no hay ninguna.
+     * Consulta el índice por carril, sin recorrer las colas.
+     */
     public Vehicle hasEmergencyVehicleInQueue() {
-        for (Vehicle v : RightVQueue) {
-            if (v.isEmergency()) {
-                return v;
-            }
-        }
-        for (Vehicle v : LeftVQueue) {
-            if (v.isEmergency()) {
-                return v;
-            }
-        }
-        for (Vehicle v : MidVQueue) {
-            if (v.isEmergency()) {
-                return v;
-            }
+        if (emergencyCount.get() == 0) {
+            return null;
         }
-        for (Vehicle v : UTurnVQueue) {
-            if (v.isEmergency()) {
-                return v;
+        Vehicle oldest = null;
+        for (Lane lane : Lane.values()) {
+            Vehicle candidate = getOldestEmergency(lane);
+            if (candidate != null && (oldest == null || BY_ARRIVAL.compare(candidate, oldest) < 0)) {
+                oldest = candidate;
             }
         }
-        return null;
+        return oldest;
+    }
+
+    /**
+     * @return la emergencia que llegó primero a la cola del carril, o null si no hay.
+     */
+    public Vehicle getOldestEmergency(Lane lane) {
+        // Iterador en vez de first(): no falla si otro hilo vacía el conjunto entre medio
+        Iterator<Vehicle> emergencies = emergenciesByLane.get(lane).iterator();
+        return emergencies.hasNext() ? emergencies.next() : null;
+    }
+
+    public int getEmergencyCount() {
+        return emergencyCount.get();
+    }
+
+    public int getEmergencyCount(Lane lane) {
+        return emergencyCountByLane.get(lane).get();
     }
 
 
@@ -0,0 +1,16 @@
+package app.paralelafinal.escenario2.entidades;
+
+/**
+ * Recibe notificaciones cuando un vehículo entra o sale de una cola de una {@link Intersection}.
+ * Permite reaccionar a eventos (por ejemplo, una emergencia que llega) y mantener índices
+ * incrementales sin recorrer las colas en cada ciclo.
+ *
+ * Con el avance en paralelo de las intersecciones, las notificaciones pueden llegar desde
+ * varios hilos a la vez.
+ */
+public interface IntersectionListener {
+
+    void onVehicleEnqueued(Intersection intersection, Vehicle vehicle, Lane lane);
+
+    void onVehicleDequeued(Intersection intersection, Vehicle vehicle, Lane lane);
+}
@@ -0,0 +1,11 @@
+package app.paralelafinal.escenario2.entidades;
+
+/**
+ * Carriles (colas) de aproximación de una {@link Intersection}.
+ */
+public enum Lane {
+    RIGHT,
+    MID,
+    LEFT,
+    U_TURN
+}
@@ -0,0 +1,58 @@
+package app.paralelafinal.escenario2.entidades;
+
+import app.paralelafinal.config.LanePositionAdjustment;
+
+import java.util.Arrays;
+
+/**
+ * Desplazamientos verticales de cada carril respecto de su línea base, por lado de la calle.
+ * East son las intersecciones que circulan hacia el oeste y West las que van hacia el este.
+ * {@link #DEFAULT} reproduce {@link LanePositionAdjustment}; una red cargada de archivo puede traer los suyos.
+ */
+public final class LaneOffsets {
+
+    public enum Slot { LEFT, STRAIGHT, RIGHT, U_TURN, U_TURN_2ND }
+
+    private static final int SLOTS = Slot.values().length;
+
+    public static final LaneOffsets DEFAULT = new LaneOffsets(
+            new double[]{
+                    LanePositionAdjustment.EAST_LEFT_OFFSET,
+                    LanePositionAdjustment.EAST_STRAIGHT_OFFSET,
+                    LanePositionAdjustment.EAST_RIGHT_OFFSET,
+                    LanePositionAdjustment.EAST_U_TURN_OFFSET,
+                    LanePositionAdjustment.EAST_U_TURN_2ND_OFFSET},
+            new double[]{
+                    LanePositionAdjustment.WEST_LEFT_OFFSET,
+                    LanePositionAdjustment.WEST_STRAIGHT_OFFSET,
+                    LanePositionAdjustment.WEST_RIGHT_OFFSET,
+                    LanePositionAdjustment.WEST_U_TURN_OFFSET,
+                    LanePositionAdjustment.WEST_U_TURN_2ND_OFFSET});
+
+    // East primero y West después, en el orden de Slot
+    private final double[] offsets = new double[SLOTS * 2];
+
+    /**
+     * @param east desplazamientos del lado East en el orden de {@link Slot}.
+     * @param west desplazamientos del lado West en el orden de {@link Slot}.
+     */
+    public LaneOffsets(double[] east, double[] west) {
+        if (east.length != SLOTS || west.length != SLOTS) {
+            throw new IllegalArgumentException("Expected " + SLOTS + " lane offsets per side");
+        }
+        System.arraycopy(east, 0, offsets, 0, SLOTS);
+        System.arraycopy(west, 0, offsets, SLOTS, SLOTS);
+    }
+
+    public double get(boolean eastSide, Slot slot) {
+        return offsets[(eastSide ? 0 : SLOTS) + slot.ordinal()];
+    }
+
+    /**
+     * @return copia de los desplazamientos de un lado, en el orden de {@link Slot}.
+     */
+    public double[] side(boolean eastSide) {
+        int from = eastSide ? 0 : SLOTS;
+        return Arrays.copyOfRange(offsets, from, from + SLOTS);
+    }
+}
@@ -0,0 +1,114 @@
+package app.paralelafinal.escenario2.entidades;
+
+/**
+ * Plan de maniobra precompilado de un vehículo. Se resuelve una sola vez a partir del texto de
+ * dirección (al crear el vehículo o al terminar un giro), de modo que el ciclo de simulación
+ * despacha sobre constantes en vez de analizar cadenas en cada paso.
+ */
+public enum Maneuver {
+    //              texto                 carril      especial uTurn  second vertical north
+    LEFT(              "left",               Lane.LEFT,   false, false, false, false, false),
+    STRAIGHT(          "straight",           Lane.MID,    false, false, false, false, false),
+    RIGHT(             "right",              Lane.RIGHT,  false, false, false, false, false),
+    U_TURN(            "u-turn",             Lane.U_TURN, false, true,  false, false, false),
+    U_TURN_SECOND(     "u-turn-second",      Lane.U_TURN, false, true,  true,  false, false),
+    LEFT_NORTH_FIRST(  "left-north-first",   Lane.LEFT,   true,  false, false, false, true),
+    LEFT_NORTH_SECOND( "left-north-second",  Lane.LEFT,   true,  false, true,  false, true),
+    LEFT_SOUTH_FIRST(  "left-south-first",   Lane.LEFT,   true,  false, false, false, false),
+    LEFT_SOUTH_SECOND( "left-south-second",  Lane.LEFT,   true,  false, true,  false, false),
+    RIGHT_NORTH_FIRST( "right-north-first",  Lane.RIGHT,  true,  false, false, false, true),
+    RIGHT_NORTH_SECOND("right-north-second", Lane.RIGHT,  true,  false, true,  false, true),
+    RIGHT_SOUTH_FIRST( "right-south-first",  Lane.RIGHT,  true,  false, false, false, false),
+    RIGHT_SOUTH_SECOND("right-south-second", Lane.RIGHT,  true,  false, true,  false, false),
+    // Estados finales tras completar un giro norte-sur; siguen en la cola donde estaban
+    VERTICAL_NORTH(    "vertical-north",     null,        false, false, false, true,  true),
+    VERTICAL_SOUTH(    "vertical-south",     null,        false, false, false, true,  false);
+
+    private static final Maneuver[] VALUES = values();
+
+    private final String direction;
+    private final Lane lane;
+    private final boolean specialTurn;
+    private final boolean uTurn;
+    private final boolean secondVariant;
+    private final boolean vertical;
+    private final boolean north;
+
+    Maneuver(String direction, Lane lane, boolean specialTurn, boolean uTurn,
+             boolean secondVariant, boolean vertical, boolean north) {
+        this.direction = direction;
+        this.lane = lane;
+        this.specialTurn = specialTurn;
+        this.uTurn = uTurn;
+        this.secondVariant = secondVariant;
+        this.vertical = vertical;
+        this.north = north;
+    }
+
+    /**
+     * Traduce el texto de dirección (sin distinguir mayúsculas) a su maniobra.
+     *
+     * @throws IllegalArgumentException si la dirección no existe.
+     */
+    public static Maneuver fromDirection(String direction) {
+        for (Maneuver m : VALUES) {
+            if (m.direction.equalsIgnoreCase(direction)) {
+                return m;
+            }
+        }
+        throw new IllegalArgumentException("Invalid direction: " + direction);
+    }
+
+    /**
+     * Giro a la calle vertical en la misma intersección: quien va hacia el oeste tiene el norte a
+     * la derecha y quien va hacia el este, a la izquierda.
+     */
+    public static Maneuver verticalTurn(boolean north, boolean westbound) {
+        if (north) {
+            return westbound ? RIGHT_NORTH_FIRST : LEFT_NORTH_FIRST;
+        }
+        return westbound ? LEFT_SOUTH_FIRST : RIGHT_SOUTH_FIRST;
+    }
+
+    public String getDirection() {
+        return direction;
+    }
+
+    /**
+     * @return la cola de origen del vehículo, o null para los estados verticales.
+     */
+    public Lane getLane() {
+        return lane;
+    }
+
+    /** Giros hacia las vías norte-sur (left-north-*, right-south-*, ...). */
+    public boolean isSpecialTurn() {
+        return specialTurn;
+    }
+
+    public boolean isUTurn() {
+        return uTurn;
+    }
+
+    /** Variantes "second", que avanzan a la siguiente intersección antes de girar. */
+    public boolean isSecondVariant() {
+        return secondVariant;
+    }
+
+    public boolean isVertical() {
+        return vertical;
+    }
+
+    /** Destino hacia el norte (incluye vertical-north). */
+    public boolean goesNorth() {
+        return north;
+    }
+
+    public boolean isLeftSpecialTurn() {
+        return specialTurn && lane == Lane.LEFT;
+    }
+
+    public boolean isRightSpecialTurn() {
+        return specialTurn && lane == Lane.RIGHT;
+    }
+}
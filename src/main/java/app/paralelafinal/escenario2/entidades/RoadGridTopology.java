@@ -0,0 +1,376 @@
+package app.paralelafinal.escenario2.entidades;
+
+import app.paralelafinal.config.SimulationConfig;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Grafo de la red de calles del Escenario 2: cada nodo es una intersección de un sentido de
+ * circulación, identificada por un entero de 0 a {@link #size()} - 1.
+ *
+ * Las relaciones y coordenadas se guardan en arreglos paralelos indexados por id, así que
+ * buscar la siguiente intersección, la del sentido contrario o la x de una intersección es
+ * un acceso a arreglo. Un nodo pertenece a una cadena (una fila de la rejilla en un sentido);
+ * {@code next} apunta aguas abajo y vale -1 al final de la cadena. {@code north} y {@code south}
+ * unen por la calle vertical el nodo con el del mismo sentido en la fila de arriba y la de abajo.
+ *
+ * {@link #defaultScenario()} reproduce el trazado original East1-3/West1-3;
+ * {@link #grid(int, int)} genera rejillas de N columnas por M filas.
+ */
+public final class RoadGridTopology {
+
+    /** Valor de {@link #next(int)}, {@link #opposite(int)}, {@link #north(int)} y {@link #south(int)} cuando no hay nodo. */
+    public static final int NONE = -1;
+
+    /** Distancia mínima entre calles de una rejilla: el ancho de una calle más dos vehículos entre ellas. */
+    public static final double MIN_GRID_SPACING = SimulationConfig.ROAD_WIDTH + 2 * SimulationConfig.VEHICLE_LENGTH;
+
+    private final String[] names;
+    private final boolean[] westbound;
+    private final double[] x;
+    private final double[] y;
+    private final int[] next;
+    private final int[] opposite;
+    private final int[] north;
+    private final int[] south;
+    // Tamaño de la escena: al menos el de SimulationConfig, con el mismo margen a ambos lados de los nodos
+    private final double width;
+    private final double height;
+    // x de la cabeza de la cadena: donde giran los vehículos que no avanzan a otra intersección
+    private final double[] entryX;
+    // x donde aparecen los vehículos de la cadena: 50 px dentro del borde de la escena aguas arriba
+    private final double[] spawnX;
+    private final Map<String, Integer> idsByName;
+
+    // Toma los arreglos sin copiarlos: los llamadores (Builder y RoadNetworkLoader) los crean para este uso
+    RoadGridTopology(String[] names, boolean[] westbound, double[] x, double[] y, int[] next, int[] opposite,
+                     int[] north, int[] south) {
+        int n = names.length;
+        this.names = names;
+        this.westbound = westbound;
+        this.x = x;
+        this.y = y;
+        this.next = next;
+        this.opposite = opposite;
+        this.north = north;
+        this.south = south;
+        this.idsByName = new HashMap<>(n * 2);
+        for (int id = 0; id < n; id++) {
+            idsByName.put(names[id], id);
+        }
+        this.width = extent(x, SimulationConfig.SCENE_WIDTH);
+        this.height = extent(y, SimulationConfig.SCENE_HEIGHT);
+        this.entryX = new double[n];
+        this.spawnX = new double[n];
+        for (int id = 0; id < n; id++) {
+            spawnX[id] = westbound[id] ? width - 50 : 50;
+        }
+
+        boolean[] hasPrevious = new boolean[n];
+        for (int id = 0; id < n; id++) {
+            if (next[id] != NONE) {
+                hasPrevious[next[id]] = true;
+            }
+        }
+        for (int head = 0; head < n; head++) {
+            if (hasPrevious[head]) {
+                continue;
+            }
+            for (int id = head, steps = 0; id != NONE; id = next[id], steps++) {
+                if (steps > n) {
+                    throw new IllegalStateException("Cycle in road chain starting at " + names[head]);
+                }
+                entryX[id] = x[head];
+            }
+        }
+    }
+
+    // La menor coordenada más la mayor: deja tanto margen después del último nodo como antes del primero
+    private static double extent(double[] coordinates, double minimum) {
+        if (coordinates.length == 0) {
+            return minimum;
+        }
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (double c : coordinates) {
+            min = Math.min(min, c);
+            max = Math.max(max, c);
+        }
+        return Math.max(minimum, min + max);
+    }
+
+    /**
+     * Trazado original: una calle horizontal con tres intersecciones por sentido. East1-3 circulan
+     * hacia el oeste y West1-3 hacia el este; la intersección N de un sentido es la opuesta de la
+     * N del otro, y las terceras quedan 200 px más allá de la segunda calle vertical.
+     */
+    public static RoadGridTopology defaultScenario() {
+        double verticalRoadW = SimulationConfig.ROAD_WIDTH;
+        double horizontalBlockSize = (SimulationConfig.SCENE_WIDTH - 2 * verticalRoadW) / 3.0;
+        double x1 = horizontalBlockSize + verticalRoadW / 2.0; // center of first vertical road
+        double x2 = horizontalBlockSize + verticalRoadW + horizontalBlockSize + verticalRoadW / 2.0; // center of second vertical road
+        double roadY = SimulationConfig.SCENE_HEIGHT / 2.0;
+
+        Builder builder = new Builder();
+        int east1 = builder.addNode("East1", true, x2, roadY);
+        int east2 = builder.addNode("East2", true, x1, roadY);
+        int east3 = builder.addNode("East3", true, x1 - 200, roadY);
+        int west1 = builder.addNode("West1", false, x1, roadY);
+        int west2 = builder.addNode("West2", false, x2, roadY);
+        int west3 = builder.addNode("West3", false, x2 + 200, roadY);
+        builder.link(east1, east2).link(east2, east3);
+        builder.link(west1, west2).link(west2, west3);
+        builder.pair(east1, west1).pair(east2, west2).pair(east3, west3);
+        return builder.build();
+    }
+
+    /**
+     * Rejilla de {@code columns} calles verticales por {@code rows} calles horizontales, repartidas
+     * a distancias iguales en la escena; si no caben a {@link #MIN_GRID_SPACING} la escena crece
+     * ({@link #width()}, {@link #height()}). Cada fila tiene una cadena hacia el oeste (East) y otra
+     * hacia el este (West); la opuesta de un nodo es el del otro sentido en la misma columna, y cada
+     * calle vertical une el nodo con el del mismo sentido en la fila de arriba y la de abajo.
+     * Con una sola fila los nombres son East1..EastN y West1..WestN; con varias, East{fila}-{k}.
+     */
+    public static RoadGridTopology grid(int columns, int rows) {
+        if (columns < 1 || rows < 1) {
+            throw new IllegalArgumentException("Invalid grid size: " + columns + "x" + rows);
+        }
+        double columnGap = Math.max(SimulationConfig.SCENE_WIDTH / (columns + 1.0), MIN_GRID_SPACING);
+        double rowGap = Math.max(SimulationConfig.SCENE_HEIGHT / (rows + 1.0), MIN_GRID_SPACING);
+
+        Builder builder = new Builder();
+        int[] westboundAt = new int[columns];
+        int[] eastboundAt = new int[columns];
+        int[] westboundAbove = new int[columns];
+        int[] eastboundAbove = new int[columns];
+        for (int r = 0; r < rows; r++) {
+            double rowY = (r + 1) * rowGap;
+            String prefix = rows == 1 ? "" : (r + 1) + "-";
+            // Westbound chain starts at the easternmost column
+            for (int k = 0; k < columns; k++) {
+                int column = columns - 1 - k;
+                westboundAt[column] = builder.addNode("East" + prefix + (k + 1), true, (column + 1) * columnGap, rowY);
+                if (k > 0) {
+                    builder.link(westboundAt[column + 1], westboundAt[column]);
+                }
+            }
+            for (int k = 0; k < columns; k++) {
+                eastboundAt[k] = builder.addNode("West" + prefix + (k + 1), false, (k + 1) * columnGap, rowY);
+                if (k > 0) {
+                    builder.link(eastboundAt[k - 1], eastboundAt[k]);
+                }
+            }
+            for (int column = 0; column < columns; column++) {
+                builder.pair(westboundAt[column], eastboundAt[column]);
+                if (r > 0) {
+                    builder.vertical(westboundAbove[column], westboundAt[column]);
+                    builder.vertical(eastboundAbove[column], eastboundAt[column]);
+                }
+            }
+            System.arraycopy(westboundAt, 0, westboundAbove, 0, columns);
+            System.arraycopy(eastboundAt, 0, eastboundAbove, 0, columns);
+        }
+        return builder.build();
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    public String name(int id) {
+        return names[id];
+    }
+
+    /**
+     * @return el id del nodo con ese nombre, o {@link #NONE} si no existe.
+     */
+    public int idOf(String name) {
+        Integer id = idsByName.get(name);
+        return id == null ? NONE : id;
+    }
+
+    public boolean isWestbound(int id) {
+        return westbound[id];
+    }
+
+    public double x(int id) {
+        return x[id];
+    }
+
+    public double y(int id) {
+        return y[id];
+    }
+
+    /**
+     * @return el ancho de la escena que contiene la red, nunca menor que {@link SimulationConfig#SCENE_WIDTH}.
+     */
+    public double width() {
+        return width;
+    }
+
+    /**
+     * @return el alto de la escena que contiene la red, nunca menor que {@link SimulationConfig#SCENE_HEIGHT}.
+     */
+    public double height() {
+        return height;
+    }
+
+    /**
+     * @return la x de la primera intersección de la cadena de {@code id}.
+     */
+    public double entryX(int id) {
+        return entryX[id];
+    }
+
+    /**
+     * @return la x donde aparecen los vehículos que entran a la red por la cadena de {@code id}.
+     */
+    public double spawnX(int id) {
+        return spawnX[id];
+    }
+
+    /**
+     * @return la siguiente intersección aguas abajo, o {@link #NONE} al final de la cadena.
+     */
+    public int next(int id) {
+        return next[id];
+    }
+
+    /**
+     * @return la intersección del sentido contrario a la que se llega con un U-turn, o {@link #NONE}.
+     */
+    public int opposite(int id) {
+        return opposite[id];
+    }
+
+    /**
+     * @return la intersección del mismo sentido en la fila de arriba, por la calle vertical, o {@link #NONE}.
+     */
+    public int north(int id) {
+        return north[id];
+    }
+
+    /**
+     * @return la intersección del mismo sentido en la fila de abajo, por la calle vertical, o {@link #NONE}.
+     */
+    public int south(int id) {
+        return south[id];
+    }
+
+    /**
+     * Crea una intersección por nodo, ya asociada a su id.
+     *
+     * @return las intersecciones indexadas por id de nodo.
+     */
+    public Intersection[] createIntersections() {
+        Intersection[] nodes = new Intersection[size()];
+        for (int id = 0; id < nodes.length; id++) {
+            nodes[id] = new Intersection(names[id]);
+            nodes[id].bindNode(id, westbound[id]);
+        }
+        return nodes;
+    }
+
+    /**
+     * Asocia intersecciones ya creadas a los nodos con su mismo nombre.
+     *
+     * @return las intersecciones indexadas por id de nodo; los nodos sin intersección quedan en null.
+     */
+    public Intersection[] bind(List<Intersection> intersections) {
+        Intersection[] nodes = new Intersection[size()];
+        for (Intersection intersection : intersections) {
+            int id = idOf(intersection.getId());
+            if (id == NONE) {
+                throw new IllegalArgumentException("Unknown intersection: " + intersection.getId());
+            }
+            intersection.bindNode(id, westbound[id]);
+            nodes[id] = intersection;
+        }
+        return nodes;
+    }
+
+    /**
+     * Construye una topología nodo a nodo; los ids se asignan en orden de {@link #addNode}.
+     */
+    public static final class Builder {
+        private final List<String> names = new ArrayList<>();
+        private final Map<String, Integer> idsByName = new HashMap<>();
+        private boolean[] westbound = new boolean[16];
+        private double[] x = new double[16];
+        private double[] y = new double[16];
+        private int[] next = new int[16];
+        private int[] opposite = new int[16];
+        private int[] north = new int[16];
+        private int[] south = new int[16];
+
+        public int addNode(String name, boolean westboundNode, double nodeX, double nodeY) {
+            if (idsByName.containsKey(name)) {
+                throw new IllegalArgumentException("Duplicate intersection: " + name);
+            }
+            int id = names.size();
+            ensureCapacity(id + 1);
+            names.add(name);
+            idsByName.put(name, id);
+            westbound[id] = westboundNode;
+            x[id] = nodeX;
+            y[id] = nodeY;
+            next[id] = NONE;
+            opposite[id] = NONE;
+            north[id] = NONE;
+            south[id] = NONE;
+            return id;
+        }
+
+        public Builder link(int from, int to) {
+            if (westbound[from] != westbound[to]) {
+                throw new IllegalArgumentException("Cannot link opposite directions: " + names.get(from) + " -> " + names.get(to));
+            }
+            next[from] = to;
+            return this;
+        }
+
+        public Builder pair(int a, int b) {
+            opposite[a] = b;
+            opposite[b] = a;
+            return this;
+        }
+
+        /**
+         * Une por una calle vertical {@code upper} (fila de arriba) con {@code lower}, del mismo sentido.
+         */
+        public Builder vertical(int upper, int lower) {
+            if (westbound[upper] != westbound[lower]) {
+                throw new IllegalArgumentException("Cannot link opposite directions: " + names.get(upper) + " -> " + names.get(lower));
+            }
+            south[upper] = lower;
+            north[lower] = upper;
+            return this;
+        }
+
+        public RoadGridTopology build() {
+            int n = names.size();
+            return new RoadGridTopology(names.toArray(new String[0]), Arrays.copyOf(westbound, n),
+                    Arrays.copyOf(x, n), Arrays.copyOf(y, n), Arrays.copyOf(next, n), Arrays.copyOf(opposite, n),
+                    Arrays.copyOf(north, n), Arrays.copyOf(south, n));
+        }
+
+        private void ensureCapacity(int n) {
+            if (n <= x.length) {
+                return;
+            }
+            int capacity = Math.max(n, x.length * 2);
+            westbound = Arrays.copyOf(westbound, capacity);
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            next = Arrays.copyOf(next, capacity);
+            opposite = Arrays.copyOf(opposite, capacity);
+            north = Arrays.copyOf(north, capacity);
+            south = Arrays.copyOf(south, capacity);
+        }
+    }
+}
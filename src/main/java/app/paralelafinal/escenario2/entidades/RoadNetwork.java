@@ -0,0 +1,29 @@
+package app.paralelafinal.escenario2.entidades;
+
+/**
+ * Todo lo que define una red del Escenario 2: su topología, los desplazamientos de carril y
+ * el plan de semáforos. Se construye en código o se carga con {@link RoadNetworkLoader}.
+ */
+public record RoadNetwork(RoadGridTopology topology, LaneOffsets laneOffsets, SignalPlan signalPlan) {
+
+    /**
+     * @return el trazado East1-3/West1-3 con los desplazamientos y periodos originales.
+     */
+    public static RoadNetwork defaultNetwork() {
+        return of(RoadGridTopology.defaultScenario());
+    }
+
+    /**
+     * @return una rejilla {@link RoadGridTopology#grid(int, int)} con los desplazamientos y periodos originales.
+     */
+    public static RoadNetwork grid(int columns, int rows) {
+        return of(RoadGridTopology.grid(columns, rows));
+    }
+
+    /**
+     * @return la topología dada con los desplazamientos y periodos originales.
+     */
+    public static RoadNetwork of(RoadGridTopology topology) {
+        return new RoadNetwork(topology, LaneOffsets.DEFAULT, SignalPlan.DEFAULT);
+    }
+}
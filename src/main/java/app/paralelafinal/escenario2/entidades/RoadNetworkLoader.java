@@ -0,0 +1,333 @@
+package app.paralelafinal.escenario2.entidades;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Carga una {@link RoadNetwork} desde un archivo de texto y la compila a un caché binario
+ * ({@code <archivo>.bin}) junto al original. Las cargas siguientes mapean el caché en memoria
+ * con {@link FileChannel#map} y copian los arreglos en bloque, sin volver a interpretar el texto;
+ * el caché se descarta si el texto cambió de tamaño o de fecha, o si es de otra versión.
+ *
+ * Formato del texto, una directiva por línea ({@code #} inicia un comentario):
+ * <pre>
+ * signal cycle=15000 emergency-delay=3000 emergency-period=4000
+ * offsets east left=-128 straight=-176 right=-229.3 u-turn=-128 u-turn-2nd=-123
+ * offsets west left=106.7 straight=160 right=202.7 u-turn=106.7 u-turn-2nd=101.7
+ * node East1 westbound 826.67 350
+ * link East1 East2
+ * pair East1 West1
+ * vertical East1-1 East2-1
+ * </pre>
+ * {@code signal} y {@code offsets} son opcionales y toman los valores de
+ * {@link SignalPlan#DEFAULT} y {@link LaneOffsets#DEFAULT}; un nodo debe declararse antes de usarse.
+ * {@code vertical} une por una calle norte-sur el nodo de arriba con el de abajo, del mismo sentido.
+ */
+public final class RoadNetworkLoader {
+
+    /** Parámetro de lanzamiento con la ruta del archivo: {@code --network=redes/escenario2.txt}. */
+    public static final String PARAMETER = "network";
+
+    private static final int MAGIC = 0x524E4554; // "RNET"
+    private static final int VERSION = 2;
+    // x, y, next, opposite, north, south, sentido y largo del nombre: lo mínimo que ocupa un nodo en el caché
+    private static final int MIN_NODE_BYTES = 2 * Double.BYTES + 5 * Integer.BYTES + 1;
+    private static final String CACHE_SUFFIX = ".bin";
+
+    private RoadNetworkLoader() {
+    }
+
+    /**
+     * Carga la red desde el caché si está al día; si no, interpreta el texto y regenera el caché.
+     */
+    public static RoadNetwork load(Path source) throws IOException {
+        Path cache = cachePathOf(source);
+        long size = Files.size(source);
+        long lastModified = Files.getLastModifiedTime(source).toMillis();
+
+        if (Files.isRegularFile(cache)) {
+            RoadNetwork cached = readCache(cache, size, lastModified);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        RoadNetwork network = parse(source);
+        try {
+            writeCache(network, cache, size, lastModified);
+        } catch (IOException e) {
+            // A read-only directory only costs the next startup a re-parse
+            System.err.println("[WARNING] Could not write network cache " + cache + ": " + e.getMessage());
+        }
+        return network;
+    }
+
+    public static Path cachePathOf(Path source) {
+        return source.resolveSibling(source.getFileName() + CACHE_SUFFIX);
+    }
+
+    /**
+     * Interpreta el archivo de texto sin tocar el caché.
+     */
+    public static RoadNetwork parse(Path source) throws IOException {
+        RoadGridTopology.Builder builder = new RoadGridTopology.Builder();
+        Map<String, Integer> ids = new HashMap<>();
+        SignalPlan signalPlan = SignalPlan.DEFAULT;
+        double[] east = LaneOffsets.DEFAULT.side(true);
+        double[] west = LaneOffsets.DEFAULT.side(false);
+
+        try (BufferedReader reader = Files.newBufferedReader(source, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                int comment = line.indexOf('#');
+                if (comment >= 0) {
+                    line = line.substring(0, comment);
+                }
+                String[] tokens = line.trim().split("\\s+");
+                if (tokens[0].isEmpty()) {
+                    continue;
+                }
+                try {
+                    switch (tokens[0].toLowerCase(Locale.ROOT)) {
+                        case "node" -> {
+                            expect(tokens, 5);
+                            boolean westbound = switch (tokens[2].toLowerCase(Locale.ROOT)) {
+                                case "westbound" -> true;
+                                case "eastbound" -> false;
+                                default -> throw new IllegalArgumentException("Invalid direction: " + tokens[2]);
+                            };
+                            ids.put(tokens[1], builder.addNode(tokens[1], westbound,
+                                    Double.parseDouble(tokens[3]), Double.parseDouble(tokens[4])));
+                        }
+                        case "link" -> {
+                            expect(tokens, 3);
+                            builder.link(idOf(ids, tokens[1]), idOf(ids, tokens[2]));
+                        }
+                        case "pair" -> {
+                            expect(tokens, 3);
+                            builder.pair(idOf(ids, tokens[1]), idOf(ids, tokens[2]));
+                        }
+                        case "vertical" -> {
+                            expect(tokens, 3);
+                            builder.vertical(idOf(ids, tokens[1]), idOf(ids, tokens[2]));
+                        }
+                        case "offsets" -> {
+                            if (tokens.length < 2) {
+                                throw new IllegalArgumentException("Expected east or west for offsets");
+                            }
+                            double[] side = switch (tokens[1].toLowerCase(Locale.ROOT)) {
+                                case "east" -> east;
+                                case "west" -> west;
+                                default -> throw new IllegalArgumentException("Invalid side: " + tokens[1]);
+                            };
+                            for (int i = 2; i < tokens.length; i++) {
+                                String[] kv = keyValue(tokens[i]);
+                                side[slotOf(kv[0]).ordinal()] = Double.parseDouble(kv[1]);
+                            }
+                        }
+                        case "signal" -> {
+                            long cycle = signalPlan.cycleMillis();
+                            long delay = signalPlan.emergencyCheckDelayMillis();
+                            long period = signalPlan.emergencyCheckPeriodMillis();
+                            for (int i = 1; i < tokens.length; i++) {
+                                String[] kv = keyValue(tokens[i]);
+                                long value = Long.parseLong(kv[1]);
+                                switch (kv[0].toLowerCase(Locale.ROOT)) {
+                                    case "cycle" -> cycle = value;
+                                    case "emergency-delay" -> delay = value;
+                                    case "emergency-period" -> period = value;
+                                    default -> throw new IllegalArgumentException("Unknown signal setting: " + kv[0]);
+                                }
+                            }
+                            signalPlan = new SignalPlan(cycle, delay, period);
+                        }
+                        default -> throw new IllegalArgumentException("Unknown directive: " + tokens[0]);
+                    }
+                } catch (IllegalArgumentException | IllegalStateException e) {
+                    throw new IllegalArgumentException(source + ":" + lineNumber + ": " + e.getMessage(), e);
+                }
+            }
+        }
+        return new RoadNetwork(builder.build(), new LaneOffsets(east, west), signalPlan);
+    }
+
+    private static void expect(String[] tokens, int count) {
+        if (tokens.length != count) {
+            throw new IllegalArgumentException("Expected " + (count - 1) + " arguments for " + tokens[0]);
+        }
+    }
+
+    private static int idOf(Map<String, Integer> ids, String name) {
+        Integer id = ids.get(name);
+        if (id == null) {
+            throw new IllegalArgumentException("Unknown intersection: " + name);
+        }
+        return id;
+    }
+
+    private static String[] keyValue(String token) {
+        int eq = token.indexOf('=');
+        if (eq <= 0 || eq == token.length() - 1) {
+            throw new IllegalArgumentException("Expected key=value: " + token);
+        }
+        return new String[]{token.substring(0, eq), token.substring(eq + 1)};
+    }
+
+    private static LaneOffsets.Slot slotOf(String key) {
+        return switch (key.toLowerCase(Locale.ROOT)) {
+            case "left" -> LaneOffsets.Slot.LEFT;
+            case "straight" -> LaneOffsets.Slot.STRAIGHT;
+            case "right" -> LaneOffsets.Slot.RIGHT;
+            case "u-turn" -> LaneOffsets.Slot.U_TURN;
+            case "u-turn-2nd" -> LaneOffsets.Slot.U_TURN_2ND;
+            default -> throw new IllegalArgumentException("Unknown lane: " + key);
+        };
+    }
+
+    // Layout: header, signal plan, offsets, then one array per field (doubles first) and the names
+    private static void writeCache(RoadNetwork network, Path cache, long sourceSize, long sourceLastModified) throws IOException {
+        RoadGridTopology topology = network.topology();
+        int n = topology.size();
+        byte[][] names = new byte[n][];
+        int namesBytes = 0;
+        for (int id = 0; id < n; id++) {
+            names[id] = topology.name(id).getBytes(StandardCharsets.UTF_8);
+            namesBytes += Integer.BYTES + names[id].length;
+        }
+
+        int slots = LaneOffsets.Slot.values().length;
+        int capacity = 4 * Integer.BYTES + 2 * Long.BYTES   // magic, version, node count, padding, source size/date
+                + 3 * Long.BYTES                               // signal plan
+                + 2 * slots * Double.BYTES                     // lane offsets
+                + n * (2 * Double.BYTES + 4 * Integer.BYTES + 1)
+                + namesBytes;
+        ByteBuffer buffer = ByteBuffer.allocate(capacity);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(0);
+        buffer.putLong(sourceSize).putLong(sourceLastModified);
+
+        SignalPlan plan = network.signalPlan();
+        buffer.putLong(plan.cycleMillis()).putLong(plan.emergencyCheckDelayMillis()).putLong(plan.emergencyCheckPeriodMillis());
+        for (double offset : network.laneOffsets().side(true)) {
+            buffer.putDouble(offset);
+        }
+        for (double offset : network.laneOffsets().side(false)) {
+            buffer.putDouble(offset);
+        }
+
+        for (int id = 0; id < n; id++) {
+            buffer.putDouble(topology.x(id));
+        }
+        for (int id = 0; id < n; id++) {
+            buffer.putDouble(topology.y(id));
+        }
+        for (int id = 0; id < n; id++) {
+            buffer.putInt(topology.next(id));
+        }
+        for (int id = 0; id < n; id++) {
+            buffer.putInt(topology.opposite(id));
+        }
+        for (int id = 0; id < n; id++) {
+            buffer.putInt(topology.north(id));
+        }
+        for (int id = 0; id < n; id++) {
+            buffer.putInt(topology.south(id));
+        }
+        for (int id = 0; id < n; id++) {
+            buffer.put((byte) (topology.isWestbound(id) ? 1 : 0));
+        }
+        for (byte[] name : names) {
+            buffer.putInt(name.length).put(name);
+        }
+        buffer.flip();
+
+        // Write next to the cache and rename, so a reader never maps a half-written file
+        Path temp = cache.resolveSibling(cache.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        try {
+            Files.move(temp, cache, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, cache, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * @return la red del caché, o null si no corresponde al texto actual o está dañado.
+     */
+    private static RoadNetwork readCache(Path cache, long sourceSize, long sourceLastModified) throws IOException {
+        try (FileChannel channel = FileChannel.open(cache, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 4 * Integer.BYTES + 2 * Long.BYTES
+                    || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return null;
+            }
+            int n = buffer.getInt();
+            buffer.getInt(); // padding
+            if (buffer.getLong() != sourceSize || buffer.getLong() != sourceLastModified) {
+                return null;
+            }
+
+            SignalPlan plan = new SignalPlan(buffer.getLong(), buffer.getLong(), buffer.getLong());
+            int slots = LaneOffsets.Slot.values().length;
+            double[] east = new double[slots];
+            double[] west = new double[slots];
+            buffer.asDoubleBuffer().get(east).get(west);
+            buffer.position(buffer.position() + 2 * slots * Double.BYTES);
+            // Un conteo corrupto no debe reservar más arreglos de los que caben en el archivo
+            if (n < 0 || (long) n * MIN_NODE_BYTES > buffer.remaining()) {
+                return null;
+            }
+
+            double[] x = new double[n];
+            double[] y = new double[n];
+            int[] next = new int[n];
+            int[] opposite = new int[n];
+            int[] north = new int[n];
+            int[] south = new int[n];
+            boolean[] westbound = new boolean[n];
+            String[] names = new String[n];
+            buffer.asDoubleBuffer().get(x).get(y);
+            buffer.position(buffer.position() + 2 * n * Double.BYTES);
+            buffer.asIntBuffer().get(next).get(opposite).get(north).get(south);
+            buffer.position(buffer.position() + 4 * n * Integer.BYTES);
+            for (int id = 0; id < n; id++) {
+                westbound[id] = buffer.get() != 0;
+            }
+            byte[] scratch = new byte[64];
+            for (int id = 0; id < n; id++) {
+                int length = buffer.getInt();
+                if (length < 0 || length > buffer.remaining()) {
+                    return null;
+                }
+                if (length > scratch.length) {
+                    scratch = new byte[length];
+                }
+                buffer.get(scratch, 0, length);
+                names[id] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+            }
+            return new RoadNetwork(new RoadGridTopology(names, westbound, x, y, next, opposite, north, south),
+                    new LaneOffsets(east, west), plan);
+        } catch (RuntimeException e) {
+            // Truncated or corrupt cache (BufferUnderflowException, bad indices...): rebuild it from the text
+            return null;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package app.paralelafinal.escenario2.entidades;
+
+/**
+ * Ruta de un vehículo sobre una {@link RoadGridTopology}: las intersecciones que recorre, de la
+ * de origen a la meta, y lo que hace en cada una. {@code turns[i]} es la acción en {@code nodes[i]};
+ * la última siempre es {@link Turn#ARRIVE}. Es inmutable y se comparte entre vehículos.
+ */
+public record Route(int[] nodes, Turn[] turns, double cost) {
+
+    public enum Turn {
+        /** Sigue a la siguiente intersección de su cadena. */
+        THROUGH,
+        /** Da la vuelta hacia la intersección opuesta. */
+        U_TURN,
+        /** Gira a la calle vertical y sube a la intersección de la fila de arriba. */
+        NORTH,
+        /** Gira a la calle vertical y baja a la intersección de la fila de abajo. */
+        SOUTH,
+        /** Llegó a la meta. */
+        ARRIVE
+    }
+
+    public int origin() {
+        return nodes[0];
+    }
+
+    public int goal() {
+        return nodes[nodes.length - 1];
+    }
+
+    public int length() {
+        return nodes.length;
+    }
+
+    /**
+     * La maniobra con la que el vehículo debe salir para seguir la ruta: un U-turn en el origen,
+     * un giro a la calle vertical en el origen, un U-turn en la siguiente intersección
+     * ({@code u-turn-second}) o seguir derecho.
+     *
+     * @param westbound sentido de la cadena del origen; decide si el giro vertical es a la izquierda o a la derecha.
+     */
+    public Maneuver firstManeuver(boolean westbound) {
+        if (turns[0] == Turn.U_TURN) {
+            return Maneuver.U_TURN;
+        }
+        if (turns[0] == Turn.NORTH || turns[0] == Turn.SOUTH) {
+            return Maneuver.verticalTurn(turns[0] == Turn.NORTH, westbound);
+        }
+        if (turns.length > 1 && turns[0] == Turn.THROUGH && turns[1] == Turn.U_TURN) {
+            return Maneuver.U_TURN_SECOND;
+        }
+        return Maneuver.STRAIGHT;
+    }
+}
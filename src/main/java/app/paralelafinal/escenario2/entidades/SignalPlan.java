@@ -0,0 +1,18 @@
+package app.paralelafinal.escenario2.entidades;
+
+/**
+ * Plan de semáforos de una red, en milisegundos de tiempo simulado: cada cuánto alternan las
+ * luces y cuándo empieza y cada cuánto se repite la revisión periódica de emergencias.
+ */
+public record SignalPlan(long cycleMillis, long emergencyCheckDelayMillis, long emergencyCheckPeriodMillis) {
+
+    /** Los periodos originales de {@code TrafficController}: ciclo de 15 s y revisión cada 4 s desde los 3 s. */
+    public static final SignalPlan DEFAULT = new SignalPlan(15_000, 3_000, 4_000);
+
+    public SignalPlan {
+        if (cycleMillis <= 0 || emergencyCheckDelayMillis < 0 || emergencyCheckPeriodMillis <= 0) {
+            throw new IllegalArgumentException("Invalid signal plan: cycle=" + cycleMillis
+                    + " emergency-delay=" + emergencyCheckDelayMillis + " emergency-period=" + emergencyCheckPeriodMillis);
+        }
+    }
+}
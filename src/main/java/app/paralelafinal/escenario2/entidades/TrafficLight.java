@@ -27,8 +27,12 @@ public class TrafficLight {
         this.green = green;
     }
 
+    // Transición sin candados: si otro hilo cambió la luz entre medio, se reintenta
     public void changeLight() {
-        green.set(!green.get());
+        boolean current;
+        do {
+            current = green.get();
+        } while (!green.compareAndSet(current, !current));
     }
 
     public boolean isGreen() {
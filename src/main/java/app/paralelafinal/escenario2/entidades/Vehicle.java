@@ -1,27 +1,60 @@
 package app.paralelafinal.escenario2.entidades;
 
+import app.paralelafinal.comun.VehicleStateStore;
 import javafx.geometry.Point2D;
 
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class Vehicle {
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    // Orden de creación; desempata vehículos con el mismo arrivalTime
+    private final long sequence = SEQUENCE.getAndIncrement();
     private String id;
     private String type; // "normal" or "emergency"
     private String direction; // "right", "straight", "left", "u-turn"
     private String originalDirection; // Store original direction for color consistency
     private String goal; // ID of the intersection of the goal
+    private Route route; // Ruta del origen a goal, resuelta al generar el vehículo
+    private int routeIndex; // Índice en route del nodo donde está el vehículo
     private String inIntersection;
     private long arrivalTime;
-    private int uTurnPhase = 0; // 0: approaching, 1: turning, 2: exiting
+    private Maneuver maneuver; // Plan compilado a partir de direction
+    private boolean emergency;
+    private boolean advancing; // Variante "second" que ya avanzó a la siguiente intersección
+    private volatile Intersection queuedIn; // Intersección y cola en las que está encolado,
+    private volatile Lane queuedLane;       // mantenidas por Intersection
+
+    // Estado dinámico (posición, velocidad, rumbo, fase) compartido en un almacén de arreglos primitivos
+    private static final VehicleStateStore STATE = new VehicleStateStore();
+    // El slot se reserva al entrar a la simulación (la primera escritura de su estado) y se
+    // devuelve al salir; un vehículo que se crea y se descarta no ocupa ninguno
+    private static final int UNALLOCATED = -2;
+    private static final int RELEASED = -1;
+    private volatile int slot = UNALLOCATED;
+    private Point2D releasedPosition = Point2D.ZERO; // Posición sin slot: el origen, o la última tras liberarlo
+
+    // Tiempo simulado (ms) de la primera vez que se encoló y de la última, para los indicadores de tráfico
+    private long spawnedAtMillis = -1;
+    private long queuedSinceMillis;
 
-    // Nuevo campo para la posición
-    private Point2D position;
+    // Vehículos al azar: generador sembrado para que una corrida se pueda repetir, y pocas
+    // emergencias, como la cuota de emergencias de DemandGenerator
+    private static final long RANDOM_SEED = 42;
+    private static final double RANDOM_EMERGENCY_SHARE = 0.05;
+    private static final SplittableRandom RANDOM = new SplittableRandom(RANDOM_SEED);
 
     public Vehicle() {}
 
     public Vehicle(String id) {
         this.id = id;
-        int randomInt = ThreadLocalRandom.current().nextInt(0,4);
+        int randomInt;
+        boolean emergencyDraw;
+        synchronized (RANDOM) {
+            randomInt = RANDOM.nextInt(0, 4);
+            emergencyDraw = RANDOM.nextDouble() < RANDOM_EMERGENCY_SHARE;
+        }
         switch (randomInt) {
             case 0:
                 this.direction = "right";
@@ -36,41 +69,85 @@ public class Vehicle {
                 this.direction = "u-turn"; // Fallback case
         }
 
-        randomInt = ThreadLocalRandom.current().nextInt(0,1);
-        switch (randomInt) {
-            case 0:
-                this.type = "emergency";
-                break;
-            case 1:
-                this.type = "normal";
-                break;
-            default:
-                this.direction = "normal"; // Fallback case
-        }
+        this.type = emergencyDraw ? "emergency" : "normal";
+        this.maneuver = Maneuver.fromDirection(direction);
+        this.emergency = "emergency".equalsIgnoreCase(type);
+        syncLane();
         this.arrivalTime = System.nanoTime();
-        // Posición inicial, puede ajustarse según tu lógica
-        this.position = new Point2D(0, 0);
     }
 
     public Vehicle(String id, String type, String direction, String goal, String inIntersection) {
         this.id = id;
         this.type = type;
+        this.emergency = "emergency".equalsIgnoreCase(type);
         this.direction = direction;
+        this.maneuver = Maneuver.fromDirection(direction);
+        syncLane();
         this.originalDirection = direction; // Store original direction
         this.goal = goal;
         this.inIntersection = inIntersection;
         this.arrivalTime = System.nanoTime();
-        // Asigna una posición por defecto
-        this.position = new Point2D(0, 0);
     }
 
     // Getters y setters existentes...
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
     public String getType() { return type; }
-    public void setType(String type) { this.type = type; }
+    public void setType(String type) {
+        this.type = type;
+        this.emergency = "emergency".equalsIgnoreCase(type);
+    }
     public String getDirection() { return direction; }
-    public void setDirection(String direction) { this.direction = direction; }
+    public void setDirection(String direction) {
+        this.direction = direction;
+        this.maneuver = direction != null ? Maneuver.fromDirection(direction) : null;
+        syncLane();
+    }
+
+    public Maneuver getManeuver() { return maneuver; }
+    public void setManeuver(Maneuver maneuver) {
+        this.maneuver = maneuver;
+        this.direction = maneuver.getDirection();
+        syncLane();
+    }
+
+    // Refleja el carril de la maniobra en el almacén de estado (-1 para los estados verticales)
+    private void syncLane() {
+        int s = slot;
+        if (s >= 0) {
+            STATE.setLane(s, laneOrdinal());
+        }
+    }
+
+    private int laneOrdinal() {
+        return maneuver != null && maneuver.getLane() != null ? maneuver.getLane().ordinal() : -1;
+    }
+
+    public boolean isAdvancing() { return advancing; }
+
+    /**
+     * @return la cola de su intersección en la que está el vehículo, o null si no está encolado.
+     */
+    public Lane getQueuedLane() { return queuedLane; }
+
+    /**
+     * @return la intersección en cuya cola está el vehículo, o null si no está encolado.
+     */
+    public Intersection getQueuedIntersection() { return queuedIn; }
+
+    void setQueued(Intersection intersection, Lane lane) {
+        this.queuedIn = intersection;
+        this.queuedLane = lane;
+    }
+
+    // Marca la variante "second" como ya encaminada a la siguiente intersección
+    public void markAdvancing() {
+        if (advancing) {
+            return;
+        }
+        this.advancing = true;
+        this.id = id + "_advancing";
+    }
 
     public String getGoal() {
         return this.goal;
@@ -80,6 +157,38 @@ public class Vehicle {
         this.goal = goal;
     }
 
+    /**
+     * @return la ruta planificada al generar el vehículo, o null si no se planificó.
+     */
+    public Route getRoute() {
+        return route;
+    }
+
+    public void setRoute(Route route) {
+        this.route = route;
+        this.routeIndex = 0;
+    }
+
+    public int getRouteIndex() {
+        return routeIndex;
+    }
+
+    /**
+     * Pasa al siguiente nodo de la ruta; se llama cada vez que el controlador entrega el vehículo
+     * a otra intersección. Tras la meta se queda en {@link Route.Turn#ARRIVE}.
+     *
+     * @return lo que debe hacer el vehículo en la intersección a la que llega, o null si no tiene ruta.
+     */
+    public Route.Turn advanceRoute() {
+        if (route == null) {
+            return null;
+        }
+        if (routeIndex < route.length() - 1) {
+            routeIndex++;
+        }
+        return route.turns()[routeIndex];
+    }
+
     public String getInIntersection() {
         return inIntersection;
     }
@@ -89,44 +198,153 @@ public class Vehicle {
     }
 
     public int getuTurnPhase() {
-        return uTurnPhase;
+        return getUTurnPhase();
     }
 
     public void setuTurnPhase(int uTurnPhase) {
-        this.uTurnPhase = uTurnPhase;
+        setUTurnPhase(uTurnPhase);
     }
 
+    public long getSequence() { return sequence; }
+
     public long getArrivalTime() { return arrivalTime; }
     public void setArrivalTime(long arrivalTime) { this.arrivalTime = arrivalTime; }
+    public long getSpawnedAtMillis() { return spawnedAtMillis; }
+    public void setSpawnedAtMillis(long spawnedAtMillis) { this.spawnedAtMillis = spawnedAtMillis; }
+    public long getQueuedSinceMillis() { return queuedSinceMillis; }
+    public void setQueuedSinceMillis(long queuedSinceMillis) { this.queuedSinceMillis = queuedSinceMillis; }
     
     // Métodos nuevos para la posición
     public Point2D getPosition() {
-        return position;
+        int s = slot;
+        if (s < 0) {
+            return releasedPosition;
+        }
+        return new Point2D(STATE.getX(s), STATE.getY(s));
     }
 
     public void setPosition(Point2D position) {
+        if (position != null) {
+            setPosition(position.getX(), position.getY());
+        }
+    }
+
+    // Variantes sin asignación de memoria para el ciclo de simulación
+    public double getX() {
+        int s = slot;
+        return s < 0 ? releasedPosition.getX() : STATE.getX(s);
+    }
 
-        this.position = position;
+    public double getY() {
+        int s = slot;
+        return s < 0 ? releasedPosition.getY() : STATE.getY(s);
+    }
+
+    public void setPosition(double x, double y) {
+        int s = writableSlot();
+        if (s >= 0) {
+            STATE.setPosition(s, x, y);
+        }
+    }
+
+    public void translate(double dx, double dy) {
+        int s = writableSlot();
+        if (s >= 0) {
+            STATE.translate(s, dx, dy);
+        }
     }
 
     // Método para mover el vehículo
     public void move(Point2D movementVector) {
-        if (this.position != null && movementVector != null) {
-            this.position = this.position.add(movementVector);
+        if (movementVector != null) {
+            translate(movementVector.getX(), movementVector.getY());
         }
     }
 
+    /**
+     * @return la distancia recorrida en el último desplazamiento.
+     */
+    public double getSpeed() {
+        int s = slot;
+        return s < 0 ? 0 : STATE.getSpeed(s);
+    }
+
+    public double getHeading() {
+        int s = slot;
+        return s < 0 ? 0 : STATE.getHeading(s);
+    }
+
+    public void setHeading(double degrees) {
+        int s = writableSlot();
+        if (s >= 0) {
+            STATE.setHeading(s, degrees);
+        }
+    }
+
+    /**
+     * Libera el slot del vehículo cuando sale de la simulación; conserva su última posición
+     * para quien todavía tenga una referencia (por ejemplo, la animación de salida).
+     */
+    public synchronized void release() {
+        int s = slot;
+        if (s == RELEASED) {
+            return;
+        }
+        slot = RELEASED;
+        if (s >= 0) {
+            releasedPosition = new Point2D(STATE.getX(s), STATE.getY(s));
+            STATE.release(s);
+        }
+    }
+
+    public boolean isReleased() {
+        return slot == RELEASED;
+    }
+
+    /**
+     * @return true si el vehículo ocupa un slot del almacén: entró a la simulación y no ha salido.
+     */
+    public boolean hasSlot() {
+        return slot >= 0;
+    }
+
+    // Slot para escribir el estado; lo reserva la primera vez. Negativo si ya se liberó
+    private int writableSlot() {
+        int s = slot;
+        return s != UNALLOCATED ? s : allocateSlot();
+    }
+
+    private synchronized int allocateSlot() {
+        if (slot == UNALLOCATED) {
+            int s = STATE.allocate();
+            STATE.setLane(s, laneOrdinal());
+            slot = s;
+        }
+        return slot;
+    }
+
+    /**
+     * @return el almacén compartido por todos los vehículos de este escenario.
+     */
+    public static VehicleStateStore stateStore() {
+        return STATE;
+    }
+
     public int getUTurnPhase() {
-        return uTurnPhase;
+        int s = slot;
+        return s < 0 ? 0 : STATE.getPhase(s);
     }
 
     public void setUTurnPhase(int uTurnPhase) {
-        this.uTurnPhase = uTurnPhase;
+        int s = writableSlot();
+        if (s >= 0) {
+            STATE.setPhase(s, uTurnPhase);
+        }
     }
 
 
     public boolean isEmergency() {
-        return this.type.equalsIgnoreCase("emergency");
+        return emergency;
     }
     
     public String getOriginalDirection() {
@@ -1,148 +1,332 @@
 package app.paralelafinal.escenario2.simulation;
-import app.paralelafinal.config.LanePositionAdjustment;
+import app.paralelafinal.comun.DemandGenerator;
+import app.paralelafinal.comun.SnapshotInterpolator;
+import app.paralelafinal.comun.SpawnRequest;
+import app.paralelafinal.comun.WorldSnapshot;
+import app.paralelafinal.metricas.InstrumentedLock;
+import app.paralelafinal.metricas.SpawnRejectedEvent;
 import app.paralelafinal.config.SimulationConfig;
 import app.paralelafinal.escenario2.entidades.Vehicle;
+import app.paralelafinal.escenario2.controladores.ExecutionMode;
+import app.paralelafinal.escenario2.controladores.SimulationClock;
 import app.paralelafinal.escenario2.controladores.TrafficController;
 import app.paralelafinal.escenario2.entidades.Intersection;
-import javafx.application.Platform;
+import app.paralelafinal.escenario2.entidades.Lane;
+import app.paralelafinal.escenario2.entidades.Maneuver;
+import app.paralelafinal.escenario2.entidades.LaneOffsets;
+import app.paralelafinal.escenario2.entidades.RoadGridTopology;
+import app.paralelafinal.escenario2.entidades.RoadNetwork;
+import app.paralelafinal.escenario2.entidades.Route;
 import javafx.geometry.Point2D;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
-import javafx.util.Duration;
+import javafx.animation.AnimationTimer;
 
 
-public class SimulationEngine2 {
+public final class SimulationEngine2 {
+    // Distancia mínima entre un vehículo nuevo y los que ya están en la red
+    private static final double MIN_SPAWN_DISTANCE = SimulationConfig.VEHICLE_LENGTH + 10;
+
     private final List<Intersection> intersections;
     private final TrafficController trafficController;
+    private final LaneOffsets laneOffsets;
 
     // Animation loop for UI updates
-    private Timeline animationLoop;
+    private AnimationTimer renderLoop;
+    private final SnapshotInterpolator interpolator = new SnapshotInterpolator();
+    private WorldSnapshot renderFrame = WorldSnapshot.EMPTY;
     private Consumer<Void> uiUpdateCallback;
 
     // Add field to track last added lane
     private String lastAddedLaneId;
 
+    // Secuencia de ids: con varios vehículos por milisegundo el reloj de pared no basta
+    private final AtomicLong vehicleCounter = new AtomicLong();
+
+    // Altas encoladas desde otros hilos (por ejemplo, JavaFX); se generan al inicio del siguiente paso
+    private final Queue<Runnable> inbox = new ConcurrentLinkedQueue<>();
+    // El vaciado del buzón se engancha al controlador la primera vez que hace falta, no en el constructor
+    private volatile boolean drainInstalled;
+
+    // Demanda estocástica opcional, consumida en el hilo del reloj
+    private volatile DemandGenerator demand;
+    private final List<SpawnRequest> demandBatch = new ArrayList<>();
+
     public SimulationEngine2() {
-        this.intersections = new ArrayList<>();
-        List<Intersection> r = setupRIntersections();
-        List<Intersection> l = setupLIntersections();
-        intersections.addAll(r);
-        intersections.addAll(l);
-        this.trafficController = new TrafficController(r, l);
+        this(SimulationClock.realTime());
     }
 
-    private List<Intersection> setupLIntersections() {
-        List<Intersection> i = new ArrayList<>();
-        i.add(new Intersection("East1"));
-        i.add(new Intersection("East2")); 
-        i.add(new Intersection("East3"));
-        return i;
+    /**
+     * @param clock reloj que conduce el controlador (tiempo real, escalado, tan rápido como sea posible o manual).
+     */
+    public SimulationEngine2(SimulationClock clock) {
+        this(clock, ExecutionMode.FORK_JOIN);
     }
 
-    private List<Intersection> setupRIntersections() {
-        List<Intersection> i = new ArrayList<>();
-        i.add(new Intersection("West1"));
-        i.add(new Intersection("West2")); 
-        i.add(new Intersection("West3"));
-        return i;
+    /**
+     * @param executionMode FORK_JOIN (por defecto) o ACTORS, un actor por intersección sobre hilos virtuales.
+     */
+    public SimulationEngine2(SimulationClock clock, ExecutionMode executionMode) {
+        this(clock, executionMode, RoadGridTopology.defaultScenario());
     }
 
-    private int getQueueIndexForDirection(Intersection intersection, String direction) {
-        switch(direction.toLowerCase()) {
-            case "right":
-            case "right-south-first":
-            case "right-south-second":
-            case "right-north-first":
-            case "right-north-second":
+    /**
+     * @param topology red de calles; {@link RoadGridTopology#defaultScenario()} es el trazado East1-3/West1-3.
+     */
+    public SimulationEngine2(SimulationClock clock, ExecutionMode executionMode, RoadGridTopology topology) {
+        this(clock, executionMode, RoadNetwork.of(topology));
+    }
+
+    /**
+     * @param network red completa: topología, desplazamientos de carril y plan de semáforos.
+     */
+    public SimulationEngine2(SimulationClock clock, ExecutionMode executionMode, RoadNetwork network) {
+        this.trafficController = new TrafficController(network, clock, executionMode);
+        this.intersections = new ArrayList<>(trafficController.getIntersections());
+        this.laneOffsets = network.laneOffsets();
+    }
+
+    /**
+     * @return un motor sobre una rejilla de {@code columns} calles verticales por {@code rows} horizontales.
+     * @see RoadGridTopology#grid(int, int)
+     */
+    public static SimulationEngine2 grid(SimulationClock clock, ExecutionMode executionMode, int columns, int rows) {
+        return new SimulationEngine2(clock, executionMode, RoadNetwork.grid(columns, rows));
+    }
+
+    private int getQueueIndexForDirection(Intersection intersection, Maneuver maneuver) {
+        switch (maneuver.getLane()) {
+            case RIGHT:
                 return intersection.getRightVQueue().size();
-            case "left":
-            case "left-north-first":
-            case "left-north-second":
-            case "left-south-first":
-            case "left-south-second":
+            case LEFT:
                 // Count all left-based vehicles in left queue
                 int leftCount = 0;
                 for (Vehicle v : intersection.getLeftVQueue()) {
-                    String vDir = v.getDirection().toLowerCase();
-                    if (vDir.startsWith("left") || vDir.startsWith("u-turn")) {
+                    Maneuver m = v.getManeuver();
+                    if (m.getLane() == Lane.LEFT || m.isUTurn()) {
                         leftCount++;
                     }
                 }
                 return leftCount;
-            case "straight":
+            case MID:
                 return intersection.getMidVQueue().size();
-            case "u-turn":
-            case "u-turn-second":
+            case U_TURN:
                 // U-turn vehicles are in the UTurnVQueue
                 return intersection.getUTurnVQueue().size();
             default:
-                throw new IllegalArgumentException("Invalid direction: " + direction);
+                throw new IllegalArgumentException("Invalid direction: " + maneuver.getDirection());
         }
     }
     
+    /**
+     * Encola un vehículo; como {@link #submitVehicles} con un lote de uno. Puede llamarse desde cualquier hilo.
+     */
     public void addVehicle(String type, String dir, String laneId) {
+        submitVehicles(List.of(new SpawnRequest(type, dir, laneId)));
+    }
+
+    /**
+     * Encola un lote de vehículos de una sola vez; el hilo del reloj los genera todos al inicio
+     * del siguiente paso con {@link #addVehicles}. Puede llamarse desde cualquier hilo.
+     */
+    public void submitVehicles(Collection<SpawnRequest> batch) {
+        if (!batch.isEmpty()) {
+            List<SpawnRequest> copy = List.copyOf(batch);
+            enqueue(() -> addVehicles(copy));
+        }
+    }
+
+    /**
+     * Genera un lote de vehículos, de forma síncrona. Las peticiones se agrupan por intersección
+     * y cada grupo se coloca tomando una sola vez el candado de su intersección, con los índices
+     * de cola calculados una vez por carril y no por vehículo. Las peticiones con intersección
+     * inexistente o posición ocupada se omiten, como en {@link #addVehicle}.
+     * Debe llamarse desde el hilo que avanza el reloj (o con el reloj detenido); desde otros
+     * hilos, {@link #submitVehicles}.
+     *
+     * @return cuántos vehículos se agregaron.
+     */
+    public int addVehicles(Collection<SpawnRequest> batch) {
+        Map<String, List<Vehicle>> byLane = new LinkedHashMap<>();
+        Map<String, Intersection> resolved = new LinkedHashMap<>();
+        for (SpawnRequest request : batch) {
+            String laneId = request.intersectionId();
+            Intersection intersection = resolved.computeIfAbsent(laneId, this::findIntersectionById);
+            if (intersection == null) {
+                SpawnRejectedEvent.emit(2, laneId, null, request.direction(), "unknown intersection");
+                continue;
+            }
+            byLane.computeIfAbsent(laneId, id -> new ArrayList<>())
+                    .add(newVehicle(request.type(), request.direction(), laneId, intersection));
+            lastAddedLaneId = laneId;
+        }
+
+        int added = 0;
+        int[] nextIndex = new int[Lane.values().length];
+        for (Map.Entry<String, List<Vehicle>> group : byLane.entrySet()) {
+            String laneId = group.getKey();
+            Intersection intersection = resolved.get(laneId);
+            Arrays.fill(nextIndex, -1);
+            InstrumentedLock lock = intersection.getLock();
+            lock.lock();
+            try {
+                for (Vehicle vehicle : group.getValue()) {
+                    Maneuver maneuver = vehicle.getManeuver();
+                    int lane = maneuver.getLane().ordinal();
+                    if (nextIndex[lane] < 0) {
+                        nextIndex[lane] = getQueueIndexForDirection(intersection, maneuver);
+                    }
+                    if (place(vehicle, intersection, laneId, vehicle.getDirection(), nextIndex[lane])) {
+                        nextIndex[lane]++;
+                        added++;
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return added;
+    }
+
+    private Vehicle newVehicle(String type, String dir, String laneId, Intersection intersection) {
+        Vehicle vehicle = new Vehicle(nextVehicleId(), type, dir, laneId, intersection.getId());
+        // Con la maniobra elegida a mano la ruta es la que ella implica; la meta es donde termina
+        Route route = trafficController.getRoutePlanner().routeFor(intersection.getNodeId(), vehicle.getManeuver());
+        vehicle.setRoute(route);
+        vehicle.setGoal(trafficController.getTopology().name(route.goal()));
+        return vehicle;
+    }
+
+    /**
+     * Encola un vehículo en {@code laneId} con destino a la intersección {@code goalId} que sigue
+     * la ruta más corta del {@code RoutePlanner}: la maniobra de salida sale de su primer tramo y
+     * el controlador consulta la ruta en cada intersección a la que entrega el vehículo. Se genera
+     * al inicio del siguiente paso, como los de {@link #submitVehicles}; puede llamarse desde cualquier hilo.
+     */
+    public void addVehicleToGoal(String type, String laneId, String goalId) {
+        enqueue(() -> spawnToGoal(type, laneId, goalId));
+    }
+
+    private void spawnToGoal(String type, String laneId, String goalId) {
         lastAddedLaneId = laneId;
-       
-        String vehicleId = "V" + System.currentTimeMillis();
+
         Intersection intersection = findIntersectionById(laneId);
-        if (intersection == null) return;
-
-        Vehicle vehicle = new Vehicle(vehicleId, type, dir, laneId, intersection.getId());
-
-        int queueIndex = getQueueIndexForDirection(intersection, dir);
-        Point2D spawnPos = calculateSpawnPosition(laneId, dir, queueIndex);
-        
-        // Verificar que no haya colisión con vehículos existentes
-        if (isPositionOccupied(spawnPos, intersection)) {
-            System.out.println("[WARNING] Cannot add vehicle at position (" + 
-                              spawnPos.getX() + ", " + spawnPos.getY() + 
-                              ") - Position already occupied!");
-            return; // No agregar el vehículo si la posición está ocupada
+        if (intersection == null) {
+            SpawnRejectedEvent.emit(2, laneId, null, null, "unknown intersection");
+            return;
+        }
+        int goal = trafficController.getTopology().idOf(goalId);
+        Route route = goal == RoadGridTopology.NONE ? null
+                : trafficController.getRoutePlanner().route(intersection.getNodeId(), goal);
+        if (route == null) {
+            SpawnRejectedEvent.emit(2, laneId, null, null, "no route");
+            return;
+        }
+
+        String dir = route.firstManeuver(intersection.isEastSide()).getDirection();
+        Vehicle vehicle = new Vehicle(nextVehicleId(), type, dir, goalId, intersection.getId());
+        vehicle.setRoute(route);
+        spawn(vehicle, intersection, laneId, dir);
+    }
+
+    /**
+     * Instala un generador de demanda. Al inicio de cada paso se generan juntas todas sus
+     * llegadas vencidas, con los accesos como ids de intersección (East1, West1...) y los
+     * movimientos como direcciones. {@code null} lo desinstala.
+     */
+    public void setDemand(DemandGenerator demand) {
+        this.demand = demand;
+        if (demand != null) {
+            installDrain();
+        }
+    }
+
+    public DemandGenerator getDemand() {
+        return demand;
+    }
+
+    private void enqueue(Runnable spawn) {
+        inbox.add(spawn);
+        installDrain();
+    }
+
+    // Carrera benigna: si dos hilos lo instalan a la vez, el segundo deja el mismo gancho
+    private void installDrain() {
+        if (!drainInstalled) {
+            drainInstalled = true;
+            trafficController.setBeforeStep(this::drainPending);
+        }
+    }
+
+    // Corre al inicio de cada paso, en el hilo del reloj
+    private void drainPending() {
+        Runnable spawn;
+        while ((spawn = inbox.poll()) != null) {
+            spawn.run();
+        }
+        drainDemand();
+    }
+
+    private void drainDemand() {
+        DemandGenerator generator = demand;
+        if (generator != null && generator.drainUntil(trafficController.getClock().now(),
+                arrival -> demandBatch.add(arrival.toSpawnRequest())) > 0) {
+            addVehicles(demandBatch);
+            demandBatch.clear();
+        }
+    }
+
+    private String nextVehicleId() {
+        return "V" + System.currentTimeMillis() + "-" + vehicleCounter.getAndIncrement();
+    }
+
+    private void spawn(Vehicle vehicle, Intersection intersection, String laneId, String dir) {
+        // Spawning only takes this intersection's lock: it waits for that intersection's step,
+        // never for light control or for the other intersections
+        InstrumentedLock lock = intersection.getLock();
+        lock.lock();
+        try {
+            place(vehicle, intersection, laneId, dir, getQueueIndexForDirection(intersection, vehicle.getManeuver()));
+        } finally {
+            lock.unlock();
         }
-        
+    }
+
+    // Coloca el vehículo en la posición queueIndex de su cola; el llamador tiene el candado de la intersección
+    private boolean place(Vehicle vehicle, Intersection intersection, String laneId, String dir, int queueIndex) {
+        Point2D spawnPos = calculateSpawnPosition(intersection.getNodeId(), dir, queueIndex);
+
+        // Verificar que no haya colisión con vehículos existentes; solo revisa las celdas vecinas
+        if (trafficController.getSpatialGrid().isOccupied(spawnPos.getX(), spawnPos.getY(), MIN_SPAWN_DISTANCE)) {
+            SpawnRejectedEvent.emit(2, intersection.getId(), vehicle.getManeuver().getLane().name(), dir, "occupied");
+            vehicle.release();
+            return false; // No agregar el vehículo si la posición está ocupada
+        }
+
         vehicle.setPosition(spawnPos);
 
-        // Only queue the final UI update
-        Platform.runLater(() -> {
-            switch (dir.toLowerCase()) {
-                case "left":
-                case "left-north-first":
-                case "left-north-second":
-                case "left-south-first":
-                case "left-south-second":
-                    // All left-based movements start from left queue
-                    intersection.getLeftVQueue().add(vehicle);
-                    break;
-                case "right":
-                case "right-south-first":
-                case "right-south-second":
-                case "right-north-first":
-                case "right-north-second":
-                    // All right-based movements start from right queue
-                    intersection.getRightVQueue().add(vehicle);
-                    break;
-                case "straight":
-                    intersection.getMidVQueue().add(vehicle);
-                    break;
-                case "u-turn":
-                case "u-turn-second":
-                    // U-turn vehicles go in the UTurnVQueue
-                    intersection.getUTurnVQueue().add(vehicle);
-                    break;
-                default:
-                    throw new IllegalArgumentException("Invalid direction: " + dir);
-            }
-        });
+        // La maniobra ya resolvió la cola de origen (left-*, right-*, straight, u-turn*)
+        intersection.addVehicleToQueue(vehicle, vehicle.getManeuver().getLane());
+        trafficController.getSpatialGrid().update(vehicle);
+        return true;
     }
 
-    private Point2D calculateSpawnPosition(String laneId, String direction, int queueIndex) {
-        double horizRoadY = (SimulationConfig.SCENE_HEIGHT - SimulationConfig.ROAD_WIDTH) / 2;
+    private Point2D calculateSpawnPosition(int nodeId, String direction, int queueIndex) {
+        RoadGridTopology topology = trafficController.getTopology();
+        // Borde superior de la calle horizontal del nodo; los East circulan hacia el oeste
+        double horizRoadY = topology.y(nodeId) - SimulationConfig.ROAD_WIDTH / 2;
         double laneWidth = SimulationConfig.ROAD_WIDTH / 3;
         double yPos;
+        boolean eastSide = topology.isWestbound(nodeId);
 
        
         switch (direction.toLowerCase()) {
@@ -151,10 +335,10 @@ public class SimulationEngine2 {
             case "left-north-second":
             case "left-south-first":
             case "left-south-second":
-                if (laneId.startsWith("East")) {
-                    yPos = horizRoadY + laneWidth * 2.5 + LanePositionAdjustment.EAST_LEFT_OFFSET;
+                if (eastSide) {
+                    yPos = horizRoadY + laneWidth * 2.5 + laneOffsets.get(true, LaneOffsets.Slot.LEFT);
                 } else {
-                    yPos = horizRoadY + laneWidth * 0.5 + LanePositionAdjustment.WEST_LEFT_OFFSET;
+                    yPos = horizRoadY + laneWidth * 0.5 + laneOffsets.get(false, LaneOffsets.Slot.LEFT);
                 }
                 break;
             case "right":
@@ -162,31 +346,29 @@ public class SimulationEngine2 {
             case "right-south-second":
             case "right-north-first":
             case "right-north-second":
-                if (laneId.startsWith("East")) {
-                    yPos = horizRoadY + laneWidth * 0.5 + LanePositionAdjustment.EAST_RIGHT_OFFSET;
+                if (eastSide) {
+                    yPos = horizRoadY + laneWidth * 0.5 + laneOffsets.get(true, LaneOffsets.Slot.RIGHT);
                 } else {
-                    yPos = horizRoadY + laneWidth * 2.5 + LanePositionAdjustment.WEST_RIGHT_OFFSET;
+                    yPos = horizRoadY + laneWidth * 2.5 + laneOffsets.get(false, LaneOffsets.Slot.RIGHT);
                 }
                 break;
             case "straight":
-                yPos = horizRoadY + laneWidth * 1.5 + (laneId.startsWith("East") 
-                    ? LanePositionAdjustment.EAST_STRAIGHT_OFFSET 
-                    : LanePositionAdjustment.WEST_STRAIGHT_OFFSET);
+                yPos = horizRoadY + laneWidth * 1.5 + laneOffsets.get(eastSide, LaneOffsets.Slot.STRAIGHT);
                 break;
             case "u-turn":
                 // U-turn vehicles use the left lane position
-                if (laneId.startsWith("East")) {
-                    yPos = horizRoadY + laneWidth * 2.5 + LanePositionAdjustment.EAST_U_TURN_OFFSET;
+                if (eastSide) {
+                    yPos = horizRoadY + laneWidth * 2.5 + laneOffsets.get(true, LaneOffsets.Slot.U_TURN);
                 } else {
-                    yPos = horizRoadY + laneWidth * 0.5 + LanePositionAdjustment.WEST_U_TURN_OFFSET;
+                    yPos = horizRoadY + laneWidth * 0.5 + laneOffsets.get(false, LaneOffsets.Slot.U_TURN);
                 }
                 break;
             case "u-turn-second":
                 // Second U-turn vehicles use slightly different position
-                if (laneId.startsWith("East")) {
-                    yPos = horizRoadY + laneWidth * 2.5 + LanePositionAdjustment.EAST_U_TURN_2ND_OFFSET;
+                if (eastSide) {
+                    yPos = horizRoadY + laneWidth * 2.5 + laneOffsets.get(true, LaneOffsets.Slot.U_TURN_2ND);
                 } else {
-                    yPos = horizRoadY + laneWidth * 0.5 + LanePositionAdjustment.WEST_U_TURN_2ND_OFFSET;
+                    yPos = horizRoadY + laneWidth * 0.5 + laneOffsets.get(false, LaneOffsets.Slot.U_TURN_2ND);
                 }
                 break;
             default:
@@ -194,9 +376,9 @@ public class SimulationEngine2 {
         }
 
         double vehicleSpacing = SimulationConfig.VEHICLE_LENGTH + 25;
-        double xPos = laneId.startsWith("East")
-            ? SimulationConfig.SCENE_WIDTH - 50 + (queueIndex * vehicleSpacing) 
-            : 50 - (queueIndex * vehicleSpacing); 
+        double xPos = eastSide
+            ? topology.spawnX(nodeId) + (queueIndex * vehicleSpacing) 
+            : topology.spawnX(nodeId) - (queueIndex * vehicleSpacing); 
 
         return new Point2D(xPos, yPos);
     }
@@ -210,7 +392,7 @@ public class SimulationEngine2 {
 
     private Intersection getEastIntersection() {
         for(Intersection i : intersections) {
-            if(i.getId().startsWith("East")) {
+            if(i.isEastSide()) {
                 return i;
             }
         }
@@ -219,7 +401,7 @@ public class SimulationEngine2 {
 
     private Intersection getWestIntersection() {
         for(Intersection i : intersections) {
-            if(i.getId().startsWith("West")) {
+            if(!i.isEastSide()) {
                 return i;
             }
         }
@@ -229,22 +411,28 @@ public class SimulationEngine2 {
     // Expose start/stop for the traffic controller
     public void start() {
         this.trafficController.startControl();
-        // Run a UI tick loop similar to Scenario 1 to request redraws
-        animationLoop = new Timeline(new KeyFrame(
-                Duration.millis(SimulationConfig.VEHICLE_UPDATE_INTERVAL_MS),
-                event -> {
-                    if (uiUpdateCallback != null) {
-                        uiUpdateCallback.accept(null);
-                    }
+        // The controller steps on its own clock thread; redraw once per pulse, interpolating
+        // between the last two snapshots, and only when there is something new to show
+        renderLoop = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                WorldSnapshot frame = interpolator.frameAt(trafficController.getSnapshot(), now);
+                trafficController.requestSnapshot(); // El siguiente paso publica el cuadro del próximo pulso
+                if (frame == renderFrame) {
+                    return;
                 }
-        ));
-        animationLoop.setCycleCount(Timeline.INDEFINITE);
-        animationLoop.play();
+                renderFrame = frame;
+                if (uiUpdateCallback != null) {
+                    uiUpdateCallback.accept(null);
+                }
+            }
+        };
+        renderLoop.start();
     }
 
     public void stop() {
-        if (animationLoop != null) {
-            animationLoop.stop();
+        if (renderLoop != null) {
+            renderLoop.stop();
         }
         this.trafficController.stopControl();
     }
@@ -257,38 +445,22 @@ public class SimulationEngine2 {
         return intersections;
     }
 
-    // Método para verificar si una posición está ocupada por otro vehículo
-    private boolean isPositionOccupied(Point2D position, Intersection intersection) {
-        double minDistance = SimulationConfig.VEHICLE_LENGTH + 10; // Distancia mínima entre vehículos
-        
-        // Verificar en TODAS las intersecciones para mayor seguridad
-        for (Intersection checkIntersection : intersections) {
-            // Verificar en todas las colas
-            List<Vehicle> allVehicles = new ArrayList<>();
-            allVehicles.addAll(checkIntersection.getMidVQueue());
-            allVehicles.addAll(checkIntersection.getRightVQueue());
-            allVehicles.addAll(checkIntersection.getLeftVQueue());
-            allVehicles.addAll(checkIntersection.getUTurnVQueue());
-            
-            for (Vehicle existingVehicle : allVehicles) {
-                if (existingVehicle.getPosition() != null) {
-                    double distance = position.distance(existingVehicle.getPosition());
-                    
-                    // Si la distancia es menor que el mínimo, la posición está ocupada
-                    if (distance < minDistance) {
-                        System.out.println("[COLLISION CHECK] Position conflict detected!");
-                        System.out.println("  New vehicle position: (" + position.getX() + ", " + position.getY() + ")");
-                        System.out.println("  Existing vehicle " + existingVehicle.getId() + 
-                                         " at: (" + existingVehicle.getPosition().getX() + 
-                                         ", " + existingVehicle.getPosition().getY() + ")");
-                        System.out.println("  Distance: " + distance + " (min required: " + minDistance + ")");
-                        return true;
-                    }
-                }
-            }
-        }
-        
-        return false; // La posición está libre
+    public TrafficController getTrafficController() {
+        return trafficController;
+    }
+
+    /**
+     * @return la última fotografía del mundo publicada por el controlador.
+     */
+    public WorldSnapshot getSnapshot() {
+        return trafficController.getSnapshot();
+    }
+
+    /**
+     * @return el cuadro interpolado del último pulso de animación, el que debe dibujarse.
+     */
+    public WorldSnapshot getRenderSnapshot() {
+        return renderFrame;
     }
 
     // Debug method to print U-turn vehicle status
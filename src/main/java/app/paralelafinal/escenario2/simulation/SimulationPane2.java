@@ -1,8 +1,10 @@
 package app.paralelafinal.escenario2.simulation;
 
+import app.paralelafinal.comun.WorldSnapshot;
 import app.paralelafinal.config.SimulationConfig;
-import app.paralelafinal.escenario2.entidades.Intersection;
-import app.paralelafinal.escenario2.entidades.Vehicle;
+import app.paralelafinal.escenario2.controladores.ExecutionMode;
+import app.paralelafinal.escenario2.controladores.SimulationClock;
+import app.paralelafinal.escenario2.entidades.RoadNetwork;
 import javafx.application.Application;
 import javafx.geometry.Pos;
 import javafx.scene.Group;
@@ -17,6 +19,11 @@ import javafx.scene.shape.Circle;
 import javafx.scene.shape.Rectangle;
 import javafx.stage.Stage;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * JavaFX application that draws a road grid with two horizontal and two vertical roads.
  * Horizontal roads have 3 lanes per direction (6 lanes total).
@@ -25,7 +32,7 @@ import javafx.stage.Stage;
  */
 public class SimulationPane2 extends Application {
     
-    // Canvas dimensions - using SimulationConfig
+    // Dimensions of the original layout the roads are drawn on - using SimulationConfig
     private static final double CANVAS_WIDTH = SimulationConfig.SCENE_WIDTH;
     private static final double CANVAS_HEIGHT = SimulationConfig.SCENE_HEIGHT;
     
@@ -43,10 +50,77 @@ public class SimulationPane2 extends Application {
     private static final double DASH_LENGTH = SimulationConfig.DASHED_LINE_LENGTH;
     private static final double GAP_LENGTH = SimulationConfig.DASHED_LINE_GAP;
     
+    // Sprite pool: live sprites keyed by vehicle id, plus hidden spares ready for reuse
+    private Map<String, VehicleSprite> activeSprites = new HashMap<>();
+    private Map<String, VehicleSprite> nextSprites = new HashMap<>();
+    private final Deque<VehicleSprite> spareNormalSprites = new ArrayDeque<>();
+    private final Deque<VehicleSprite> spareEmergencySprites = new ArrayDeque<>();
+    private WorldSnapshot lastDrawnFrame;
+    
+    // Traffic light nodes are created once; only their fills change
+    private final TrafficLightSprite[] trafficLights = new TrafficLightSprite[2];
+    private Boolean lastEastWestGreen;
+
+    private final ExecutionMode executionMode;
+    private final RoadNetwork network;
+    // La escena crece con la red (por ejemplo, una rejilla grande); nunca es menor que el trazado original
+    private final double sceneWidth;
+    private final double sceneHeight;
+
+    public SimulationPane2() {
+        this(ExecutionMode.FORK_JOIN, RoadNetwork.defaultNetwork());
+    }
+
+    /**
+     * @param executionMode cómo avanza el controlador las intersecciones (FORK_JOIN o ACTORS).
+     * @param network       red a simular; la escena toma su tamaño, pero el dibujo de las calles
+     *                      sigue siendo el del trazado original.
+     */
+    public SimulationPane2(ExecutionMode executionMode, RoadNetwork network) {
+        this.executionMode = executionMode;
+        this.network = network;
+        this.sceneWidth = network.topology().width();
+        this.sceneHeight = network.topology().height();
+    }
+    
+    /**
+     * Nodo de un vehículo reutilizable; recuerda la última pose aplicada para no tocar
+     * el grafo de escena si el vehículo no se movió.
+     */
+    private static final class VehicleSprite {
+        final Group node;
+        final boolean emergency;
+        double x = Double.NaN;
+        double y = Double.NaN;
+        double heading = Double.NaN;
+
+        VehicleSprite(Group node, boolean emergency) {
+            this.node = node;
+            this.emergency = emergency;
+        }
+
+        void moveTo(double newX, double newY, double newHeading) {
+            if (newX != x) {
+                node.setLayoutX(newX);
+                x = newX;
+            }
+            if (newY != y) {
+                node.setLayoutY(newY);
+                y = newY;
+            }
+            if (newHeading != heading) {
+                node.setRotate(newHeading);
+                heading = newHeading;
+            }
+        }
+    }
+    
+    private record TrafficLightSprite(Circle redLight, Circle greenLight) {}
+    
     @Override
     public void start(Stage primaryStage) {
         // Create the canvas
-        Canvas canvas = new Canvas(CANVAS_WIDTH, CANVAS_HEIGHT);
+        Canvas canvas = new Canvas(sceneWidth, sceneHeight);
         GraphicsContext gc = canvas.getGraphicsContext2D();
         
         // Draw the road grid
@@ -57,7 +131,7 @@ public class SimulationPane2 extends Application {
         vehiclesLayer.setPickOnBounds(false);
 
         // Create engine and add-vehicle menu button
-        SimulationEngine2 simulationEngine = new SimulationEngine2();
+        SimulationEngine2 simulationEngine = new SimulationEngine2(SimulationClock.realTime(), executionMode, network);
         simulationEngine.setUiUpdateCallback(v -> drawVehicles(vehiclesLayer, simulationEngine));
         simulationEngine.start();
 
@@ -69,7 +143,7 @@ public class SimulationPane2 extends Application {
         root.getChildren().addAll(canvas, vehiclesLayer, addVehicleButton);
         StackPane.setAlignment(addVehicleButton, Pos.BOTTOM_CENTER);
 
-        Scene scene = new Scene(root, CANVAS_WIDTH, CANVAS_HEIGHT);
+        Scene scene = new Scene(root, sceneWidth, sceneHeight);
         scene.setFill(Color.WHITE); // Set white background
         
         // Configure and show the stage
@@ -85,7 +159,7 @@ public class SimulationPane2 extends Application {
     private void drawRoadGrid(GraphicsContext gc) {
         // Clear canvas with white background
         gc.setFill(Color.WHITE);
-        gc.fillRect(0, 0, CANVAS_WIDTH, CANVAS_HEIGHT);
+        gc.fillRect(0, 0, sceneWidth, sceneHeight);
         
         // Draw the roads (black rectangles)
         drawRoads(gc);
@@ -223,124 +297,94 @@ public class SimulationPane2 extends Application {
     }
     
     private void drawVehicles(Pane layer, SimulationEngine2 engine) {
-        // Remove previous vehicle nodes and traffic lights
-        layer.getChildren().removeIf(node -> 
-            "vehicle".equals(node.getUserData()) || "traffic-light".equals(node.getUserData()));
+        // Read the interpolated frame for this pulse; the controller keeps stepping while we draw
+        WorldSnapshot frame = engine.getRenderSnapshot();
+        if (frame == lastDrawnFrame) {
+            return; // Nothing new since the previous pulse
+        }
+        lastDrawnFrame = frame;
 
         // Draw traffic lights for each intersection
-        drawTrafficLights(layer, engine);
+        drawTrafficLights(layer, frame);
 
-        for (Intersection intersection : engine.getIntersections()) {
-            // FIXED: Include U-turn queue in rendering
-            for (Vehicle v : intersection.getMidVQueue()) {
-                addVehicleNode(layer, v, intersection.getId());
-            }
-            for (Vehicle v : intersection.getRightVQueue()) {
-                addVehicleNode(layer, v, intersection.getId());
-            }
-            for (Vehicle v : intersection.getLeftVQueue()) {
-                addVehicleNode(layer, v, intersection.getId());
+        for (int i = 0; i < frame.size(); i++) {
+            String id = frame.getId(i);
+            boolean emergency = frame.isEmergency(i);
+            VehicleSprite sprite = activeSprites.remove(id);
+            if (sprite != null && sprite.emergency != emergency) {
+                recycle(sprite);
+                sprite = null;
             }
-            for (Vehicle v : intersection.getUTurnVQueue()) { 
-                addVehicleNode(layer, v, intersection.getId());
+            if (sprite == null) {
+                sprite = acquireSprite(layer, emergency);
             }
+            // Position at vehicle's logical coordinates
+            sprite.moveTo(frame.getX(i), frame.getY(i), frame.getHeading(i));
+            nextSprites.put(id, sprite);
         }
-    }
-
-    private void addVehicleNode(Pane layer, Vehicle v, String intersectionId) {
-        Group sprite = createVehicleShape(v);
-        sprite.setUserData("vehicle");
 
-        // Use the vehicle's actual intersection for angle calculation
-        String actualIntersectionId = v.getInIntersection() != null ? v.getInIntersection() : intersectionId;
-        String direction = v.getDirection().toLowerCase();
-        
-        // Determine heading based on side and direction
-        double angle = 0; // Default angle
-        if (direction.equals("u-turn") || direction.equals("u-turn-second")) {
-            // U-turn vehicles show different angle based on phase
-            if (v.getUTurnPhase() == 0) {
-                // Approaching: normal direction
-                angle = actualIntersectionId.startsWith("East") ? 0 : 180;
-            } else if (v.getUTurnPhase() == 1) {
-                // Turning: perpendicular angle
-                angle = actualIntersectionId.startsWith("East") ? 90 : -90;
-            } else {
-                // Exiting: opposite direction
-                angle = actualIntersectionId.startsWith("East") ? 180 : 0;
-            }
-        } else if (direction.startsWith("left-north") || direction.startsWith("right-south") ||
-                   direction.startsWith("left-south") || direction.startsWith("right-north")) {
-            // Special turn vehicles show different angle based on phase
-            if (v.getUTurnPhase() == 0 || v.getUTurnPhase() == 3) {
-                // Phase 0: Approaching or Phase 3: Extended movement - keep horizontal
-                angle = actualIntersectionId.startsWith("East") ? 0 : 180;
-            } else if (v.getUTurnPhase() == 1) {
-                // Phase 1: Turning - perpendicular angle for 90-degree turn
-                if (direction.startsWith("left-north") || direction.startsWith("right-north")) {
-                    // Turning north (upward) - vehicle points up
-                    angle = -90;
-                } else if (direction.startsWith("right-south") || direction.startsWith("left-south")) {
-                    // Turning south (downward) - vehicle points down
-                    angle = 90;
-                }
-            } else if (v.getUTurnPhase() == 2) {
-                // Phase 2: After turn - keep facing north or south
-                if (direction.startsWith("left-north") || direction.startsWith("right-north")) {
-                    angle = -90; // Keep pointing north
-                } else {
-                    angle = 90; // Keep pointing south
-                }
-            }
-        } else if (direction.equals("vertical-north")) {
-            // Vehicle moving north after completing left-north turn
-            angle = -90;
-        } else if (direction.equals("vertical-south")) {
-            // Vehicle moving south after completing right-south turn
-            angle = 90;
-        } else if (direction.equals("left")) {
-            // For vehicles that completed U-turn and are now in left lane
-            // They should face the direction of their current intersection
-            angle = actualIntersectionId.startsWith("East") ? 0 : 180;
-        } else {
-            // Normal vehicles (straight, right, regular left)
-            angle = actualIntersectionId.startsWith("East") ? 0 : 180;
+        // Whatever was not in this frame left the simulation
+        for (VehicleSprite gone : activeSprites.values()) {
+            recycle(gone);
         }
-        sprite.setRotate(angle);
+        activeSprites.clear();
+        Map<String, VehicleSprite> swap = activeSprites;
+        activeSprites = nextSprites;
+        nextSprites = swap;
+    }
 
-        // Position at vehicle's logical coordinates
-        if (v.getPosition() != null) {
-            sprite.setLayoutX(v.getPosition().getX());
-            sprite.setLayoutY(v.getPosition().getY());
+    private VehicleSprite acquireSprite(Pane layer, boolean emergency) {
+        VehicleSprite sprite = (emergency ? spareEmergencySprites : spareNormalSprites).poll();
+        if (sprite == null) {
+            sprite = new VehicleSprite(createVehicleShape(emergency), emergency);
+            layer.getChildren().add(sprite.node);
+        } else {
+            sprite.node.setVisible(true);
         }
+        return sprite;
+    }
 
-        layer.getChildren().add(sprite);
+    // Hide instead of removing, so the node can be handed to the next vehicle that spawns
+    private void recycle(VehicleSprite sprite) {
+        sprite.node.setVisible(false);
+        (sprite.emergency ? spareEmergencySprites : spareNormalSprites).push(sprite);
     }
 
-    private void drawTrafficLights(Pane layer, SimulationEngine2 engine) {
+    private void drawTrafficLights(Pane layer, WorldSnapshot frame) {
         // Only 2 traffic lights at the North-South intersections (vertical roads)
         // Get the first intersection to check light status (all are synchronized)
-        boolean eastWestGreen = false;
-        if (!engine.getIntersections().isEmpty()) {
-            eastWestGreen = engine.getIntersections().get(0).getTrafficLight().isGreen();
-        }
-        
-        // Calculate vertical road positions (where intersections are)
-        double vertRoad1X = HORIZONTAL_BLOCK_SIZE + VERTICAL_ROAD_WIDTH / 2;
-        double vertRoad2X = HORIZONTAL_BLOCK_SIZE + VERTICAL_ROAD_WIDTH + HORIZONTAL_BLOCK_SIZE + VERTICAL_ROAD_WIDTH / 2;
+        boolean eastWestGreen = frame.getLightCount() > 0 && frame.isLightGreen(0);
         
-        // Traffic light 1 - First vertical road intersection
-        Group light1 = createTrafficLightVisual(eastWestGreen);
-        light1.setLayoutX(vertRoad1X - 15);
-        light1.setLayoutY(200);
-        layer.getChildren().add(light1);
-        
-        // Traffic light 2 - Second vertical road intersection  
-        Group light2 = createTrafficLightVisual(eastWestGreen);
-        light2.setLayoutX(vertRoad2X - 15);
-        light2.setLayoutY(200);
-        layer.getChildren().add(light2);
+        if (trafficLights[0] == null) {
+            // Calculate vertical road positions (where intersections are)
+            double vertRoad1X = HORIZONTAL_BLOCK_SIZE + VERTICAL_ROAD_WIDTH / 2;
+            double vertRoad2X = HORIZONTAL_BLOCK_SIZE + VERTICAL_ROAD_WIDTH + HORIZONTAL_BLOCK_SIZE + VERTICAL_ROAD_WIDTH / 2;
+            
+            // Traffic light 1 - First vertical road intersection
+            trafficLights[0] = addTrafficLightVisual(layer, vertRoad1X - 15, 200);
+            
+            // Traffic light 2 - Second vertical road intersection  
+            trafficLights[1] = addTrafficLightVisual(layer, vertRoad2X - 15, 200);
+        }
         
+        if (lastEastWestGreen != null && lastEastWestGreen == eastWestGreen) {
+            return;
+        }
+        lastEastWestGreen = eastWestGreen;
+        for (TrafficLightSprite light : trafficLights) {
+            // Red light (on when East/West is green)
+            light.redLight().setFill(eastWestGreen ? Color.RED : Color.DARKRED);
+            // Green light (on when East/West is red, meaning North/South can go)
+            light.greenLight().setFill(eastWestGreen ? Color.DARKGREEN : Color.LIGHTGREEN);
+        }
+    }
+    
+    private TrafficLightSprite addTrafficLightVisual(Pane layer, double x, double y) {
+        Group lightGroup = createTrafficLightVisual(false);
+        lightGroup.setLayoutX(x);
+        lightGroup.setLayoutY(y);
+        layer.getChildren().add(lightGroup);
+        return new TrafficLightSprite((Circle) lightGroup.getChildren().get(1), (Circle) lightGroup.getChildren().get(2));
     }
     
     private Group createTrafficLightVisual(boolean eastWestGreen) {
@@ -366,14 +410,14 @@ public class SimulationPane2 extends Application {
         return lightGroup;
     }
     
-    private Group createVehicleShape(Vehicle v) {
+    private Group createVehicleShape(boolean emergency) {
         Group vehicleGroup = new Group();
 
         Rectangle body = new Rectangle(SimulationConfig.VEHICLE_LENGTH, SimulationConfig.VEHICLE_WIDTH);
         body.setArcWidth(5);
         body.setArcHeight(5);
 
-        if ("emergency".equalsIgnoreCase(v.getType())) {
+        if (emergency) {
             // Emergency vehicles are RED
             body.setFill(Color.RED);
             body.setStroke(Color.YELLOW);
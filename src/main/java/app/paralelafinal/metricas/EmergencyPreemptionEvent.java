@@ -0,0 +1,42 @@
+package app.paralelafinal.metricas;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR instantáneo: el controlador dio verde a la intersección de una emergencia.
+ */
+@Name("app.paralelafinal.EmergencyPreemption")
+@Label("Emergency Preemption")
+@Category({"ParalelaFinal", "Lights"})
+@Description("Preferencia de paso para un vehículo de emergencia")
+@StackTrace(false)
+public final class EmergencyPreemptionEvent extends Event {
+
+    @Label("Scenario")
+    public int scenario;
+
+    @Label("Intersection")
+    public String intersection;
+
+    @Label("Lane")
+    public String lane;
+
+    @Label("Vehicle")
+    public String vehicle;
+
+    public static void emit(int scenario, String intersection, String lane, String vehicle) {
+        EmergencyPreemptionEvent event = new EmergencyPreemptionEvent();
+        if (event.shouldCommit()) {
+            event.scenario = scenario;
+            event.intersection = intersection;
+            event.lane = lane;
+            event.vehicle = vehicle;
+            event.commit();
+        }
+    }
+}
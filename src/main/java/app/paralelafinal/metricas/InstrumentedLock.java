@@ -0,0 +1,81 @@
+package app.paralelafinal.metricas;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serial;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link ReentrantLock} que mide su contención: cuántas veces se adquirió, cuántas de ellas
+ * hubo que esperar a otro hilo y cuánto duró esa espera.
+ *
+ * El camino sin contención es un {@code tryLock()} más dos contadores, así que medir no cambia
+ * el comportamiento que se quiere observar.
+ */
+public class InstrumentedLock extends ReentrantLock {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final String name;
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder contended = new LongAdder();
+    // El histograma no se serializa; al deserializar se empieza uno vacío
+    private transient LatencyHistogram waitTimes;
+
+    public InstrumentedLock(String name) {
+        this.name = name;
+        this.waitTimes = new LatencyHistogram(name + " wait");
+    }
+
+    @Serial
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        waitTimes = new LatencyHistogram(name + " wait");
+    }
+
+    @Override
+    public void lock() {
+        if (!tryLock()) {
+            long start = System.nanoTime();
+            super.lock();
+            contended.increment();
+            waitTimes.record(System.nanoTime() - start);
+        }
+        acquisitions.increment();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getAcquisitions() {
+        return acquisitions.sum();
+    }
+
+    public long getContendedAcquisitions() {
+        return contended.sum();
+    }
+
+    /**
+     * @return el histograma de esperas de las adquisiciones con contención.
+     */
+    public LatencyHistogram getWaitTimes() {
+        return waitTimes;
+    }
+
+    /**
+     * @return la fracción de adquisiciones que tuvieron que esperar, entre 0 y 1.
+     */
+    public double getContentionRate() {
+        long total = acquisitions.sum();
+        return total == 0 ? 0 : (double) contended.sum() / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: acquisitions=%d contended=%d (%.2f%%) %s",
+                name, getAcquisitions(), getContendedAcquisitions(), getContentionRate() * 100, waitTimes);
+    }
+}
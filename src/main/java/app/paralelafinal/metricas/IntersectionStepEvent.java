@@ -0,0 +1,41 @@
+package app.paralelafinal.metricas;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Evento JFR con la duración del avance de las colas de una sola intersección dentro de un paso.
+ * Junto con los eventos de candados y GC muestra qué intersección alarga el paso. Igual que {@link SimulationTickEvent}, el umbral por defecto es 1 ms.
+ */
+@Name("app.paralelafinal.IntersectionStep")
+@Label("Intersection Step")
+@Category({"ParalelaFinal", "Simulation"})
+@Description("Avance de las colas de una intersección en un paso")
+@StackTrace(false)
+@Threshold("1 ms")
+public final class IntersectionStepEvent extends Event {
+
+    @Label("Scenario")
+    public int scenario;
+
+    @Label("Intersection")
+    public String intersection;
+
+    @Label("Queued")
+    @Description("Vehículos en las colas de la intersección al terminar")
+    public int queued;
+
+    public void end(int scenario, String intersection, int queued) {
+        if (shouldCommit()) {
+            this.scenario = scenario;
+            this.intersection = intersection;
+            this.queued = queued;
+            commit();
+        }
+    }
+}
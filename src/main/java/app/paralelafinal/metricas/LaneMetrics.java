@@ -0,0 +1,169 @@
+package app.paralelafinal.metricas;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Indicadores de un carril de una intersección: vehículos que llegaron y que salieron,
+ * espera en la cola, tiempo de viaje de los que dejan la red por este carril y la longitud
+ * de la cola a lo largo del tiempo.
+ *
+ * Registrar es el camino caliente (lo llaman los listeners en cada encolar y desencolar) y
+ * solo toca contadores {@link LongAdder} y cubetas de histograma, sin candados. Los tiempos
+ * son de simulación, en milisegundos; los histogramas los guardan en nanosegundos para
+ * reportarlos con el mismo formato que las demás latencias.
+ *
+ * El muestreo periódico ({@link #sample(long)}) guarda la longitud de la cola y el total
+ * de salidas en un búfer circular; de ahí salen la historia de la cola y la tasa de
+ * descarga por minuto.
+ */
+public final class LaneMetrics {
+
+    private static final long NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final String intersectionId;
+    private final String lane;
+    private final LongAdder arrivals = new LongAdder();
+    private final LongAdder discharged = new LongAdder();
+    private final LatencyHistogram waitTimes;
+    private final LatencyHistogram travelTimes;
+
+    // Búfer circular de muestras, escrito solo por el muestreador
+    private final long[] sampleTimes;
+    private final int[] queueSamples;
+    private final long[] dischargedSamples;
+    private int samples = 0;
+    private int maxQueueLength = 0;
+
+    LaneMetrics(String intersectionId, String lane, int history) {
+        this.intersectionId = intersectionId;
+        this.lane = lane;
+        this.waitTimes = new LatencyHistogram(intersectionId + "/" + lane + " wait");
+        this.travelTimes = new LatencyHistogram(intersectionId + "/" + lane + " travel");
+        this.sampleTimes = new long[history];
+        this.queueSamples = new int[history];
+        this.dischargedSamples = new long[history];
+    }
+
+    public String getIntersectionId() {
+        return intersectionId;
+    }
+
+    public String getLane() {
+        return lane;
+    }
+
+    /**
+     * Un vehículo entró a la cola del carril.
+     */
+    public void recordArrival() {
+        arrivals.increment();
+    }
+
+    /**
+     * Un vehículo salió de la cola después de esperar {@code waitMillis}.
+     */
+    public void recordDischarge(long waitMillis) {
+        discharged.increment();
+        waitTimes.record(waitMillis * NANOS_PER_MILLI);
+    }
+
+    /**
+     * Un vehículo dejó la red por este carril, {@code travelMillis} después de generarse.
+     */
+    public void recordExit(long travelMillis) {
+        travelTimes.record(travelMillis * NANOS_PER_MILLI);
+    }
+
+    public long getArrivals() {
+        return arrivals.sum();
+    }
+
+    public long getDischarged() {
+        return discharged.sum();
+    }
+
+    /**
+     * @return los vehículos en cola ahora: llegadas menos salidas.
+     */
+    public int getQueueLength() {
+        return (int) Math.max(0, arrivals.sum() - discharged.sum());
+    }
+
+    public LatencyHistogram getWaitTimes() {
+        return waitTimes;
+    }
+
+    public LatencyHistogram getTravelTimes() {
+        return travelTimes;
+    }
+
+    synchronized void sample(long nowMillis) {
+        int length = getQueueLength();
+        int at = samples % sampleTimes.length;
+        sampleTimes[at] = nowMillis;
+        queueSamples[at] = length;
+        dischargedSamples[at] = discharged.sum();
+        samples++;
+        maxQueueLength = Math.max(maxQueueLength, length);
+    }
+
+    /**
+     * @return las longitudes de cola muestreadas, de la más antigua a la más reciente
+     * (como mucho las que caben en el búfer).
+     */
+    public synchronized int[] getQueueLengthHistory() {
+        int n = Math.min(samples, queueSamples.length);
+        int[] history = new int[n];
+        for (int i = 0; i < n; i++) {
+            history[i] = queueSamples[(samples - n + i) % queueSamples.length];
+        }
+        return history;
+    }
+
+    /**
+     * @return la cola más larga vista en las muestras.
+     */
+    public synchronized int getMaxQueueLength() {
+        return maxQueueLength;
+    }
+
+    /**
+     * @return vehículos descargados por minuto durante el último minuto muestreado (o el
+     * intervalo muestreado, si es más corto); 0 con menos de dos muestras.
+     */
+    public synchronized double getDischargedPerMinute() {
+        int n = Math.min(samples, sampleTimes.length);
+        if (n < 2) {
+            return 0;
+        }
+        int last = (samples - 1) % sampleTimes.length;
+        long windowStart = sampleTimes[last] - TimeUnit.MINUTES.toMillis(1);
+        // La muestra más reciente que cae un minuto atrás o antes; si no hay, la más antigua
+        int first = (samples - n) % sampleTimes.length;
+        for (int i = samples - 2; i >= samples - n; i--) {
+            if (sampleTimes[i % sampleTimes.length] <= windowStart) {
+                first = i % sampleTimes.length;
+                break;
+            }
+        }
+        long elapsed = sampleTimes[last] - sampleTimes[first];
+        if (elapsed <= 0) {
+            return 0;
+        }
+        return (dischargedSamples[last] - dischargedSamples[first]) * (double) TimeUnit.MINUTES.toMillis(1) / elapsed;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s/%s: arrivals=%d discharged=%d (%.1f/min) queue=%d max=%d wait[%s] travel[%s]",
+                intersectionId, lane, getArrivals(), getDischarged(), getDischargedPerMinute(),
+                getQueueLength(), getMaxQueueLength(), summary(waitTimes), summary(travelTimes));
+    }
+
+    private static String summary(LatencyHistogram histogram) {
+        return String.format("n=%d p50=%.0fms p99=%.0fms max=%.0fms",
+                histogram.getCount(), histogram.getPercentileNanos(50) / (double) NANOS_PER_MILLI,
+                histogram.getPercentileNanos(99) / (double) NANOS_PER_MILLI, histogram.getMaxNanos() / (double) NANOS_PER_MILLI);
+    }
+}
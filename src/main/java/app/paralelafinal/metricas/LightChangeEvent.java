@@ -0,0 +1,43 @@
+package app.paralelafinal.metricas;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR instantáneo: el semáforo de una intersección cambió de estado.
+ */
+@Name("app.paralelafinal.LightChange")
+@Label("Light Change")
+@Category({"ParalelaFinal", "Lights"})
+@Description("Cambio de un semáforo")
+@StackTrace(false)
+public final class LightChangeEvent extends Event {
+
+    @Label("Scenario")
+    public int scenario;
+
+    @Label("Intersection")
+    public String intersection;
+
+    @Label("Green")
+    public boolean green;
+
+    @Label("Reason")
+    @Description("cycle, init, preemption o flow")
+    public String reason;
+
+    public static void emit(int scenario, String intersection, boolean green, String reason) {
+        LightChangeEvent event = new LightChangeEvent();
+        if (event.shouldCommit()) {
+            event.scenario = scenario;
+            event.intersection = intersection;
+            event.green = green;
+            event.reason = reason;
+            event.commit();
+        }
+    }
+}
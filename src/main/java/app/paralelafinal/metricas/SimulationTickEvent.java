@@ -0,0 +1,48 @@
+package app.paralelafinal.metricas;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Evento JFR con la duración de un paso completo de la simulación ({@code stepVehicles} en el
+ * Escenario 2, {@code updateVehiclePositions} en el 1). Se usa con {@code begin()} antes del
+ * paso y {@link #end(int, String, long, int)} después; con la grabación apagada solo cuesta
+ * la comprobación de {@code shouldCommit()}. Por defecto solo se graban los pasos de 1 ms o más;
+ * con {@code jdk.jfr} el umbral se cambia en la configuración de la grabación.
+ */
+@Name("app.paralelafinal.SimulationTick")
+@Label("Simulation Tick")
+@Category({"ParalelaFinal", "Simulation"})
+@Description("Duración de un paso de la simulación")
+@StackTrace(false)
+@Threshold("1 ms")
+public final class SimulationTickEvent extends Event {
+
+    @Label("Scenario")
+    public int scenario;
+
+    @Label("Phase")
+    public String phase;
+
+    @Label("Tick")
+    public long tick;
+
+    @Label("Vehicles")
+    @Description("Vehículos en las colas al terminar el paso")
+    public int vehicles;
+
+    public void end(int scenario, String phase, long tick, int vehicles) {
+        if (shouldCommit()) {
+            this.scenario = scenario;
+            this.phase = phase;
+            this.tick = tick;
+            this.vehicles = vehicles;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package app.paralelafinal.metricas;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR instantáneo: no se pudo generar un vehículo pedido.
+ */
+@Name("app.paralelafinal.SpawnRejected")
+@Label("Spawn Rejected")
+@Category({"ParalelaFinal", "Vehicles"})
+@Description("Generación de vehículo rechazada")
+@StackTrace(false)
+public final class SpawnRejectedEvent extends Event {
+
+    @Label("Scenario")
+    public int scenario;
+
+    @Label("Intersection")
+    public String intersection;
+
+    @Label("Lane")
+    public String lane;
+
+    @Label("Direction")
+    public String direction;
+
+    @Label("Reason")
+    @Description("occupied, unknown intersection o no route")
+    public String reason;
+
+    public static void emit(int scenario, String intersection, String lane, String direction, String reason) {
+        SpawnRejectedEvent event = new SpawnRejectedEvent();
+        if (event.shouldCommit()) {
+            event.scenario = scenario;
+            event.intersection = intersection;
+            event.lane = lane;
+            event.direction = direction;
+            event.reason = reason;
+            event.commit();
+        }
+    }
+}
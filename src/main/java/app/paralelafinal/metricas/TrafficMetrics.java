@@ -0,0 +1,122 @@
+package app.paralelafinal.metricas;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Indicadores de tráfico de una simulación: un {@link LaneMetrics} por intersección y carril,
+ * más el tiempo de viaje de toda la red y lo que tarda (en tiempo de pared) cada paso.
+ *
+ * Los carriles se registran al armar la red y los listeners guardan la referencia, así que
+ * registrar un evento no busca en ningún mapa. {@link #sample(long)} debe llamarse cada
+ * {@link #SAMPLE_PERIOD_MS} ms de tiempo simulado (el controlador lo programa en su reloj).
+ */
+public final class TrafficMetrics {
+
+    /** Periodo de muestreo de las colas, en milisegundos de tiempo simulado. */
+    public static final long SAMPLE_PERIOD_MS = 1_000;
+    /** Muestras que se conservan por carril: diez minutos simulados. */
+    public static final int HISTORY_SAMPLES = (int) (TimeUnit.MINUTES.toMillis(10) / SAMPLE_PERIOD_MS);
+
+    private final Map<String, LaneMetrics> lanes = new ConcurrentHashMap<>();
+    private final List<LaneMetrics> ordered = Collections.synchronizedList(new ArrayList<>());
+    private final LatencyHistogram networkTravelTimes = new LatencyHistogram("network travel");
+    private final LatencyHistogram stepDurations = new LatencyHistogram("step duration (wall)");
+    private volatile long lastSampleMillis = -1;
+
+    /**
+     * @return los indicadores del carril, creándolos la primera vez.
+     */
+    public LaneMetrics register(String intersectionId, String lane) {
+        return lanes.computeIfAbsent(intersectionId + "/" + lane, key -> {
+            LaneMetrics metrics = new LaneMetrics(intersectionId, lane, HISTORY_SAMPLES);
+            ordered.add(metrics);
+            return metrics;
+        });
+    }
+
+    /**
+     * @return los indicadores del carril, o null si no se registró.
+     */
+    public LaneMetrics lane(String intersectionId, String lane) {
+        return lanes.get(intersectionId + "/" + lane);
+    }
+
+    /**
+     * @return todos los carriles, en orden de registro.
+     */
+    public List<LaneMetrics> getLanes() {
+        synchronized (ordered) {
+            return new ArrayList<>(ordered);
+        }
+    }
+
+    /**
+     * Un vehículo dejó la red por {@code lane} después de {@code travelMillis}.
+     */
+    public void recordExit(LaneMetrics lane, long travelMillis) {
+        lane.recordExit(travelMillis);
+        networkTravelTimes.record(travelMillis * TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    public LatencyHistogram getNetworkTravelTimes() {
+        return networkTravelTimes;
+    }
+
+    /**
+     * Un paso de la simulación tardó {@code nanos} de tiempo de pared.
+     */
+    public void recordStep(long nanos) {
+        stepDurations.record(nanos);
+    }
+
+    public LatencyHistogram getStepDurations() {
+        return stepDurations;
+    }
+
+    /**
+     * Muestrea la longitud de cola y las salidas acumuladas de todos los carriles.
+     */
+    public void sample(long nowMillis) {
+        for (LaneMetrics lane : getLanes()) {
+            lane.sample(nowMillis);
+        }
+        lastSampleMillis = nowMillis;
+    }
+
+    public long getLastSampleMillis() {
+        return lastSampleMillis;
+    }
+
+    /**
+     * @return los carriles ordenados de la cola más larga a la más corta: los primeros son
+     * los accesos que se saturan antes.
+     */
+    public List<LaneMetrics> getBusiestLanes() {
+        List<LaneMetrics> busiest = getLanes();
+        busiest.sort((a, b) -> Integer.compare(b.getMaxQueueLength(), a.getMaxQueueLength()));
+        return busiest;
+    }
+
+    /**
+     * @return una línea por carril con tránsito, más el tiempo de viaje de la red y, si se
+     * registraron pasos, su duración.
+     */
+    public String getReport() {
+        StringBuilder report = new StringBuilder();
+        for (LaneMetrics lane : getLanes()) {
+            if (lane.getArrivals() > 0) {
+                report.append(lane).append(System.lineSeparator());
+            }
+        }
+        report.append(networkTravelTimes).append(System.lineSeparator());
+        if (stepDurations.getCount() > 0) {
+            report.append(stepDurations).append(System.lineSeparator());
+        }
+        return report.toString();
+    }
+}
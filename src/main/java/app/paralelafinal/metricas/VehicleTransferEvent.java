@@ -0,0 +1,43 @@
+package app.paralelafinal.metricas;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR instantáneo: un vehículo pasa de la cola de una intersección a la de otra.
+ */
+@Name("app.paralelafinal.VehicleTransfer")
+@Label("Vehicle Transfer")
+@Category({"ParalelaFinal", "Vehicles"})
+@Description("Traspaso de un vehículo entre intersecciones")
+@StackTrace(false)
+public final class VehicleTransferEvent extends Event {
+
+    @Label("From Intersection")
+    public String fromIntersection;
+
+    @Label("To Intersection")
+    public String toIntersection;
+
+    @Label("Lane")
+    @Description("Carril de destino")
+    public String lane;
+
+    @Label("Vehicle")
+    public String vehicle;
+
+    public static void emit(String fromIntersection, String toIntersection, String lane, String vehicle) {
+        VehicleTransferEvent event = new VehicleTransferEvent();
+        if (event.shouldCommit()) {
+            event.fromIntersection = fromIntersection;
+            event.toIntersection = toIntersection;
+            event.lane = lane;
+            event.vehicle = vehicle;
+            event.commit();
+        }
+    }
+}
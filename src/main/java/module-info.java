@@ -15,9 +15,12 @@ module app.paralelafinal {
     requires com.almasb.fxgl.all;
     requires annotations;
     requires javafx.graphics;
+    requires jdk.jfr;
 
     opens app.paralelafinal to javafx.fxml;
     exports app.paralelafinal;
+    exports app.paralelafinal.comun;
+    exports app.paralelafinal.metricas;
     exports app.paralelafinal.escenario1.entidades;
     exports app.paralelafinal.escenario1.simulation;
     opens app.paralelafinal.escenario1.entidades to javafx.fxml;
@@ -0,0 +1,82 @@
+package app.paralelafinal.comun;
+
+import app.paralelafinal.comun.DemandGenerator.Arrival;
+import app.paralelafinal.comun.DemandGenerator.ArrivalProcess;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DemandGeneratorTest {
+
+    private static DemandGenerator generator(long seed) {
+        DemandGenerator.Builder builder = DemandGenerator.builder(seed);
+        for (String approach : new String[]{"East1", "West1"}) {
+            for (String movement : new String[]{"straight", "right", "left", "u-turn"}) {
+                builder.flow(approach, movement, ArrivalProcess.poisson(2), 0.05);
+            }
+        }
+        return builder.build();
+    }
+
+    @Test
+    void sameSeedGivesTheSameArrivals() {
+        List<Arrival> first = generator(42).arrivalsUntil(600_000);
+        List<Arrival> second = generator(42).arrivalsUntil(600_000);
+
+        assertTrue(first.size() > 1_000, "n=" + first.size());
+        assertEquals(first, second);
+    }
+
+    @Test
+    void differentSeedsGiveDifferentArrivals() {
+        assertNotEquals(generator(1).arrivalsUntil(60_000), generator(2).arrivalsUntil(60_000));
+    }
+
+    @Test
+    void drainingInStepsMatchesDrainingAtOnce() {
+        List<Arrival> atOnce = generator(7).arrivalsUntil(120_000);
+
+        DemandGenerator stepped = generator(7);
+        List<Arrival> inSteps = new ArrayList<>();
+        for (long t = 50; t <= 120_000; t += 50) {
+            stepped.drainUntil(t, inSteps::add);
+        }
+
+        assertEquals(atOnce, inSteps);
+        assertEquals(atOnce.size(), stepped.getGenerated());
+    }
+
+    @Test
+    void arrivalsComeInTimeOrder() {
+        List<Arrival> arrivals = generator(3).arrivalsUntil(300_000);
+        for (int i = 1; i < arrivals.size(); i++) {
+            assertTrue(arrivals.get(i - 1).atMillis() <= arrivals.get(i).atMillis());
+        }
+        assertTrue(arrivals.stream().allMatch(a -> a.atMillis() <= 300_000));
+    }
+
+    @Test
+    void uniformFlowArrivesAtFixedIntervals() {
+        DemandGenerator generator = DemandGenerator.builder(0)
+                .flow("North", "straight", ArrivalProcess.uniform(4))
+                .build();
+
+        List<Arrival> arrivals = generator.arrivalsUntil(1_000);
+
+        assertEquals(List.of(250L, 500L, 750L, 1_000L), arrivals.stream().map(Arrival::atMillis).toList());
+        assertTrue(arrivals.stream().noneMatch(Arrival::emergency));
+    }
+
+    @Test
+    void rejectsInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> ArrivalProcess.poisson(0));
+        assertThrows(IllegalArgumentException.class,
+                () -> DemandGenerator.builder(0).flow("North", "straight", ArrivalProcess.uniform(1), 1.5));
+    }
+}
@@ -0,0 +1,154 @@
+package app.paralelafinal.comun;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LaneQueueTest {
+
+    // Elementos de prueba: llegada y nombre; el orden es solo por llegada
+    private record Car(long arrival, String name) {}
+
+    private static LaneQueue<Car> newQueue() {
+        return new LaneQueue<>(Comparator.comparingLong(Car::arrival));
+    }
+
+    private static List<String> names(Iterable<Car> queue) {
+        List<String> names = new ArrayList<>();
+        for (Car car : queue) {
+            names.add(car.name());
+        }
+        return names;
+    }
+
+    @Test
+    void iteratesInArrivalOrderEvenWhenInsertedOutOfOrder() {
+        LaneQueue<Car> queue = newQueue();
+        queue.add(new Car(10, "a"));
+        queue.add(new Car(30, "c"));
+        queue.add(new Car(20, "b"));
+        queue.add(new Car(5, "first"));
+
+        assertEquals(List.of("first", "a", "b", "c"), names(queue));
+        assertEquals("first", queue.peek().name());
+        assertEquals("c", queue.peekLast().name());
+        assertEquals(4, queue.size());
+    }
+
+    @Test
+    void equalArrivalsKeepInsertionOrder() {
+        LaneQueue<Car> queue = newQueue();
+        queue.add(new Car(10, "x"));
+        queue.add(new Car(10, "y"));
+        queue.add(new Car(10, "z"));
+
+        assertEquals(List.of("x", "y", "z"), names(queue));
+    }
+
+    @Test
+    void rejectsNullsAndDuplicates() {
+        LaneQueue<Car> queue = newQueue();
+        Car car = new Car(1, "a");
+
+        assertTrue(queue.add(car));
+        assertFalse(queue.add(car));
+        assertEquals(1, queue.size());
+        assertThrows(NullPointerException.class, () -> queue.add(null));
+    }
+
+    @Test
+    void removesFromTheMiddleAndRelinksNeighbours() {
+        LaneQueue<Car> queue = newQueue();
+        Car a = new Car(1, "a");
+        Car b = new Car(2, "b");
+        Car c = new Car(3, "c");
+        queue.add(a);
+        queue.add(b);
+        queue.add(c);
+
+        assertTrue(queue.remove(b));
+        assertFalse(queue.remove(b));
+        assertFalse(queue.contains(b));
+        assertEquals(List.of("a", "c"), names(queue));
+        assertEquals(a, queue.leaderOf(c));
+        assertEquals(c, queue.followerOf(a));
+        assertNull(queue.leaderOf(a));
+        assertNull(queue.followerOf(c));
+    }
+
+    @Test
+    void pollTakesTheHead() {
+        LaneQueue<Car> queue = newQueue();
+        queue.add(new Car(2, "b"));
+        queue.add(new Car(1, "a"));
+
+        assertEquals("a", queue.poll().name());
+        assertEquals("b", queue.poll().name());
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+        assertNull(queue.peekLast());
+    }
+
+    @Test
+    void iteratorSurvivesRemovalOfTheCurrentElement() {
+        LaneQueue<Car> queue = newQueue();
+        Car a = new Car(1, "a");
+        Car b = new Car(2, "b");
+        Car c = new Car(3, "c");
+        queue.add(a);
+        queue.add(b);
+        queue.add(c);
+
+        // Como en la simulación: el vehículo que sale del carril se quita mientras se recorre la cola
+        List<String> seen = new ArrayList<>();
+        for (Car car : queue) {
+            seen.add(car.name());
+            queue.remove(car);
+        }
+
+        assertEquals(List.of("a", "b", "c"), seen);
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    void iteratorSkipsElementsRemovedAheadOfIt() {
+        LaneQueue<Car> queue = newQueue();
+        Car a = new Car(1, "a");
+        Car b = new Car(2, "b");
+        Car c = new Car(3, "c");
+        queue.add(a);
+        queue.add(b);
+        queue.add(c);
+
+        Iterator<Car> it = queue.iterator();
+        assertEquals(a, it.next());
+        queue.remove(b);
+
+        assertEquals(c, it.next());
+        assertFalse(it.hasNext());
+    }
+
+    @Test
+    void iteratorRemoveUnlinksTheLastReturnedElement() {
+        LaneQueue<Car> queue = newQueue();
+        queue.add(new Car(1, "a"));
+        queue.add(new Car(2, "b"));
+
+        Iterator<Car> it = queue.iterator();
+        assertThrows(IllegalStateException.class, it::remove);
+        it.next();
+        it.remove();
+
+        assertEquals(List.of("b"), names(queue));
+        assertEquals(1, queue.size());
+    }
+}
@@ -0,0 +1,134 @@
+package app.paralelafinal.comun;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VehicleStateStoreTest {
+
+    @Test
+    void allocatedSlotsStartZeroedWithoutLane() {
+        VehicleStateStore store = new VehicleStateStore();
+        int slot = store.allocate();
+
+        assertEquals(0.0, store.getX(slot));
+        assertEquals(0.0, store.getY(slot));
+        assertEquals(0.0, store.getSpeed(slot));
+        assertEquals(0, store.getPhase(slot));
+        assertEquals(-1, store.getLane(slot));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void releasedSlotsAreReusedAndCleared() {
+        VehicleStateStore store = new VehicleStateStore();
+        int first = store.allocate();
+        int second = store.allocate();
+        store.setPosition(first, 10, 20);
+        store.translate(first, 3, 4);
+        store.setPhase(first, 2);
+        store.setLane(first, 1);
+
+        assertEquals(13.0, store.getX(first));
+        assertEquals(24.0, store.getY(first));
+        assertEquals(5.0, store.getSpeed(first));
+
+        store.release(first);
+        assertEquals(1, store.size());
+
+        // El slot liberado vuelve, sin nada de su dueño anterior
+        int reused = store.allocate();
+        assertEquals(first, reused);
+        assertEquals(0.0, store.getX(reused));
+        assertEquals(0.0, store.getSpeed(reused));
+        assertEquals(0, store.getPhase(reused));
+        assertEquals(-1, store.getLane(reused));
+        assertEquals(2, store.size());
+        assertTrue(second != reused);
+    }
+
+    @Test
+    void capacityGrowsOnePageAtATimeAndStopsGrowingWhenSlotsAreReturned() {
+        VehicleStateStore store = new VehicleStateStore();
+        List<Integer> slots = new ArrayList<>();
+        for (int i = 0; i <= VehicleStateStore.PAGE_SIZE; i++) {
+            slots.add(store.allocate());
+        }
+        assertEquals(2 * VehicleStateStore.PAGE_SIZE, store.capacity());
+
+        // Soltar y volver a pedir muchas veces no agrega páginas
+        for (int round = 0; round < 10; round++) {
+            slots.forEach(store::release);
+            slots.clear();
+            for (int i = 0; i <= VehicleStateStore.PAGE_SIZE; i++) {
+                slots.add(store.allocate());
+            }
+        }
+        assertEquals(2 * VehicleStateStore.PAGE_SIZE, store.capacity());
+        assertEquals(VehicleStateStore.PAGE_SIZE + 1, store.size());
+    }
+
+    @Test
+    void rejectsSlotsItNeverHandedOut() {
+        VehicleStateStore store = new VehicleStateStore();
+        store.allocate();
+
+        assertThrows(IllegalArgumentException.class, () -> store.release(-1));
+        assertThrows(IllegalArgumentException.class, () -> store.release(1));
+    }
+
+    @Test
+    void concurrentAllocationsNeverShareASlot() throws InterruptedException {
+        VehicleStateStore store = new VehicleStateStore();
+        int threads = 8;
+        int perThread = 5_000;
+        List<List<Integer>> taken = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            List<Integer> mine = new ArrayList<>();
+            taken.add(mine);
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    int slot = store.allocate();
+                    // Cada hilo escribe solo sus slots; la mitad los devuelve enseguida
+                    store.setPosition(slot, slot, -slot);
+                    if (i % 2 == 0) {
+                        store.release(slot);
+                    } else {
+                        mine.add(slot);
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        }
+
+        Set<Integer> unique = new HashSet<>();
+        for (List<Integer> mine : taken) {
+            for (int slot : mine) {
+                assertTrue(unique.add(slot), "slot " + slot + " handed out twice");
+                assertEquals((double) slot, store.getX(slot));
+            }
+        }
+        assertEquals(threads * perThread / 2, store.size());
+    }
+}
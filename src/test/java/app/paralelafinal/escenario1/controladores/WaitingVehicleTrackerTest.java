@@ -0,0 +1,133 @@
+package app.paralelafinal.escenario1.controladores;
+
+import app.paralelafinal.escenario1.entidades.Intersection;
+import app.paralelafinal.escenario1.entidades.Vehicle;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WaitingVehicleTrackerTest {
+
+    private static Vehicle vehicle(String id, String type, long arrival) {
+        Vehicle v = new Vehicle(id, type, "straight", false);
+        v.setArrivalTime(arrival);
+        return v;
+    }
+
+    private static Intersection tracked(String id, WaitingVehicleTracker tracker) {
+        Intersection intersection = new Intersection(id);
+        intersection.addListener(tracker);
+        return intersection;
+    }
+
+    @Test
+    void tracksTheOldestVehicleOfEachKindAcrossIntersections() {
+        WaitingVehicleTracker tracker = new WaitingVehicleTracker();
+        Intersection north = tracked("North", tracker);
+        Intersection east = tracked("East", tracker);
+
+        assertNull(tracker.oldestNormal());
+        assertNull(tracker.oldestEmergency());
+
+        Vehicle late = vehicle("late", "normal", 300);
+        Vehicle early = vehicle("early", "normal", 100);
+        Vehicle ambulance = vehicle("ambulance", "emergency", 200);
+        north.addVehicle(late);
+        east.addVehicle(early);
+        east.addVehicle(ambulance);
+
+        assertSame(early, tracker.oldestNormal());
+        assertSame(ambulance, tracker.oldestEmergency());
+    }
+
+    @Test
+    void dequeuedVehiclesLeaveTheIndex() {
+        WaitingVehicleTracker tracker = new WaitingVehicleTracker();
+        Intersection north = tracked("North", tracker);
+        Vehicle first = vehicle("first", "normal", 100);
+        Vehicle second = vehicle("second", "normal", 200);
+        Vehicle ambulance = vehicle("ambulance", "emergency", 150);
+        north.addVehicle(first);
+        north.addVehicle(ambulance);
+        north.addVehicle(second);
+
+        north.removeNextVehicle(); // first
+        assertSame(second, tracker.oldestNormal());
+        assertSame(ambulance, tracker.oldestEmergency());
+
+        north.removeNextVehicle(); // ambulance
+        assertNull(tracker.oldestEmergency());
+
+        north.removeNextVehicle(); // second
+        assertNull(tracker.oldestNormal());
+    }
+
+    @Test
+    void equalArrivalTimesAreOrderedByCreation() {
+        WaitingVehicleTracker tracker = new WaitingVehicleTracker();
+        Intersection north = tracked("North", tracker);
+        Intersection south = tracked("South", tracker);
+        Vehicle older = vehicle("older", "normal", 100);
+        Vehicle newer = vehicle("newer", "normal", 100);
+
+        // Encolado al revés: el desempate es el orden de creación, no el de llegada a la cola
+        south.addVehicle(newer);
+        north.addVehicle(older);
+
+        assertSame(older, tracker.oldestNormal());
+        north.removeNextVehicle();
+        assertSame(newer, tracker.oldestNormal());
+    }
+
+    @Test
+    void concurrentIntersectionsKeepTheIndexConsistent() throws InterruptedException {
+        WaitingVehicleTracker tracker = new WaitingVehicleTracker();
+        String[] ids = {"North", "South", "East", "West"};
+        int perIntersection = 2_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+
+        // Como en la simulación: cada intersección la modifica un solo hilo, todas a la vez
+        for (int t = 0; t < ids.length; t++) {
+            Intersection intersection = tracked(ids[t], tracker);
+            int offset = t;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perIntersection; i++) {
+                    String type = i % 10 == 0 ? "emergency" : "normal";
+                    intersection.addVehicle(vehicle(ids[offset] + i, type, i * ids.length + offset));
+                }
+                // Deja en la cola solo la mitad más nueva
+                for (int i = 0; i < perIntersection / 2; i++) {
+                    intersection.removeNextVehicle();
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+
+        // Quedan los vehículos 1000 en adelante; los 1000 son emergencias, así que el normal
+        // más antiguo es el 1001 de North
+        Vehicle oldest = tracker.oldestNormal();
+        Vehicle oldestEmergency = tracker.oldestEmergency();
+        assertEquals("North1001", oldest.getId());
+        assertEquals("North1000", oldestEmergency.getId());
+        assertTrue(oldest.getArrivalTime() > oldestEmergency.getArrivalTime());
+    }
+}
@@ -0,0 +1,74 @@
+package app.paralelafinal.escenario2.controladores;
+
+import app.paralelafinal.escenario2.entidades.Intersection;
+import app.paralelafinal.escenario2.entidades.Lane;
+import app.paralelafinal.escenario2.entidades.Vehicle;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class EmergencyQueueIndexTest {
+
+    private static Vehicle vehicle(String id, String type, long arrival) {
+        Vehicle v = new Vehicle(id, type, "straight", "East1", "East1");
+        v.setArrivalTime(arrival);
+        return v;
+    }
+
+    @Test
+    void oldestEmergencyAcrossIntersectionsIgnoringNormalVehicles() {
+        EmergencyQueueIndex index = new EmergencyQueueIndex();
+        Intersection east = new Intersection("East1");
+        Intersection west = new Intersection("West1");
+        index.track(east);
+        index.track(west);
+        assertNull(index.oldest());
+
+        Vehicle normal = vehicle("normal", "normal", 10);
+        Vehicle late = vehicle("late", "emergency", 300);
+        Vehicle early = vehicle("early", "emergency", 100);
+        east.addVehicleToQueue(normal, Lane.MID);
+        east.addVehicleToQueue(late, Lane.LEFT);
+        west.addVehicleToQueue(early, Lane.RIGHT);
+
+        assertSame(early, index.oldest());
+        assertEquals(2, index.size());
+
+        west.removeVehicle(early);
+        assertSame(late, index.oldest());
+        east.removeVehicle(late);
+        assertNull(index.oldest());
+    }
+
+    @Test
+    void aTransferKeepsTheVehicleIndexedOnce() {
+        EmergencyQueueIndex index = new EmergencyQueueIndex();
+        Intersection from = new Intersection("East1");
+        Intersection to = new Intersection("East2");
+        index.track(from);
+        index.track(to);
+        Vehicle ambulance = vehicle("ambulance", "emergency", 100);
+        from.addVehicleToQueue(ambulance, Lane.MID);
+
+        // Como en el paso: sale del origen y después entra al destino
+        from.removeVehicle(ambulance);
+        to.addVehicleToQueue(ambulance, Lane.MID);
+
+        assertSame(ambulance, index.oldest());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void trackIndexesEmergenciesAlreadyQueued() {
+        Intersection east = new Intersection("East1");
+        Vehicle ambulance = vehicle("ambulance", "emergency", 100);
+        east.addVehicleToQueue(ambulance, Lane.U_TURN);
+
+        EmergencyQueueIndex index = new EmergencyQueueIndex();
+        index.track(east);
+
+        assertSame(ambulance, index.oldest());
+    }
+}
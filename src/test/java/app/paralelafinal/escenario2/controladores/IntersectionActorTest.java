@@ -0,0 +1,122 @@
+package app.paralelafinal.escenario2.controladores;
+
+import app.paralelafinal.escenario2.entidades.Intersection;
+import app.paralelafinal.escenario2.entidades.Lane;
+import app.paralelafinal.escenario2.entidades.Vehicle;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntersectionActorTest {
+
+    private static Vehicle vehicle(String id) {
+        return new Vehicle(id, "normal", "straight", "East1", "East1");
+    }
+
+    // Actor que anota cuántos vehículos había en la cola MID cada vez que avanzó
+    private static IntersectionActor recording(Intersection intersection, List<Integer> queuedAtStep) {
+        return new IntersectionActor(intersection,
+                (actor, step) -> queuedAtStep.add(intersection.getQueue(Lane.MID).size()), () -> {});
+    }
+
+    @Test
+    void anArrivalBeforeItsStepIsQueuedAfterTheStep() {
+        Intersection intersection = new Intersection("East2");
+        List<Integer> queuedAtStep = new ArrayList<>();
+        IntersectionActor actor = recording(intersection, queuedAtStep);
+        Vehicle early = vehicle("early");
+
+        // Un actor del paso 0 registra su traspaso; el Arrival llega antes que el Step
+        IntersectionActor.StepCountdown countdown = new IntersectionActor.StepCountdown(1);
+        countdown.register();
+        actor.tell(new IntersectionActor.Arrival(0, early, Lane.MID, countdown));
+        actor.tell(new IntersectionActor.Step(0, countdown));
+        actor.start();
+        try {
+            countdown.await();
+        } finally {
+            actor.stop();
+        }
+
+        // El paso no lo vio, igual que la bandeja de salida de FORK_JOIN; después ya está encolado
+        assertEquals(List.of(0), queuedAtStep);
+        assertTrue(intersection.getQueue(Lane.MID).contains(early));
+    }
+
+    @Test
+    void anArrivalForAStepAlreadyTakenIsQueuedRightAway() {
+        Intersection intersection = new Intersection("East2");
+        List<Integer> queuedAtStep = new ArrayList<>();
+        IntersectionActor actor = recording(intersection, queuedAtStep);
+        actor.start();
+        try {
+            IntersectionActor.StepCountdown first = new IntersectionActor.StepCountdown(1);
+            actor.tell(new IntersectionActor.Step(0, first));
+            first.await();
+
+            // El vecino todavía está en el paso 0 cuando este actor ya lo terminó; el único
+            // pendiente es ese traspaso
+            IntersectionActor.StepCountdown late = new IntersectionActor.StepCountdown(1);
+            actor.tell(new IntersectionActor.Arrival(0, vehicle("late"), Lane.MID, late));
+            late.await();
+            assertEquals(1, intersection.getQueue(Lane.MID).size());
+
+            IntersectionActor.StepCountdown second = new IntersectionActor.StepCountdown(1);
+            actor.tell(new IntersectionActor.Step(1, second));
+            second.await();
+        } finally {
+            actor.stop();
+        }
+
+        assertEquals(List.of(0, 1), queuedAtStep);
+    }
+
+    @Test
+    void countdownWaitsForEveryActorAndEveryRegisteredTransfer() throws InterruptedException {
+        IntersectionActor.StepCountdown countdown = new IntersectionActor.StepCountdown(2);
+        countdown.register();
+        CountDownLatch released = new CountDownLatch(1);
+        Thread waiter = Thread.ofVirtual().start(() -> {
+            countdown.await();
+            released.countDown();
+        });
+
+        countdown.arrive();
+        countdown.arrive();
+        assertFalse(released.await(50, TimeUnit.MILLISECONDS));
+
+        countdown.arrive();
+        assertTrue(released.await(5, TimeUnit.SECONDS));
+        waiter.join();
+    }
+
+    @Test
+    void countdownWithoutActorsIsAlreadyDone() {
+        // No bloquea: una red sin intersecciones termina el paso enseguida
+        new IntersectionActor.StepCountdown(0).await();
+    }
+
+    @Test
+    void lightCommandsSetOrToggleTheLightAndNotify() {
+        Intersection intersection = new Intersection("West1");
+        AtomicInteger notified = new AtomicInteger();
+        IntersectionActor actor = new IntersectionActor(intersection, (a, step) -> {}, notified::incrementAndGet);
+        actor.tell(new IntersectionActor.LightCommand(true, "test"));
+        actor.tell(new IntersectionActor.LightCommand(true, "test"));
+        actor.tell(new IntersectionActor.LightCommand(null, "test"));
+        actor.start();
+        // stop() espera a que se procesen los mensajes encolados antes del Stop
+        actor.stop();
+
+        assertFalse(intersection.getTrafficLight().isGreen());
+        assertEquals(3, notified.get());
+    }
+}
@@ -0,0 +1,115 @@
+package app.paralelafinal.escenario2.controladores;
+
+import app.paralelafinal.escenario2.entidades.Maneuver;
+import app.paralelafinal.escenario2.entidades.RoadGridTopology;
+import app.paralelafinal.escenario2.entidades.Route;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoutePlannerTest {
+
+    // Cada tramo de la ruta debe seguir la cadena, ir a la opuesta o a la fila vecina, con la acción correspondiente
+    private static void assertValidRoute(RoadGridTopology topology, Route route, int origin, int goal) {
+        int[] nodes = route.nodes();
+        Route.Turn[] turns = route.turns();
+        assertEquals(origin, route.origin());
+        assertEquals(goal, route.goal());
+        assertEquals(Route.Turn.ARRIVE, turns[turns.length - 1]);
+        for (int i = 0; i + 1 < nodes.length; i++) {
+            switch (turns[i]) {
+                case THROUGH -> assertEquals(topology.next(nodes[i]), nodes[i + 1]);
+                case U_TURN -> assertEquals(topology.opposite(nodes[i]), nodes[i + 1]);
+                case NORTH -> assertEquals(topology.north(nodes[i]), nodes[i + 1]);
+                case SOUTH -> assertEquals(topology.south(nodes[i]), nodes[i + 1]);
+                case ARRIVE -> throw new AssertionError("ARRIVE before the goal");
+            }
+        }
+    }
+
+    @Test
+    void tableAndAStarAgreeOnEveryPair() {
+        RoadGridTopology topology = RoadGridTopology.grid(5, 3);
+        RoutePlanner table = new RoutePlanner(topology, true);
+        RoutePlanner aStar = new RoutePlanner(topology, false);
+        assertTrue(table.usesAllPairsTable());
+        assertFalse(aStar.usesAllPairsTable());
+
+        for (int origin = 0; origin < topology.size(); origin++) {
+            for (int goal = 0; goal < topology.size(); goal++) {
+                Route fromTable = table.route(origin, goal);
+                Route fromAStar = aStar.route(origin, goal);
+                if (fromTable == null) {
+                    assertNull(fromAStar, topology.name(origin) + " -> " + topology.name(goal));
+                    continue;
+                }
+                assertNotNull(fromAStar, topology.name(origin) + " -> " + topology.name(goal));
+                assertEquals(fromTable.cost(), fromAStar.cost(), 1e-9);
+                assertValidRoute(topology, fromTable, origin, goal);
+                assertValidRoute(topology, fromAStar, origin, goal);
+            }
+        }
+    }
+
+    @Test
+    void defaultScenarioRoutes() {
+        RoadGridTopology topology = RoadGridTopology.defaultScenario();
+        RoutePlanner planner = new RoutePlanner(topology);
+        int east1 = topology.idOf("East1");
+        int east3 = topology.idOf("East3");
+        int west1 = topology.idOf("West1");
+
+        Route through = planner.route("East1", "East3");
+        assertArrayEquals(new int[]{east1, topology.idOf("East2"), east3}, through.nodes());
+        assertEquals(Route.Turn.THROUGH, through.turns()[0]);
+
+        Route uTurn = planner.route(east1, west1);
+        assertArrayEquals(new Route.Turn[]{Route.Turn.U_TURN, Route.Turn.ARRIVE}, uTurn.turns());
+
+        // Desde East3 solo se llega a West3, que es el final de su cadena
+        assertNull(planner.route(east3, east1));
+    }
+
+    @Test
+    void gridRoutesCrossRowsOnTheVerticalRoads() {
+        RoadGridTopology topology = RoadGridTopology.grid(4, 3);
+        RoutePlanner planner = new RoutePlanner(topology);
+
+        // Antes no había camino entre filas; ahora todo nodo llega a todo nodo
+        for (int origin = 0; origin < topology.size(); origin++) {
+            for (int goal = 0; goal < topology.size(); goal++) {
+                assertNotNull(planner.route(origin, goal), topology.name(origin) + " -> " + topology.name(goal));
+            }
+        }
+
+        // Misma columna, dos filas más abajo: baja por la calle vertical sin dar vueltas
+        Route down = planner.route("East1-1", "East3-1");
+        assertArrayEquals(new int[]{topology.idOf("East1-1"), topology.idOf("East2-1"), topology.idOf("East3-1")},
+                down.nodes());
+        assertArrayEquals(new Route.Turn[]{Route.Turn.SOUTH, Route.Turn.SOUTH, Route.Turn.ARRIVE}, down.turns());
+        assertEquals(2 * (topology.y(topology.idOf("East2-1")) - topology.y(topology.idOf("East1-1")))
+                + 2 * RoutePlanner.TURN_PENALTY, down.cost(), 1e-9);
+        assertEquals(Maneuver.LEFT_SOUTH_FIRST, down.firstManeuver(true));
+
+        Route up = planner.route("West3-2", "West1-2");
+        assertEquals(Route.Turn.NORTH, up.turns()[0]);
+        assertEquals(Maneuver.LEFT_NORTH_FIRST, up.firstManeuver(false));
+    }
+
+    @Test
+    void repeatedLookupsReturnTheCachedRoute() {
+        RoadGridTopology topology = RoadGridTopology.grid(4, 2);
+        RoutePlanner aStar = new RoutePlanner(topology, false);
+        RoutePlanner table = new RoutePlanner(topology, true);
+        int last = topology.size() - 1;
+
+        assertSame(aStar.route(0, last), aStar.route(0, last));
+        assertSame(table.route(0, last), table.route(0, last));
+    }
+}
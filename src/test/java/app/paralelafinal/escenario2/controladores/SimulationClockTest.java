@@ -0,0 +1,141 @@
+package app.paralelafinal.escenario2.controladores;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SimulationClockTest {
+
+    @Test
+    void manualAdvanceRunsDueTasksInVirtualTimeOrder() {
+        SimulationClock clock = SimulationClock.manual();
+        List<String> log = new ArrayList<>();
+        clock.scheduleAtFixedRate(() -> log.add("step@" + clock.now()), 0, 50, TimeUnit.MILLISECONDS);
+        clock.scheduleAtFixedRate(() -> log.add("light@" + clock.now()), 100, 100, TimeUnit.MILLISECONDS);
+        clock.schedule(() -> log.add("once@" + clock.now()), 75, TimeUnit.MILLISECONDS);
+
+        clock.advance(200);
+
+        // A igual tiempo corre primero la que se programó primero
+        assertEquals(List.of("step@0", "step@50", "once@75", "step@100", "light@100",
+                "step@150", "step@200", "light@200"), log);
+        assertEquals(200, clock.now());
+    }
+
+    @Test
+    void advancingInSmallStepsMatchesOneBigStep() {
+        SimulationClock stepped = SimulationClock.manual();
+        SimulationClock atOnce = SimulationClock.manual();
+        List<Long> steppedRuns = new ArrayList<>();
+        List<Long> atOnceRuns = new ArrayList<>();
+        stepped.scheduleAtFixedRate(() -> steppedRuns.add(stepped.now()), 10, 30, TimeUnit.MILLISECONDS);
+        atOnce.scheduleAtFixedRate(() -> atOnceRuns.add(atOnce.now()), 10, 30, TimeUnit.MILLISECONDS);
+
+        for (int i = 0; i < 100; i++) {
+            stepped.advance(7);
+        }
+        atOnce.advance(700);
+
+        assertEquals(atOnceRuns, steppedRuns);
+        assertEquals(24, steppedRuns.size());
+    }
+
+    @Test
+    void tasksScheduledFromATaskRunInTheSameAdvance() {
+        SimulationClock clock = SimulationClock.manual();
+        List<Long> runs = new ArrayList<>();
+        clock.schedule(() -> clock.schedule(() -> runs.add(clock.now()), 0, TimeUnit.MILLISECONDS),
+                20, TimeUnit.MILLISECONDS);
+
+        clock.advance(50);
+
+        assertEquals(List.of(20L), runs);
+    }
+
+    @Test
+    void aFailingTaskKeepsItsSchedule() {
+        SimulationClock clock = SimulationClock.manual();
+        AtomicInteger runs = new AtomicInteger();
+        List<Throwable> reported = new ArrayList<>();
+        Thread current = Thread.currentThread();
+        Thread.UncaughtExceptionHandler previous = current.getUncaughtExceptionHandler();
+        current.setUncaughtExceptionHandler((thread, failure) -> reported.add(failure));
+        try {
+            clock.scheduleAtFixedRate(() -> {
+                runs.incrementAndGet();
+                throw new IllegalStateException("boom");
+            }, 0, 10, TimeUnit.MILLISECONDS);
+            clock.advance(30);
+        } finally {
+            current.setUncaughtExceptionHandler(previous);
+        }
+
+        assertEquals(4, runs.get());
+        assertEquals(4, reported.size());
+    }
+
+    @Test
+    void onlyTheManualClockCanBeAdvanced() {
+        assertThrows(IllegalStateException.class, () -> SimulationClock.realTime().advance(10));
+        assertThrows(IllegalStateException.class, () -> SimulationClock.scaled(10).advance(10));
+        assertThrows(IllegalStateException.class, () -> SimulationClock.asFastAsPossible().advance(10));
+        assertThrows(IllegalArgumentException.class, () -> SimulationClock.scaled(0));
+
+        SimulationClock manual = SimulationClock.manual();
+        manual.start();
+        assertFalse(manual.isRunning());
+    }
+
+    @Test
+    void asFastAsPossibleRunsOnItsOwnThreadWithoutWaiting() throws InterruptedException {
+        SimulationClock clock = SimulationClock.asFastAsPossible();
+        CountDownLatch done = new CountDownLatch(1000);
+        List<String> threads = new ArrayList<>();
+        // Una hora de pasos de 1 s no debe tardar una hora
+        clock.scheduleAtFixedRate(() -> {
+            if (threads.isEmpty()) {
+                threads.add(Thread.currentThread().getName());
+            }
+            done.countDown();
+        }, 0, 1000, TimeUnit.MILLISECONDS);
+
+        clock.start();
+        try {
+            assertTrue(clock.isRunning());
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+        } finally {
+            clock.stop();
+        }
+
+        assertFalse(clock.isRunning());
+        assertEquals(List.of("simulation-clock"), threads);
+        assertTrue(clock.now() >= 999_000, "now=" + clock.now());
+    }
+
+    @Test
+    void scaledClockRunsFasterThanWallTime() throws InterruptedException {
+        SimulationClock clock = SimulationClock.scaled(100);
+        CountDownLatch done = new CountDownLatch(1);
+        clock.schedule(done::countDown, 10_000, TimeUnit.MILLISECONDS);
+
+        long start = System.nanoTime();
+        clock.start();
+        try {
+            // 10 s virtuales a x100 son 100 ms de pared
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+        } finally {
+            clock.stop();
+        }
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5_000);
+        assertEquals(SimulationClock.Mode.SCALED, clock.getMode());
+    }
+}
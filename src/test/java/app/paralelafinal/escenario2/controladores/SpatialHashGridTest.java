@@ -0,0 +1,109 @@
+package app.paralelafinal.escenario2.controladores;
+
+import app.paralelafinal.escenario2.entidades.Vehicle;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpatialHashGridTest {
+
+    private static final double CELL = 80;
+
+    private static Vehicle at(double x, double y) {
+        Vehicle v = new Vehicle("V" + x + "," + y, "normal", "straight", "East1", "East1");
+        v.setPosition(x, y);
+        return v;
+    }
+
+    private static Set<Vehicle> near(SpatialHashGrid grid, double x, double y) {
+        List<Vehicle> out = new ArrayList<>();
+        grid.collectNear(x, y, out);
+        return new HashSet<>(out);
+    }
+
+    @Test
+    void collectNearFindsNeighboursAcrossCellBorders() {
+        SpatialHashGrid grid = new SpatialHashGrid(CELL);
+        // Justo a cada lado de los bordes x = 80 e y = 80, y del origen (celdas negativas)
+        Vehicle left = at(79.9, 10);
+        Vehicle above = at(100, 79.9);
+        Vehicle corner = at(79.9, 79.9);
+        Vehicle negative = at(-0.5, -0.5);
+        for (Vehicle v : List.of(left, above, corner, negative)) {
+            grid.update(v);
+        }
+
+        assertEquals(Set.of(left, above, corner), near(grid, 80.1, 80.1));
+        assertTrue(near(grid, 0.5, 0.5).contains(negative));
+        assertTrue(near(grid, 0.5, 0.5).contains(left));
+
+        List.of(left, above, corner, negative).forEach(Vehicle::release);
+    }
+
+    @Test
+    void collectNearSkipsCellsTwoAway() {
+        SpatialHashGrid grid = new SpatialHashGrid(CELL);
+        Vehicle far = at(2 * CELL + 1, 10);
+        grid.update(far);
+
+        // La celda de x = 0 y la de x = 161 no son vecinas
+        assertTrue(near(grid, 0, 10).isEmpty());
+        assertEquals(Set.of(far), near(grid, CELL + 1, 10));
+
+        far.release();
+    }
+
+    @Test
+    void updateMovesTheVehicleToItsNewCell() {
+        SpatialHashGrid grid = new SpatialHashGrid(CELL);
+        Vehicle v = at(10, 10);
+        grid.update(v);
+
+        v.setPosition(10 + 3 * CELL, 10);
+        grid.update(v);
+
+        assertTrue(near(grid, 10, 10).isEmpty());
+        assertEquals(Set.of(v), near(grid, 10 + 3 * CELL, 10));
+        assertEquals(1, grid.size());
+
+        grid.remove(v);
+        assertEquals(0, grid.size());
+        assertTrue(near(grid, 10 + 3 * CELL, 10).isEmpty());
+        v.release();
+    }
+
+    @Test
+    void isOccupiedUsesTheDistanceAcrossCellBorders() {
+        SpatialHashGrid grid = new SpatialHashGrid(CELL);
+        Vehicle v = at(79, 40);
+        grid.update(v);
+
+        // Al otro lado del borde, a 40 en x: ocupado con 50, libre con 40 (la distancia es estricta)
+        assertTrue(grid.isOccupied(119, 40, 50));
+        assertFalse(grid.isOccupied(119, 40, 40));
+        // Diagonal: 30 y 40 dan 50
+        assertTrue(grid.isOccupied(109, 80, 50.1));
+        assertFalse(grid.isOccupied(109, 80, 50));
+
+        v.release();
+    }
+
+    @Test
+    void releasedVehiclesAreNotIndexed() {
+        SpatialHashGrid grid = new SpatialHashGrid(CELL);
+        Vehicle v = at(10, 10);
+        v.release();
+
+        grid.update(v);
+
+        assertEquals(0, grid.size());
+        assertFalse(grid.isOccupied(10, 10, 1));
+    }
+}
@@ -0,0 +1,162 @@
+package app.paralelafinal.escenario2.controladores;
+
+import app.paralelafinal.comun.VehicleStateStore;
+import app.paralelafinal.comun.WorldSnapshot;
+import app.paralelafinal.escenario2.entidades.Intersection;
+import app.paralelafinal.escenario2.entidades.IntersectionListener;
+import app.paralelafinal.escenario2.entidades.Lane;
+import app.paralelafinal.escenario2.entidades.LaneOffsets;
+import app.paralelafinal.escenario2.entidades.RoadGridTopology;
+import app.paralelafinal.escenario2.entidades.Route;
+import app.paralelafinal.escenario2.entidades.Vehicle;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrafficControllerTest {
+
+    private static final String[] DIRECTIONS = {
+            "straight", "right", "left", "u-turn", "u-turn-second", "left-north-first", "right-south-second"
+    };
+
+    // La red de siempre (East1-3/West1-3) con vehículos en fila en East1 y West1; con
+    // stepParallelism 0 usa el modo ACTORS
+    private static TrafficController build(SimulationClock clock, int stepParallelism, int vehicles) {
+        List<Intersection> west = new ArrayList<>();
+        List<Intersection> east = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            west.add(new Intersection("West" + i));
+            east.add(new Intersection("East" + i));
+        }
+        TrafficController controller = stepParallelism == 0
+                ? new TrafficController(west, east, clock, ExecutionMode.ACTORS)
+                : new TrafficController(west, east, clock, stepParallelism);
+        for (int i = 0; i < vehicles; i++) {
+            boolean fromEast = i % 2 == 0;
+            String origin = fromEast ? "East1" : "West1";
+            Vehicle v = new Vehicle("V" + i, i % 17 == 0 ? "emergency" : "normal",
+                    DIRECTIONS[i % DIRECTIONS.length], origin, origin);
+            v.setPosition(fromEast ? 900 + (i / 2) * 20 : 50 - (i / 2) * 20, 300 + (i % 3) * 20);
+            (fromEast ? east : west).get(0).addVehicleToQueue(v, v.getManeuver().getLane());
+            controller.getSpatialGrid().update(v);
+        }
+        return controller;
+    }
+
+    // Una línea por segundo simulado con cada vehículo y su posición, redondeada a milésimas
+    private static List<String> run(int stepParallelism) {
+        SimulationClock clock = SimulationClock.manual();
+        TrafficController controller = build(clock, stepParallelism, 400);
+        controller.startControl();
+        List<String> frames = new ArrayList<>();
+        try {
+            for (int second = 0; second < 120; second++) {
+                controller.requestSnapshot();
+                clock.advance(1_000);
+                WorldSnapshot frame = controller.getSnapshot();
+                StringBuilder line = new StringBuilder();
+                for (int i = 0; i < frame.size(); i++) {
+                    line.append(frame.getId(i)).append('@')
+                            .append(Math.round(frame.getX(i) * 1000)).append(',')
+                            .append(Math.round(frame.getY(i) * 1000)).append(';');
+                }
+                frames.add(line.toString());
+            }
+        } finally {
+            controller.stopControl();
+        }
+        return frames;
+    }
+
+    @Test
+    void parallelAndActorStepsMatchTheSerialStep() {
+        List<String> serial = run(1);
+        // Los vehículos avanzan, giran y salen de la red en esos dos minutos
+        assertNotEquals(serial.get(0), serial.get(serial.size() - 1));
+
+        List<String> parallel = run(8);
+        List<String> actors = run(0);
+        for (int second = 0; second < serial.size(); second++) {
+            assertEquals(serial.get(second), parallel.get(second), "fork-join, second " + second);
+            assertEquals(serial.get(second), actors.get(second), "actors, second " + second);
+        }
+    }
+
+    @Test
+    void stopControlReleasesEveryVehicleStillInTheNetwork() {
+        VehicleStateStore store = Vehicle.stateStore();
+        int before = store.size();
+        SimulationClock clock = SimulationClock.manual();
+        TrafficController controller = build(clock, 1, 200);
+        assertEquals(before + 200, store.size());
+
+        controller.startControl();
+        clock.advance(5_000);
+        assertTrue(controller.getSpatialGrid().size() > 0);
+        controller.stopControl();
+
+        assertEquals(before, store.size());
+        assertEquals(0, controller.getSpatialGrid().size());
+    }
+
+    @Test
+    void aRoutedVehicleChangesRowsOnTheVerticalRoad() {
+        SimulationClock clock = SimulationClock.manual();
+        TrafficController controller = new TrafficController(RoadGridTopology.grid(3, 2), clock, ExecutionMode.FORK_JOIN);
+        RoadGridTopology topology = controller.getTopology();
+        int origin = topology.idOf("East1-1");
+        int below = topology.south(origin);
+        Route route = controller.getRoutePlanner().route(origin, below);
+        assertEquals(Route.Turn.SOUTH, route.turns()[0]);
+
+        Intersection start = null;
+        Intersection target = null;
+        for (Intersection intersection : controller.getIntersections()) {
+            if (intersection.getNodeId() == origin) {
+                start = intersection;
+            } else if (intersection.getNodeId() == below) {
+                target = intersection;
+            }
+        }
+        List<Vehicle> arrived = new CopyOnWriteArrayList<>();
+        target.addListener(new IntersectionListener() {
+            @Override
+            public void onVehicleEnqueued(Intersection intersection, Vehicle vehicle, Lane lane) {
+                arrived.add(vehicle);
+            }
+
+            @Override
+            public void onVehicleDequeued(Intersection intersection, Vehicle vehicle, Lane lane) {
+            }
+        });
+
+        Vehicle v = new Vehicle("R", "normal", route.firstManeuver(true).getDirection(),
+                topology.name(below), topology.name(origin));
+        v.setRoute(route);
+        v.setPosition(topology.x(origin) + 100, topology.y(origin));
+        start.addVehicleToQueue(v, v.getManeuver().getLane());
+        controller.getSpatialGrid().update(v);
+
+        controller.startControl();
+        try {
+            clock.advance(30_000);
+        } finally {
+            controller.stopControl();
+        }
+
+        // Bajó por la calle vertical de su columna y siguió derecho en la fila de abajo
+        assertEquals(List.of(v), arrived);
+        assertEquals(topology.name(below), v.getInIntersection());
+        assertFalse(v.getManeuver().isSpecialTurn());
+        assertTrue(v.getX() < topology.x(origin));
+        // En el carril central de la fila de abajo (el centro de la calle más su desplazamiento)
+        assertEquals(topology.y(below) + LaneOffsets.DEFAULT.get(true, LaneOffsets.Slot.STRAIGHT), v.getY(), 1e-9);
+    }
+}
@@ -0,0 +1,82 @@
+package app.paralelafinal.escenario2.entidades;
+
+import app.paralelafinal.config.SimulationConfig;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoadGridTopologyTest {
+
+    @Test
+    void gridNeighboursFollowChainsColumnsAndRows() {
+        RoadGridTopology topology = RoadGridTopology.grid(3, 3);
+        assertEquals(18, topology.size());
+
+        // East2-1 es la cabeza de la cadena hacia el oeste de la fila 2, en la columna del este
+        int head = topology.idOf("East2-1");
+        int next = topology.idOf("East2-2");
+        assertTrue(topology.isWestbound(head));
+        assertEquals(next, topology.next(head));
+        assertEquals(topology.idOf("East2-3"), topology.next(next));
+        assertEquals(RoadGridTopology.NONE, topology.next(topology.idOf("East2-3")));
+        assertTrue(topology.x(next) < topology.x(head));
+
+        // La opuesta está en la misma columna; West numera desde el oeste
+        assertEquals(topology.idOf("West2-3"), topology.opposite(head));
+        assertEquals(topology.x(head), topology.x(topology.opposite(head)));
+
+        // Arriba y abajo, el mismo sentido en la misma columna
+        assertEquals(topology.idOf("East1-1"), topology.north(head));
+        assertEquals(topology.idOf("East3-1"), topology.south(head));
+        assertEquals(topology.idOf("West1-2"), topology.north(topology.idOf("West2-2")));
+        assertEquals(RoadGridTopology.NONE, topology.north(topology.idOf("West1-2")));
+        assertEquals(RoadGridTopology.NONE, topology.south(topology.idOf("East3-3")));
+        assertEquals(topology.x(head), topology.x(topology.north(head)));
+        assertTrue(topology.y(topology.north(head)) < topology.y(head));
+    }
+
+    @Test
+    void singleRowKeepsTheOriginalNamesAndHasNoVerticalLinks() {
+        RoadGridTopology topology = RoadGridTopology.grid(3, 1);
+        for (int id = 0; id < topology.size(); id++) {
+            assertEquals(RoadGridTopology.NONE, topology.north(id));
+            assertEquals(RoadGridTopology.NONE, topology.south(id));
+        }
+        assertEquals(topology.idOf("East2"), topology.next(topology.idOf("East1")));
+        assertEquals(SimulationConfig.SCENE_WIDTH, topology.width());
+        assertEquals(SimulationConfig.SCENE_HEIGHT, topology.height());
+    }
+
+    @Test
+    void largeGridsKeepTheMinimumSpacingAndGrowTheScene() {
+        RoadGridTopology topology = RoadGridTopology.grid(50, 50);
+        int first = topology.idOf("West1-1");
+        int second = topology.idOf("West1-2");
+        int below = topology.south(first);
+
+        assertEquals(RoadGridTopology.MIN_GRID_SPACING, topology.x(second) - topology.x(first), 1e-9);
+        assertEquals(RoadGridTopology.MIN_GRID_SPACING, topology.y(below) - topology.y(first), 1e-9);
+        assertEquals(51 * RoadGridTopology.MIN_GRID_SPACING, topology.width(), 1e-9);
+        assertEquals(51 * RoadGridTopology.MIN_GRID_SPACING, topology.height(), 1e-9);
+        // Los vehículos aparecen dentro de la escena agrandada
+        assertEquals(topology.width() - 50, topology.spawnX(topology.idOf("East1-1")), 1e-9);
+    }
+
+    @Test
+    void defaultScenarioFitsTheOriginalScene() {
+        RoadGridTopology topology = RoadGridTopology.defaultScenario();
+        assertEquals(SimulationConfig.SCENE_WIDTH, topology.width(), 1e-9);
+        assertEquals(SimulationConfig.SCENE_HEIGHT, topology.height(), 1e-9);
+        assertEquals(RoadGridTopology.NONE, topology.north(topology.idOf("East1")));
+    }
+
+    @Test
+    void verticalLinksMustKeepTheDirection() {
+        RoadGridTopology.Builder builder = new RoadGridTopology.Builder();
+        int upper = builder.addNode("East1-1", true, 600, 240);
+        int lower = builder.addNode("West2-1", false, 600, 480);
+        assertThrows(IllegalArgumentException.class, () -> builder.vertical(upper, lower));
+    }
+}
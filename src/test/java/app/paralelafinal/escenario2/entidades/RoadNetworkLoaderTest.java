@@ -0,0 +1,125 @@
+package app.paralelafinal.escenario2.entidades;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoadNetworkLoaderTest {
+
+    private static final String NETWORK = """
+            # dos cadenas de dos nodos
+            signal cycle=12000 emergency-delay=2000 emergency-period=5000
+            offsets east left=-120 straight=-170
+            offsets west right=200.5
+            node East1 westbound 826.67 350
+            node East2 westbound 413.33 350
+            node West1 eastbound 413.33 350
+            node West2 eastbound 826.67 350
+            link East1 East2
+            link West1 West2
+            pair East1 West1
+            pair East2 West2
+            """;
+
+    @TempDir
+    Path dir;
+
+    private Path writeNetwork(String text) throws IOException {
+        Path source = dir.resolve("red.txt");
+        Files.writeString(source, text);
+        return source;
+    }
+
+    private static void assertSameNetwork(RoadNetwork expected, RoadNetwork actual) {
+        RoadGridTopology a = expected.topology();
+        RoadGridTopology b = actual.topology();
+        assertEquals(a.size(), b.size());
+        for (int id = 0; id < a.size(); id++) {
+            assertEquals(a.name(id), b.name(id));
+            assertEquals(a.isWestbound(id), b.isWestbound(id));
+            assertEquals(a.x(id), b.x(id));
+            assertEquals(a.y(id), b.y(id));
+            assertEquals(a.next(id), b.next(id));
+            assertEquals(a.opposite(id), b.opposite(id));
+            assertEquals(a.north(id), b.north(id));
+            assertEquals(a.south(id), b.south(id));
+            assertEquals(a.entryX(id), b.entryX(id));
+        }
+        assertArrayEquals(expected.laneOffsets().side(true), actual.laneOffsets().side(true));
+        assertArrayEquals(expected.laneOffsets().side(false), actual.laneOffsets().side(false));
+        assertEquals(expected.signalPlan(), actual.signalPlan());
+    }
+
+    @Test
+    void cachedNetworkMatchesTheParsedText() throws IOException {
+        Path source = writeNetwork(NETWORK);
+        RoadNetwork parsed = RoadNetworkLoader.parse(source);
+
+        RoadNetwork first = RoadNetworkLoader.load(source);
+        assertTrue(Files.exists(RoadNetworkLoader.cachePathOf(source)));
+        RoadNetwork cached = RoadNetworkLoader.load(source);
+
+        assertSameNetwork(parsed, first);
+        assertSameNetwork(parsed, cached);
+        assertEquals(new SignalPlan(12_000, 2_000, 5_000), cached.signalPlan());
+        assertEquals(-120, cached.laneOffsets().get(true, LaneOffsets.Slot.LEFT));
+        assertEquals(200.5, cached.laneOffsets().get(false, LaneOffsets.Slot.RIGHT));
+    }
+
+    @Test
+    void secondLoadReadsTheCacheInsteadOfTheText() throws IOException {
+        Path source = writeNetwork(NETWORK);
+        RoadNetwork original = RoadNetworkLoader.load(source);
+        FileTime modified = Files.getLastModifiedTime(source);
+
+        // Mismo tamaño y fecha: el caché sigue valiendo aunque el texto diga otra cosa
+        Files.writeString(source, NETWORK.replace("East1", "North"));
+        Files.setLastModifiedTime(source, modified);
+
+        assertSameNetwork(original, RoadNetworkLoader.load(source));
+    }
+
+    @Test
+    void verticalLinksSurviveTheCache() throws IOException {
+        Path source = writeNetwork("""
+                node East1-1 westbound 600 240
+                node East2-1 westbound 600 480
+                vertical East1-1 East2-1
+                """);
+        RoadNetworkLoader.load(source);
+        RoadGridTopology cached = RoadNetworkLoader.load(source).topology();
+
+        int upper = cached.idOf("East1-1");
+        int lower = cached.idOf("East2-1");
+        assertEquals(lower, cached.south(upper));
+        assertEquals(upper, cached.north(lower));
+        assertEquals(RoadGridTopology.NONE, cached.north(upper));
+        assertEquals(RoadGridTopology.NONE, cached.south(lower));
+    }
+
+    @Test
+    void corruptNodeCountFallsBackToTheText() throws IOException {
+        Path source = writeNetwork(NETWORK);
+        RoadNetwork parsed = RoadNetworkLoader.load(source);
+
+        // El conteo de nodos va después de la marca y la versión
+        try (FileChannel channel = FileChannel.open(RoadNetworkLoader.cachePathOf(source), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, Integer.MAX_VALUE), 2 * Integer.BYTES);
+        }
+
+        assertSameNetwork(parsed, RoadNetworkLoader.load(source));
+        // Y el caché reescrito vuelve a servir
+        assertSameNetwork(parsed, RoadNetworkLoader.load(source));
+    }
+}
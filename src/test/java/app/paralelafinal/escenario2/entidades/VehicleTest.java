@@ -0,0 +1,60 @@
+package app.paralelafinal.escenario2.entidades;
+
+import app.paralelafinal.comun.VehicleStateStore;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VehicleTest {
+
+    private static Vehicle vehicle(String id) {
+        return new Vehicle(id, "normal", "left", "East1", "East1");
+    }
+
+    @Test
+    void aVehicleTakesASlotOnlyWhenItEntersTheSimulation() {
+        VehicleStateStore store = Vehicle.stateStore();
+        int before = store.size();
+
+        Vehicle dropped = vehicle("dropped");
+        assertFalse(dropped.hasSlot());
+        assertEquals(0.0, dropped.getX());
+        assertEquals(before, store.size());
+
+        Vehicle placed = vehicle("placed");
+        placed.setPosition(120, 340);
+        assertTrue(placed.hasSlot());
+        assertEquals(before + 1, store.size());
+        assertEquals(120.0, placed.getX());
+
+        placed.release();
+        dropped.release();
+        assertEquals(before, store.size());
+    }
+
+    @Test
+    void releaseKeepsTheLastPositionAndIsIdempotent() {
+        VehicleStateStore store = Vehicle.stateStore();
+        int before = store.size();
+        Vehicle v = vehicle("v");
+        v.setPosition(10, 20);
+        v.translate(5, 0);
+
+        v.release();
+        v.release();
+
+        assertTrue(v.isReleased());
+        assertFalse(v.hasSlot());
+        assertEquals(15.0, v.getX());
+        assertEquals(20.0, v.getY());
+        assertEquals(before, store.size());
+
+        // Un vehículo liberado no vuelve a reservar slot
+        v.setPosition(0, 0);
+        assertFalse(v.hasSlot());
+        assertEquals(15.0, v.getX());
+        assertEquals(before, store.size());
+    }
+}
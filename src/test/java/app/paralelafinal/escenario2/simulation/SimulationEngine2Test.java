@@ -0,0 +1,85 @@
+package app.paralelafinal.escenario2.simulation;
+
+import app.paralelafinal.comun.SpawnRequest;
+import app.paralelafinal.escenario2.controladores.SimulationClock;
+import app.paralelafinal.escenario2.controladores.TrafficController;
+import app.paralelafinal.escenario2.entidades.Intersection;
+import app.paralelafinal.escenario2.entidades.Lane;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SimulationEngine2Test {
+
+    private static int queued(SimulationEngine2 engine) {
+        int count = 0;
+        for (Intersection intersection : engine.getIntersections()) {
+            for (Lane lane : Lane.values()) {
+                count += intersection.getQueue(lane).size();
+            }
+        }
+        return count;
+    }
+
+    private static int queuedAt(SimulationEngine2 engine, String id) {
+        for (Intersection intersection : engine.getIntersections()) {
+            if (intersection.getId().equals(id)) {
+                int count = 0;
+                for (Lane lane : Lane.values()) {
+                    count += intersection.getQueue(lane).size();
+                }
+                return count;
+            }
+        }
+        throw new IllegalArgumentException(id);
+    }
+
+    @Test
+    void addVehicleWaitsInTheInboxUntilTheNextStep() {
+        SimulationClock clock = SimulationClock.manual();
+        SimulationEngine2 engine = new SimulationEngine2(clock);
+        TrafficController controller = engine.getTrafficController();
+        controller.startControl();
+        try {
+            engine.addVehicle("normal", "straight", "East1");
+            engine.addVehicleToGoal("normal", "West1", "West3");
+            assertEquals(0, queued(engine));
+
+            clock.advance(TrafficController.STEP_PERIOD_MS);
+            assertEquals(1, queuedAt(engine, "East1"));
+            assertEquals(1, queuedAt(engine, "West1"));
+        } finally {
+            controller.stopControl();
+        }
+    }
+
+    @Test
+    void submittedBatchesAreSpawnedTogetherSkippingUnknownIntersections() {
+        SimulationClock clock = SimulationClock.manual();
+        SimulationEngine2 engine = new SimulationEngine2(clock);
+        TrafficController controller = engine.getTrafficController();
+        controller.startControl();
+        try {
+            engine.submitVehicles(List.of(
+                    new SpawnRequest("normal", "straight", "East1"),
+                    new SpawnRequest("normal", "left", "East1"),
+                    new SpawnRequest("emergency", "right", "West1"),
+                    new SpawnRequest("normal", "straight", "North9")));
+            engine.addVehicle("normal", "straight", "Nowhere");
+            assertEquals(0, queued(engine));
+
+            clock.advance(TrafficController.STEP_PERIOD_MS);
+            assertEquals(2, queuedAt(engine, "East1"));
+            assertEquals(1, queuedAt(engine, "West1"));
+            assertEquals(3, queued(engine));
+
+            // El buzón quedó vacío: los pasos siguientes no generan nada más
+            clock.advance(TrafficController.STEP_PERIOD_MS);
+            assertEquals(3, queued(engine));
+        } finally {
+            controller.stopControl();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package app.paralelafinal.metricas;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class InstrumentedLockTest {
+
+    @Test
+    void uncontendedAcquisitionsAreCountedWithoutWaits() {
+        InstrumentedLock lock = new InstrumentedLock("East1");
+        for (int i = 0; i < 3; i++) {
+            lock.lock();
+            lock.unlock();
+        }
+
+        assertEquals(3, lock.getAcquisitions());
+        assertEquals(0, lock.getContendedAcquisitions());
+        assertEquals(0, lock.getWaitTimes().getCount());
+        assertEquals(0.0, lock.getContentionRate());
+    }
+
+    @Test
+    void serializationKeepsTheCountersAndStartsAnEmptyHistogram() throws IOException, ClassNotFoundException {
+        InstrumentedLock lock = new InstrumentedLock("East1");
+        lock.lock();
+        lock.unlock();
+        lock.getWaitTimes().record(1_000);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(lock);
+        }
+        InstrumentedLock copy;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (InstrumentedLock) in.readObject();
+        }
+
+        assertEquals("East1", copy.getName());
+        assertEquals(1, copy.getAcquisitions());
+        assertEquals(0, copy.getWaitTimes().getCount());
+        assertEquals("East1 wait", copy.getWaitTimes().getName());
+        // Se serializa sin tomar: la copia arranca libre y se puede seguir usando
+        assertFalse(copy.isLocked());
+        copy.lock();
+        copy.unlock();
+        assertEquals(2, copy.getAcquisitions());
+    }
+}
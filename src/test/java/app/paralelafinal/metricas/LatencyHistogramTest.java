@@ -0,0 +1,80 @@
+package app.paralelafinal.metricas;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    @Test
+    void smallValuesHaveExactBuckets() {
+        for (long value = 0; value < 8; value++) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertEquals(value, bucket);
+            assertEquals(value, LatencyHistogram.upperBound(bucket));
+        }
+    }
+
+    @Test
+    void everyValueFallsBelowItsBucketUpperBound() {
+        long[] values = {8, 9, 15, 16, 17, 100, 1_000, 123_456, 1_000_000_007L, Long.MAX_VALUE / 3, Long.MAX_VALUE};
+        for (long value : values) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            long upper = LatencyHistogram.upperBound(bucket);
+            assertTrue(value <= upper, value + " above " + upper);
+            // Error relativo de la cubeta menor a 1/8
+            assertTrue(upper - value < value / 8 + 1, value + " too far from " + upper);
+            if (bucket > 0) {
+                assertTrue(value > LatencyHistogram.upperBound(bucket - 1), value + " belongs to a lower bucket");
+            }
+        }
+    }
+
+    @Test
+    void bucketsAreContiguousAndIncreasing() {
+        for (int bucket = 1; bucket < 200; bucket++) {
+            long previousUpper = LatencyHistogram.upperBound(bucket - 1);
+            assertEquals(bucket, LatencyHistogram.bucketOf(previousUpper + 1));
+            assertTrue(LatencyHistogram.upperBound(bucket) > previousUpper);
+        }
+    }
+
+    @Test
+    void percentilesComeFromTheRecordedBuckets() {
+        LatencyHistogram histogram = new LatencyHistogram("test");
+        for (long i = 1; i <= 100; i++) {
+            histogram.record(i * 1_000);
+        }
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(100_000, histogram.getMaxNanos());
+        assertEquals(50_500.0, histogram.getMeanNanos(), 1e-9);
+        long p50 = histogram.getPercentileNanos(50);
+        assertTrue(p50 >= 50_000 && p50 < 50_000 * 9 / 8, "p50=" + p50);
+        // El percentil nunca pasa del máximo registrado
+        assertEquals(100_000, histogram.getPercentileNanos(100));
+    }
+
+    @Test
+    void negativeSamplesCountAsZeroAndResetClears() {
+        LatencyHistogram histogram = new LatencyHistogram("test");
+        histogram.record(-5);
+
+        assertEquals(1, histogram.getCount());
+        assertEquals(0, histogram.getPercentileNanos(99));
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMaxNanos());
+        assertEquals(0, histogram.getPercentileNanos(50));
+    }
+
+    @Test
+    void rejectsPercentilesOutOfRange() {
+        LatencyHistogram histogram = new LatencyHistogram("test");
+        assertThrows(IllegalArgumentException.class, () -> histogram.getPercentileNanos(-1));
+        assertThrows(IllegalArgumentException.class, () -> histogram.getPercentileNanos(101));
+    }
+}